@@ -27,8 +27,8 @@ sleep 5
 
 # 헬스체크 대기
 echo "⏳ 애플리케이션이 시작될 때까지 대기합니다..."
-for i in {1..30}; do
-    if curl -f http://localhost:8080/actuator/health >/dev/null 2>&1; then
+for i in {1..60}; do
+    if curl -f http://localhost:8080/actuator/health/readiness >/dev/null 2>&1; then
         echo "✅ 애플리케이션이 정상적으로 시작되었습니다!"
         echo ""
         echo "🌐 접속 정보:"
@@ -43,11 +43,11 @@ for i in {1..30}; do
         echo "   - 데이터베이스 접속: psql -h localhost -U mydb -d mydatabase"
         break
     fi
-    echo "⏳ 애플리케이션 시작 대기 중... ($i/30)"
+    echo "⏳ 애플리케이션 시작 대기 중... ($i/60)"
     sleep 2
 done
 
-if [ $i -eq 30 ]; then
+if [ $i -eq 60 ]; then
     echo "❌ 애플리케이션 시작에 실패했습니다. 로그를 확인해주세요:"
     echo "   docker-compose logs spring-boot-app"
 fi
\ No newline at end of file
@@ -1,8 +0,0 @@
--- 공통코드 관리를 위한 초기 데이터 삽입
--- 이 스크립트는 Docker 컨테이너 초기화 시 자동으로 실행됩니다.
-
--- 데이터베이스 설정
-SET timezone = 'Asia/Seoul';
-
--- 기본 관리자 사용자 생성을 위한 준비
--- (애플리케이션에서 자동으로 테이블이 생성된 후 별도로 데이터 삽입 예정)
\ No newline at end of file
@@ -1,15 +1,30 @@
 package net.devgrr.springbootinit;
 
+import net.devgrr.springbootinit.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The reactive read API sets up its own R2DBC pool, see ReactiveApiConfig
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 @EnableJpaAuditing
+@EnableScheduling
+@ImportRuntimeHints(NativeHints.class)
 public class SpringBootInitApplication {
 
+    // Enough for every bean of a full startup; later steps, such as the warmers, are dropped once full
+    static final int STARTUP_STEP_CAPACITY = 8192;
+
     public static void main(String[] args) {
-        SpringApplication.run(SpringBootInitApplication.class, args);
+        SpringApplication application = new SpringApplication(SpringBootInitApplication.class);
+        // Startup timeline, served by /actuator/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
 
 }
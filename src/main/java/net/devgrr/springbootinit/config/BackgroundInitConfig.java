@@ -0,0 +1,53 @@
+package net.devgrr.springbootinit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Opt-in startup mode that takes the expensive initialization off the main thread:
+ * <ul>
+ *     <li>The JPA entity manager factory, with its metamodel and second-level cache, is built in the
+ *     background while the rest of the context starts. Repositories are bootstrapped {@code deferred}
+ *     (see {@link BackgroundInitEnvironmentPostProcessor}), so they only wait for it at the end of the
+ *     refresh. Spring Boot's own customizer for that mode hands the build to the application task
+ *     executor.</li>
+ *     <li>springdoc's beans are created on the first documentation request instead of at startup.</li>
+ *     <li>The {@link net.devgrr.springbootinit.service.StartupWarmer}s run in parallel on the bootstrap
+ *     executor.</li>
+ * </ul>
+ * The context still waits for all of it before it reports ready: deferred repositories block on the
+ * entity manager factory, and the warmers are joined before the ready event returns.
+ */
+@Configuration
+@ConditionalOnProperty(name = "startup.background-init.enabled", havingValue = "true")
+public class BackgroundInitConfig {
+
+    @Value("${startup.background-init.threads:4}")
+    private int threads;
+
+    @Bean(name = ConfigurableApplicationContext.BOOTSTRAP_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor bootstrapExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("bootstrap-");
+        return executor;
+    }
+
+    @Bean
+    public static LazyInitializationBeanFactoryPostProcessor lazyInitialization() {
+        return new LazyInitializationBeanFactoryPostProcessor();
+    }
+
+    // Everything but springdoc stays eager; its controllers are looked up by bean name on the first request
+    @Bean
+    public static LazyInitializationExcludeFilter eagerExceptSpringdoc() {
+        return (beanName, beanDefinition, beanType) -> beanType == null || !beanType.getName().startsWith("org.springdoc.");
+    }
+}
@@ -0,0 +1,27 @@
+package net.devgrr.springbootinit.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Switches JPA repositories to {@code deferred} bootstrapping when background initialization is
+ * enabled, as the repository configuration is read before any {@link BackgroundInitConfig} bean
+ * exists. In that mode Spring Boot builds the entity manager factory on its application task executor,
+ * which it only creates alongside the application's own executors when forced to. Added last, so
+ * explicit settings still win.
+ */
+public class BackgroundInitEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (environment.getProperty("startup.background-init.enabled", Boolean.class, false)) {
+            environment.getPropertySources().addLast(new MapPropertySource("backgroundInit",
+                    Map.of("spring.data.jpa.repositories.bootstrap-mode", "deferred",
+                            "spring.task.execution.mode", "force")));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package net.devgrr.springbootinit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImportConfig {
+
+    @Value("${product.import.workers:1}")
+    private int workers;
+
+    @Value("${product.import.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public ThreadPoolTaskExecutor productImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-import-");
+        // Still bounded by the worker count and queue; only the threads themselves become virtual
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("product-import-", 1).factory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
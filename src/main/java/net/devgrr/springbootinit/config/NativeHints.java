@@ -0,0 +1,62 @@
+package net.devgrr.springbootinit.config;
+
+import net.devgrr.springbootinit.dto.CommonCodeCreateRequest;
+import net.devgrr.springbootinit.dto.CommonCodeDto;
+import net.devgrr.springbootinit.dto.ProductCreateRequest;
+import net.devgrr.springbootinit.dto.ProductDto;
+import net.devgrr.springbootinit.exception.ErrorResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for a native image that Spring AOT cannot infer. Entities,
+ * repositories, controller request and response types, Spring Security and springdoc are covered by
+ * AOT processing and the libraries' own hints, and Lombok leaves nothing to reflect on. What remains is
+ * what gets looked up by name at runtime: jjwt's implementation classes, which sit behind its API jar,
+ * types Jackson only meets through {@code ObjectMapper} calls or as the runtime class of a declared
+ * {@code Page}, and configuration files that no annotation points to.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    // Loaded by Jwts, Keys and the serializer lookup
+    private static final List<String> JJWT_CLASSES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String className : JJWT_CLASSES) {
+            hints.reflection().registerType(TypeReference.of(className),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        // Serialized or parsed outside controller signatures: the rejection body, bundle and import rows,
+        // the reactive product stream, and PageImpl behind every Page response
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                ErrorResponse.class, CommonCodeDto.class, CommonCodeCreateRequest.class,
+                ProductCreateRequest.class, ProductDto.class,
+                PageImpl.class, PageRequest.class, Sort.class, Sort.Order.class);
+
+        hints.resources().registerPattern("ehcache.xml");
+        hints.resources().registerPattern("META-INF/openapi/openapi.json");
+        hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+    }
+}
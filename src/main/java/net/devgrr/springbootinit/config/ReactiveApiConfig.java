@@ -0,0 +1,95 @@
+package net.devgrr.springbootinit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import net.devgrr.springbootinit.controller.ReactiveProductHandler;
+import net.devgrr.springbootinit.repository.ReactiveProductRepository;
+import net.devgrr.springbootinit.service.CategoryHierarchyCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import java.time.Duration;
+
+/**
+ * Serves the product read endpoints a second time from a WebFlux stack on its own port, with R2DBC
+ * underneath, for fan-out traffic that would otherwise hold a servlet thread per open request. The
+ * servlet application is unchanged: Boot's own R2DBC auto-configuration is excluded on the
+ * application class, so the reactive connection pool only exists when this is enabled and does not
+ * compete with JPA for the default transaction manager. The port has no security filter chain; like
+ * their servlet counterparts, these reads are public.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive-api.enabled", havingValue = "true")
+public class ReactiveApiConfig {
+
+    @Value("${reactive-api.port:8081}")
+    private int port;
+
+    @Value("${reactive-api.fetch-size:256}")
+    private int fetchSize;
+
+    @Value("${reactive-api.r2dbc.url}")
+    private String url;
+
+    @Value("${reactive-api.r2dbc.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${reactive-api.r2dbc.password:${spring.datasource.password}}")
+    private String password;
+
+    @Value("${reactive-api.r2dbc.initial-size:2}")
+    private int initialSize;
+
+    @Value("${reactive-api.r2dbc.max-size:20}")
+    private int maxSize;
+
+    @Value("${reactive-api.r2dbc.max-acquire-time-ms:2000}")
+    private long maxAcquireTimeMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionFactory() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-api")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                // Requests queue here rather than in the servlet pool; fail them fast like ConcurrencyLimitFilter
+                .maxAcquireTime(Duration.ofMillis(maxAcquireTimeMs))
+                .build());
+    }
+
+    @Bean
+    public ReactiveProductRepository reactiveProductRepository(ConnectionPool reactiveConnectionFactory) {
+        return new ReactiveProductRepository(DatabaseClient.create(reactiveConnectionFactory), fetchSize);
+    }
+
+    @Bean
+    public ReactiveApiServer reactiveApiServer(ReactiveProductRepository reactiveProductRepository,
+                                               CategoryHierarchyCache categoryHierarchyCache,
+                                               ObjectMapper objectMapper) {
+        ReactiveProductHandler handler = new ReactiveProductHandler(reactiveProductRepository, categoryHierarchyCache);
+        // Same serialization as the servlet endpoints, dates included
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveApiServer(new NettyReactiveWebServerFactory(port),
+                RouterFunctions.toHttpHandler(handler.routes(), strategies));
+    }
+}
@@ -0,0 +1,53 @@
+package net.devgrr.springbootinit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+
+/**
+ * Runs a Reactor Netty server for an {@link HttpHandler} on its own port next to the servlet
+ * container, started and stopped with the application context.
+ */
+@Slf4j
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private final NettyReactiveWebServerFactory factory;
+    private final HttpHandler httpHandler;
+
+    private WebServer webServer;
+
+    public ReactiveApiServer(NettyReactiveWebServerFactory factory, HttpHandler httpHandler) {
+        this.factory = factory;
+        this.httpHandler = httpHandler;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (webServer != null) {
+            return;
+        }
+        webServer = factory.getWebServer(httpHandler);
+        webServer.start();
+        log.info("Reactive product API listening on port {}", webServer.getPort());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (webServer == null) {
+            return;
+        }
+        webServer.stop();
+        webServer = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return webServer != null;
+    }
+
+    public synchronized int getPort() {
+        return webServer != null ? webServer.getPort() : -1;
+    }
+}
@@ -0,0 +1,31 @@
+package net.devgrr.springbootinit.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps read-only transactions from putting entities or query results into the second-level cache, as
+ * their connection may come from a replica that has not yet replayed the latest writes: a stale row
+ * cached there would be served to every node's readers until it is evicted. They still read from the
+ * cache, which is kept current by read-write transactions against the primary and filled by them.
+ * Read-only transactions that end up on the primary are treated the same, since which database serves
+ * them is only decided on their first statement. The cache mode is not reset, as the session ends with
+ * the transaction while {@code spring.jpa.open-in-view} is off.
+ */
+public class ReadOnlyCacheModeTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (definition.isReadOnly()) {
+            EntityManagerFactory entityManagerFactory = obtainEntityManagerFactory();
+            EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+            holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.devgrr.springbootinit.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently, so their read-only transactions can stay on the primary until
+ * replicas have caught up with their own changes. Users are identified by the authenticated name of
+ * the current thread; work without an authenticated user is never pinned. Writes are only known to
+ * the node that served them.
+ */
+public class ReadYourWritesTracker {
+
+    private final long windowMillis;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void recordWrite() {
+        String user = currentUser();
+        if (user != null) {
+            lastWrites.put(user, System.currentTimeMillis());
+        }
+    }
+
+    public boolean isRecentWriter() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(user);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - writtenAt < windowMillis) {
+            return true;
+        }
+        lastWrites.remove(user, writtenAt);
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${replica.read-your-writes-window-ms:5000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        lastWrites.values().removeIf(writtenAt -> writtenAt <= cutoff);
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,115 @@
+package net.devgrr.springbootinit.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import net.devgrr.springbootinit.filter.ReadYourWritesInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to replicas and everything else to the primary. The application
+ * data source is a {@link LazyConnectionDataSourceProxy} that fetches its connection on first use, by
+ * which time the transaction manager has marked it read-only or not, and takes read-only ones from
+ * {@link ReplicaRoutingDataSource}. Connections are held for the whole session, so this relies on
+ * {@code spring.jpa.open-in-view} being off: a request-scoped session would carry a replica connection
+ * into later read-write transactions. Read-only transactions only read from the second-level cache,
+ * see {@link ReadOnlyCacheModeTransactionManager}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replica.enabled", havingValue = "true")
+public class ReplicaConfig implements WebMvcConfigurer {
+
+    @Value("${replica.urls}")
+    private String[] urls;
+
+    @Value("${replica.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${replica.password:${spring.datasource.password}}")
+    private String password;
+
+    @Value("${replica.selection:ROUND_ROBIN}")
+    private ReplicaRoutingDataSource.Selection selection;
+
+    @Value("${replica.pool-size:10}")
+    private int poolSize;
+
+    @Value("${replica.connection-timeout-ms:2000}")
+    private long connectionTimeoutMs;
+
+    @Value("${replica.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${replica.read-your-writes-window-ms:5000}")
+    private long readYourWritesWindowMs;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(readYourWritesWindowMs);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReadYourWritesTracker readYourWritesTracker) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            if (urls[i].isBlank()) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(urls[i].trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeoutMs);
+            config.setReadOnly(true);
+            // A replica that is down at startup should not keep the application from starting
+            config.setInitializationFailTimeout(-1);
+            pools.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, pools, selection, maxLagMs, readYourWritesTracker);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    // Replaces Boot's JPA transaction manager, so its customizers are applied the same way
+    @Bean
+    public JpaTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new ReadOnlyCacheModeTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesTracker()));
+    }
+}
@@ -0,0 +1,194 @@
+package net.devgrr.springbootinit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions, used as the read-only variant of the
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} set up by
+ * {@link ReplicaConfig}. Each connection comes from a replica that passed its last health check,
+ * picked round-robin or by fewest busy connections, or from the primary when no replica is usable or
+ * the current user is inside their read-your-writes window. A replica whose pool fails to hand out a
+ * connection is taken out of rotation until a later check passes.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_current_wal_lsn()";
+
+    // A replica that has replayed up to the primary's current position is current, however old its last
+    // replayed transaction, since replay timestamps stop moving while the primary is idle. Without the
+    // primary's position it is compared with what it has received, which is only meaningful while its
+    // WAL receiver is streaming. The receiver's status reads as NULL without pg_read_all_stats, in which
+    // case only a missing receiver counts as disconnected.
+    private static final String REPLICA_STATE_SQL = "SELECT " +
+            "pg_is_in_recovery() AND NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver " +
+            "WHERE COALESCE(status, 'streaming') = 'streaming') AS disconnected, " +
+            "CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_replay_lsn() >= COALESCE(CAST(? AS pg_lsn), pg_last_wal_receive_lsn()) THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END AS lag_millis";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long maxLagMillis;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools, Selection selection,
+                                    long maxLagMillis, ReadYourWritesTracker readYourWritesTracker) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.maxLagMillis = maxLagMillis;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readYourWritesTracker.isRecentWriter()) {
+            return primary.getConnection();
+        }
+        Replica replica = choose();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.pool.getConnection();
+        } catch (SQLException e) {
+            replica.markDown(e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    /**
+     * Puts replicas that answer, are streaming WAL and are at most the allowed lag behind into
+     * rotation, and takes the others out.
+     */
+    @Scheduled(fixedDelayString = "${replica.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        String primaryLsn = currentPrimaryLsn();
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(REPLICA_STATE_SQL)) {
+                statement.setQueryTimeout(Math.max(1, (int) (replica.pool.getConnectionTimeout() / 1000)));
+                statement.setString(1, primaryLsn);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    if (resultSet.getBoolean("disconnected")) {
+                        replica.markDown("WAL receiver is not streaming");
+                        continue;
+                    }
+                    long lagMillis = resultSet.getLong("lag_millis");
+                    if (resultSet.wasNull()) {
+                        replica.markDown("behind the primary with no replayed transaction to measure lag from");
+                    } else if (lagMillis > maxLagMillis) {
+                        replica.markDown("lagging " + lagMillis + " ms behind the primary");
+                    } else {
+                        replica.markUp();
+                    }
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    // Null when the primary cannot be reached, leaving each replica to be judged on its own position
+    private String currentPrimaryLsn() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRIMARY_LSN_SQL)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        } catch (SQLException e) {
+            log.warn("Could not read the primary's WAL position: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Replica choose() {
+        if (selection == Selection.LEAST_LOADED) {
+            Replica best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                if (replica.healthy && replica.load() < bestLoad) {
+                    best = replica;
+                    bestLoad = replica.load();
+                }
+            }
+            return best;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        // Out of rotation until the first health check passes
+        private volatile boolean healthy;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        int load() {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            return bean != null ? bean.getActiveConnections() + bean.getThreadsAwaitingConnection() : 0;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Replica {} is back in rotation", pool.getPoolName());
+            }
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Replica {} taken out of rotation: {}", pool.getPoolName(), reason);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package net.devgrr.springbootinit.config;
+
+import net.devgrr.springbootinit.util.TimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Configuration
+public class ReservationConfig {
+
+    @Value("${reservation.wheel.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${reservation.wheel.size:1024}")
+    private int wheelSize;
+
+    @Bean
+    public TimingWheel<UUID> reservationTimingWheel() {
+        return new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+}
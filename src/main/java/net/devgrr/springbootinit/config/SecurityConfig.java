@@ -2,6 +2,9 @@ package net.devgrr.springbootinit.config;
 
 import lombok.RequiredArgsConstructor;
 import net.devgrr.springbootinit.filter.JwtAuthenticationFilter;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.startup.StartupEndpoint;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -34,14 +37,29 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    // The filter runs inside the security chain, so tokens are read before requests are authorized;
+    // registered as a plain servlet filter as well, it would run again after the chain
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // The startup timeline lists every bean and its timing, and POST clears it
+                .requestMatchers(EndpointRequest.to(StartupEndpoint.class)).hasRole("ADMIN")
                 .anyRequest().permitAll()
-            );
+            )
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint((request, response, e) -> response.sendError(HttpServletResponse.SC_UNAUTHORIZED))
+            )
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -9,6 +9,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import net.devgrr.springbootinit.dto.CategoryCreateRequest;
 import net.devgrr.springbootinit.dto.CategoryDto;
+import net.devgrr.springbootinit.dto.CategoryProductCountDto;
+import net.devgrr.springbootinit.dto.CategorySubtreeResult;
 import net.devgrr.springbootinit.service.CategoryService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -52,6 +54,14 @@ public class CategoryController {
         return ResponseEntity.ok(categories);
     }
 
+    @GetMapping("/product-counts")
+    @Operation(summary = "Get category product counts",
+            description = "Retrieve the number of active products in each active category, directly and including descendants")
+    public ResponseEntity<List<CategoryProductCountDto>> getProductCounts() {
+        List<CategoryProductCountDto> counts = categoryService.getProductCounts();
+        return ResponseEntity.ok(counts);
+    }
+
     @GetMapping("/{id}/subcategories")
     @Operation(summary = "Get subcategories", description = "Retrieve subcategories of a parent category")
     public ResponseEntity<List<CategoryDto>> getSubCategories(@PathVariable Long id) {
@@ -59,6 +69,28 @@ public class CategoryController {
         return ResponseEntity.ok(categories);
     }
 
+    @GetMapping("/{id}/tree")
+    @Operation(summary = "Get category tree", description = "Retrieve a category with all of its active descendants nested as children")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Category tree retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    public ResponseEntity<CategoryDto> getCategoryTree(@PathVariable Long id) {
+        CategoryDto tree = categoryService.getCategoryTree(id);
+        return ResponseEntity.ok(tree);
+    }
+
+    @GetMapping("/{id}/breadcrumb")
+    @Operation(summary = "Get category breadcrumb", description = "Retrieve the path from the root category down to this category")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Breadcrumb retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    public ResponseEntity<List<CategoryDto>> getBreadcrumb(@PathVariable Long id) {
+        List<CategoryDto> breadcrumb = categoryService.getBreadcrumb(id);
+        return ResponseEntity.ok(breadcrumb);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get category by ID", description = "Retrieve a specific category by ID")
     @ApiResponses(value = {
@@ -116,4 +148,52 @@ public class CategoryController {
         categoryService.deleteCategory(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    @PostMapping("/{id}/deactivate")
+    @Operation(summary = "Deactivate category subtree",
+            description = "Deactivate a category with all of its descendants, optionally discontinuing their products (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Subtree deactivated, or affected counts reported for a dry run"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CategorySubtreeResult> deactivateSubtree(
+            @PathVariable Long id,
+            @Parameter(description = "Also discontinue every product in the subtree") @RequestParam(defaultValue = "false") boolean discontinueProducts,
+            @Parameter(description = "Only report affected counts") @RequestParam(defaultValue = "false") boolean dryRun) {
+        CategorySubtreeResult result = categoryService.deactivateSubtree(id, discontinueProducts, dryRun);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/{id}/reactivate")
+    @Operation(summary = "Reactivate category subtree", description = "Reactivate a category with all of its descendants (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Subtree reactivated, or affected counts reported for a dry run"),
+            @ApiResponse(responseCode = "404", description = "Category not found"),
+            @ApiResponse(responseCode = "400", description = "Parent category is inactive")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CategorySubtreeResult> reactivateSubtree(
+            @PathVariable Long id,
+            @Parameter(description = "Only report affected counts") @RequestParam(defaultValue = "false") boolean dryRun) {
+        CategorySubtreeResult result = categoryService.reactivateSubtree(id, dryRun);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/{id}/move")
+    @Operation(summary = "Move category subtree",
+            description = "Move a category with all of its descendants under another category, or to the root level when no parent is given (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Subtree moved, or affected counts reported for a dry run"),
+            @ApiResponse(responseCode = "404", description = "Category or parent category not found"),
+            @ApiResponse(responseCode = "400", description = "Move would create a cycle or a duplicate name")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CategorySubtreeResult> moveSubtree(
+            @PathVariable Long id,
+            @Parameter(description = "New parent category ID, omit to move to the root level") @RequestParam(required = false) Long parentId,
+            @Parameter(description = "Only report affected counts") @RequestParam(defaultValue = "false") boolean dryRun) {
+        CategorySubtreeResult result = categoryService.moveSubtree(id, parentId, dryRun);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -9,15 +9,31 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import net.devgrr.springbootinit.dto.CommonCodeCreateRequest;
 import net.devgrr.springbootinit.dto.CommonCodeDto;
+import net.devgrr.springbootinit.dto.CommonCodeImportResult;
+import net.devgrr.springbootinit.dto.CommonCodeRegistryVersionDto;
+import net.devgrr.springbootinit.dto.CommonCodeReorderRequest;
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
 import net.devgrr.springbootinit.dto.CommonCodeUpdateRequest;
+import net.devgrr.springbootinit.service.CommonCodeBulkService;
+import net.devgrr.springbootinit.service.CommonCodeBundle;
+import net.devgrr.springbootinit.service.CommonCodeBundleService;
 import net.devgrr.springbootinit.service.CommonCodeService;
+import net.devgrr.springbootinit.util.HttpHeaderUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -28,6 +44,11 @@ import java.util.List;
 public class CommonCodeController {
 
     private final CommonCodeService commonCodeService;
+    private final CommonCodeBundleService commonCodeBundleService;
+    private final CommonCodeBulkService commonCodeBulkService;
+
+    @Value("${common-code.bundle.max-age-seconds:31536000}")
+    private long bundleMaxAgeSeconds;
 
     @GetMapping
     @Operation(summary = "Get all codes", description = "Retrieve all common codes")
@@ -53,6 +74,63 @@ public class CommonCodeController {
         return ResponseEntity.ok(codes);
     }
 
+    @GetMapping("/bundle")
+    @Operation(summary = "Get codes for several groups",
+            description = "Retrieve the active codes of several groups in one response. Pass the registry version as v to get a response that may be cached for a long time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bundle retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Bundle unchanged since the ETag sent in If-None-Match")
+    })
+    public ResponseEntity<byte[]> getBundle(
+            @Parameter(description = "Comma-separated group codes") @RequestParam List<String> groups,
+            @Parameter(description = "Registry version the client expects") @RequestParam(name = "v", required = false) Long version,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CommonCodeBundle bundle = commonCodeBundleService.getBundle(groups);
+        boolean gzip = HttpHeaderUtils.acceptsEncoding(acceptEncoding, "gzip");
+        // A URL pinned to the current version never changes, anything else revalidates every time
+        CacheControl cacheControl = version != null && version == bundle.getVersion()
+                ? CacheControl.maxAge(Duration.ofSeconds(bundleMaxAgeSeconds)).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(bundle.getVersion() + (gzip ? "-gzip" : ""))
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(bundle.getGzip());
+        }
+        return response.body(bundle.getJson());
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export codes",
+            description = "Stream all codes of the given groups, or of every group, as CSV or a JSON array in the import format")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Codes streamed successfully")
+    })
+    public ResponseEntity<StreamingResponseBody> exportCodes(
+            @Parameter(description = "csv or json") @RequestParam(defaultValue = "json") String format,
+            @Parameter(description = "Comma-separated group codes, all groups when omitted") @RequestParam(required = false) List<String> groups) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"json".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        StreamingResponseBody body = out -> commonCodeBulkService.exportCodes(out, csv, groups);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"common-codes." + (csv ? "csv" : "json") + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/version")
+    @Operation(summary = "Get registry version",
+            description = "Retrieve the version of the common code data this instance serves; it increases with every committed change")
+    public ResponseEntity<CommonCodeRegistryVersionDto> getRegistryVersion() {
+        CommonCodeRegistryVersionDto version = commonCodeService.getRegistryVersion();
+        return ResponseEntity.ok(version);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get code by ID", description = "Retrieve a specific common code by ID")
     @ApiResponses(value = {
@@ -78,19 +156,23 @@ public class CommonCodeController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search codes", description = "Search common codes by keyword")
+    @Operation(summary = "Search codes", description = "Search common codes by keyword in name, value or description, ordered by sort order")
     public ResponseEntity<List<CommonCodeDto>> searchCodes(
-            @Parameter(description = "Search keyword") @RequestParam String keyword) {
-        List<CommonCodeDto> codes = commonCodeService.searchCodes(keyword);
+            @Parameter(description = "Search keyword") @RequestParam String keyword,
+            @Parameter(description = "CONTAINS matches any part of the text, including half-typed Hangul; CHOSEONG matches initial consonants such as ㄱㅌㅋㄷ")
+            @RequestParam(defaultValue = "CONTAINS") CommonCodeSearchMode mode) {
+        List<CommonCodeDto> codes = commonCodeService.searchCodes(keyword, mode);
         return ResponseEntity.ok(codes);
     }
 
     @GetMapping("/search/group/{groupCode}")
-    @Operation(summary = "Search codes by group", description = "Search common codes by group code and keyword")
+    @Operation(summary = "Search codes by group", description = "Search common codes by group code and keyword, ordered by sort order")
     public ResponseEntity<List<CommonCodeDto>> searchCodesByGroupCode(
             @PathVariable String groupCode,
-            @Parameter(description = "Search keyword") @RequestParam String keyword) {
-        List<CommonCodeDto> codes = commonCodeService.searchCodesByGroupCode(groupCode, keyword);
+            @Parameter(description = "Search keyword") @RequestParam String keyword,
+            @Parameter(description = "CONTAINS matches any part of the text, including half-typed Hangul; CHOSEONG matches initial consonants such as ㄱㅌㅋㄷ")
+            @RequestParam(defaultValue = "CONTAINS") CommonCodeSearchMode mode) {
+        List<CommonCodeDto> codes = commonCodeService.searchCodesByGroupCode(groupCode, keyword, mode);
         return ResponseEntity.ok(codes);
     }
 
@@ -106,6 +188,37 @@ public class CommonCodeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(code);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Import codes",
+            description = "Create or overwrite codes streamed as CSV or a JSON array, matched by group code and code (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import applied, rejected rows are listed in the result"),
+            @ApiResponse(responseCode = "400", description = "Malformed input or missing CSV columns")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CommonCodeImportResult> importCodes(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        CommonCodeImportResult result = commonCodeBulkService.importCodes(body, csv);
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("/group/{groupCode}/order")
+    @Operation(summary = "Reorder codes", description = "Set the sort order of a group's codes to their position in the given list (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Codes reordered successfully"),
+            @ApiResponse(responseCode = "404", description = "Group not found"),
+            @ApiResponse(responseCode = "400", description = "Empty or duplicate list, or codes not in the group")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> reorderCodes(
+            @PathVariable String groupCode,
+            @RequestBody CommonCodeReorderRequest request) {
+        commonCodeService.reorderCodes(groupCode, request);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update code", description = "Update common code information (Admin only)")
     @ApiResponses(value = {
@@ -9,6 +9,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import net.devgrr.springbootinit.dto.CommonCodeGroupCreateRequest;
 import net.devgrr.springbootinit.dto.CommonCodeGroupDto;
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
 import net.devgrr.springbootinit.service.CommonCodeGroupService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -64,10 +65,12 @@ public class CommonCodeGroupController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search code groups", description = "Search common code groups by keyword")
+    @Operation(summary = "Search code groups", description = "Search common code groups by keyword in name or description, ordered by sort order")
     public ResponseEntity<List<CommonCodeGroupDto>> searchGroups(
-            @Parameter(description = "Search keyword") @RequestParam String keyword) {
-        List<CommonCodeGroupDto> groups = commonCodeGroupService.searchGroups(keyword);
+            @Parameter(description = "Search keyword") @RequestParam String keyword,
+            @Parameter(description = "CONTAINS matches any part of the text, including half-typed Hangul; CHOSEONG matches initial consonants such as ㄱㅌㅋㄷ")
+            @RequestParam(defaultValue = "CONTAINS") CommonCodeSearchMode mode) {
+        List<CommonCodeGroupDto> groups = commonCodeGroupService.searchGroups(keyword, mode);
         return ResponseEntity.ok(groups);
     }
 
@@ -0,0 +1,54 @@
+package net.devgrr.springbootinit.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * Serves the OpenAPI document rendered at build time by {@code generateOpenApiDocs} and packaged into
+ * the boot jar, in place of springdoc, which builds it by introspecting every controller. Active when
+ * {@code springdoc.api-docs.enabled} is false, as in the docker profile. Clients revalidate against the
+ * ETag, which only changes with a new build.
+ */
+@RestController
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+public class OpenApiDocumentController {
+
+    static final String DOCUMENT_LOCATION = "META-INF/openapi/openapi.json";
+
+    private final byte[] document;
+    private final String etag;
+    private final CacheControl cacheControl;
+
+    public OpenApiDocumentController(@Value("${openapi.max-age-seconds:3600}") long maxAgeSeconds) throws IOException {
+        ClassPathResource resource = new ClassPathResource(DOCUMENT_LOCATION);
+        if (!resource.exists()) {
+            throw new IllegalStateException(DOCUMENT_LOCATION + " is not on the classpath; it is packaged by bootJar. "
+                    + "Run from the boot jar or set springdoc.api-docs.enabled=true");
+        }
+        try (InputStream in = resource.getInputStream()) {
+            this.document = in.readAllBytes();
+        }
+        this.etag = DigestUtils.md5DigestAsHex(document);
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    @GetMapping("${springdoc.api-docs.path:/v3/api-docs}")
+    public ResponseEntity<byte[]> getApiDocs() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(document);
+    }
+}
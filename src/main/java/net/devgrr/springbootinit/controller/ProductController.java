@@ -7,21 +7,31 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import net.devgrr.springbootinit.dto.BulkStockUpdateResult;
 import net.devgrr.springbootinit.dto.ProductCreateRequest;
 import net.devgrr.springbootinit.dto.ProductDto;
+import net.devgrr.springbootinit.dto.ProductImportJobDto;
 import net.devgrr.springbootinit.dto.ProductUpdateRequest;
+import net.devgrr.springbootinit.dto.StockMovementDto;
+import net.devgrr.springbootinit.dto.StockMovementRequest;
 import net.devgrr.springbootinit.dto.StockUpdateRequest;
 import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.service.ProductImportService;
 import net.devgrr.springbootinit.service.ProductService;
+import net.devgrr.springbootinit.service.StockSnapshotService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/products")
@@ -31,6 +41,8 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final StockSnapshotService stockSnapshotService;
+    private final ProductImportService productImportService;
 
     @GetMapping
     @Operation(summary = "Get all products", description = "Retrieve all products")
@@ -57,9 +69,11 @@ public class ProductController {
     }
 
     @GetMapping("/category/{categoryId}")
-    @Operation(summary = "Get products by category", description = "Retrieve products by category ID")
-    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<ProductDto> products = productService.getProductsByCategory(categoryId);
+    @Operation(summary = "Get products by category", description = "Retrieve products by category ID, optionally including all subcategories")
+    public ResponseEntity<List<ProductDto>> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @Parameter(description = "Include products of all active subcategories") @RequestParam(defaultValue = "false") boolean includeDescendants) {
+        List<ProductDto> products = productService.getProductsByCategory(categoryId, includeDescendants);
         return ResponseEntity.ok(products);
     }
 
@@ -99,16 +113,16 @@ public class ProductController {
     @GetMapping("/low-stock")
     @Operation(summary = "Get low stock products", description = "Retrieve products with low stock levels")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ProductDto>> getLowStockProducts() {
-        List<ProductDto> products = productService.getLowStockProducts();
+    public ResponseEntity<Page<ProductDto>> getLowStockProducts(Pageable pageable) {
+        Page<ProductDto> products = productService.getLowStockProducts(pageable);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/out-of-stock")
     @Operation(summary = "Get out of stock products", description = "Retrieve products that are out of stock")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ProductDto>> getOutOfStockProducts() {
-        List<ProductDto> products = productService.getOutOfStockProducts();
+    public ResponseEntity<Page<ProductDto>> getOutOfStockProducts(Pageable pageable) {
+        Page<ProductDto> products = productService.getOutOfStockProducts(pageable);
         return ResponseEntity.ok(products);
     }
 
@@ -133,6 +147,34 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(product);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Import products",
+            description = "Start a background import of products streamed as CSV or NDJSON (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import accepted, poll the returned job for progress"),
+            @ApiResponse(responseCode = "400", description = "Unsupported content type")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJobDto> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        ProductImportJobDto job = productImportService.submitImport(body, csv);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "Get product import job", description = "Retrieve progress of a product import (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import job found"),
+            @ApiResponse(responseCode = "404", description = "Import job not found")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJobDto> getImportJob(@PathVariable UUID jobId) {
+        ProductImportJobDto job = productImportService.getJob(jobId);
+        return ResponseEntity.ok(job);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update product", description = "Update product information (Admin only)")
     @ApiResponses(value = {
@@ -162,6 +204,45 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
+    @PatchMapping(value = "/stock", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @Operation(summary = "Bulk update stock",
+            description = "Apply an absolute stock snapshot streamed as a JSON array or CSV of (id or sku, quantity) (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Snapshot applied, per-row failures are reported in the body"),
+            @ApiResponse(responseCode = "400", description = "Malformed snapshot")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkStockUpdateResult> bulkUpdateStock(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @Parameter(description = "Note stored on every resulting stock movement") @RequestParam(required = false) String note,
+            InputStream body) {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        BulkStockUpdateResult result = stockSnapshotService.applySnapshot(body, csv, note);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/{id}/stock/movements")
+    @Operation(summary = "Record stock movement", description = "Append a signed stock delta to the product's ledger (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock movement recorded successfully"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductDto> recordStockMovement(
+            @PathVariable Long id,
+            @RequestBody StockMovementRequest request) {
+        ProductDto product = productService.recordStockMovement(id, request);
+        return ResponseEntity.ok(product);
+    }
+
+    @GetMapping("/{id}/stock/movements")
+    @Operation(summary = "Get stock movements", description = "Retrieve the stock ledger of a product, newest first (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<StockMovementDto>> getStockMovements(@PathVariable Long id, Pageable pageable) {
+        Page<StockMovementDto> movements = productService.getStockMovements(id, pageable);
+        return ResponseEntity.ok(movements);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete product", description = "Delete a product (Admin only)")
     @ApiResponses(value = {
@@ -0,0 +1,113 @@
+package net.devgrr.springbootinit.controller;
+
+import net.devgrr.springbootinit.dto.ProductDto;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.exception.ErrorResponse;
+import net.devgrr.springbootinit.repository.ReactiveProductRepository;
+import net.devgrr.springbootinit.service.CategoryHierarchyCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Non-blocking counterparts of the product read endpoints in {@link ProductController}, on the same
+ * paths and with the same {@link ProductDto} bodies. Lists are written as they are read: a JSON array
+ * by default, or one object per line when the client accepts {@code application/x-ndjson}. Search
+ * streams the requested page's rows instead of a {@code Page}, so it carries no totals.
+ */
+public class ReactiveProductHandler {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ReactiveProductRepository productRepository;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+
+    public ReactiveProductHandler(ReactiveProductRepository productRepository,
+                                  CategoryHierarchyCache categoryHierarchyCache) {
+        this.productRepository = productRepository;
+        this.categoryHierarchyCache = categoryHierarchyCache;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        // /{id} last, so it does not shadow the fixed segments
+        return route()
+                .GET("/api/products/sku/{sku}", this::getProductBySku)
+                .GET("/api/products/category/{categoryId}", this::getProductsByCategory)
+                .GET("/api/products/search", this::searchProducts)
+                .GET("/api/products/{id}", this::getProductById)
+                // Malformed ids, statuses and page numbers, whether thrown while parsing or later
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(IllegalArgumentException.class,
+                                e -> error(request, HttpStatus.BAD_REQUEST, e.getMessage())))
+                .build();
+    }
+
+    public Mono<ServerResponse> getProductById(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        return productRepository.findById(id)
+                .flatMap(product -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(product))
+                .switchIfEmpty(Mono.defer(() -> error(request, HttpStatus.NOT_FOUND, "Product not found with id: " + id)));
+    }
+
+    public Mono<ServerResponse> getProductBySku(ServerRequest request) {
+        String sku = request.pathVariable("sku");
+        return productRepository.findBySku(sku)
+                .flatMap(product -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(product))
+                .switchIfEmpty(Mono.defer(() -> error(request, HttpStatus.NOT_FOUND, "Product not found with sku: " + sku)));
+    }
+
+    public Mono<ServerResponse> getProductsByCategory(ServerRequest request) {
+        Long categoryId = Long.valueOf(request.pathVariable("categoryId"));
+        boolean includeDescendants = request.queryParam("includeDescendants").map(Boolean::parseBoolean).orElse(false);
+        if (!includeDescendants) {
+            return stream(request, productRepository.findByCategoryIdsAndStatus(List.of(categoryId), ProductStatus.ACTIVE));
+        }
+        // The snapshot is normally in memory, but a rebuild reads the database through JDBC
+        return Mono.fromCallable(() -> categoryHierarchyCache.getSubtreeIds(categoryId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(categoryIds -> categoryIds.isEmpty()
+                        ? error(request, HttpStatus.NOT_FOUND, "Category not found with id: " + categoryId)
+                        : stream(request, productRepository.findByCategoryIdsAndStatus(categoryIds, ProductStatus.ACTIVE)));
+    }
+
+    public Mono<ServerResponse> searchProducts(ServerRequest request) {
+        String keyword = request.queryParam("keyword").orElse(null);
+        if (keyword == null) {
+            return error(request, HttpStatus.BAD_REQUEST, "Required parameter 'keyword' is not present");
+        }
+        ProductStatus status = request.queryParam("status").map(ProductStatus::valueOf).orElse(null);
+        Long categoryId = request.queryParam("categoryId").map(Long::valueOf).orElse(null);
+        int page = request.queryParam("page").map(Integer::parseInt).map(p -> Math.max(p, 0)).orElse(0);
+        int size = request.queryParam("size").map(Integer::parseInt)
+                .map(s -> Math.min(Math.max(s, 1), MAX_PAGE_SIZE)).orElse(DEFAULT_PAGE_SIZE);
+        return stream(request, productRepository.search(keyword, status, categoryId, (long) page * size, size));
+    }
+
+    private static Mono<ServerResponse> stream(ServerRequest request, Flux<ProductDto> products) {
+        MediaType mediaType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(mediaType).body(products, ProductDto.class);
+    }
+
+    private static Mono<ServerResponse> error(ServerRequest request, HttpStatus status, String message) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(request.path())
+                .build());
+    }
+}
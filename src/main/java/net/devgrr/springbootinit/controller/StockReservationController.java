@@ -0,0 +1,71 @@
+package net.devgrr.springbootinit.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import net.devgrr.springbootinit.dto.StockReservationDto;
+import net.devgrr.springbootinit.dto.StockReservationRequest;
+import net.devgrr.springbootinit.service.StockReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/reservations")
+@RequiredArgsConstructor
+@Tag(name = "Stock Reservation", description = "Temporary stock holds for checkout")
+@SecurityRequirement(name = "Bearer Authentication")
+public class StockReservationController {
+
+    private final StockReservationService stockReservationService;
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get reservation", description = "Retrieve an active stock reservation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation found"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found or expired")
+    })
+    public ResponseEntity<StockReservationDto> getReservation(@PathVariable UUID id) {
+        StockReservationDto reservation = stockReservationService.getReservation(id);
+        return ResponseEntity.ok(reservation);
+    }
+
+    @PostMapping
+    @Operation(summary = "Create reservation", description = "Hold stock for a product until the reservation expires")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stock reserved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or insufficient stock"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    public ResponseEntity<StockReservationDto> createReservation(@RequestBody StockReservationRequest request) {
+        StockReservationDto reservation = stockReservationService.createReservation(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    @PostMapping("/{id}/confirm")
+    @Operation(summary = "Confirm reservation", description = "Consume the held stock and remove the reservation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Reservation confirmed"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found or expired")
+    })
+    public ResponseEntity<Void> confirmReservation(@PathVariable UUID id) {
+        stockReservationService.confirmReservation(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Release reservation", description = "Return the held stock and remove the reservation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Reservation released"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found")
+    })
+    public ResponseEntity<Void> releaseReservation(@PathVariable UUID id) {
+        stockReservationService.releaseReservation(id);
+        return ResponseEntity.noContent().build();
+    }
+}
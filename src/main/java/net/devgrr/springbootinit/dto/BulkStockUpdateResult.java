@@ -0,0 +1,21 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockUpdateResult {
+    private int received;
+    private int updated;
+    private int unchanged;
+    private int failed;
+    private List<BulkStockUpdateFailure> failures;
+    private long elapsedMillis;
+}
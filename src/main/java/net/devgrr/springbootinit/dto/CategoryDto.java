@@ -21,6 +21,8 @@ public class CategoryDto {
     private Long parentId;
     private String parentName;
     private List<CategoryDto> children;
+    private Long productCount;
+    private Long totalProductCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
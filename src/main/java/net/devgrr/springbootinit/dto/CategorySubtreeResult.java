@@ -0,0 +1,17 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySubtreeResult {
+    private Long categoryId;
+    private boolean dryRun;
+    private long categoriesAffected;
+    private long productsDiscontinued;
+}
@@ -0,0 +1,14 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommonCodeImportFailure {
+    private int rowNumber;
+    private String key;
+    private String message;
+}
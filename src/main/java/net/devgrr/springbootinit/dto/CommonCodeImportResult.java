@@ -0,0 +1,21 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommonCodeImportResult {
+    private int received;
+    private int imported;
+    private int unchanged;
+    private int failed;
+    private List<CommonCodeImportFailure> failures;
+    private long elapsedMillis;
+}
@@ -0,0 +1,14 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommonCodeImportRow {
+    private int rowNumber;
+    private Long id;
+    private CommonCodeCreateRequest code;
+}
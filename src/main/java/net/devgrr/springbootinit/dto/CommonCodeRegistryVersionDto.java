@@ -0,0 +1,16 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommonCodeRegistryVersionDto {
+    private long version;
+    private int groupCount;
+    private int codeCount;
+}
@@ -0,0 +1,10 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CommonCodeReorderRequest {
+    private List<String> codes;
+}
@@ -0,0 +1,6 @@
+package net.devgrr.springbootinit.dto;
+
+public enum CommonCodeSearchMode {
+    CONTAINS,
+    CHOSEONG
+}
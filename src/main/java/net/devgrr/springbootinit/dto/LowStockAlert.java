@@ -0,0 +1,19 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockAlert {
+    private Long productId;
+    private String sku;
+    private String name;
+    private Integer stockQuantity;
+    private Integer minStockLevel;
+    private Boolean outOfStock;
+}
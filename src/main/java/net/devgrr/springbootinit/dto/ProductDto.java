@@ -21,6 +21,8 @@ public class ProductDto {
     private BigDecimal price;
     private BigDecimal costPrice;
     private Integer stockQuantity;
+    private Integer reservedQuantity;
+    private Integer availableQuantity;
     private Integer minStockLevel;
     private BigDecimal weight;
     private String dimensions;
@@ -0,0 +1,8 @@
+package net.devgrr.springbootinit.dto;
+
+public enum ProductImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,24 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.devgrr.springbootinit.entity.StockMovementReason;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementDto {
+    private Long id;
+    private Long productId;
+    private Integer delta;
+    private StockMovementReason reason;
+    private String note;
+    private Boolean folded;
+    private String createdByUsername;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,11 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.Data;
+import net.devgrr.springbootinit.entity.StockMovementReason;
+
+@Data
+public class StockMovementRequest {
+    private Integer delta;
+    private StockMovementReason reason;
+    private String note;
+}
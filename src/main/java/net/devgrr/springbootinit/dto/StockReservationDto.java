@@ -0,0 +1,22 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationDto {
+    private UUID id;
+    private Long productId;
+    private Integer quantity;
+    private String reference;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,11 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.Data;
+
+@Data
+public class StockReservationRequest {
+    private Long productId;
+    private Integer quantity;
+    private Integer ttlSeconds;
+    private String reference;
+}
@@ -0,0 +1,15 @@
+package net.devgrr.springbootinit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshotRow {
+    private int rowNumber;
+    private Long productId;
+    private String sku;
+    private Integer quantity;
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -20,10 +22,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -43,7 +48,15 @@ public class Category {
     @JoinColumn(name = "parent_id")
     private Category parent;
 
+    /**
+     * Ids of all ancestors from the root down to the parent, each followed by '/'. Root categories
+     * have the path "/".
+     */
+    @Column(name = "path", nullable = false, length = 1000)
+    private String path;
+
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.children")
     @Builder.Default
     private List<Category> children = new ArrayList<>();
 
@@ -58,4 +71,22 @@ public class Category {
     @LastModifiedDate
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    /**
+     * Path prefix shared by every descendant of this category.
+     */
+    public String getDescendantPathPrefix() {
+        return path + id + "/";
+    }
+
+    public boolean isSelfOrDescendantOf(Category other) {
+        return id.equals(other.getId()) || getDescendantPathPrefix().startsWith(other.getDescendantPathPrefix());
+    }
+
+    /**
+     * Smallest path that sorts after every path starting with the prefix, for index range scans.
+     */
+    public static String pathUpperBound(String prefix) {
+        return prefix.substring(0, prefix.length() - 1) + (char) ('/' + 1);
+    }
+}
@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -21,8 +24,11 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class Product {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 200)
@@ -40,13 +46,41 @@ public class Product {
     @Column(name = "cost_price", precision = 10, scale = 2)
     private BigDecimal costPrice;
 
-    @Column(name = "stock_quantity", nullable = false)
+    // Compacted balance: written on insert and by the ledger compactor only, never by entity updates
+    @Column(name = "stock_quantity", nullable = false, updatable = false)
     @Builder.Default
     private Integer stockQuantity = 0;
 
+    // Ledger deltas not yet folded into stock_quantity, read in the same statement for a consistent sum
+    @Formula("(SELECT COALESCE(SUM(m.delta), 0) FROM stock_movements m WHERE m.product_id = id AND NOT m.folded)")
+    @Builder.Default
+    private Integer pendingStockDelta = 0;
+
+    @Column(name = "reserved_quantity", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer reservedQuantity = 0;
+
     @Column(name = "min_stock_level")
     private Integer minStockLevel;
 
+    // Stored generated flags over the compacted balance, so they trail ledger writes by one compaction run
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "is_low_stock", insertable = false, updatable = false,
+            columnDefinition = "boolean GENERATED ALWAYS AS (min_stock_level IS NOT NULL AND stock_quantity <= min_stock_level) STORED")
+    private Boolean isLowStock;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "is_out_of_stock", insertable = false, updatable = false,
+            columnDefinition = "boolean GENERATED ALWAYS AS (stock_quantity <= 0) STORED")
+    private Boolean isOutOfStock;
+
+    // Set once the low-stock watcher has reported the current crossing, cleared when stock recovers
+    @Column(name = "low_stock_notified", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "boolean default false")
+    @Builder.Default
+    private Boolean lowStockNotified = false;
+
     @Column(name = "weight", precision = 8, scale = 3)
     private BigDecimal weight;
 
@@ -81,11 +115,21 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    public boolean isLowStock() {
-        return minStockLevel != null && stockQuantity <= minStockLevel;
+    public int getEffectiveStockQuantity() {
+        return stockQuantity + (pendingStockDelta != null ? pendingStockDelta : 0);
+    }
+
+    public void applyPendingStockDelta(int delta) {
+        pendingStockDelta = (pendingStockDelta != null ? pendingStockDelta : 0) + delta;
+    }
+
+    // Unlike the generated is_out_of_stock column this includes unfolded ledger deltas
+    public boolean isEffectivelyOutOfStock() {
+        return getEffectiveStockQuantity() <= 0;
     }
 
-    public boolean isOutOfStock() {
-        return stockQuantity <= 0;
+    public int getAvailableQuantity() {
+        int reserved = reservedQuantity != null ? reservedQuantity : 0;
+        return Math.max(0, getEffectiveStockQuantity() - reserved);
     }
 }
\ No newline at end of file
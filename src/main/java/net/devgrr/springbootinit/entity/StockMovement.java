@@ -0,0 +1,54 @@
+package net.devgrr.springbootinit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_product_id_id", columnList = "product_id, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false, updatable = false)
+    private Product product;
+
+    @Column(name = "delta", nullable = false, updatable = false)
+    private Integer delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false, updatable = false, length = 20)
+    private StockMovementReason reason;
+
+    @Column(name = "note", length = 255, updatable = false)
+    private String note;
+
+    // Set once by the compactor after the delta has been added to products.stock_quantity
+    @Column(name = "folded", nullable = false)
+    @Builder.Default
+    private Boolean folded = false;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by", updatable = false)
+    private User createdBy;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
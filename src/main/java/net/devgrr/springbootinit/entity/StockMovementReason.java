@@ -0,0 +1,20 @@
+package net.devgrr.springbootinit.entity;
+
+public enum StockMovementReason {
+    INITIAL("초기 재고"),
+    ADJUSTMENT("재고 조정"),
+    RESTOCK("입고"),
+    SALE("판매"),
+    RETURN("반품"),
+    DAMAGE("파손/폐기");
+
+    private final String description;
+
+    StockMovementReason(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
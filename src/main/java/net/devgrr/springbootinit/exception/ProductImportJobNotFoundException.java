@@ -0,0 +1,9 @@
+package net.devgrr.springbootinit.exception;
+
+import java.util.UUID;
+
+public class ProductImportJobNotFoundException extends RuntimeException {
+    public ProductImportJobNotFoundException(UUID id) {
+        super("Product import job not found with id: " + id);
+    }
+}
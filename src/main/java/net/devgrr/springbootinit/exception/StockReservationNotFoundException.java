@@ -0,0 +1,9 @@
+package net.devgrr.springbootinit.exception;
+
+import java.util.UUID;
+
+public class StockReservationNotFoundException extends RuntimeException {
+    public StockReservationNotFoundException(UUID id) {
+        super("Active stock reservation not found with id: " + id);
+    }
+}
@@ -0,0 +1,95 @@
+package net.devgrr.springbootinit.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.exception.ErrorResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of requests in flight when requests run on virtual threads. Tomcat then no longer
+ * limits concurrency through its worker pool, and without a cap thousands of requests would queue
+ * inside HikariCP, each holding its request open until the pool's connection timeout. Requests wait
+ * here for a short while instead and are turned away with 503 once that runs out. The default of twenty
+ * requests per primary pool connection matches the 200 platform workers that served the default pool of
+ * ten, and grows with the pool. Runs before authentication, which itself reads the database.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long queueTimeoutMs;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(@Value("${request-limit.max-concurrent:0}") int maxConcurrent,
+                                  @Value("${request-limit.per-connection:20}") int perConnection,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                  @Value("${request-limit.queue-timeout-ms:2000}") long queueTimeoutMs,
+                                  ObjectMapper objectMapper) {
+        int limit = maxConcurrent > 0 ? maxConcurrent : poolSize * perConnection;
+        this.permits = new Semaphore(limit, true);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.objectMapper = objectMapper;
+        log.info("Virtual-thread request execution enabled, at most {} concurrent requests", limit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Probes must keep answering while the application is saturated
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message("Too many concurrent requests, retry shortly")
+                .path(request.getRequestURI())
+                .build());
+    }
+}
@@ -36,8 +36,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             requestPath.startsWith("/api-docs") ||
             requestPath.equals("/swagger-ui.html") ||
             requestPath.equals("/index.html") ||
-            requestPath.startsWith("/webjars/") ||
-            requestPath.startsWith("/actuator/")) {
+            requestPath.startsWith("/webjars/")) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -0,0 +1,38 @@
+package net.devgrr.springbootinit.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import net.devgrr.springbootinit.config.ReadYourWritesTracker;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Records every request that may write as a write by its user. It is recorded when the request starts,
+ * so reads later in the same request stay on the primary, and again when it completes, so the
+ * read-your-writes window is counted from the commit.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            readYourWritesTracker.recordWrite();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            readYourWritesTracker.recordWrite();
+        }
+    }
+}
@@ -1,29 +1,71 @@
 package net.devgrr.springbootinit.repository;
 
+import jakarta.persistence.QueryHint;
 import net.devgrr.springbootinit.entity.Category;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByIsActiveTrueOrderByDisplayOrderAsc();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByParentIsNullAndIsActiveTrueOrderByDisplayOrderAsc();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByParentIdAndIsActiveTrueOrderByDisplayOrderAsc(Long parentId);
     
     @Query("SELECT c FROM Category c WHERE c.name LIKE %:keyword% OR c.description LIKE %:keyword%")
     List<Category> searchByKeyword(@Param("keyword") String keyword);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByIdAndIsActiveTrue(Long id);
     
+    @Query("SELECT c.id FROM Category c WHERE c.isActive = true")
+    Set<Long> findActiveIds();
+    
     boolean existsByNameAndParentId(String name, Long parentId);
     
     boolean existsByNameAndParentIdAndIdNot(String name, Long parentId, Long id);
-}
\ No newline at end of file
+    
+    // Range bounds come from Category#getDescendantPathPrefix and Category#pathUpperBound
+    @Query(value = "SELECT id FROM categories WHERE path >= :prefix AND path < :upperBound", nativeQuery = true)
+    List<Long> findDescendantIds(@Param("prefix") String prefix, @Param("upperBound") String upperBound);
+    
+    @Query(value = "SELECT count(*) FROM categories " +
+                   "WHERE (id = :id OR (path >= :prefix AND path < :upperBound)) AND is_active <> :active", nativeQuery = true)
+    long countSubtreeToSetActive(@Param("id") Long id,
+                                 @Param("prefix") String prefix,
+                                 @Param("upperBound") String upperBound,
+                                 @Param("active") boolean active);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE categories SET is_active = :active, updated_at = now() " +
+                   "WHERE (id = :id OR (path >= :prefix AND path < :upperBound)) AND is_active <> :active", nativeQuery = true)
+    int setSubtreeActive(@Param("id") Long id,
+                         @Param("prefix") String prefix,
+                         @Param("upperBound") String upperBound,
+                         @Param("active") boolean active);
+    
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE categories SET path = :newPrefix || substr(path, length(:oldPrefix) + 1) " +
+                   "WHERE path >= :oldPrefix AND path < :upperBound", nativeQuery = true)
+    int moveDescendants(@Param("oldPrefix") String oldPrefix,
+                        @Param("newPrefix") String newPrefix,
+                        @Param("upperBound") String upperBound);
+    
+    // Serializes reparenting so two concurrent moves cannot each pass the cycle check and form a loop together
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('categories.hierarchy'))", nativeQuery = true)
+    Integer lockHierarchy();
+}
@@ -0,0 +1,21 @@
+package net.devgrr.springbootinit.repository;
+
+import net.devgrr.springbootinit.dto.CommonCodeImportFailure;
+import net.devgrr.springbootinit.dto.CommonCodeImportRow;
+
+import java.util.List;
+
+public interface CommonCodeBulkRepository {
+
+    void createCommonCodeImportStage();
+
+    List<Long> allocateCommonCodeIds(int count);
+
+    void stageCommonCodeImportRows(List<CommonCodeImportRow> rows);
+
+    List<CommonCodeImportFailure> resolveCommonCodeImportStage();
+
+    int mergeCommonCodeImportStage();
+
+    int reorderCommonCodes(String groupCode, List<String> codes);
+}
@@ -0,0 +1,120 @@
+package net.devgrr.springbootinit.repository;
+
+import lombok.RequiredArgsConstructor;
+import net.devgrr.springbootinit.dto.CommonCodeCreateRequest;
+import net.devgrr.springbootinit.dto.CommonCodeImportFailure;
+import net.devgrr.springbootinit.dto.CommonCodeImportRow;
+import net.devgrr.springbootinit.entity.CommonCode;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set-based bulk writes for common codes. Imports are staged into a transaction-scoped temp table with
+ * JDBC batches and merged into {@code common_codes} with one upsert, and reordering a group is a single
+ * update over an array of codes, so the number of round trips does not grow with the number of codes.
+ * Must run inside a read-write transaction.
+ */
+@RequiredArgsConstructor
+public class CommonCodeBulkRepositoryImpl implements CommonCodeBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void createCommonCodeImportStage() {
+        jdbcTemplate.execute("CREATE TEMP TABLE IF NOT EXISTS common_code_import_stage (" +
+                "row_no integer NOT NULL, id bigint NOT NULL, group_code varchar(20) NOT NULL, code varchar(20) NOT NULL, " +
+                "code_name varchar(100) NOT NULL, code_value varchar(200), description varchar(500), " +
+                "use_yn varchar(1) NOT NULL, sort_order integer" +
+                ") ON COMMIT DROP");
+    }
+
+    /**
+     * Draws ids from the pooled sequence the entity uses, see {@link PooledSequenceIds}.
+     */
+    @Override
+    public List<Long> allocateCommonCodeIds(int count) {
+        return PooledSequenceIds.allocate(jdbcTemplate, "common_codes_seq", CommonCode.ID_ALLOCATION_SIZE, count);
+    }
+
+    @Override
+    public void stageCommonCodeImportRows(List<CommonCodeImportRow> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO common_code_import_stage (row_no, id, group_code, code, code_name, code_value, " +
+                "    description, use_yn, sort_order) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                rows, rows.size(), (ps, row) -> {
+                    CommonCodeCreateRequest code = row.getCode();
+                    ps.setInt(1, row.getRowNumber());
+                    ps.setLong(2, row.getId());
+                    ps.setString(3, code.getGroupCode());
+                    ps.setString(4, code.getCode());
+                    ps.setString(5, code.getCodeName());
+                    ps.setString(6, code.getCodeValue());
+                    ps.setString(7, code.getDescription());
+                    ps.setString(8, code.getUseYn());
+                    ps.setObject(9, code.getSortOrder(), Types.INTEGER);
+                });
+    }
+
+    @Override
+    public List<CommonCodeImportFailure> resolveCommonCodeImportStage() {
+        jdbcTemplate.execute("ANALYZE common_code_import_stage");
+
+        List<CommonCodeImportFailure> failures = new ArrayList<>(jdbcTemplate.query(
+                "DELETE FROM common_code_import_stage s " +
+                "WHERE NOT EXISTS (SELECT 1 FROM common_code_groups g WHERE g.group_code = s.group_code) " +
+                "RETURNING s.row_no, s.group_code || ':' || s.code AS code_key",
+                (rs, rowNum) -> new CommonCodeImportFailure(rs.getInt("row_no"), rs.getString("code_key"),
+                        "Group not found")));
+
+        // The last row for a code wins, and every earlier one is reported against it
+        failures.addAll(jdbcTemplate.query(
+                "DELETE FROM common_code_import_stage s USING (" +
+                "    SELECT group_code, code, MAX(row_no) AS row_no FROM common_code_import_stage GROUP BY group_code, code" +
+                ") t " +
+                "WHERE s.group_code = t.group_code AND s.code = t.code AND s.row_no < t.row_no " +
+                "RETURNING s.row_no, s.group_code || ':' || s.code AS code_key, t.row_no AS winner",
+                (rs, rowNum) -> new CommonCodeImportFailure(rs.getInt("row_no"), rs.getString("code_key"),
+                        "Duplicate code, superseded by row " + rs.getInt("winner"))));
+        return failures;
+    }
+
+    /**
+     * Inserts new codes and overwrites existing ones from the stage in one statement, and returns how
+     * many rows were written. Codes whose values already match are left alone and not counted.
+     */
+    @Override
+    public int mergeCommonCodeImportStage() {
+        return jdbcTemplate.update(
+                "INSERT INTO common_codes (id, group_code, code, code_name, code_value, description, use_yn, " +
+                "    sort_order, created_at, updated_at) " +
+                "SELECT id, group_code, code, code_name, code_value, description, use_yn, sort_order, " +
+                "    CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+                "FROM common_code_import_stage " +
+                "ON CONFLICT (group_code, code) DO UPDATE SET code_name = EXCLUDED.code_name, " +
+                "    code_value = EXCLUDED.code_value, description = EXCLUDED.description, use_yn = EXCLUDED.use_yn, " +
+                "    sort_order = EXCLUDED.sort_order, updated_at = CURRENT_TIMESTAMP " +
+                "WHERE (common_codes.code_name, common_codes.code_value, common_codes.description, " +
+                "    common_codes.use_yn, common_codes.sort_order) " +
+                "    IS DISTINCT FROM (EXCLUDED.code_name, EXCLUDED.code_value, EXCLUDED.description, " +
+                "    EXCLUDED.use_yn, EXCLUDED.sort_order)");
+    }
+
+    /**
+     * Sets {@code sort_order} of the listed codes to their 1-based position in the list and returns how
+     * many codes of the group matched.
+     */
+    @Override
+    public int reorderCommonCodes(String groupCode, List<String> codes) {
+        return jdbcTemplate.update(
+                "UPDATE common_codes c SET sort_order = CAST(o.ord AS integer), updated_at = CURRENT_TIMESTAMP " +
+                "FROM unnest(CAST(? AS varchar[])) WITH ORDINALITY AS o(code, ord) " +
+                "WHERE c.group_code = ? AND c.code = o.code",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("varchar", codes.toArray()));
+                    ps.setString(2, groupCode);
+                });
+    }
+}
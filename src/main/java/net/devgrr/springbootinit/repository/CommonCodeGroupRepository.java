@@ -1,8 +1,12 @@
 package net.devgrr.springbootinit.repository;
 
+import jakarta.persistence.QueryHint;
 import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,12 +16,15 @@ import java.util.Optional;
 @Repository
 public interface CommonCodeGroupRepository extends JpaRepository<CommonCodeGroup, String> {
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<CommonCodeGroup> findByUseYnOrderBySortOrderAsc(String useYn);
     
-    @Query("SELECT g FROM CommonCodeGroup g WHERE g.groupName LIKE %:keyword% OR g.description LIKE %:keyword%")
-    List<CommonCodeGroup> searchByKeyword(@Param("keyword") String keyword);
-    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<CommonCodeGroup> findByGroupCodeAndUseYn(String groupCode, String useYn);
     
     boolean existsByGroupCode(String groupCode);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM common_code_groups WHERE group_code = :groupCode", nativeQuery = true)
+    int deleteByGroupCodeReturningCount(@Param("groupCode") String groupCode);
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package net.devgrr.springbootinit.repository;
 
+import jakarta.persistence.QueryHint;
 import net.devgrr.springbootinit.entity.CommonCode;
 import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,23 +15,24 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CommonCodeRepository extends JpaRepository<CommonCode, Long> {
+public interface CommonCodeRepository extends JpaRepository<CommonCode, Long>, CommonCodeBulkRepository {
     
     List<CommonCode> findByCodeGroupAndUseYnOrderBySortOrderAsc(CommonCodeGroup codeGroup, String useYn);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<CommonCode> findByCodeGroup_GroupCodeAndUseYnOrderBySortOrderAsc(String groupCode, String useYn);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<CommonCode> findByCodeGroup_GroupCodeAndCode(String groupCode, String code);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<CommonCode> findByCodeGroup_GroupCodeAndCodeAndUseYn(String groupCode, String code, String useYn);
     
     boolean existsByCodeGroup_GroupCodeAndCode(String groupCode, String code);
     
     boolean existsByCodeGroup_GroupCodeAndCodeAndIdNot(String groupCode, String code, Long id);
     
-    @Query("SELECT c FROM CommonCode c WHERE c.codeGroup.groupCode = :groupCode AND (c.codeName LIKE %:keyword% OR c.description LIKE %:keyword%)")
-    List<CommonCode> searchByGroupCodeAndKeyword(@Param("groupCode") String groupCode, @Param("keyword") String keyword);
-    
-    @Query("SELECT c FROM CommonCode c WHERE c.codeName LIKE %:keyword% OR c.description LIKE %:keyword%")
-    List<CommonCode> searchByKeyword(@Param("keyword") String keyword);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM common_codes WHERE group_code = :groupCode", nativeQuery = true)
+    int deleteAllInGroup(@Param("groupCode") String groupCode);
 }
\ No newline at end of file
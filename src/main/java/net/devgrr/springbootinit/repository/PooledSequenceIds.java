@@ -0,0 +1,36 @@
+package net.devgrr.springbootinit.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws ids for JDBC bulk inserts from a sequence that an entity also uses through Hibernate's
+ * pooled optimizer, without the two ever handing out the same id.
+ * <p>
+ * The optimizer treats a sequence value {@code v} as the top of the block {@code (v - incrementSize, v]},
+ * except on a fresh sequence: when the first value it reads is the initial value 1, it reads a second
+ * one and uses everything from 1 up to it, so values 1 and 51 give ids 1..51.
+ * Clamping every block here at 1 matches that rule: value 1 owns only id 1 and value 51 owns 2..51,
+ * whichever side drew them. Because that first block is short, allocation loops until it has enough.
+ */
+final class PooledSequenceIds {
+
+    private PooledSequenceIds() {
+    }
+
+    static List<Long> allocate(JdbcTemplate jdbcTemplate, String sequenceName, int incrementSize, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + incrementSize - 1) / incrementSize;
+            for (Long hi : jdbcTemplate.queryForList(
+                    "SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)", Long.class, sequenceName, blocks)) {
+                for (long id = Math.max(hi - incrementSize, 0) + 1; id <= hi && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,30 @@
+package net.devgrr.springbootinit.repository;
+
+import net.devgrr.springbootinit.dto.BulkStockUpdateFailure;
+import net.devgrr.springbootinit.dto.LowStockAlert;
+import net.devgrr.springbootinit.dto.ProductImportRow;
+import net.devgrr.springbootinit.dto.StockSnapshotRow;
+
+import java.util.List;
+import java.util.Set;
+
+public interface ProductBulkRepository {
+
+    void createStockSnapshotStage();
+
+    void stageStockSnapshotRows(List<StockSnapshotRow> rows);
+
+    List<BulkStockUpdateFailure> resolveStockSnapshotStage();
+
+    int applyStockSnapshot(Long userId, String note);
+
+    int refreshStockSnapshotStatuses(Long userId);
+
+    List<Long> allocateProductIds(int count);
+
+    Set<Long> insertImportedProducts(List<ProductImportRow> rows, Long userId);
+
+    List<LowStockAlert> claimLowStockCrossings(int limit);
+
+    int rearmRecoveredLowStock();
+}
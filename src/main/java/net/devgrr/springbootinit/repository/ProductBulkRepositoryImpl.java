@@ -0,0 +1,206 @@
+package net.devgrr.springbootinit.repository;
+
+import lombok.RequiredArgsConstructor;
+import net.devgrr.springbootinit.dto.BulkStockUpdateFailure;
+import net.devgrr.springbootinit.dto.LowStockAlert;
+import net.devgrr.springbootinit.dto.ProductCreateRequest;
+import net.devgrr.springbootinit.dto.ProductImportRow;
+import net.devgrr.springbootinit.dto.StockSnapshotRow;
+import net.devgrr.springbootinit.entity.Product;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based bulk writes for products. Stock snapshots are staged into a transaction-scoped temp table
+ * with JDBC batches, and every later step is a single statement over the whole stage, so the number of
+ * round trips does not grow with the snapshot size. Imports insert pre-allocated ids the same way.
+ * Must run inside a read-write transaction.
+ */
+@RequiredArgsConstructor
+public class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void createStockSnapshotStage() {
+        jdbcTemplate.execute("CREATE TEMP TABLE IF NOT EXISTS stock_snapshot_stage (" +
+                "row_no integer NOT NULL, product_id bigint, sku varchar(50), quantity integer NOT NULL" +
+                ") ON COMMIT DROP");
+    }
+
+    @Override
+    public void stageStockSnapshotRows(List<StockSnapshotRow> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO stock_snapshot_stage (row_no, product_id, sku, quantity) VALUES (?, ?, ?, ?)",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setInt(1, row.getRowNumber());
+                    if (row.getProductId() != null) {
+                        ps.setLong(2, row.getProductId());
+                    } else {
+                        ps.setNull(2, Types.BIGINT);
+                    }
+                    ps.setString(3, row.getSku());
+                    ps.setInt(4, row.getQuantity());
+                });
+    }
+
+    @Override
+    public List<BulkStockUpdateFailure> resolveStockSnapshotStage() {
+        jdbcTemplate.update("UPDATE stock_snapshot_stage s SET product_id = p.id FROM products p " +
+                "WHERE s.product_id IS NULL AND p.sku = s.sku");
+        jdbcTemplate.execute("ANALYZE stock_snapshot_stage");
+
+        List<BulkStockUpdateFailure> failures = new ArrayList<>(jdbcTemplate.query(
+                "DELETE FROM stock_snapshot_stage s " +
+                "WHERE NOT EXISTS (SELECT 1 FROM products p WHERE p.id = s.product_id) " +
+                "RETURNING s.row_no, COALESCE(s.sku, CAST(s.product_id AS varchar)) AS product_key",
+                (rs, rowNum) -> new BulkStockUpdateFailure(rs.getInt("row_no"), rs.getString("product_key"),
+                        "Product not found")));
+
+        // The last row for a product wins, and every earlier one is reported against it
+        failures.addAll(jdbcTemplate.query(
+                "DELETE FROM stock_snapshot_stage s USING (" +
+                "    SELECT product_id, MAX(row_no) AS row_no FROM stock_snapshot_stage GROUP BY product_id" +
+                ") t " +
+                "WHERE s.product_id = t.product_id AND s.row_no < t.row_no " +
+                "RETURNING s.row_no, COALESCE(s.sku, CAST(s.product_id AS varchar)) AS product_key, t.row_no AS winner",
+                (rs, rowNum) -> new BulkStockUpdateFailure(rs.getInt("row_no"), rs.getString("product_key"),
+                        "Duplicate product, superseded by row " + rs.getInt("winner"))));
+
+        // Locked in id order, so snapshots over overlapping products cannot deadlock. Single-product writers,
+        // new reservations and the compactor wait from here on, and the statements below see everything
+        // they committed before the locks were granted.
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (" +
+                "    SELECT id FROM products WHERE id IN (SELECT product_id FROM stock_snapshot_stage) ORDER BY id FOR UPDATE" +
+                ") locked", Long.class);
+
+        // Units held by reservations must stay covered, as for single-product stock sets
+        failures.addAll(jdbcTemplate.query(
+                "DELETE FROM stock_snapshot_stage s USING products p " +
+                "WHERE p.id = s.product_id AND s.quantity < p.reserved_quantity " +
+                "RETURNING s.row_no, COALESCE(s.sku, CAST(s.product_id AS varchar)) AS product_key, s.quantity, p.reserved_quantity",
+                (rs, rowNum) -> new BulkStockUpdateFailure(rs.getInt("row_no"), rs.getString("product_key"),
+                        "Quantity " + rs.getInt("quantity") + " is below the " + rs.getInt("reserved_quantity")
+                                + " units reserved")));
+        return failures;
+    }
+
+    @Override
+    public int applyStockSnapshot(Long userId, String note) {
+        // Snapshot quantities are absolute, the ledger stores deltas against the effective quantity
+        int movements = jdbcTemplate.update(
+                "INSERT INTO stock_movements (product_id, delta, reason, note, folded, created_by, created_at) " +
+                "SELECT p.id, s.quantity - (p.stock_quantity + COALESCE(m.pending, 0)), 'ADJUSTMENT', ?, false, ?, CURRENT_TIMESTAMP " +
+                "FROM stock_snapshot_stage s " +
+                "JOIN products p ON p.id = s.product_id " +
+                "LEFT JOIN (SELECT product_id, SUM(delta) AS pending FROM stock_movements WHERE NOT folded GROUP BY product_id) m " +
+                "    ON m.product_id = p.id " +
+                "WHERE s.quantity <> p.stock_quantity + COALESCE(m.pending, 0)",
+                note, userId);
+        return movements;
+    }
+
+    @Override
+    public int refreshStockSnapshotStatuses(Long userId) {
+        return jdbcTemplate.update(
+                "UPDATE products p SET status = CASE WHEN s.quantity <= 0 THEN 'OUT_OF_STOCK' ELSE 'ACTIVE' END, " +
+                "    updated_by = ?, updated_at = CURRENT_TIMESTAMP " +
+                "FROM stock_snapshot_stage s " +
+                "WHERE p.id = s.product_id " +
+                "AND ((s.quantity <= 0 AND p.status = 'ACTIVE') OR (s.quantity > 0 AND p.status = 'OUT_OF_STOCK'))",
+                userId);
+    }
+
+    /**
+     * Draws ids from the same pooled sequence the entity uses, see {@link PooledSequenceIds}. Unused ids
+     * at the end of the last block are simply skipped.
+     */
+    @Override
+    public List<Long> allocateProductIds(int count) {
+        return PooledSequenceIds.allocate(jdbcTemplate, "products_seq", Product.ID_ALLOCATION_SIZE, count);
+    }
+
+    /**
+     * Inserts a batch of imported products and returns the ids that were actually written. Rows whose
+     * sku already exists, in the table or earlier in the same batch, are skipped by the conflict clause
+     * instead of aborting the whole batch.
+     */
+    @Override
+    public Set<Long> insertImportedProducts(List<ProductImportRow> rows, Long userId) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO products (id, name, description, sku, price, cost_price, stock_quantity, min_stock_level, " +
+                "    weight, dimensions, image_url, status, category_id, created_by, updated_by, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+                "ON CONFLICT DO NOTHING",
+                rows, rows.size(), (ps, row) -> {
+                    ProductCreateRequest product = row.getProduct();
+                    ps.setLong(1, row.getId());
+                    ps.setString(2, product.getName());
+                    ps.setString(3, product.getDescription());
+                    ps.setString(4, product.getSku());
+                    ps.setBigDecimal(5, product.getPrice());
+                    ps.setObject(6, product.getCostPrice(), Types.NUMERIC);
+                    ps.setInt(7, product.getStockQuantity() != null ? product.getStockQuantity() : 0);
+                    ps.setObject(8, product.getMinStockLevel(), Types.INTEGER);
+                    ps.setObject(9, product.getWeight(), Types.NUMERIC);
+                    ps.setString(10, product.getDimensions());
+                    ps.setString(11, product.getImageUrl());
+                    ps.setString(12, (product.getStatus() != null ? product.getStatus() : ProductStatus.ACTIVE).name());
+                    ps.setLong(13, product.getCategoryId());
+                    ps.setObject(14, userId, Types.BIGINT);
+                    ps.setObject(15, userId, Types.BIGINT);
+                });
+
+        // Batched statements report no reliable per-row counts once rewritten, so read back what landed
+        String ids = rows.stream()
+                .map(row -> row.getId().toString())
+                .collect(Collectors.joining(",", "{", "}"));
+        Set<Long> inserted = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE id = ANY(CAST(? AS bigint[]))", Long.class, ids));
+
+        jdbcTemplate.update(
+                "INSERT INTO stock_movements (product_id, delta, reason, note, folded, created_by, created_at) " +
+                "SELECT id, stock_quantity, 'INITIAL', 'import', true, ?, CURRENT_TIMESTAMP FROM products " +
+                "WHERE id = ANY(CAST(? AS bigint[])) AND stock_quantity <> 0",
+                userId, ids);
+        return inserted;
+    }
+
+    /**
+     * Marks up to {@code limit} products that crossed into low or zero stock since the last run and
+     * returns them. Both sides of the predicate are served by a partial index that only holds
+     * unreported crossings, so a quiet catalog costs an empty index probe.
+     */
+    @Override
+    public List<LowStockAlert> claimLowStockCrossings(int limit) {
+        return jdbcTemplate.query(
+                "WITH crossed AS (" +
+                "    SELECT id FROM products WHERE (is_low_stock OR is_out_of_stock) AND NOT low_stock_notified " +
+                "    LIMIT ? FOR UPDATE SKIP LOCKED" +
+                ") " +
+                "UPDATE products p SET low_stock_notified = true FROM crossed WHERE p.id = crossed.id " +
+                "RETURNING p.id, p.sku, p.name, p.stock_quantity, p.min_stock_level, p.is_out_of_stock",
+                (rs, rowNum) -> LowStockAlert.builder()
+                        .productId(rs.getLong("id"))
+                        .sku(rs.getString("sku"))
+                        .name(rs.getString("name"))
+                        .stockQuantity(rs.getInt("stock_quantity"))
+                        .minStockLevel(rs.getObject("min_stock_level", Integer.class))
+                        .outOfStock(rs.getBoolean("is_out_of_stock"))
+                        .build(),
+                limit);
+    }
+
+    @Override
+    public int rearmRecoveredLowStock() {
+        return jdbcTemplate.update("UPDATE products SET low_stock_notified = false " +
+                "WHERE low_stock_notified AND NOT is_low_stock AND NOT is_out_of_stock");
+    }
+}
@@ -1,20 +1,27 @@
 package net.devgrr.springbootinit.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import net.devgrr.springbootinit.entity.Product;
 import net.devgrr.springbootinit.entity.ProductStatus;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductBulkRepository {
     
     List<Product> findByStatusOrderByNameAsc(ProductStatus status);
     
@@ -39,11 +46,9 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                 @Param("categoryId") Long categoryId,
                                 Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity <= p.minStockLevel AND p.minStockLevel IS NOT NULL")
-    List<Product> findLowStockProducts();
+    Page<Product> findByIsLowStockTrueOrderByIdAsc(Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity <= 0")
-    List<Product> findOutOfStockProducts();
+    Page<Product> findByIsOutOfStockTrueOrderByIdAsc(Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
     List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
@@ -51,6 +56,52 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.status = :status")
     long countByStatus(@Param("status") ProductStatus status);
     
-    @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds")
-    List<Product> findByCategoryIdIn(@Param("categoryIds") List<Long> categoryIds);
-}
\ No newline at end of file
+    List<Product> findByCategoryIdInAndStatusOrderByNameAsc(Collection<Long> categoryIds, ProductStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+    
+    // Compacted balance plus unfolded ledger deltas, read in its own statement so it sees everything
+    // committed before the caller took the row lock
+    @Query(value = "SELECT p.stock_quantity + COALESCE((" +
+                   "SELECT SUM(m.delta) FROM stock_movements m WHERE m.product_id = p.id AND NOT m.folded" +
+                   "), 0) FROM products p WHERE p.id = :id", nativeQuery = true)
+    int findEffectiveStockQuantity(@Param("id") Long id);
+    
+    // Native writes without query spaces would evict every second-level cache region; these touch products only
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "products"))
+    @Query(value = "UPDATE products SET reserved_quantity = reserved_quantity + :quantity " +
+                   "WHERE id = :id AND stock_quantity - reserved_quantity + COALESCE((" +
+                   "SELECT SUM(m.delta) FROM stock_movements m WHERE m.product_id = products.id AND NOT m.folded" +
+                   "), 0) >= :quantity", nativeQuery = true)
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "products"))
+    @Query(value = "UPDATE products SET reserved_quantity = GREATEST(reserved_quantity - :quantity, 0) " +
+                   "WHERE id = :id", nativeQuery = true)
+    int releaseReservedStock(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.status = :status GROUP BY p.category.id")
+    List<Object[]> countByCategoryForStatus(@Param("status") ProductStatus status);
+    
+    // Subtree bounds come from Category#getDescendantPathPrefix and Category#pathUpperBound
+    @Query(value = "SELECT count(*) FROM products WHERE status <> 'DISCONTINUED' AND category_id IN (" +
+                   "SELECT id FROM categories WHERE id = :categoryId OR (path >= :prefix AND path < :upperBound))",
+           nativeQuery = true)
+    long countNotDiscontinuedInCategorySubtree(@Param("categoryId") Long categoryId,
+                                               @Param("prefix") String prefix,
+                                               @Param("upperBound") String upperBound);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "products"))
+    @Query(value = "UPDATE products SET status = 'DISCONTINUED', updated_at = now() " +
+                   "WHERE status <> 'DISCONTINUED' AND category_id IN (" +
+                   "SELECT id FROM categories WHERE id = :categoryId OR (path >= :prefix AND path < :upperBound))",
+           nativeQuery = true)
+    int discontinueInCategorySubtree(@Param("categoryId") Long categoryId,
+                                     @Param("prefix") String prefix,
+                                     @Param("upperBound") String upperBound);
+}
@@ -0,0 +1,130 @@
+package net.devgrr.springbootinit.repository;
+
+import io.r2dbc.spi.Readable;
+import net.devgrr.springbootinit.dto.ProductDto;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Product reads for the reactive API, mapped straight from rows to {@link ProductDto} with the same
+ * values {@code ProductService} produces from entities. Multi-row results are fetched through a
+ * cursor {@code fetchSize} rows at a time, so a subscriber that stops requesting also stops the
+ * database from sending more rows. That keeps the connection checked out until the client has read
+ * the whole result.
+ */
+public class ReactiveProductRepository {
+
+    // Stock includes unfolded ledger deltas, as Product#getEffectiveStockQuantity does
+    private static final String SELECT = """
+            SELECT p.id, p.name, p.description, p.sku, p.price, p.cost_price,
+                   (p.stock_quantity + COALESCE((SELECT SUM(m.delta) FROM stock_movements m
+                                                 WHERE m.product_id = p.id AND NOT m.folded), 0))::integer AS effective_stock,
+                   p.reserved_quantity, p.min_stock_level, p.weight, p.dimensions, p.image_url, p.status,
+                   p.category_id, c.name AS category_name,
+                   p.created_by, cu.username AS created_by_username,
+                   p.updated_by, uu.username AS updated_by_username,
+                   p.created_at, p.updated_at, p.is_low_stock, p.is_out_of_stock
+            FROM products p
+            JOIN categories c ON c.id = p.category_id
+            LEFT JOIN users cu ON cu.id = p.created_by
+            LEFT JOIN users uu ON uu.id = p.updated_by
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient, int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<ProductDto> findById(Long id) {
+        return databaseClient.sql(SELECT + "WHERE p.id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toDto)
+                .one();
+    }
+
+    public Mono<ProductDto> findBySku(String sku) {
+        return databaseClient.sql(SELECT + "WHERE p.sku = :sku")
+                .bind("sku", sku)
+                .map(ReactiveProductRepository::toDto)
+                .one();
+    }
+
+    public Flux<ProductDto> findByCategoryIdsAndStatus(Collection<Long> categoryIds, ProductStatus status) {
+        return databaseClient.sql(SELECT + "WHERE p.category_id = ANY(:categoryIds) AND p.status = :status ORDER BY p.name")
+                .bind("categoryIds", categoryIds.toArray(Long[]::new))
+                .bind("status", status.name())
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveProductRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Same match as {@link ProductRepository#searchProducts}, ordered by id for stable paging. Returns
+     * the requested page only; there is no count query, so no totals either.
+     */
+    public Flux<ProductDto> search(String keyword, ProductStatus status, Long categoryId, long offset, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT)
+                .append("WHERE (p.name LIKE :pattern OR p.description LIKE :pattern OR p.sku LIKE :pattern)");
+        if (status != null) {
+            sql.append(" AND p.status = :status");
+        }
+        if (categoryId != null) {
+            sql.append(" AND p.category_id = :categoryId");
+        }
+        sql.append(" ORDER BY p.id LIMIT :limit OFFSET :offset");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("pattern", "%" + keyword + "%")
+                .bind("limit", limit)
+                .bind("offset", offset);
+        if (status != null) {
+            spec = spec.bind("status", status.name());
+        }
+        if (categoryId != null) {
+            spec = spec.bind("categoryId", categoryId);
+        }
+        return spec.filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveProductRepository::toDto)
+                .all();
+    }
+
+    private static ProductDto toDto(Readable row) {
+        int stock = row.get("effective_stock", Integer.class);
+        int reserved = row.get("reserved_quantity", Integer.class);
+        return ProductDto.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .sku(row.get("sku", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .costPrice(row.get("cost_price", BigDecimal.class))
+                .stockQuantity(stock)
+                .reservedQuantity(reserved)
+                .availableQuantity(Math.max(0, stock - reserved))
+                .minStockLevel(row.get("min_stock_level", Integer.class))
+                .weight(row.get("weight", BigDecimal.class))
+                .dimensions(row.get("dimensions", String.class))
+                .imageUrl(row.get("image_url", String.class))
+                .status(ProductStatus.valueOf(row.get("status", String.class)))
+                .categoryId(row.get("category_id", Long.class))
+                .categoryName(row.get("category_name", String.class))
+                .createdById(row.get("created_by", Long.class))
+                .createdByUsername(row.get("created_by_username", String.class))
+                .updatedById(row.get("updated_by", Long.class))
+                .updatedByUsername(row.get("updated_by_username", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .isLowStock(row.get("is_low_stock", Boolean.class))
+                .isOutOfStock(row.get("is_out_of_stock", Boolean.class))
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package net.devgrr.springbootinit.repository;
+
+import net.devgrr.springbootinit.entity.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    Page<StockMovement> findByProductIdOrderByIdDesc(Long productId, Pageable pageable);
+
+    /**
+     * Folds up to {@code batchSize} unfolded movements into products.stock_quantity in one statement
+     * and returns how many movements were folded. Rows still being written by other transactions are
+     * invisible here and get picked up by a later run, so commit order never loses a delta.
+     */
+    @Transactional
+    @Query(value = "WITH batch AS (" +
+                   "    SELECT id FROM stock_movements WHERE NOT folded ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED" +
+                   "), folded AS (" +
+                   "    UPDATE stock_movements m SET folded = true FROM batch WHERE m.id = batch.id " +
+                   "    RETURNING m.product_id, m.delta" +
+                   "), totals AS (" +
+                   "    SELECT product_id, SUM(delta) AS total, COUNT(*) AS movements FROM folded GROUP BY product_id" +
+                   "), applied AS (" +
+                   "    UPDATE products p SET stock_quantity = p.stock_quantity + t.total, " +
+                   "        status = CASE " +
+                   "            WHEN p.status = 'ACTIVE' AND p.stock_quantity + t.total <= 0 THEN 'OUT_OF_STOCK' " +
+                   "            WHEN p.status = 'OUT_OF_STOCK' AND p.stock_quantity + t.total > 0 THEN 'ACTIVE' " +
+                   "            ELSE p.status END " +
+                   "    FROM totals t WHERE p.id = t.product_id RETURNING p.id" +
+                   ") " +
+                   "SELECT CAST(COALESCE(SUM(movements), 0) AS bigint) FROM totals", nativeQuery = true)
+    long compactBatch(@Param("batchSize") int batchSize);
+}
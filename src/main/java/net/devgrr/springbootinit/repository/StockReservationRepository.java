@@ -0,0 +1,43 @@
+package net.devgrr.springbootinit.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import net.devgrr.springbootinit.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    List<StockReservation> findByExpiresAtAfter(LocalDateTime now);
+
+    // -2 is Hibernate's SKIP LOCKED timeout, so concurrent expiry runs never wait on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM StockReservation r WHERE r.id IN :ids AND r.expiresAt <= :now")
+    List<StockReservation> findExpiredByIdIn(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM StockReservation r WHERE r.expiresAt <= :now ORDER BY r.expiresAt")
+    List<StockReservation> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.id = :id AND r.expiresAt > :now")
+    int deleteActiveById(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.id = :id")
+    int deleteByIdReturningCount(@Param("id") UUID id);
+}
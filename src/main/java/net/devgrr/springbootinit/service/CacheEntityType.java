@@ -0,0 +1,12 @@
+package net.devgrr.springbootinit.service;
+
+/**
+ * Kinds of data a node may cache locally, used as the topic of {@link CacheInvalidationBus} events.
+ */
+public enum CacheEntityType {
+    PRODUCT,
+    CATEGORY,
+    USER,
+    COMMON_CODE,
+    COMMON_CODE_GROUP
+}
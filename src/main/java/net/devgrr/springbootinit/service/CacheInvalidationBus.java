@@ -0,0 +1,194 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Tells the other application instances which cached entities a write changed, over PostgreSQL
+ * {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * {@link #publish} issues {@code pg_notify} inside the writing transaction, so PostgreSQL delivers
+ * the event only once that transaction commits and drops it on rollback; identical events within
+ * one transaction are delivered once. Each instance keeps one dedicated connection, outside the
+ * pool, listening on the channel and hands incoming events to every {@link CacheInvalidationListener}
+ * that handles the entity type. Events published by this instance are skipped, since its own caches
+ * are already invalidated after commit. Whenever the listener (re)connects it cannot know what it
+ * missed, so it asks every listener to flush.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    static final String CHANNEL = "cache_invalidation";
+
+    static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
+    private static final String SEPARATOR = ":";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<CacheInvalidationListener> listeners;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.poll-timeout-ms:5000}")
+    private int pollTimeoutMs;
+
+    @Value("${cache.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    /**
+     * Publishes a change to one entity, or to many entities of the type when the key is null. Call
+     * it from the writing transaction.
+     */
+    public void publish(CacheEntityType type, Object key) {
+        String payload = nodeId + SEPARATOR + type.name() + SEPARATOR + (key != null ? key : "");
+        jdbcTemplate.queryForList(NOTIFY_SQL, CHANNEL, payload);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            try {
+                listenerThread.join(pollTimeoutMs + 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listenerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for cache invalidations on channel {}", CHANNEL);
+                flush();
+                receive(connection);
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection, reconnecting in {} ms", reconnectDelayMs, e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+            if (notifications == null || notifications.length == 0) {
+                // A quiet socket says nothing about whether the server is still there
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                dispatch(notification.getParameter());
+            }
+        }
+    }
+
+    void dispatch(String payload) {
+        String[] parts = payload.split(SEPARATOR, 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        CacheEntityType type;
+        try {
+            type = CacheEntityType.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring cache invalidation for unknown type {}", parts[1]);
+            return;
+        }
+        String key = parts[2].isEmpty() ? null : parts[2];
+        for (CacheInvalidationListener listener : listeners) {
+            if (!listener.handles(type)) {
+                continue;
+            }
+            try {
+                listener.onInvalidation(type, key);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation listener {} failed for {} {}", listener.getClass().getSimpleName(), type, key, e);
+            }
+        }
+    }
+
+    void flush() {
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.onFlush();
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation listener {} failed to flush", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private Connection openListenerConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("ApplicationName", "cache-invalidation-listener");
+        return DriverManager.getConnection(url, properties);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package net.devgrr.springbootinit.service;
+
+/**
+ * A local cache that wants to hear about writes committed by other application instances.
+ * Implementations are picked up by {@link CacheInvalidationBus} and called on its listener thread.
+ */
+public interface CacheInvalidationListener {
+
+    boolean handles(CacheEntityType type);
+
+    /**
+     * Another instance committed a change to the given entity. The key is null when the change
+     * touched many entities of the type at once.
+     */
+    void onInvalidation(CacheEntityType type, String key);
+
+    /**
+     * Events may have been missed, for example while the listener connection was down, so
+     * everything cached should be treated as stale.
+     */
+    void onFlush();
+}
@@ -0,0 +1,148 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.entity.Category;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link CategorySnapshot}. The snapshot is loaded at startup, or on first use if
+ * that failed, and replaced as a whole after every committed category change, so readers always see
+ * one consistent tree and never wait on a rebuild. Changes written by other application instances arrive through
+ * {@link CacheInvalidationBus}, with a periodic refresh as a backstop.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryHierarchyCache implements CacheInvalidationListener, StartupWarmer {
+
+    private static final String LOAD_SQL =
+            "SELECT id, name, description, display_order, is_active, parent_id, created_at, updated_at FROM categories";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile CategorySnapshot snapshot;
+
+    @Value("${category.hierarchy-cache.max-entries:1000}")
+    private int maxEntries;
+
+    public CategorySnapshot snapshot() {
+        CategorySnapshot current = snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Returns the ids of the category and all of its active descendants, or an empty set when the
+     * category does not exist or is inactive.
+     */
+    public Set<Long> getSubtreeIds(Long rootId) {
+        return snapshot().getSubtreeIds(rootId);
+    }
+
+    /**
+     * Schedules a rebuild for after the current transaction commits. A rolled back change leaves
+     * the snapshot untouched.
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildQuietly();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuildQuietly();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${category.hierarchy-cache.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (snapshot != null) {
+            rebuildQuietly();
+        }
+    }
+
+    @Override
+    public boolean handles(CacheEntityType type) {
+        return type == CacheEntityType.CATEGORY;
+    }
+
+    @Override
+    public void onInvalidation(CacheEntityType type, String key) {
+        refresh();
+    }
+
+    @Override
+    public void onFlush() {
+        refresh();
+    }
+
+    @Override
+    public void warmUp() {
+        rebuildQuietly();
+    }
+
+    // Serialized so a rebuild that started later, and therefore read later data, is always the one left
+    // installed. A lock rather than a monitor, so virtual threads waiting behind the query keep their carriers.
+    CategorySnapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            CategorySnapshot rebuilt = CategorySnapshot.of(loadCategories(), maxEntries);
+            snapshot = rebuilt;
+            log.debug("Rebuilt category snapshot with {} categories", rebuilt.size());
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // A new read-write transaction, so the query neither joins a caller's read-only transaction nor, with
+    // replicas enabled, runs on a replica that may not have replayed the change a rebuild was triggered by
+    private List<Category> loadCategories() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template.execute(status -> jdbcTemplate.query(LOAD_SQL, (rs, rowNum) -> {
+            long parentId = rs.getLong("parent_id");
+            Category parent = rs.wasNull() ? null : Category.builder().id(parentId).build();
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            return Category.builder()
+                    .id(rs.getLong("id"))
+                    .name(rs.getString("name"))
+                    .description(rs.getString("description"))
+                    .displayOrder((Integer) rs.getObject("display_order"))
+                    .isActive(rs.getBoolean("is_active"))
+                    .parent(parent)
+                    .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                    .updatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null)
+                    .build();
+        }));
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Drop the stale snapshot so the next read reloads it instead of serving outdated data
+            snapshot = null;
+            log.error("Failed to rebuild category snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps active-product counts per category in memory, both direct and rolled up through active
+ * descendants. Product writes apply +1/-1 after their transaction commits, and a periodic
+ * reconciliation replaces the counts with one grouped query, which also folds in set-based status
+ * changes such as ledger compaction. Product writes on other instances are picked up by that same
+ * scheduled run rather than on a request thread, so counts there can trail by up to one interval.
+ * A delta that commits while reconciliation is reading can be off by one until the next run.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryProductCounter implements StartupWarmer {
+
+    private final ProductRepository productRepository;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+    // Not a monitor: totals are rebuilt while holding it, which may load the category snapshot, and a
+    // virtual thread blocked on that query inside a monitor would pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Map<Long, Long> directCounts;
+    private volatile Map<Long, Long> totalCounts = new ConcurrentHashMap<>();
+    private volatile CategorySnapshot totalsSnapshot;
+
+    public long getDirectCount(Long categoryId) {
+        ensureCurrent();
+        return directCounts.getOrDefault(categoryId, 0L);
+    }
+
+    public long getTotalCount(Long categoryId) {
+        ensureCurrent();
+        return totalCounts.getOrDefault(categoryId, 0L);
+    }
+
+    /**
+     * Records that a product left one counted category and joined another once the current
+     * transaction commits. Either side is null when the product was not, or is no longer, active.
+     */
+    public void recordChange(Long fromCategoryId, Long toCategoryId) {
+        if (Objects.equals(fromCategoryId, toCategoryId)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(fromCategoryId, toCategoryId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(fromCategoryId, toCategoryId);
+            }
+        });
+    }
+
+    /**
+     * Reconciles once the current transaction commits, for set-based writes that change many
+     * product statuses at once.
+     */
+    public void reconcileAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reconcile();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reconcile();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${category.product-counts.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        List<Object[]> rows = productRepository.countByCategoryForStatus(ProductStatus.ACTIVE);
+        Map<Long, Long> counts = new ConcurrentHashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+
+        lock.lock();
+        try {
+            Map<Long, Long> previous = directCounts;
+            long drifted = previous != null ? countDrifted(previous, counts) : 0;
+            if (drifted > 0) {
+                log.info("Corrected drifted product counts for {} categories", drifted);
+            }
+            directCounts = counts;
+            rebuildTotals(categoryHierarchyCache.snapshot());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void warmUp() {
+        reconcile();
+    }
+
+    private void ensureCurrent() {
+        if (directCounts == null) {
+            reconcile();
+        }
+        CategorySnapshot snapshot = categoryHierarchyCache.snapshot();
+        if (snapshot != totalsSnapshot) {
+            lock.lock();
+            try {
+                if (snapshot != totalsSnapshot) {
+                    rebuildTotals(snapshot);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void apply(Long fromCategoryId, Long toCategoryId) {
+        lock.lock();
+        try {
+            // Not loaded yet, the first reconciliation will include this change
+            if (directCounts == null) {
+                return;
+            }
+            if (fromCategoryId != null) {
+                adjust(fromCategoryId, -1);
+            }
+            if (toCategoryId != null) {
+                adjust(toCategoryId, 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(Long categoryId, long delta) {
+        directCounts.merge(categoryId, delta, Long::sum);
+        CategorySnapshot.Node node = totalsSnapshot != null ? totalsSnapshot.get(categoryId) : null;
+        if (node != null) {
+            addToTotals(totalCounts, node, delta);
+        }
+    }
+
+    // Callers hold the lock
+    private void rebuildTotals(CategorySnapshot snapshot) {
+        Map<Long, Long> totals = new ConcurrentHashMap<>();
+        directCounts.forEach((categoryId, count) -> {
+            CategorySnapshot.Node node = snapshot.get(categoryId);
+            if (node != null) {
+                addToTotals(totals, node, count);
+            }
+        });
+        totalCounts = totals;
+        totalsSnapshot = snapshot;
+    }
+
+    // A count rolls up through active categories only, matching the descendant-aware product listing
+    private static void addToTotals(Map<Long, Long> totals, CategorySnapshot.Node node, long delta) {
+        List<CategorySnapshot.Node> breadcrumb = node.getBreadcrumb();
+        for (int i = breadcrumb.size() - 1; i >= 0; i--) {
+            CategorySnapshot.Node current = breadcrumb.get(i);
+            totals.merge(current.getId(), delta, Long::sum);
+            if (!current.isActive()) {
+                break;
+            }
+        }
+    }
+
+    private static long countDrifted(Map<Long, Long> previous, Map<Long, Long> current) {
+        return current.keySet().stream()
+                .filter(id -> !current.get(id).equals(previous.getOrDefault(id, 0L)))
+                .count()
+                + previous.keySet().stream()
+                .filter(id -> !current.containsKey(id) && previous.get(id) != 0L)
+                .count();
+    }
+}
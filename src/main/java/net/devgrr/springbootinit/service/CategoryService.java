@@ -3,15 +3,23 @@ package net.devgrr.springbootinit.service;
 import lombok.RequiredArgsConstructor;
 import net.devgrr.springbootinit.dto.CategoryCreateRequest;
 import net.devgrr.springbootinit.dto.CategoryDto;
+import net.devgrr.springbootinit.dto.CategoryProductCountDto;
+import net.devgrr.springbootinit.dto.CategorySubtreeResult;
 import net.devgrr.springbootinit.entity.Category;
 import net.devgrr.springbootinit.exception.CategoryNotFoundException;
 import net.devgrr.springbootinit.repository.CategoryRepository;
+import net.devgrr.springbootinit.repository.ProductRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,55 +28,80 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+    private final CategoryProductCounter categoryProductCounter;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDto> getAllCategories() {
-        return categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(categoryHierarchyCache.snapshot().getActive());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<CategoryDto> getAllCategories(Pageable pageable) {
-        return categoryRepository.findAll(pageable)
+        return categoryHierarchyCache.snapshot().page(pageable)
                 .map(this::convertToDto);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDto> getRootCategories() {
-        return categoryRepository.findByParentIsNullAndIsActiveTrueOrderByDisplayOrderAsc()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(categoryHierarchyCache.snapshot().getActiveRoots());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDto> getSubCategories(Long parentId) {
-        return categoryRepository.findByParentIdAndIsActiveTrueOrderByDisplayOrderAsc(parentId)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(categoryHierarchyCache.snapshot().getActiveChildren(parentId));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CategoryDto getCategoryById(Long id) {
-        Category category = categoryRepository.findByIdAndIsActiveTrue(id)
-                .orElseThrow(() -> new CategoryNotFoundException(id));
-        return convertToDto(category);
+        return convertToDto(getActiveNode(id));
+    }
+
+    /**
+     * Nests the active subtree under the category through {@link CategoryDto#getChildren()},
+     * siblings ordered by display order.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CategoryDto getCategoryTree(Long id) {
+        return convertToTree(getActiveNode(id), new HashSet<>());
+    }
+
+    /**
+     * Returns the path from the root category down to the category itself.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategoryDto> getBreadcrumb(Long id) {
+        return toDtos(getActiveNode(id).getBreadcrumb());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDto> searchCategories(String keyword) {
-        return categoryRepository.searchByKeyword(keyword)
+        return toDtos(categoryHierarchyCache.snapshot().search(keyword));
+    }
+
+    /**
+     * Active-product counts of every active category, directly assigned and including active
+     * descendants, in display order.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategoryProductCountDto> getProductCounts() {
+        return categoryHierarchyCache.snapshot().getActive()
                 .stream()
-                .map(this::convertToDto)
+                .map(node -> CategoryProductCountDto.builder()
+                        .categoryId(node.getId())
+                        .name(node.getName())
+                        .productCount(categoryProductCounter.getDirectCount(node.getId()))
+                        .totalProductCount(categoryProductCounter.getTotalCount(node.getId()))
+                        .build())
                 .collect(Collectors.toList());
     }
 
     public CategoryDto createCategory(CategoryCreateRequest request) {
         Category parent = null;
         if (request.getParentId() != null) {
+            categoryRepository.lockHierarchy();
             parent = categoryRepository.findByIdAndIsActiveTrue(request.getParentId())
                     .orElseThrow(() -> new CategoryNotFoundException(request.getParentId()));
         }
@@ -83,13 +116,19 @@ public class CategoryService {
                 .displayOrder(request.getDisplayOrder())
                 .isActive(request.getIsActive() != null ? request.getIsActive() : true)
                 .parent(parent)
+                .path(parent != null ? parent.getDescendantPathPrefix() : "/")
                 .build();
 
         Category savedCategory = categoryRepository.save(category);
+        categoryHierarchyCache.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.CATEGORY, savedCategory.getId());
         return convertToDto(savedCategory);
     }
 
     public CategoryDto updateCategory(Long id, CategoryCreateRequest request) {
+        if (request.getParentId() != null) {
+            categoryRepository.lockHierarchy();
+        }
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new CategoryNotFoundException(id));
 
@@ -115,19 +154,137 @@ public class CategoryService {
         if (request.getParentId() != null) {
             Category parent = categoryRepository.findByIdAndIsActiveTrue(request.getParentId())
                     .orElseThrow(() -> new CategoryNotFoundException(request.getParentId()));
-            category.setParent(parent);
+            moveCategory(category, parent);
         }
 
         Category updatedCategory = categoryRepository.save(category);
+        categoryHierarchyCache.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.CATEGORY, id);
         return convertToDto(updatedCategory);
     }
 
     public void deleteCategory(Long id) {
+        deactivateSubtree(id, false, false);
+    }
+
+    /**
+     * Deactivates the category together with its whole subtree, optionally discontinuing every
+     * product in it. A dry run only counts the rows that would change.
+     */
+    public CategorySubtreeResult deactivateSubtree(Long id, boolean discontinueProducts, boolean dryRun) {
+        if (!dryRun) {
+            categoryRepository.lockHierarchy();
+        }
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new CategoryNotFoundException(id));
+        return setSubtreeActive(category, false, discontinueProducts, dryRun);
+    }
+
+    public CategorySubtreeResult reactivateSubtree(Long id, boolean dryRun) {
+        if (!dryRun) {
+            categoryRepository.lockHierarchy();
+        }
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new CategoryNotFoundException(id));
+        if (category.getParent() != null && !Boolean.TRUE.equals(category.getParent().getIsActive())) {
+            throw new RuntimeException("Category " + id + " cannot be reactivated while its parent category is inactive");
+        }
+        return setSubtreeActive(category, true, false, dryRun);
+    }
+
+    /**
+     * Moves the category and its subtree under another active category, or to the root level when
+     * no parent is given.
+     */
+    public CategorySubtreeResult moveSubtree(Long id, Long parentId, boolean dryRun) {
+        if (!dryRun) {
+            categoryRepository.lockHierarchy();
+        }
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new CategoryNotFoundException(id));
+        Category parent = null;
+        if (parentId != null) {
+            parent = categoryRepository.findByIdAndIsActiveTrue(parentId)
+                    .orElseThrow(() -> new CategoryNotFoundException(parentId));
+        }
+        if (categoryRepository.existsByNameAndParentIdAndIdNot(category.getName(), parentId, id)) {
+            throw new RuntimeException("Category with name '" + category.getName() + "' already exists in this parent category");
+        }
+
+        long moved;
+        if (!isMove(category, parent)) {
+            moved = 0;
+        } else if (dryRun) {
+            String prefix = category.getDescendantPathPrefix();
+            moved = 1 + categoryRepository.findDescendantIds(prefix, Category.pathUpperBound(prefix)).size();
+        } else {
+            moved = 1 + moveCategory(category, parent);
+            categoryRepository.save(category);
+            categoryHierarchyCache.invalidate();
+            cacheInvalidationBus.publish(CacheEntityType.CATEGORY, id);
+        }
+        return CategorySubtreeResult.builder()
+                .categoryId(id)
+                .dryRun(dryRun)
+                .categoriesAffected(moved)
+                .build();
+    }
+
+    private CategorySubtreeResult setSubtreeActive(Category category, boolean active, boolean discontinueProducts, boolean dryRun) {
+        String prefix = category.getDescendantPathPrefix();
+        String upperBound = Category.pathUpperBound(prefix);
+
+        long categories;
+        long products = 0;
+        if (dryRun) {
+            categories = categoryRepository.countSubtreeToSetActive(category.getId(), prefix, upperBound, active);
+            if (discontinueProducts) {
+                products = productRepository.countNotDiscontinuedInCategorySubtree(category.getId(), prefix, upperBound);
+            }
+        } else {
+            if (discontinueProducts) {
+                products = productRepository.discontinueInCategorySubtree(category.getId(), prefix, upperBound);
+                categoryProductCounter.reconcileAfterCommit();
+                cacheInvalidationBus.publish(CacheEntityType.PRODUCT, null);
+            }
+            categories = categoryRepository.setSubtreeActive(category.getId(), prefix, upperBound, active);
+            categoryHierarchyCache.invalidate();
+            cacheInvalidationBus.publish(CacheEntityType.CATEGORY, category.getId());
+        }
+        return CategorySubtreeResult.builder()
+                .categoryId(category.getId())
+                .dryRun(dryRun)
+                .categoriesAffected(categories)
+                .productsDiscontinued(products)
+                .build();
+    }
+
+    private boolean isMove(Category category, Category parent) {
+        Long currentParentId = category.getParent() != null ? category.getParent().getId() : null;
+        Long newParentId = parent != null ? parent.getId() : null;
+        if (Objects.equals(currentParentId, newParentId)) {
+            return false;
+        }
+        if (parent != null && parent.isSelfOrDescendantOf(category)) {
+            throw new RuntimeException("Category " + category.getId() + " cannot be moved under itself or one of its descendants");
+        }
+        return true;
+    }
 
-        category.setIsActive(false);
-        categoryRepository.save(category);
+    /**
+     * Reparents the category and rewrites the paths of its whole subtree with one range update.
+     * Returns the number of descendants whose path changed.
+     */
+    private int moveCategory(Category category, Category parent) {
+        if (!isMove(category, parent)) {
+            return 0;
+        }
+
+        String oldPrefix = category.getDescendantPathPrefix();
+        category.setParent(parent);
+        category.setPath(parent != null ? parent.getDescendantPathPrefix() : "/");
+        return categoryRepository.moveDescendants(oldPrefix, category.getDescendantPathPrefix(),
+                Category.pathUpperBound(oldPrefix));
     }
 
     private CategoryDto convertToDto(Category category) {
@@ -139,8 +296,51 @@ public class CategoryService {
                 .isActive(category.getIsActive())
                 .parentId(category.getParent() != null ? category.getParent().getId() : null)
                 .parentName(category.getParent() != null ? category.getParent().getName() : null)
+                .productCount(category.getId() != null ? categoryProductCounter.getDirectCount(category.getId()) : null)
+                .totalProductCount(category.getId() != null ? categoryProductCounter.getTotalCount(category.getId()) : null)
                 .createdAt(category.getCreatedAt())
                 .updatedAt(category.getUpdatedAt())
                 .build();
     }
+
+    private CategorySnapshot.Node getActiveNode(Long id) {
+        CategorySnapshot.Node node = categoryHierarchyCache.snapshot().getActive(id);
+        if (node == null) {
+            throw new CategoryNotFoundException(id);
+        }
+        return node;
+    }
+
+    private CategoryDto convertToTree(CategorySnapshot.Node node, Set<Long> visited) {
+        CategoryDto dto = convertToDto(node);
+        dto.setChildren(new ArrayList<>());
+        for (CategorySnapshot.Node child : node.getActiveChildren()) {
+            if (visited.add(child.getId())) {
+                dto.getChildren().add(convertToTree(child, visited));
+            }
+        }
+        return dto;
+    }
+
+    private List<CategoryDto> toDtos(List<CategorySnapshot.Node> nodes) {
+        return nodes.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    private CategoryDto convertToDto(CategorySnapshot.Node node) {
+        return CategoryDto.builder()
+                .id(node.getId())
+                .name(node.getName())
+                .description(node.getDescription())
+                .displayOrder(node.getDisplayOrder())
+                .isActive(node.isActive())
+                .parentId(node.getParentId())
+                .parentName(node.getParent() != null ? node.getParent().getName() : null)
+                .productCount(categoryProductCounter.getDirectCount(node.getId()))
+                .totalProductCount(categoryProductCounter.getTotalCount(node.getId()))
+                .createdAt(node.getCreatedAt())
+                .updatedAt(node.getUpdatedAt())
+                .build();
+    }
 }
\ No newline at end of file
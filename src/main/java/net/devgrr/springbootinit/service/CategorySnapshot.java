@@ -0,0 +1,223 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.Getter;
+import net.devgrr.springbootinit.entity.Category;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, pre-indexed view of the whole category forest. Children lists and the active listings
+ * are sorted once at build time and breadcrumb paths are precomputed, so every read is a map lookup
+ * or a list copy. Replaced wholesale by {@link CategoryHierarchyCache} whenever a category changes.
+ */
+public final class CategorySnapshot {
+
+    private static final Comparator<Node> DISPLAY_ORDER = Comparator
+            .comparing(Node::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Node::getId);
+
+    private static final Map<String, Comparator<Node>> SORTABLE = Map.of(
+            "id", Comparator.comparing(Node::getId),
+            "name", Comparator.comparing(Node::getName, Comparator.nullsLast(Comparator.naturalOrder())),
+            "description", Comparator.comparing(Node::getDescription, Comparator.nullsLast(Comparator.naturalOrder())),
+            "displayOrder", Comparator.comparing(Node::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder())),
+            "isActive", Comparator.comparing(Node::isActive),
+            "createdAt", Comparator.comparing(Node::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())),
+            "updatedAt", Comparator.comparing(Node::getUpdatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+
+    private final Map<Long, Node> nodes;
+    private final List<Node> allById;
+    private final List<Node> active;
+    private final List<Node> activeRoots;
+    private final Map<Long, Set<Long>> subtreeIds = new ConcurrentHashMap<>();
+    private final int maxCachedSubtrees;
+
+    private CategorySnapshot(Map<Long, Node> nodes, int maxCachedSubtrees) {
+        this.nodes = nodes;
+        this.maxCachedSubtrees = maxCachedSubtrees;
+
+        List<Node> sortedById = new ArrayList<>(nodes.values());
+        sortedById.sort(Comparator.comparing(Node::getId));
+        this.allById = Collections.unmodifiableList(sortedById);
+        this.active = sortedById.stream()
+                .filter(Node::isActive)
+                .sorted(DISPLAY_ORDER)
+                .collect(Collectors.toUnmodifiableList());
+        this.activeRoots = active.stream()
+                .filter(node -> node.parentId == null)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Builds a snapshot from categories whose {@code parent} only needs its id set. Parent links to
+     * categories missing from the list are ignored.
+     */
+    public static CategorySnapshot of(List<Category> categories, int maxCachedSubtrees) {
+        Map<Long, Node> nodes = new HashMap<>();
+        for (Category category : categories) {
+            nodes.put(category.getId(), new Node(category));
+        }
+
+        Map<Long, List<Node>> children = new HashMap<>();
+        for (Node node : nodes.values()) {
+            node.parent = node.parentId != null ? nodes.get(node.parentId) : null;
+            if (node.parent != null && node.active) {
+                children.computeIfAbsent(node.parentId, id -> new ArrayList<>()).add(node);
+            }
+        }
+        for (Node node : nodes.values()) {
+            List<Node> activeChildren = children.getOrDefault(node.id, new ArrayList<>());
+            activeChildren.sort(DISPLAY_ORDER);
+            node.activeChildren = Collections.unmodifiableList(activeChildren);
+            node.breadcrumb = Collections.unmodifiableList(buildBreadcrumb(node));
+        }
+        return new CategorySnapshot(Map.copyOf(nodes), maxCachedSubtrees);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public Node get(Long id) {
+        return nodes.get(id);
+    }
+
+    public Node getActive(Long id) {
+        Node node = nodes.get(id);
+        return node != null && node.active ? node : null;
+    }
+
+    public List<Node> getActive() {
+        return active;
+    }
+
+    public List<Node> getActiveRoots() {
+        return activeRoots;
+    }
+
+    public List<Node> getActiveChildren(Long parentId) {
+        Node parent = nodes.get(parentId);
+        return parent != null ? parent.activeChildren : List.of();
+    }
+
+    public List<Node> search(String keyword) {
+        return allById.stream()
+                .filter(node -> contains(node.name, keyword) || contains(node.description, keyword))
+                .collect(Collectors.toList());
+    }
+
+    public Page<Node> page(Pageable pageable) {
+        List<Node> sorted = allById;
+        if (pageable.getSort().isSorted()) {
+            sorted = new ArrayList<>(allById);
+            sorted.sort(comparatorFor(pageable.getSort()));
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(sorted, pageable, sorted.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(new ArrayList<>(sorted.subList(from, to)), pageable, sorted.size());
+    }
+
+    /**
+     * Ids of the active category and all of its active descendants, or an empty set when the
+     * category is missing or inactive. Results are memoized for the lifetime of this snapshot.
+     */
+    public Set<Long> getSubtreeIds(Long rootId) {
+        Set<Long> cached = subtreeIds.get(rootId);
+        if (cached != null) {
+            return cached;
+        }
+        Node root = getActive(rootId);
+        if (root == null) {
+            return Set.of();
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (ids.add(node.id)) {
+                node.activeChildren.forEach(pending::push);
+            }
+        }
+        Set<Long> result = Collections.unmodifiableSet(ids);
+        if (subtreeIds.size() < maxCachedSubtrees) {
+            subtreeIds.put(rootId, result);
+        }
+        return result;
+    }
+
+    private static List<Node> buildBreadcrumb(Node node) {
+        List<Node> path = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        for (Node current = node; current != null && visited.add(current.id); current = current.parent) {
+            path.add(current);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static boolean contains(String value, String keyword) {
+        return value != null && value.contains(keyword);
+    }
+
+    private static Comparator<Node> comparatorFor(Sort sort) {
+        Comparator<Node> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Node> next = SORTABLE.get(order.getProperty());
+            if (next == null) {
+                throw new IllegalArgumentException("Unsupported category sort property: " + order.getProperty());
+            }
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator.thenComparing(Node::getId);
+    }
+
+    @Getter
+    public static final class Node {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Integer displayOrder;
+        private final boolean active;
+        private final Long parentId;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+        // Assigned once while the snapshot is built and never changed afterwards
+        private Node parent;
+        private List<Node> activeChildren;
+        private List<Node> breadcrumb;
+
+        private Node(Category category) {
+            this.id = category.getId();
+            this.name = category.getName();
+            this.description = category.getDescription();
+            this.displayOrder = category.getDisplayOrder();
+            this.active = Boolean.TRUE.equals(category.getIsActive());
+            this.parentId = category.getParent() != null ? category.getParent().getId() : null;
+            this.createdAt = category.getCreatedAt();
+            this.updatedAt = category.getUpdatedAt();
+        }
+    }
+}
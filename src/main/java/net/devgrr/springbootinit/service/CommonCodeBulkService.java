@@ -0,0 +1,285 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.dto.CommonCodeCreateRequest;
+import net.devgrr.springbootinit.dto.CommonCodeImportFailure;
+import net.devgrr.springbootinit.dto.CommonCodeImportResult;
+import net.devgrr.springbootinit.dto.CommonCodeImportRow;
+import net.devgrr.springbootinit.repository.CommonCodeRepository;
+import net.devgrr.springbootinit.util.CsvUtils;
+import net.devgrr.springbootinit.util.JsonArrayReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import and export of common codes. Imports are streamed as CSV or a JSON array, staged batch by
+ * batch and merged with one upsert keyed on group and code, all in one transaction. Exports are written
+ * from the registry snapshot in the same formats, so an export can be imported as is.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class CommonCodeBulkService {
+
+    private static final List<String> CSV_HEADER = List.of(
+            "group_code", "code", "code_name", "code_value", "description", "use_yn", "sort_order");
+
+    private static final Map<String, String> CSV_COLUMNS = Map.of(
+            "groupcode", "groupCode",
+            "code", "code",
+            "codename", "codeName",
+            "codevalue", "codeValue",
+            "description", "description",
+            "useyn", "useYn",
+            "sortorder", "sortOrder");
+
+    private final CommonCodeRepository commonCodeRepository;
+    private final CommonCodeRegistry commonCodeRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${common-code.import.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${common-code.import.max-reported-failures:1000}")
+    private int maxReportedFailures;
+
+    /**
+     * Creates or overwrites the codes streamed as a JSON array of code objects or as CSV with a
+     * {@code group_code,code,code_name[,code_value,description,use_yn,sort_order]} header. An imported
+     * row replaces every field of an existing code with the same group and code. Rows with an unknown
+     * group or invalid values are reported and skipped; a later row for the same code supersedes an
+     * earlier one.
+     */
+    public CommonCodeImportResult importCodes(InputStream body, boolean csv) {
+        long started = System.currentTimeMillis();
+
+        commonCodeRepository.createCommonCodeImportStage();
+        ImportBatcher batcher = new ImportBatcher();
+        try {
+            if (csv) {
+                readCsv(body, batcher);
+            } else {
+                readJson(body, batcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read common code import", e);
+        }
+        batcher.flush();
+
+        batcher.failures.addAll(commonCodeRepository.resolveCommonCodeImportStage());
+        int imported = commonCodeRepository.mergeCommonCodeImportStage();
+        int failed = batcher.failures.size();
+        if (imported > 0) {
+            secondLevelCacheInvalidator.evictAfterCommit(CacheEntityType.COMMON_CODE);
+            commonCodeRegistry.invalidate();
+            cacheInvalidationBus.publish(CacheEntityType.COMMON_CODE, null);
+        }
+
+        log.info("Imported common codes: {} rows, {} imported, {} failed", batcher.received, imported, failed);
+        return CommonCodeImportResult.builder()
+                .received(batcher.received)
+                .imported(imported)
+                .unchanged(batcher.received - failed - imported)
+                .failed(failed)
+                .failures(batcher.failures.size() > maxReportedFailures
+                        ? new ArrayList<>(batcher.failures.subList(0, maxReportedFailures))
+                        : batcher.failures)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    /**
+     * Writes every code of the given groups, or of all groups when none are given, in use or not.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void exportCodes(OutputStream out, boolean csv, Collection<String> groupCodes) throws IOException {
+        CommonCodeSnapshot snapshot = commonCodeRegistry.snapshot();
+        List<String> groups = groupCodes == null || groupCodes.isEmpty()
+                ? snapshot.getGroups().stream().map(CommonCodeSnapshot.Group::getGroupCode).collect(Collectors.toList())
+                : groupCodes.stream().map(String::trim).filter(group -> !group.isEmpty()).distinct().sorted()
+                        .collect(Collectors.toList());
+
+        if (csv) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CsvUtils.formatLine(CSV_HEADER));
+            writer.write("\r\n");
+            for (String group : groups) {
+                for (CommonCodeSnapshot.Code code : snapshot.getCodes(group)) {
+                    writer.write(CsvUtils.formatLine(Arrays.asList(code.getGroupCode(), code.getCode(),
+                            code.getCodeName(), code.getCodeValue(), code.getDescription(), code.getUseYn(),
+                            code.getSortOrder() != null ? code.getSortOrder().toString() : null)));
+                    writer.write("\r\n");
+                }
+            }
+            writer.flush();
+            return;
+        }
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (String group : groups) {
+                for (CommonCodeSnapshot.Code code : snapshot.getCodes(group)) {
+                    generator.writeStartObject();
+                    generator.writeStringField("groupCode", code.getGroupCode());
+                    generator.writeStringField("code", code.getCode());
+                    generator.writeStringField("codeName", code.getCodeName());
+                    generator.writeStringField("codeValue", code.getCodeValue());
+                    generator.writeStringField("description", code.getDescription());
+                    generator.writeStringField("useYn", code.getUseYn());
+                    if (code.getSortOrder() != null) {
+                        generator.writeNumberField("sortOrder", code.getSortOrder());
+                    } else {
+                        generator.writeNullField("sortOrder");
+                    }
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void readJson(InputStream body, ImportBatcher batcher) throws IOException {
+        JsonArrayReader.forEachObject(objectMapper, body, "Common code import",
+                (node, rowNumber) -> {
+                    CommonCodeCreateRequest code;
+                    try {
+                        code = objectMapper.treeToValue(node, CommonCodeCreateRequest.class);
+                    } catch (IOException | IllegalArgumentException e) {
+                        batcher.reject(rowNumber, node.path("groupCode").asText(null), node.path("code").asText(null),
+                                "Invalid value");
+                        return;
+                    }
+                    batcher.accept(rowNumber, code);
+                },
+                rowNumber -> batcher.reject(rowNumber, null, null, "Expected a JSON object"));
+    }
+
+    private void readCsv(InputStream body, ImportBatcher batcher) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> header = CsvUtils.readRecord(reader);
+        if (header == null) {
+            return;
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : header) {
+            columns.add(CSV_COLUMNS.get(column.toLowerCase().replace("_", "")));
+        }
+        if (!columns.contains("groupCode") || !columns.contains("code") || !columns.contains("codeName")) {
+            throw new IllegalArgumentException("CSV header must contain 'group_code', 'code' and 'code_name' columns");
+        }
+
+        int rowNumber = 0;
+        List<String> values;
+        while ((values = CsvUtils.readRecord(reader)) != null) {
+            rowNumber++;
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < values.size(); i++) {
+                if (columns.get(i) != null && !values.get(i).isEmpty()) {
+                    fields.put(columns.get(i), values.get(i));
+                }
+            }
+            CommonCodeCreateRequest code;
+            try {
+                code = objectMapper.convertValue(fields, CommonCodeCreateRequest.class);
+            } catch (IllegalArgumentException e) {
+                batcher.reject(rowNumber, fields.get("groupCode"), fields.get("code"), "Invalid value");
+                continue;
+            }
+            batcher.accept(rowNumber, code);
+        }
+    }
+
+    private class ImportBatcher {
+        private final List<CommonCodeImportRow> pending = new ArrayList<>();
+        private final List<CommonCodeImportFailure> failures = new ArrayList<>();
+        private int received;
+
+        void reject(int rowNumber, String groupCode, String code, String message) {
+            received++;
+            failures.add(new CommonCodeImportFailure(rowNumber, key(groupCode, code), message));
+        }
+
+        void accept(int rowNumber, CommonCodeCreateRequest code) {
+            if (code.getUseYn() == null) {
+                code.setUseYn("Y");
+            }
+            String error = validate(code);
+            if (error != null) {
+                reject(rowNumber, code.getGroupCode(), code.getCode(), error);
+                return;
+            }
+            received++;
+            pending.add(new CommonCodeImportRow(rowNumber, null, code));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Long> ids = commonCodeRepository.allocateCommonCodeIds(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                pending.get(i).setId(ids.get(i));
+            }
+            commonCodeRepository.stageCommonCodeImportRows(new ArrayList<>(pending));
+            pending.clear();
+        }
+
+        private String validate(CommonCodeCreateRequest code) {
+            if (isBlank(code.getGroupCode()) || isBlank(code.getCode())) {
+                return "Missing group code or code";
+            }
+            if (isBlank(code.getCodeName())) {
+                return "Missing code name";
+            }
+            if (code.getGroupCode().length() > 20 || code.getCode().length() > 20) {
+                return "Group code and code must be at most 20 characters";
+            }
+            if (code.getCodeName().length() > 100
+                    || (code.getCodeValue() != null && code.getCodeValue().length() > 200)
+                    || (code.getDescription() != null && code.getDescription().length() > 500)) {
+                return "Value too long";
+            }
+            if (!"Y".equals(code.getUseYn()) && !"N".equals(code.getUseYn())) {
+                return "Use flag must be Y or N";
+            }
+            return null;
+        }
+
+        private boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+
+        private String key(String groupCode, String code) {
+            return groupCode == null && code == null ? null : groupCode + ":" + code;
+        }
+    }
+}
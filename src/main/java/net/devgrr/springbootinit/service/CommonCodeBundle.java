@@ -0,0 +1,16 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A ready-to-send common code bundle response: the JSON body and its gzip encoding, both built once
+ * per registry version and group set, plus the version they were built from.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class CommonCodeBundle {
+    private final long version;
+    private final byte[] json;
+    private final byte[] gzip;
+}
@@ -0,0 +1,161 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import net.devgrr.springbootinit.dto.CommonCodeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves several common code groups in one response. Each group's active codes are serialized to a
+ * JSON fragment once per registry version, and each requested group set is assembled and gzipped
+ * once on top of those, so repeated requests only copy bytes. The body has the shape
+ * {@code {"version":1,"groups":{"A":[...],"B":[...]}}} with groups in code order, and a group that
+ * does not exist maps to an empty list, matching {@code GET /api/common-codes/group/{groupCode}}.
+ */
+@Service
+@RequiredArgsConstructor
+public class CommonCodeBundleService {
+
+    private final CommonCodeRegistry commonCodeRegistry;
+    private final ObjectMapper objectMapper;
+
+    private volatile Payloads payloads;
+
+    @Value("${common-code.bundle.max-groups:50}")
+    private int maxGroups;
+
+    @Value("${common-code.bundle.max-cached-bundles:256}")
+    private int maxCachedBundles;
+
+    public CommonCodeBundle getBundle(Collection<String> groupCodes) {
+        TreeSet<String> groups = groupCodes.stream()
+                .map(String::trim)
+                .filter(groupCode -> !groupCode.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (groups.isEmpty()) {
+            throw new IllegalArgumentException("At least one group code is required");
+        }
+        if (groups.size() > maxGroups) {
+            throw new IllegalArgumentException("At most " + maxGroups + " group codes can be requested at once");
+        }
+
+        Payloads current = currentPayloads();
+        String key = String.join(",", groups);
+        CommonCodeBundle bundle = current.bundles.get(key);
+        if (bundle == null) {
+            bundle = assemble(current, groups);
+            if (current.bundles.size() < maxCachedBundles) {
+                current.bundles.putIfAbsent(key, bundle);
+            }
+        }
+        return bundle;
+    }
+
+    private Payloads currentPayloads() {
+        CommonCodeSnapshot snapshot = commonCodeRegistry.snapshot();
+        Payloads current = payloads;
+        if (current != null && current.snapshot == snapshot) {
+            return current;
+        }
+        synchronized (this) {
+            current = payloads;
+            if (current == null || current.snapshot != snapshot) {
+                current = new Payloads(snapshot, serializeGroups(snapshot));
+                payloads = current;
+            }
+            return current;
+        }
+    }
+
+    // One fragment per group, each as "GROUP":[...]
+    private Map<String, byte[]> serializeGroups(CommonCodeSnapshot snapshot) {
+        Map<String, byte[]> fragments = new ConcurrentHashMap<>();
+        for (CommonCodeSnapshot.Group group : snapshot.getGroups()) {
+            fragments.put(group.getGroupCode(), fragment(group.getGroupCode(), snapshot.getActiveCodes(group.getGroupCode())));
+        }
+        return fragments;
+    }
+
+    private byte[] fragment(String groupCode, List<CommonCodeSnapshot.Code> codes) {
+        List<CommonCodeDto> dtos = codes.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(objectMapper.writeValueAsBytes(groupCode));
+            out.write(':');
+            out.write(objectMapper.writeValueAsBytes(dtos));
+            return out.toByteArray();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize common code group " + groupCode, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CommonCodeBundle assemble(Payloads current, TreeSet<String> groups) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try {
+            json.write(("{\"version\":" + current.snapshot.getVersion() + ",\"groups\":{").getBytes(StandardCharsets.UTF_8));
+            boolean first = true;
+            for (String groupCode : groups) {
+                if (!first) {
+                    json.write(',');
+                }
+                first = false;
+                byte[] fragment = current.fragments.get(groupCode);
+                json.write(fragment != null ? fragment : fragment(groupCode, List.of()));
+            }
+            json.write('}');
+            json.write('}');
+
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                json.writeTo(out);
+            }
+            return new CommonCodeBundle(current.snapshot.getVersion(), json.toByteArray(), gzip.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CommonCodeDto convertToDto(CommonCodeSnapshot.Code code) {
+        return CommonCodeDto.builder()
+                .id(code.getId())
+                .groupCode(code.getGroupCode())
+                .code(code.getCode())
+                .codeName(code.getCodeName())
+                .codeValue(code.getCodeValue())
+                .description(code.getDescription())
+                .useYn(code.getUseYn())
+                .sortOrder(code.getSortOrder())
+                .createdAt(code.getCreatedAt())
+                .updatedAt(code.getUpdatedAt())
+                .build();
+    }
+
+    private static final class Payloads {
+        private final CommonCodeSnapshot snapshot;
+        private final Map<String, byte[]> fragments;
+        private final Map<String, CommonCodeBundle> bundles = new ConcurrentHashMap<>();
+
+        private Payloads(CommonCodeSnapshot snapshot, Map<String, byte[]> fragments) {
+            this.snapshot = snapshot;
+            this.fragments = fragments;
+        }
+    }
+}
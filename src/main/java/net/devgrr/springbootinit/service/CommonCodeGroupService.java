@@ -3,13 +3,16 @@ package net.devgrr.springbootinit.service;
 import lombok.RequiredArgsConstructor;
 import net.devgrr.springbootinit.dto.CommonCodeGroupCreateRequest;
 import net.devgrr.springbootinit.dto.CommonCodeGroupDto;
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
 import net.devgrr.springbootinit.entity.CommonCodeGroup;
 import net.devgrr.springbootinit.exception.CommonCodeAlreadyExistsException;
 import net.devgrr.springbootinit.exception.CommonCodeGroupNotFoundException;
 import net.devgrr.springbootinit.repository.CommonCodeGroupRepository;
+import net.devgrr.springbootinit.repository.CommonCodeRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -21,42 +24,38 @@ import java.util.stream.Collectors;
 public class CommonCodeGroupService {
 
     private final CommonCodeGroupRepository commonCodeGroupRepository;
+    private final CommonCodeRepository commonCodeRepository;
+    private final CommonCodeRegistry commonCodeRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CommonCodeGroupDto> getAllGroups() {
-        return commonCodeGroupRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(commonCodeRegistry.snapshot().getGroups());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<CommonCodeGroupDto> getAllGroups(Pageable pageable) {
-        return commonCodeGroupRepository.findAll(pageable)
+        return commonCodeRegistry.snapshot().pageGroups(pageable)
                 .map(this::convertToDto);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CommonCodeGroupDto> getActiveGroups() {
-        return commonCodeGroupRepository.findByUseYnOrderBySortOrderAsc("Y")
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(commonCodeRegistry.snapshot().getActiveGroups());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CommonCodeGroupDto getGroupByGroupCode(String groupCode) {
-        CommonCodeGroup group = commonCodeGroupRepository.findById(groupCode)
-                .orElseThrow(() -> new CommonCodeGroupNotFoundException(groupCode));
+        CommonCodeSnapshot.Group group = commonCodeRegistry.snapshot().getGroup(groupCode);
+        if (group == null) {
+            throw new CommonCodeGroupNotFoundException(groupCode);
+        }
         return convertToDto(group);
     }
 
-    @Transactional(readOnly = true)
-    public List<CommonCodeGroupDto> searchGroups(String keyword) {
-        return commonCodeGroupRepository.searchByKeyword(keyword)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CommonCodeGroupDto> searchGroups(String keyword, CommonCodeSearchMode mode) {
+        return toDtos(commonCodeRegistry.snapshot().searchGroups(keyword, mode));
     }
 
     public CommonCodeGroupDto createGroup(CommonCodeGroupCreateRequest request) {
@@ -73,6 +72,8 @@ public class CommonCodeGroupService {
                 .build();
 
         CommonCodeGroup savedGroup = commonCodeGroupRepository.save(group);
+        commonCodeRegistry.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.COMMON_CODE_GROUP, savedGroup.getGroupCode());
         return convertToDto(savedGroup);
     }
 
@@ -94,14 +95,37 @@ public class CommonCodeGroupService {
         }
 
         CommonCodeGroup updatedGroup = commonCodeGroupRepository.save(group);
+        commonCodeRegistry.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.COMMON_CODE_GROUP, groupCode);
         return convertToDto(updatedGroup);
     }
 
+    // Two set-based deletes, so the cost does not depend on how many codes the group holds
     public void deleteGroup(String groupCode) {
-        if (!commonCodeGroupRepository.existsById(groupCode)) {
+        commonCodeRepository.deleteAllInGroup(groupCode);
+        if (commonCodeGroupRepository.deleteByGroupCodeReturningCount(groupCode) == 0) {
             throw new CommonCodeGroupNotFoundException(groupCode);
         }
-        commonCodeGroupRepository.deleteById(groupCode);
+        commonCodeRegistry.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.COMMON_CODE_GROUP, groupCode);
+    }
+
+    private List<CommonCodeGroupDto> toDtos(List<CommonCodeSnapshot.Group> groups) {
+        return groups.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    private CommonCodeGroupDto convertToDto(CommonCodeSnapshot.Group group) {
+        return CommonCodeGroupDto.builder()
+                .groupCode(group.getGroupCode())
+                .groupName(group.getGroupName())
+                .description(group.getDescription())
+                .useYn(group.getUseYn())
+                .sortOrder(group.getSortOrder())
+                .createdAt(group.getCreatedAt())
+                .updatedAt(group.getUpdatedAt())
+                .build();
     }
 
     private CommonCodeGroupDto convertToDto(CommonCodeGroup group) {
@@ -0,0 +1,186 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.entity.CommonCode;
+import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link CommonCodeSnapshot}. All groups and codes are loaded at startup and the
+ * snapshot is replaced as a whole after every committed write, so readers never touch the database
+ * and never wait on a reload.
+ * <p>
+ * Every write also bumps the single-row {@code common_code_version} counter in the writing
+ * transaction. The snapshot carries the counter value it was loaded with, so comparing one number
+ * tells whether a node is stale. Other instances run that check as soon as
+ * {@link CacheInvalidationBus} reports a write, and periodically in case an event was lost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CommonCodeRegistry implements CacheInvalidationListener, StartupWarmer {
+
+    private static final String VERSION_SQL = "SELECT version FROM common_code_version WHERE id = 1";
+
+    private static final String BUMP_VERSION_SQL = "UPDATE common_code_version SET version = version + 1 WHERE id = 1";
+
+    private static final String GROUPS_SQL =
+            "SELECT group_code, group_name, description, use_yn, sort_order, created_at, updated_at FROM common_code_groups";
+
+    private static final String CODES_SQL =
+            "SELECT id, group_code, code, code_name, code_value, description, use_yn, sort_order, created_at, updated_at FROM common_codes";
+
+    private static final RowMapper<CommonCodeGroup> GROUP_MAPPER = (rs, rowNum) -> CommonCodeGroup.builder()
+            .groupCode(rs.getString("group_code"))
+            .groupName(rs.getString("group_name"))
+            .description(rs.getString("description"))
+            .useYn(rs.getString("use_yn"))
+            .sortOrder((Integer) rs.getObject("sort_order"))
+            .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+            .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+            .build();
+
+    private static final RowMapper<CommonCode> CODE_MAPPER = (rs, rowNum) -> CommonCode.builder()
+            .id(rs.getLong("id"))
+            .codeGroup(CommonCodeGroup.builder().groupCode(rs.getString("group_code")).build())
+            .code(rs.getString("code"))
+            .codeName(rs.getString("code_name"))
+            .codeValue(rs.getString("code_value"))
+            .description(rs.getString("description"))
+            .useYn(rs.getString("use_yn"))
+            .sortOrder((Integer) rs.getObject("sort_order"))
+            .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+            .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile CommonCodeSnapshot snapshot;
+
+    public CommonCodeSnapshot snapshot() {
+        CommonCodeSnapshot current = snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    public long getVersion() {
+        return snapshot().getVersion();
+    }
+
+    /**
+     * Bumps the registry version inside the current write transaction and schedules a reload for
+     * after it commits. A rolled back write leaves both the version and the snapshot untouched.
+     */
+    public void invalidate() {
+        jdbcTemplate.update(BUMP_VERSION_SQL);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildQuietly();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuildQuietly();
+            }
+        });
+    }
+
+    @Override
+    public void warmUp() {
+        rebuildQuietly();
+    }
+
+    @Scheduled(fixedDelayString = "${common-code.registry.check-interval-ms:5000}")
+    public void checkForUpdates() {
+        CommonCodeSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            Long latest = jdbcTemplate.queryForObject(VERSION_SQL, Long.class);
+            if (latest != null && latest > current.getVersion()) {
+                log.info("Common code registry is at version {}, reloading version {}", current.getVersion(), latest);
+                rebuildQuietly();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to check the common code registry version", e);
+        }
+    }
+
+    @Override
+    public boolean handles(CacheEntityType type) {
+        return type == CacheEntityType.COMMON_CODE || type == CacheEntityType.COMMON_CODE_GROUP;
+    }
+
+    // The version check makes duplicate or reordered events harmless
+    @Override
+    public void onInvalidation(CacheEntityType type, String key) {
+        checkForUpdates();
+    }
+
+    @Override
+    public void onFlush() {
+        checkForUpdates();
+    }
+
+    // Serialized, and never installs an older version than the one already in place. A lock rather than a
+    // monitor, so virtual threads waiting behind the load keep their carriers.
+    CommonCodeSnapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            CommonCodeSnapshot loaded = loadTemplate().execute(status -> CommonCodeSnapshot.of(
+                    jdbcTemplate.queryForObject(VERSION_SQL, Long.class),
+                    jdbcTemplate.query(GROUPS_SQL, GROUP_MAPPER),
+                    jdbcTemplate.query(CODES_SQL, CODE_MAPPER)));
+            CommonCodeSnapshot current = snapshot;
+            if (current != null && current.getVersion() > loaded.getVersion()) {
+                return current;
+            }
+            snapshot = loaded;
+            log.debug("Loaded common code registry version {} with {} groups and {} codes",
+                    loaded.getVersion(), loaded.groupCount(), loaded.codeCount());
+            return loaded;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // The version and rows are read in one repeatable-read transaction so they always match. It is a
+    // new transaction because reloads also run from afterCommit callbacks of the writing transaction.
+    // It is not marked read-only, so with replicas enabled it runs on the primary: a replica may not
+    // have replayed the write a reload was triggered by yet.
+    private TransactionTemplate loadTemplate() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return template;
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Drop the stale snapshot so the next read reloads it instead of serving outdated data
+            snapshot = null;
+            log.error("Failed to load common code registry", e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,161 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
+import net.devgrr.springbootinit.util.HangulUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Substring index over the searchable fields of common codes or groups. Every item's text is kept
+ * twice, as Hangul keystrokes for {@link CommonCodeSearchMode#CONTAINS} and as initial consonants for
+ * {@link CommonCodeSearchMode#CHOSEONG} (see {@link HangulUtils}), and each adjacent character pair
+ * maps to the items whose text contains it. A query of two or more characters only checks the items
+ * holding all of its pairs; a single character scans the reduced texts. Keystroke matches are then
+ * confirmed against the original text, where only the query's last character may be half-typed (see
+ * {@link HangulUtils#containsTyped}). Results keep the order the items were indexed in.
+ */
+final class CommonCodeSearchIndex<T> {
+
+    // Keeps pairs from spanning two fields
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private final List<T> items;
+    private final String[] originalTexts;
+    private final Postings keystrokes;
+    private final Postings choseong;
+
+    CommonCodeSearchIndex(List<T> items, Function<T, List<String>> fields) {
+        this.items = items;
+        this.originalTexts = new String[items.size()];
+        String[] keystrokeTexts = new String[items.size()];
+        String[] choseongTexts = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            StringBuilder text = new StringBuilder();
+            StringBuilder keys = new StringBuilder();
+            StringBuilder initials = new StringBuilder();
+            for (String field : fields.apply(items.get(i))) {
+                if (field != null) {
+                    text.append(field).append(FIELD_SEPARATOR);
+                    keys.append(HangulUtils.toKeystrokes(field)).append(FIELD_SEPARATOR);
+                    initials.append(HangulUtils.toChoseong(field)).append(FIELD_SEPARATOR);
+                }
+            }
+            originalTexts[i] = text.toString();
+            keystrokeTexts[i] = keys.toString();
+            choseongTexts[i] = initials.toString();
+        }
+        this.keystrokes = new Postings(keystrokeTexts);
+        this.choseong = new Postings(choseongTexts);
+    }
+
+    List<T> search(String keyword, CommonCodeSearchMode mode, Predicate<T> filter) {
+        String trimmed = keyword != null ? keyword.trim() : "";
+        if (mode == CommonCodeSearchMode.CHOSEONG) {
+            return choseong.find(HangulUtils.toChoseong(trimmed), i -> true, filter);
+        }
+        return keystrokes.find(HangulUtils.toKeystrokes(trimmed),
+                i -> HangulUtils.containsTyped(originalTexts[i], trimmed), filter);
+    }
+
+    private final class Postings {
+        private final String[] texts;
+        private final Map<Integer, int[]> pairs;
+
+        Postings(String[] texts) {
+            this.texts = texts;
+
+            int[][] itemPairs = new int[texts.length][];
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (int i = 0; i < texts.length; i++) {
+                itemPairs[i] = distinctPairs(texts[i]);
+                for (int pair : itemPairs[i]) {
+                    counts.merge(pair, 1, Integer::sum);
+                }
+            }
+
+            Map<Integer, int[]> index = new HashMap<>(counts.size() * 2);
+            Map<Integer, Integer> filled = new HashMap<>(counts.size() * 2);
+            counts.forEach((pair, count) -> index.put(pair, new int[count]));
+            for (int i = 0; i < texts.length; i++) {
+                for (int pair : itemPairs[i]) {
+                    int position = filled.merge(pair, 1, Integer::sum) - 1;
+                    index.get(pair)[position] = i;
+                }
+            }
+            this.pairs = index;
+        }
+
+        List<T> find(String query, IntPredicate confirm, Predicate<T> filter) {
+            List<T> found = new ArrayList<>();
+            if (query.length() < 2) {
+                for (int i = 0; i < texts.length; i++) {
+                    collect(i, query, confirm, filter, found);
+                }
+                return found;
+            }
+
+            List<int[]> lists = new ArrayList<>();
+            for (int pair : distinctPairs(query)) {
+                int[] list = pairs.get(pair);
+                if (list == null) {
+                    return found;
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            int[] candidates = lists.get(0);
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, lists.get(i));
+            }
+            for (int candidate : candidates) {
+                collect(candidate, query, confirm, filter, found);
+            }
+            return found;
+        }
+
+        private void collect(int i, String query, IntPredicate confirm, Predicate<T> filter, List<T> found) {
+            T item = items.get(i);
+            if (texts[i].contains(query) && confirm.test(i) && filter.test(item)) {
+                found.add(item);
+            }
+        }
+    }
+
+    private static int[] distinctPairs(String text) {
+        Set<Integer> pairs = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < text.length(); i++) {
+            if (text.charAt(i) != FIELD_SEPARATOR && text.charAt(i + 1) != FIELD_SEPARATOR) {
+                pairs.add(text.charAt(i) << 16 | text.charAt(i + 1));
+            }
+        }
+        return pairs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Both lists are ascending item positions
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
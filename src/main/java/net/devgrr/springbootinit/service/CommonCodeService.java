@@ -3,6 +3,9 @@ package net.devgrr.springbootinit.service;
 import lombok.RequiredArgsConstructor;
 import net.devgrr.springbootinit.dto.CommonCodeCreateRequest;
 import net.devgrr.springbootinit.dto.CommonCodeDto;
+import net.devgrr.springbootinit.dto.CommonCodeRegistryVersionDto;
+import net.devgrr.springbootinit.dto.CommonCodeReorderRequest;
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
 import net.devgrr.springbootinit.dto.CommonCodeUpdateRequest;
 import net.devgrr.springbootinit.entity.CommonCode;
 import net.devgrr.springbootinit.entity.CommonCodeGroup;
@@ -14,8 +17,10 @@ import net.devgrr.springbootinit.repository.CommonCodeRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,57 +31,62 @@ public class CommonCodeService {
 
     private final CommonCodeRepository commonCodeRepository;
     private final CommonCodeGroupRepository commonCodeGroupRepository;
+    private final CommonCodeRegistry commonCodeRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final SecondLevelCacheInvalidator secondLevelCacheInvalidator;
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CommonCodeDto> getAllCodes() {
-        return commonCodeRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(commonCodeRegistry.snapshot().getCodes());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<CommonCodeDto> getAllCodes(Pageable pageable) {
-        return commonCodeRepository.findAll(pageable)
+        return commonCodeRegistry.snapshot().pageCodes(pageable)
                 .map(this::convertToDto);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CommonCodeDto> getCodesByGroupCode(String groupCode) {
-        return commonCodeRepository.findByCodeGroup_GroupCodeAndUseYnOrderBySortOrderAsc(groupCode, "Y")
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(commonCodeRegistry.snapshot().getActiveCodes(groupCode));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CommonCodeDto getCodeById(Long id) {
-        CommonCode code = commonCodeRepository.findById(id)
-                .orElseThrow(() -> new CommonCodeNotFoundException(id));
+        CommonCodeSnapshot.Code code = commonCodeRegistry.snapshot().getCode(id);
+        if (code == null) {
+            throw new CommonCodeNotFoundException(id);
+        }
         return convertToDto(code);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CommonCodeDto getCodeByGroupCodeAndCode(String groupCode, String code) {
-        CommonCode commonCode = commonCodeRepository.findByCodeGroup_GroupCodeAndCode(groupCode, code)
-                .orElseThrow(() -> new CommonCodeNotFoundException(groupCode, code));
+        CommonCodeSnapshot.Code commonCode = commonCodeRegistry.snapshot().getCode(groupCode, code);
+        if (commonCode == null) {
+            throw new CommonCodeNotFoundException(groupCode, code);
+        }
         return convertToDto(commonCode);
     }
 
-    @Transactional(readOnly = true)
-    public List<CommonCodeDto> searchCodes(String keyword) {
-        return commonCodeRepository.searchByKeyword(keyword)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CommonCodeDto> searchCodes(String keyword, CommonCodeSearchMode mode) {
+        return toDtos(commonCodeRegistry.snapshot().searchCodes(keyword, mode));
     }
 
-    @Transactional(readOnly = true)
-    public List<CommonCodeDto> searchCodesByGroupCode(String groupCode, String keyword) {
-        return commonCodeRepository.searchByGroupCodeAndKeyword(groupCode, keyword)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CommonCodeDto> searchCodesByGroupCode(String groupCode, String keyword, CommonCodeSearchMode mode) {
+        return toDtos(commonCodeRegistry.snapshot().searchCodes(groupCode, keyword, mode));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CommonCodeRegistryVersionDto getRegistryVersion() {
+        CommonCodeSnapshot snapshot = commonCodeRegistry.snapshot();
+        return CommonCodeRegistryVersionDto.builder()
+                .version(snapshot.getVersion())
+                .groupCount(snapshot.groupCount())
+                .codeCount(snapshot.codeCount())
+                .build();
     }
 
     public CommonCodeDto createCode(CommonCodeCreateRequest request) {
@@ -98,6 +108,8 @@ public class CommonCodeService {
                 .build();
 
         CommonCode savedCode = commonCodeRepository.save(code);
+        commonCodeRegistry.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.COMMON_CODE, savedCode.getId());
         return convertToDto(savedCode);
     }
 
@@ -122,6 +134,8 @@ public class CommonCodeService {
         }
 
         CommonCode updatedCode = commonCodeRepository.save(code);
+        commonCodeRegistry.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.COMMON_CODE, id);
         return convertToDto(updatedCode);
     }
 
@@ -130,6 +144,55 @@ public class CommonCodeService {
             throw new CommonCodeNotFoundException(id);
         }
         commonCodeRepository.deleteById(id);
+        commonCodeRegistry.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.COMMON_CODE, id);
+    }
+
+    /**
+     * Sets the sort order of the listed codes of a group to their position in the list, starting at 1,
+     * with one statement. Codes of the group that are not listed keep their sort order.
+     */
+    public void reorderCodes(String groupCode, CommonCodeReorderRequest request) {
+        List<String> codes = request.getCodes();
+        if (codes == null || codes.isEmpty()) {
+            throw new IllegalArgumentException("At least one code is required");
+        }
+        if (new HashSet<>(codes).size() != codes.size()) {
+            throw new IllegalArgumentException("Codes must not be listed more than once");
+        }
+        if (!commonCodeGroupRepository.existsByGroupCode(groupCode)) {
+            throw new CommonCodeGroupNotFoundException(groupCode);
+        }
+
+        int updated = commonCodeRepository.reorderCommonCodes(groupCode, codes);
+        if (updated != codes.size()) {
+            throw new IllegalArgumentException(
+                    "Only " + updated + " of " + codes.size() + " codes exist in group " + groupCode);
+        }
+        secondLevelCacheInvalidator.evictAfterCommit(CacheEntityType.COMMON_CODE);
+        commonCodeRegistry.invalidate();
+        cacheInvalidationBus.publish(CacheEntityType.COMMON_CODE_GROUP, groupCode);
+    }
+
+    private List<CommonCodeDto> toDtos(List<CommonCodeSnapshot.Code> codes) {
+        return codes.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    private CommonCodeDto convertToDto(CommonCodeSnapshot.Code code) {
+        return CommonCodeDto.builder()
+                .id(code.getId())
+                .groupCode(code.getGroupCode())
+                .code(code.getCode())
+                .codeName(code.getCodeName())
+                .codeValue(code.getCodeValue())
+                .description(code.getDescription())
+                .useYn(code.getUseYn())
+                .sortOrder(code.getSortOrder())
+                .createdAt(code.getCreatedAt())
+                .updatedAt(code.getUpdatedAt())
+                .build();
     }
 
     private CommonCodeDto convertToDto(CommonCode code) {
@@ -0,0 +1,327 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.Getter;
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
+import net.devgrr.springbootinit.entity.CommonCode;
+import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, hash-indexed view of every common code group and code as of one registry version.
+ * Active codes per group are sorted once at build time, so every read is a map lookup or a list
+ * scan. Keyword search goes through a {@link CommonCodeSearchIndex} built on the first search against
+ * the snapshot. Replaced wholesale by {@link CommonCodeRegistry} whenever a group or code changes.
+ */
+public final class CommonCodeSnapshot {
+
+    private static final Comparator<Group> GROUP_SORT_ORDER = Comparator
+            .comparing(Group::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Group::getGroupCode);
+
+    private static final Comparator<Code> CODE_SORT_ORDER = Comparator
+            .comparing(Code::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Code::getId);
+
+    private static final Map<String, Comparator<Group>> GROUP_SORTABLE = Map.of(
+            "groupCode", Comparator.comparing(Group::getGroupCode),
+            "groupName", Comparator.comparing(Group::getGroupName, Comparator.nullsLast(Comparator.naturalOrder())),
+            "description", Comparator.comparing(Group::getDescription, Comparator.nullsLast(Comparator.naturalOrder())),
+            "useYn", Comparator.comparing(Group::getUseYn, Comparator.nullsLast(Comparator.naturalOrder())),
+            "sortOrder", Comparator.comparing(Group::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder())),
+            "createdAt", Comparator.comparing(Group::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())),
+            "updatedAt", Comparator.comparing(Group::getUpdatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+
+    private static final Map<String, Comparator<Code>> CODE_SORTABLE = Map.of(
+            "id", Comparator.comparing(Code::getId),
+            "code", Comparator.comparing(Code::getCode, Comparator.nullsLast(Comparator.naturalOrder())),
+            "codeName", Comparator.comparing(Code::getCodeName, Comparator.nullsLast(Comparator.naturalOrder())),
+            "codeValue", Comparator.comparing(Code::getCodeValue, Comparator.nullsLast(Comparator.naturalOrder())),
+            "description", Comparator.comparing(Code::getDescription, Comparator.nullsLast(Comparator.naturalOrder())),
+            "useYn", Comparator.comparing(Code::getUseYn, Comparator.nullsLast(Comparator.naturalOrder())),
+            "sortOrder", Comparator.comparing(Code::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder())),
+            "createdAt", Comparator.comparing(Code::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())),
+            "updatedAt", Comparator.comparing(Code::getUpdatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+
+    @Getter
+    private final long version;
+    private final Map<String, Group> groups;
+    private final List<Group> allGroups;
+    private final List<Group> activeGroups;
+    private final Map<Long, Code> codes;
+    private final List<Code> allCodes;
+    private final Map<String, List<Code>> codesByGroup;
+    private final Map<String, List<Code>> activeCodesByGroup;
+    private final Map<String, Map<String, Code>> codesByGroupAndCode;
+    private volatile SearchIndexes searchIndexes;
+
+    private CommonCodeSnapshot(long version, List<Group> groupList, List<Code> codeList) {
+        this.version = version;
+
+        Map<String, Group> groupIndex = new HashMap<>();
+        groupList.forEach(group -> groupIndex.put(group.groupCode, group));
+        this.groups = Collections.unmodifiableMap(groupIndex);
+        List<Group> sortedGroups = new ArrayList<>(groupIndex.values());
+        sortedGroups.sort(Comparator.comparing(Group::getGroupCode));
+        this.allGroups = Collections.unmodifiableList(sortedGroups);
+        this.activeGroups = sortedGroups.stream()
+                .filter(Group::isActive)
+                .sorted(GROUP_SORT_ORDER)
+                .collect(Collectors.toUnmodifiableList());
+
+        Map<Long, Code> codeIndex = new HashMap<>();
+        codeList.forEach(code -> codeIndex.put(code.id, code));
+        this.codes = Collections.unmodifiableMap(codeIndex);
+        List<Code> sortedCodes = new ArrayList<>(codeIndex.values());
+        sortedCodes.sort(Comparator.comparing(Code::getId));
+        this.allCodes = Collections.unmodifiableList(sortedCodes);
+
+        Map<String, List<Code>> byGroup = new HashMap<>();
+        Map<String, Map<String, Code>> byGroupAndCode = new HashMap<>();
+        for (Code code : sortedCodes) {
+            byGroup.computeIfAbsent(code.groupCode, key -> new ArrayList<>()).add(code);
+            byGroupAndCode.computeIfAbsent(code.groupCode, key -> new HashMap<>()).put(code.code, code);
+        }
+        Map<String, List<Code>> activeByGroup = new HashMap<>();
+        byGroup.forEach((groupCode, groupCodes) -> {
+            activeByGroup.put(groupCode, groupCodes.stream()
+                    .filter(Code::isActive)
+                    .sorted(CODE_SORT_ORDER)
+                    .collect(Collectors.toUnmodifiableList()));
+            byGroup.put(groupCode, Collections.unmodifiableList(groupCodes));
+        });
+        byGroupAndCode.replaceAll((groupCode, index) -> Collections.unmodifiableMap(index));
+        this.codesByGroup = Collections.unmodifiableMap(byGroup);
+        this.activeCodesByGroup = Collections.unmodifiableMap(activeByGroup);
+        this.codesByGroupAndCode = Collections.unmodifiableMap(byGroupAndCode);
+    }
+
+    public static CommonCodeSnapshot of(long version, List<CommonCodeGroup> groups, List<CommonCode> codes) {
+        return new CommonCodeSnapshot(version,
+                groups.stream().map(Group::new).collect(Collectors.toList()),
+                codes.stream().map(Code::new).collect(Collectors.toList()));
+    }
+
+    public int groupCount() {
+        return groups.size();
+    }
+
+    public int codeCount() {
+        return codes.size();
+    }
+
+    public Group getGroup(String groupCode) {
+        return groups.get(groupCode);
+    }
+
+    /**
+     * All groups ordered by group code.
+     */
+    public List<Group> getGroups() {
+        return allGroups;
+    }
+
+    /**
+     * Groups in use, ordered by sort order.
+     */
+    public List<Group> getActiveGroups() {
+        return activeGroups;
+    }
+
+    /**
+     * Groups whose name or description matches the keyword, ordered by sort order.
+     */
+    public List<Group> searchGroups(String keyword, CommonCodeSearchMode mode) {
+        return searchIndexes().groups.search(keyword, mode, group -> true);
+    }
+
+    public Page<Group> pageGroups(Pageable pageable) {
+        return page(allGroups, pageable, GROUP_SORTABLE, Comparator.comparing(Group::getGroupCode));
+    }
+
+    public Code getCode(Long id) {
+        return codes.get(id);
+    }
+
+    public Code getCode(String groupCode, String code) {
+        return codesByGroupAndCode.getOrDefault(groupCode, Map.of()).get(code);
+    }
+
+    /**
+     * All codes ordered by id.
+     */
+    public List<Code> getCodes() {
+        return allCodes;
+    }
+
+    /**
+     * All codes of a group, in use or not, ordered by id.
+     */
+    public List<Code> getCodes(String groupCode) {
+        return codesByGroup.getOrDefault(groupCode, List.of());
+    }
+
+    /**
+     * Codes in use within a group, ordered by sort order.
+     */
+    public List<Code> getActiveCodes(String groupCode) {
+        return activeCodesByGroup.getOrDefault(groupCode, List.of());
+    }
+
+    /**
+     * Codes whose name, value or description matches the keyword, ordered by their group's sort order
+     * and then their own.
+     */
+    public List<Code> searchCodes(String keyword, CommonCodeSearchMode mode) {
+        return searchIndexes().codes.search(keyword, mode, code -> true);
+    }
+
+    /**
+     * Codes of a group whose name, value or description matches the keyword, ordered by sort order.
+     */
+    public List<Code> searchCodes(String groupCode, String keyword, CommonCodeSearchMode mode) {
+        if (!codesByGroup.containsKey(groupCode)) {
+            return List.of();
+        }
+        return searchIndexes().codes.search(keyword, mode, code -> code.groupCode.equals(groupCode));
+    }
+
+    public Page<Code> pageCodes(Pageable pageable) {
+        return page(allCodes, pageable, CODE_SORTABLE, Comparator.comparing(Code::getId));
+    }
+
+    // Built at most once per snapshot, and only if something searches it
+    private SearchIndexes searchIndexes() {
+        SearchIndexes indexes = searchIndexes;
+        if (indexes == null) {
+            synchronized (this) {
+                indexes = searchIndexes;
+                if (indexes == null) {
+                    indexes = new SearchIndexes();
+                    searchIndexes = indexes;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private static <T> Page<T> page(List<T> items, Pageable pageable, Map<String, Comparator<T>> sortable,
+                                    Comparator<T> tieBreaker) {
+        List<T> sorted = items;
+        if (pageable.getSort().isSorted()) {
+            sorted = new ArrayList<>(items);
+            sorted.sort(comparatorFor(pageable.getSort(), sortable, tieBreaker));
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(sorted, pageable, sorted.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(new ArrayList<>(sorted.subList(from, to)), pageable, sorted.size());
+    }
+
+    private static <T> Comparator<T> comparatorFor(Sort sort, Map<String, Comparator<T>> sortable,
+                                                   Comparator<T> tieBreaker) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> next = sortable.get(order.getProperty());
+            if (next == null) {
+                throw new IllegalArgumentException("Unsupported common code sort property: " + order.getProperty());
+            }
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator.thenComparing(tieBreaker);
+    }
+
+    private final class SearchIndexes {
+        private final CommonCodeSearchIndex<Group> groups;
+        private final CommonCodeSearchIndex<Code> codes;
+
+        SearchIndexes() {
+            List<Group> sortedGroups = new ArrayList<>(allGroups);
+            sortedGroups.sort(GROUP_SORT_ORDER);
+            Map<String, Integer> groupRank = new HashMap<>();
+            for (int i = 0; i < sortedGroups.size(); i++) {
+                groupRank.put(sortedGroups.get(i).groupCode, i);
+            }
+            List<Code> sortedCodes = new ArrayList<>(allCodes);
+            sortedCodes.sort(Comparator
+                    .comparing((Code code) -> groupRank.getOrDefault(code.groupCode, Integer.MAX_VALUE))
+                    .thenComparing(CODE_SORT_ORDER));
+
+            this.groups = new CommonCodeSearchIndex<>(sortedGroups,
+                    group -> Arrays.asList(group.groupName, group.description));
+            this.codes = new CommonCodeSearchIndex<>(sortedCodes,
+                    code -> Arrays.asList(code.codeName, code.codeValue, code.description));
+        }
+    }
+
+    @Getter
+    public static final class Group {
+        private final String groupCode;
+        private final String groupName;
+        private final String description;
+        private final String useYn;
+        private final Integer sortOrder;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+
+        private Group(CommonCodeGroup group) {
+            this.groupCode = group.getGroupCode();
+            this.groupName = group.getGroupName();
+            this.description = group.getDescription();
+            this.useYn = group.getUseYn();
+            this.sortOrder = group.getSortOrder();
+            this.createdAt = group.getCreatedAt();
+            this.updatedAt = group.getUpdatedAt();
+        }
+
+        public boolean isActive() {
+            return "Y".equals(useYn);
+        }
+    }
+
+    @Getter
+    public static final class Code {
+        private final Long id;
+        private final String groupCode;
+        private final String code;
+        private final String codeName;
+        private final String codeValue;
+        private final String description;
+        private final String useYn;
+        private final Integer sortOrder;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+
+        private Code(CommonCode code) {
+            this.id = code.getId();
+            this.groupCode = code.getCodeGroup().getGroupCode();
+            this.code = code.getCode();
+            this.codeName = code.getCodeName();
+            this.codeValue = code.getCodeValue();
+            this.description = code.getDescription();
+            this.useYn = code.getUseYn();
+            this.sortOrder = code.getSortOrder();
+            this.createdAt = code.getCreatedAt();
+            this.updatedAt = code.getUpdatedAt();
+        }
+
+        public boolean isActive() {
+            return "Y".equals(useYn);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.devgrr.springbootinit.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens the primary pool's minimum idle connections before the application takes traffic, up to
+ * {@code startup.pool-warmup.max-connections}. Hikari otherwise fills the pool from its housekeeping
+ * thread after startup, so the first burst of requests pays for the connection handshakes.
+ * Connections are held until the target is reached, which forces the pool to open new ones rather
+ * than hand back the same idle connection. The cap, and leaving at least one connection free, keep
+ * scheduled work that starts alongside from waiting on the pool; Hikari opens any remaining idle
+ * connections itself. Replica pools behind {@code ReplicaRoutingDataSource} are left to fill
+ * themselves. Runs before the other warmers, even when they run in parallel, so they find the pool
+ * ready.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ConnectionPoolWarmer implements StartupWarmer {
+
+    private final DataSource dataSource;
+
+    @Value("${startup.pool-warmup.max-connections:5}")
+    private int maxConnections;
+
+    @Override
+    public boolean runsFirst() {
+        return true;
+    }
+
+    @Override
+    public void warmUp() {
+        HikariDataSource pool;
+        try {
+            pool = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            log.debug("Primary data source is not a Hikari pool, skipping pool warmup");
+            return;
+        }
+        int target = Math.min(Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize() - 1), maxConnections);
+        List<Connection> borrowed = new ArrayList<>(target);
+        try {
+            while (borrowed.size() < target) {
+                borrowed.add(pool.getConnection());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not open " + target + " pooled connections", e);
+        } finally {
+            borrowed.forEach(this::closeQuietly);
+        }
+        log.debug("Opened {} connections in pool {}", target, pool.getPoolName());
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Failed to return a warmup connection to the pool", e);
+        }
+    }
+}
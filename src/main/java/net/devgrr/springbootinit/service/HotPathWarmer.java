@@ -0,0 +1,153 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.dto.ProductDto;
+import net.devgrr.springbootinit.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the request hot paths enough times for the JIT to compile them before the application takes
+ * traffic, instead of the first minutes of real requests running interpreted:
+ * <ul>
+ *     <li>signs and parses tokens with {@link JwtUtil} for a synthetic user,</li>
+ *     <li>reads and writes every DTO with the application's {@link ObjectMapper}, which also fills
+ *     Jackson's serializer caches,</li>
+ *     <li>sends synthetic GET requests to the configured read endpoints on the local server, going
+ *     through the filters, controllers, {@code ProductService} reads with their DTO conversion and
+ *     the second-level cache, as a real client would. The category subtree read is added for the
+ *     first active root category, as no fixed id is sure to exist.</li>
+ * </ul>
+ * Requests carry no token, since the synthetic user does not exist; the token path is covered by
+ * the direct calls. Failed requests are logged and do not fail startup. Off by default, as it adds
+ * a few seconds to every start.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotPathWarmer implements StartupWarmer {
+
+    private static final String SYNTHETIC_USERNAME = "warmup";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+
+    @Value("${startup.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${startup.warmup.iterations:200}")
+    private int iterations;
+
+    @Value("${startup.warmup.paths:}")
+    private List<String> paths;
+
+    // Checked here rather than as a bean condition, which AOT would fix at build time
+    @Override
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        warmUpTokens();
+        warmUpJson();
+        warmUpRequests();
+    }
+
+    void warmUpTokens() {
+        UserDetails user = User.withUsername(SYNTHETIC_USERNAME).password("").authorities(List.of()).build();
+        for (int i = 0; i < iterations; i++) {
+            String token = jwtUtil.generateToken(user);
+            if (!jwtUtil.validateToken(token, user)) {
+                throw new IllegalStateException("Token signed during warmup did not validate");
+            }
+        }
+    }
+
+    // An empty object is enough to go through each DTO's deserializer and serializer; types that
+    // cannot be read from one, such as enums, are skipped
+    void warmUpJson() {
+        for (Class<?> type : dtoTypes()) {
+            try {
+                for (int i = 0; i < iterations; i++) {
+                    objectMapper.writeValueAsBytes(objectMapper.readValue("{}", type));
+                }
+            } catch (JsonProcessingException e) {
+                log.debug("Skipped JSON warmup of {}: {}", type.getSimpleName(), e.getOriginalMessage());
+            }
+        }
+    }
+
+    void warmUpRequests() {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            return;
+        }
+        List<String> requestPaths = requestPaths();
+        if (requestPaths.isEmpty()) {
+            return;
+        }
+        int failed = 0;
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build()) {
+            for (int i = 0; i < iterations; i++) {
+                for (String path : requestPaths) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                            .timeout(REQUEST_TIMEOUT)
+                            .GET()
+                            .build();
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 500) {
+                        failed++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Stopped request warmup after a failed request", e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (failed > 0) {
+            log.warn("{} of {} warmup requests failed with a server error", failed, iterations * requestPaths.size());
+        }
+    }
+
+    private List<String> requestPaths() {
+        List<String> requestPaths = new ArrayList<>(paths);
+        categoryHierarchyCache.snapshot().getActiveRoots().stream().findFirst()
+                .ifPresent(root -> requestPaths.add("/api/products/category/" + root.getId() + "?includeDescendants=true"));
+        return requestPaths;
+    }
+
+    // Classpath scanning finds nothing in a native image, where there is no JIT to warm up anyway
+    private List<Class<?>> dtoTypes() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        return scanner.findCandidateComponents(ProductDto.class.getPackageName()).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .<Class<?>>map(className -> ClassUtils.resolveClassName(className, getClass().getClassLoader()))
+                .toList();
+    }
+}
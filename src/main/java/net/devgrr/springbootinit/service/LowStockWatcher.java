@@ -0,0 +1,52 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.dto.LowStockAlert;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Publishes a {@link LowStockAlert} application event once per low-stock crossing. Reported products
+ * are flagged in the database and re-armed only after they recover, so each run costs two index
+ * probes and never re-reports the full low-stock list.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LowStockWatcher {
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${stock.low-stock-watch.batch-size:500}")
+    private int batchSize;
+
+    @Value("${stock.low-stock-watch.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${stock.low-stock-watch.interval-ms:60000}")
+    public void detectCrossings() {
+        int rearmed = productRepository.rearmRecoveredLowStock();
+        if (rearmed > 0) {
+            log.debug("Re-armed low stock alerts for {} recovered products", rearmed);
+        }
+
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<LowStockAlert> alerts = productRepository.claimLowStockCrossings(batchSize);
+            for (LowStockAlert alert : alerts) {
+                log.warn("Product {} ({}) crossed its stock threshold: {} left, minimum {}",
+                        alert.getProductId(), alert.getSku(), alert.getStockQuantity(), alert.getMinStockLevel());
+                eventPublisher.publishEvent(alert);
+            }
+            if (alerts.size() < batchSize) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.dto.ProductCreateRequest;
+import net.devgrr.springbootinit.dto.ProductImportFailure;
+import net.devgrr.springbootinit.dto.ProductImportJobDto;
+import net.devgrr.springbootinit.dto.ProductImportRow;
+import net.devgrr.springbootinit.dto.ProductImportStatus;
+import net.devgrr.springbootinit.entity.User;
+import net.devgrr.springbootinit.exception.ProductImportJobNotFoundException;
+import net.devgrr.springbootinit.exception.UserNotFoundException;
+import net.devgrr.springbootinit.repository.CategoryRepository;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import net.devgrr.springbootinit.repository.UserRepository;
+import net.devgrr.springbootinit.util.CsvUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background product catalog import. The upload is spooled to a temp file so the request returns
+ * immediately, then parsed as CSV or NDJSON on the import executor and written in batches of
+ * pre-allocated ids, each batch in its own transaction. Progress is kept in memory per job.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final Map<String, String> CSV_COLUMNS = Map.ofEntries(
+            Map.entry("name", "name"),
+            Map.entry("description", "description"),
+            Map.entry("sku", "sku"),
+            Map.entry("price", "price"),
+            Map.entry("costprice", "costPrice"),
+            Map.entry("stockquantity", "stockQuantity"),
+            Map.entry("minstocklevel", "minStockLevel"),
+            Map.entry("weight", "weight"),
+            Map.entry("dimensions", "dimensions"),
+            Map.entry("imageurl", "imageUrl"),
+            Map.entry("status", "status"),
+            Map.entry("categoryid", "categoryId"));
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("productImportExecutor")
+    private final TaskExecutor productImportExecutor;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${product.import.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${product.import.max-reported-failures:1000}")
+    private int maxReportedFailures;
+
+    @Value("${product.import.retention-minutes:1440}")
+    private long retentionMinutes;
+
+    public ProductImportJobDto submitImport(InputStream body, boolean csv) {
+        User currentUser = getCurrentUser();
+        evictFinishedJobs();
+
+        Path spool;
+        try {
+            spool = Files.createTempFile("product-import-", csv ? ".csv" : ".ndjson");
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to receive product import", e);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID());
+        jobs.put(job.id, job);
+        try {
+            productImportExecutor.execute(() -> runImport(job, spool, csv, currentUser.getId()));
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            deleteQuietly(spool);
+            throw e;
+        }
+        return job.toDto(maxReportedFailures);
+    }
+
+    public ProductImportJobDto getJob(UUID id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ProductImportJobNotFoundException(id);
+        }
+        return job.toDto(maxReportedFailures);
+    }
+
+    private void runImport(ImportJob job, Path spool, boolean csv, Long userId) {
+        job.status = ProductImportStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            ImportBatcher batcher = new ImportBatcher(job, userId, categoryRepository.findActiveIds());
+            if (csv) {
+                readCsv(reader, batcher);
+            } else {
+                readNdjson(reader, batcher);
+            }
+            batcher.flush();
+            job.status = ProductImportStatus.COMPLETED;
+            log.info("Product import {} completed: {} rows, {} imported, {} failed",
+                    job.id, job.received, job.imported, job.failed);
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = ProductImportStatus.FAILED;
+            log.error("Product import {} failed after {} rows", job.id, job.received, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            deleteQuietly(spool);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportBatcher batcher) throws IOException {
+        long rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            ProductCreateRequest product;
+            try {
+                product = objectMapper.readValue(line, ProductCreateRequest.class);
+            } catch (IOException e) {
+                batcher.reject(rowNumber, null, "Malformed JSON line");
+                continue;
+            }
+            batcher.accept(rowNumber, product);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportBatcher batcher) throws IOException {
+        List<String> header = CsvUtils.readRecord(reader);
+        if (header == null) {
+            return;
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : header) {
+            columns.add(CSV_COLUMNS.get(column.toLowerCase().replace("_", "")));
+        }
+        if (!columns.contains("name") || !columns.contains("price") || !columns.contains("categoryId")) {
+            throw new IllegalArgumentException("CSV header must contain 'name', 'price' and 'category_id' columns");
+        }
+
+        long rowNumber = 0;
+        List<String> values;
+        while ((values = CsvUtils.readRecord(reader)) != null) {
+            rowNumber++;
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < values.size(); i++) {
+                if (columns.get(i) != null && !values.get(i).isEmpty()) {
+                    fields.put(columns.get(i), values.get(i));
+                }
+            }
+            ProductCreateRequest product;
+            try {
+                product = objectMapper.convertValue(fields, ProductCreateRequest.class);
+            } catch (IllegalArgumentException e) {
+                batcher.reject(rowNumber, fields.get("sku"), "Invalid value");
+                continue;
+            }
+            batcher.accept(rowNumber, product);
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete import spool file {}", path, e);
+        }
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("username", username));
+    }
+
+    // Written by the single worker thread only, read concurrently by status requests
+    static class ImportJob {
+        private final UUID id;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final List<ProductImportFailure> failures = new ArrayList<>();
+        private volatile ProductImportStatus status = ProductImportStatus.QUEUED;
+        private volatile long received;
+        private volatile long imported;
+        private volatile long failed;
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        ImportJob(UUID id) {
+            this.id = id;
+        }
+
+        synchronized void addFailure(ProductImportFailure failure, int maxReported) {
+            failed++;
+            if (failures.size() < maxReported) {
+                failures.add(failure);
+            }
+        }
+
+        synchronized ProductImportJobDto toDto(int maxReported) {
+            return ProductImportJobDto.builder()
+                    .id(id)
+                    .status(status)
+                    .received(received)
+                    .imported(imported)
+                    .failed(failed)
+                    .failures(new ArrayList<>(failures.subList(0, Math.min(failures.size(), maxReported))))
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+
+    private class ImportBatcher {
+        private final ImportJob job;
+        private final Long userId;
+        private final Set<Long> activeCategoryIds;
+        private final List<ProductImportRow> pending = new ArrayList<>();
+
+        ImportBatcher(ImportJob job, Long userId, Set<Long> activeCategoryIds) {
+            this.job = job;
+            this.userId = userId;
+            this.activeCategoryIds = activeCategoryIds;
+        }
+
+        void reject(long rowNumber, String sku, String message) {
+            job.received++;
+            job.addFailure(new ProductImportFailure(rowNumber, sku, message), maxReportedFailures);
+        }
+
+        void accept(long rowNumber, ProductCreateRequest product) {
+            String error = validate(product);
+            if (error != null) {
+                reject(rowNumber, product.getSku(), error);
+                return;
+            }
+            job.received++;
+            if (product.getSku() != null && product.getSku().isBlank()) {
+                product.setSku(null);
+            }
+            pending.add(new ProductImportRow(rowNumber, null, product));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Long> ids = productRepository.allocateProductIds(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                pending.get(i).setId(ids.get(i));
+            }
+            Set<Long> inserted = transactionTemplate.execute(
+                    status -> productRepository.insertImportedProducts(pending, userId));
+            for (ProductImportRow row : pending) {
+                if (inserted == null || !inserted.contains(row.getId())) {
+                    job.addFailure(new ProductImportFailure(row.getRowNumber(), row.getProduct().getSku(),
+                            "Product already exists with SKU"), maxReportedFailures);
+                }
+            }
+            job.imported += inserted != null ? inserted.size() : 0;
+            pending.clear();
+        }
+
+        private String validate(ProductCreateRequest product) {
+            if (product.getName() == null || product.getName().isBlank()) {
+                return "Missing name";
+            }
+            if (product.getPrice() == null || product.getPrice().signum() < 0) {
+                return "Missing or negative price";
+            }
+            if (product.getStockQuantity() != null && product.getStockQuantity() < 0) {
+                return "Stock quantity must not be negative";
+            }
+            if (product.getCategoryId() == null || !activeCategoryIds.contains(product.getCategoryId())) {
+                return "Category not found";
+            }
+            return null;
+        }
+    }
+}
@@ -4,10 +4,13 @@ import lombok.RequiredArgsConstructor;
 import net.devgrr.springbootinit.dto.ProductCreateRequest;
 import net.devgrr.springbootinit.dto.ProductDto;
 import net.devgrr.springbootinit.dto.ProductUpdateRequest;
+import net.devgrr.springbootinit.dto.StockMovementDto;
+import net.devgrr.springbootinit.dto.StockMovementRequest;
 import net.devgrr.springbootinit.dto.StockUpdateRequest;
 import net.devgrr.springbootinit.entity.Category;
 import net.devgrr.springbootinit.entity.Product;
 import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.entity.StockMovementReason;
 import net.devgrr.springbootinit.entity.User;
 import net.devgrr.springbootinit.exception.CategoryNotFoundException;
 import net.devgrr.springbootinit.exception.ProductAlreadyExistsException;
@@ -23,6 +26,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,9 +36,15 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductService {
 
+    private static final int MAX_IN_CLAUSE_IDS = 10_000;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
+    private final StockLedgerService stockLedgerService;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+    private final CategoryProductCounter categoryProductCounter;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
@@ -65,6 +76,31 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<ProductDto> getProductsByCategory(Long categoryId, boolean includeDescendants) {
+        if (!includeDescendants) {
+            return getProductsByCategory(categoryId);
+        }
+
+        List<Long> categoryIds = new ArrayList<>(categoryHierarchyCache.getSubtreeIds(categoryId));
+        if (categoryIds.isEmpty()) {
+            throw new CategoryNotFoundException(categoryId);
+        }
+
+        // One statement for any realistic subtree; chunked only to stay under the driver's bind parameter limit
+        List<Product> products = new ArrayList<>();
+        for (int from = 0; from < categoryIds.size(); from += MAX_IN_CLAUSE_IDS) {
+            List<Long> chunk = categoryIds.subList(from, Math.min(from + MAX_IN_CLAUSE_IDS, categoryIds.size()));
+            products.addAll(productRepository.findByCategoryIdInAndStatusOrderByNameAsc(chunk, ProductStatus.ACTIVE));
+        }
+        if (categoryIds.size() > MAX_IN_CLAUSE_IDS) {
+            products.sort(Comparator.comparing(Product::getName));
+        }
+        return products.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public ProductDto getProductById(Long id) {
         Product product = productRepository.findById(id)
@@ -86,19 +122,15 @@ public class ProductService {
     }
 
     @Transactional(readOnly = true)
-    public List<ProductDto> getLowStockProducts() {
-        return productRepository.findLowStockProducts()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public Page<ProductDto> getLowStockProducts(Pageable pageable) {
+        return productRepository.findByIsLowStockTrueOrderByIdAsc(pageable)
+                .map(this::convertToDto);
     }
 
     @Transactional(readOnly = true)
-    public List<ProductDto> getOutOfStockProducts() {
-        return productRepository.findOutOfStockProducts()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public Page<ProductDto> getOutOfStockProducts(Pageable pageable) {
+        return productRepository.findByIsOutOfStockTrueOrderByIdAsc(pageable)
+                .map(this::convertToDto);
     }
 
     @Transactional(readOnly = true)
@@ -137,12 +169,18 @@ public class ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
+        if (savedProduct.getStockQuantity() != 0) {
+            stockLedgerService.recordInitialStock(savedProduct, savedProduct.getStockQuantity(), currentUser);
+        }
+        categoryProductCounter.recordChange(null, countedCategoryId(savedProduct));
+        cacheInvalidationBus.publish(CacheEntityType.PRODUCT, savedProduct.getId());
         return convertToDto(savedProduct);
     }
 
     public ProductDto updateProduct(Long id, ProductUpdateRequest request) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
+        Long countedBefore = countedCategoryId(product);
 
         if (request.getSku() != null && !request.getSku().equals(product.getSku())) {
             if (productRepository.existsBySkuAndIdNot(request.getSku(), id)) {
@@ -167,10 +205,6 @@ public class ProductService {
             product.setCostPrice(request.getCostPrice());
         }
 
-        if (request.getStockQuantity() != null) {
-            product.setStockQuantity(request.getStockQuantity());
-        }
-
         if (request.getMinStockLevel() != null) {
             product.setMinStockLevel(request.getMinStockLevel());
         }
@@ -197,36 +231,117 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        product.setUpdatedBy(getCurrentUser());
+        User currentUser = getCurrentUser();
+        if (request.getStockQuantity() != null) {
+            adjustStockTo(product, request.getStockQuantity(), null, currentUser);
+        }
+        product.setUpdatedBy(currentUser);
 
         Product updatedProduct = productRepository.save(product);
+        categoryProductCounter.recordChange(countedBefore, countedCategoryId(updatedProduct));
+        cacheInvalidationBus.publish(CacheEntityType.PRODUCT, id);
         return convertToDto(updatedProduct);
     }
 
     public ProductDto updateStock(Long id, StockUpdateRequest request) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
+        Long countedBefore = countedCategoryId(product);
 
-        product.setStockQuantity(request.getQuantity());
-        product.setUpdatedBy(getCurrentUser());
+        User currentUser = getCurrentUser();
+        adjustStockTo(product, request.getQuantity(), request.getReason(), currentUser);
+        product.setUpdatedBy(currentUser);
+        refreshStockStatus(product);
 
-        if (product.isOutOfStock()) {
-            product.setStatus(ProductStatus.OUT_OF_STOCK);
-        } else if (product.getStatus() == ProductStatus.OUT_OF_STOCK) {
-            product.setStatus(ProductStatus.ACTIVE);
+        Product updatedProduct = productRepository.save(product);
+        categoryProductCounter.recordChange(countedBefore, countedCategoryId(updatedProduct));
+        cacheInvalidationBus.publish(CacheEntityType.PRODUCT, id);
+        return convertToDto(updatedProduct);
+    }
+
+    public ProductDto recordStockMovement(Long id, StockMovementRequest request) {
+        if (request.getDelta() == null || request.getDelta() == 0) {
+            throw new IllegalArgumentException("Stock movement delta must be non-zero");
+        }
+
+        Product product = productRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+        Long countedBefore = countedCategoryId(product);
+
+        // Same invariant as absolute sets: the resulting quantity must keep reserved units covered
+        int reserved = product.getReservedQuantity() != null ? product.getReservedQuantity() : 0;
+        int current = productRepository.findEffectiveStockQuantity(id);
+        product.setPendingStockDelta(current - product.getStockQuantity());
+        if (current + request.getDelta() < reserved) {
+            throw new IllegalArgumentException("Stock movement of " + request.getDelta() + " would leave "
+                    + (current + request.getDelta()) + " units, below the " + reserved
+                    + " units reserved for product id: " + id);
         }
 
+        User currentUser = getCurrentUser();
+        StockMovementReason reason = request.getReason() != null ? request.getReason() : StockMovementReason.ADJUSTMENT;
+        stockLedgerService.recordMovement(product, request.getDelta(), reason, request.getNote(), currentUser);
+        product.applyPendingStockDelta(request.getDelta());
+        product.setUpdatedBy(currentUser);
+        refreshStockStatus(product);
+
         Product updatedProduct = productRepository.save(product);
+        categoryProductCounter.recordChange(countedBefore, countedCategoryId(updatedProduct));
+        cacheInvalidationBus.publish(CacheEntityType.PRODUCT, id);
         return convertToDto(updatedProduct);
     }
 
+    @Transactional(readOnly = true)
+    public Page<StockMovementDto> getStockMovements(Long id, Pageable pageable) {
+        if (!productRepository.existsById(id)) {
+            throw new ProductNotFoundException(id);
+        }
+        return stockLedgerService.getMovements(id, pageable);
+    }
+
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
+        Long countedBefore = countedCategoryId(product);
 
         product.setStatus(ProductStatus.DISCONTINUED);
         product.setUpdatedBy(getCurrentUser());
         productRepository.save(product);
+        categoryProductCounter.recordChange(countedBefore, null);
+        cacheInvalidationBus.publish(CacheEntityType.PRODUCT, id);
+    }
+
+    // Absolute stock targets are translated into a ledger delta against the current effective quantity.
+    // Units held by reservations must stay covered, or confirming those holds would drive stock negative.
+    // The caller holds the product row lock, so other absolute sets, new holds and the compactor wait,
+    // and the quantity is re-read after taking it rather than taken from the entity's load.
+    private void adjustStockTo(Product product, int quantity, String note, User user) {
+        int reserved = product.getReservedQuantity() != null ? product.getReservedQuantity() : 0;
+        if (quantity < reserved) {
+            throw new IllegalArgumentException("Stock quantity " + quantity + " is below the " + reserved
+                    + " units reserved for product id: " + product.getId());
+        }
+        int current = productRepository.findEffectiveStockQuantity(product.getId());
+        product.setPendingStockDelta(current - product.getStockQuantity());
+        int delta = quantity - current;
+        if (delta != 0) {
+            stockLedgerService.recordMovement(product, delta, StockMovementReason.ADJUSTMENT, note, user);
+            product.applyPendingStockDelta(delta);
+        }
+    }
+
+    // Only active products count towards their category
+    private Long countedCategoryId(Product product) {
+        return product.getStatus() == ProductStatus.ACTIVE && product.getCategory() != null
+                ? product.getCategory().getId() : null;
+    }
+
+    private void refreshStockStatus(Product product) {
+        if (product.isEffectivelyOutOfStock()) {
+            product.setStatus(ProductStatus.OUT_OF_STOCK);
+        } else if (product.getStatus() == ProductStatus.OUT_OF_STOCK) {
+            product.setStatus(ProductStatus.ACTIVE);
+        }
     }
 
     private User getCurrentUser() {
@@ -243,7 +358,9 @@ public class ProductService {
                 .sku(product.getSku())
                 .price(product.getPrice())
                 .costPrice(product.getCostPrice())
-                .stockQuantity(product.getStockQuantity())
+                .stockQuantity(product.getEffectiveStockQuantity())
+                .reservedQuantity(product.getReservedQuantity())
+                .availableQuantity(product.getAvailableQuantity())
                 .minStockLevel(product.getMinStockLevel())
                 .weight(product.getWeight())
                 .dimensions(product.getDimensions())
@@ -257,8 +374,8 @@ public class ProductService {
                 .updatedByUsername(product.getUpdatedBy() != null ? product.getUpdatedBy().getUsername() : null)
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
-                .isLowStock(product.isLowStock())
-                .isOutOfStock(product.isOutOfStock())
+                .isLowStock(product.getIsLowStock())
+                .isOutOfStock(product.getIsOutOfStock())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package net.devgrr.springbootinit.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import net.devgrr.springbootinit.entity.Category;
+import net.devgrr.springbootinit.entity.CommonCode;
+import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps Hibernate's second-level cache in step with writes Hibernate does not see: commits of other
+ * instances, heard through {@link CacheInvalidationBus}, and JDBC writes of this instance. Writes made
+ * through the entity manager, native {@code @Modifying} queries included, maintain the cache
+ * themselves. Whole regions of the affected type are evicted, together with cached query results,
+ * since one changed row can move in or out of any cached query.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator implements CacheInvalidationListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evicts the type once the current transaction commits, or right away outside of one. Until then
+     * the cache still holds the committed rows, which is what other transactions should see.
+     */
+    public void evictAfterCommit(CacheEntityType type) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(type);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(type);
+            }
+        });
+    }
+
+    @Override
+    public boolean handles(CacheEntityType type) {
+        return type == CacheEntityType.CATEGORY
+                || type == CacheEntityType.COMMON_CODE
+                || type == CacheEntityType.COMMON_CODE_GROUP;
+    }
+
+    @Override
+    public void onInvalidation(CacheEntityType type, String key) {
+        evict(type);
+    }
+
+    @Override
+    public void onFlush() {
+        cache().evictAllRegions();
+    }
+
+    void evict(CacheEntityType type) {
+        Cache cache = cache();
+        switch (type) {
+            case CATEGORY -> {
+                cache.evictEntityData(Category.class);
+                cache.evictCollectionData(Category.class.getName() + ".children");
+            }
+            case COMMON_CODE -> cache.evictEntityData(CommonCode.class);
+            // Group events also cover writes to many codes of the group, such as deletes and reordering
+            case COMMON_CODE_GROUP -> {
+                cache.evictEntityData(CommonCodeGroup.class);
+                cache.evictEntityData(CommonCode.class);
+            }
+            default -> {
+                return;
+            }
+        }
+        cache.evictQueryRegions();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
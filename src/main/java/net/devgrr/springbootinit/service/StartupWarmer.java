@@ -0,0 +1,19 @@
+package net.devgrr.springbootinit.service;
+
+/**
+ * Something the application should have loaded before it takes traffic. Implementations are picked
+ * up by {@link StartupWarmup} and called once after startup, before the application reports ready,
+ * possibly on a bootstrap thread and alongside the other warmers.
+ */
+public interface StartupWarmer {
+
+    void warmUp();
+
+    /**
+     * Whether the other warmers depend on this one, so it has to finish before they start. Such
+     * warmers always run one after another on the calling thread, ahead of the rest.
+     */
+    default boolean runsFirst() {
+        return false;
+    }
+}
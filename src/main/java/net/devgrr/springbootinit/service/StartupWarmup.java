@@ -0,0 +1,88 @@
+package net.devgrr.springbootinit.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every {@link StartupWarmer} once the application has started. Spring Boot only reports the
+ * application ready, and the readiness probe only turns green, after this listener returns, so no
+ * traffic is taken with cold caches. Each warmer is recorded as an {@code app.warmup} step in the
+ * startup timeline, and the total is published as the {@code application.warmup.time} gauge next to
+ * Spring Boot's {@code application.started.time} and {@code application.ready.time}.
+ * <p>
+ * Warmers that {@linkplain StartupWarmer#runsFirst() run first} are run before the rest. The rest run
+ * one after another on the main thread, or all at once on the bootstrap executor when background
+ * initialization is enabled, see {@code BackgroundInitConfig}. A failing warmer fails startup either way.
+ */
+@Slf4j
+@Component
+public class StartupWarmup {
+
+    static final String STEP_NAME = "app.warmup";
+    static final String METRIC_NAME = "application.warmup.time";
+
+    private final List<StartupWarmer> warmers;
+    private final ApplicationStartup applicationStartup;
+    private final MeterRegistry meterRegistry;
+    private final AsyncTaskExecutor bootstrapExecutor;
+
+    public StartupWarmup(List<StartupWarmer> warmers, ApplicationStartup applicationStartup, MeterRegistry meterRegistry,
+                         @Qualifier(ConfigurableApplicationContext.BOOTSTRAP_EXECUTOR_BEAN_NAME)
+                         ObjectProvider<AsyncTaskExecutor> bootstrapExecutor) {
+        this.warmers = warmers;
+        this.applicationStartup = applicationStartup;
+        this.meterRegistry = meterRegistry;
+        this.bootstrapExecutor = bootstrapExecutor.getIfAvailable();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.nanoTime();
+        warmers.stream().filter(StartupWarmer::runsFirst).forEach(this::run);
+        List<StartupWarmer> rest = warmers.stream().filter(warmer -> !warmer.runsFirst()).toList();
+        if (bootstrapExecutor == null) {
+            rest.forEach(this::run);
+        } else {
+            CompletableFuture<?>[] runs = rest.stream()
+                    .map(warmer -> CompletableFuture.runAsync(() -> run(warmer), bootstrapExecutor))
+                    .toArray(CompletableFuture[]::new);
+            try {
+                CompletableFuture.allOf(runs).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        Duration timeTaken = Duration.ofNanos(System.nanoTime() - started);
+        TimeGauge.builder(METRIC_NAME, timeTaken::toMillis, TimeUnit.MILLISECONDS)
+                .description("Time taken to warm up the application before it reports ready")
+                .register(meterRegistry);
+        log.info("Ran {} startup warmers in {} ms", warmers.size(), timeTaken.toMillis());
+    }
+
+    private void run(StartupWarmer warmer) {
+        StartupStep step = applicationStartup.start(STEP_NAME)
+                .tag("warmer", ClassUtils.getUserClass(warmer).getSimpleName());
+        try {
+            warmer.warmUp();
+        } finally {
+            step.end();
+        }
+    }
+}
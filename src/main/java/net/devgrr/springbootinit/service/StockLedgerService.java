@@ -0,0 +1,98 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.dto.StockMovementDto;
+import net.devgrr.springbootinit.entity.Product;
+import net.devgrr.springbootinit.entity.StockMovement;
+import net.devgrr.springbootinit.entity.StockMovementReason;
+import net.devgrr.springbootinit.entity.User;
+import net.devgrr.springbootinit.repository.StockMovementRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockLedgerService {
+
+    private final StockMovementRepository stockMovementRepository;
+
+    @Value("${stock.ledger.compaction-batch-size:5000}")
+    private int compactionBatchSize;
+
+    @Value("${stock.ledger.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Transactional(readOnly = true)
+    public Page<StockMovementDto> getMovements(Long productId, Pageable pageable) {
+        return stockMovementRepository.findByProductIdOrderByIdDesc(productId, pageable)
+                .map(this::convertToDto);
+    }
+
+    /**
+     * Appends a signed delta for the product. Does not touch the products row, so concurrent
+     * writers to the same product never contend on it; the compactor folds the delta later.
+     */
+    public StockMovement recordMovement(Product product, int delta, StockMovementReason reason, String note, User user) {
+        StockMovement movement = StockMovement.builder()
+                .product(product)
+                .delta(delta)
+                .reason(reason)
+                .note(note)
+                .createdBy(user)
+                .build();
+        return stockMovementRepository.save(movement);
+    }
+
+    /**
+     * Records the opening balance of a newly inserted product. The quantity is already in
+     * products.stock_quantity, so the entry is stored as folded and only serves as history.
+     */
+    public StockMovement recordInitialStock(Product product, int quantity, User user) {
+        StockMovement movement = StockMovement.builder()
+                .product(product)
+                .delta(quantity)
+                .reason(StockMovementReason.INITIAL)
+                .folded(true)
+                .createdBy(user)
+                .build();
+        return stockMovementRepository.save(movement);
+    }
+
+    // Each batch commits on its own so a long backlog never holds product row locks for the whole run
+    @Scheduled(fixedDelayString = "${stock.ledger.compaction-interval-ms:5000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void compact() {
+        long folded = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            long batch = stockMovementRepository.compactBatch(compactionBatchSize);
+            folded += batch;
+            if (batch < compactionBatchSize) {
+                break;
+            }
+        }
+        if (folded > 0) {
+            log.debug("Folded {} stock movements into product stock", folded);
+        }
+    }
+
+    private StockMovementDto convertToDto(StockMovement movement) {
+        return StockMovementDto.builder()
+                .id(movement.getId())
+                .productId(movement.getProduct().getId())
+                .delta(movement.getDelta())
+                .reason(movement.getReason())
+                .note(movement.getNote())
+                .folded(movement.getFolded())
+                .createdByUsername(movement.getCreatedBy() != null ? movement.getCreatedBy().getUsername() : null)
+                .createdAt(movement.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package net.devgrr.springbootinit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.dto.StockReservationDto;
+import net.devgrr.springbootinit.dto.StockReservationRequest;
+import net.devgrr.springbootinit.entity.Product;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.entity.StockMovementReason;
+import net.devgrr.springbootinit.entity.StockReservation;
+import net.devgrr.springbootinit.exception.InsufficientStockException;
+import net.devgrr.springbootinit.exception.ProductNotFoundException;
+import net.devgrr.springbootinit.exception.StockReservationNotFoundException;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import net.devgrr.springbootinit.repository.StockReservationRepository;
+import net.devgrr.springbootinit.util.TimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockReservationService implements StartupWarmer {
+
+    private static final int EXPIRY_BATCH_SIZE = 500;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductRepository productRepository;
+    private final StockLedgerService stockLedgerService;
+    private final TimingWheel<UUID> reservationTimingWheel;
+    private final CategoryProductCounter categoryProductCounter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${reservation.default-ttl-seconds:900}")
+    private int defaultTtlSeconds;
+
+    @Value("${reservation.max-ttl-seconds:3600}")
+    private int maxTtlSeconds;
+
+    @Transactional(readOnly = true)
+    public StockReservationDto getReservation(UUID id) {
+        StockReservation reservation = stockReservationRepository.findById(id)
+                .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new StockReservationNotFoundException(id));
+        return convertToDto(reservation);
+    }
+
+    public StockReservationDto createReservation(StockReservationRequest request) {
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Reservation quantity must be positive");
+        }
+
+        Long productId = request.getProductId();
+        int quantity = request.getQuantity();
+
+        // The row lock is held only until this short transaction commits, not for the lifetime of the hold.
+        // Taking it before the conditional update keeps the ledger compactor from folding deltas mid-check.
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        if (productRepository.reserveStock(productId, quantity) == 0) {
+            throw new InsufficientStockException(productId, quantity, product.getAvailableQuantity());
+        }
+
+        int ttlSeconds = resolveTtlSeconds(request.getTtlSeconds());
+        StockReservation reservation = StockReservation.builder()
+                .product(product)
+                .quantity(quantity)
+                .reference(request.getReference())
+                .expiresAt(LocalDateTime.now().plusSeconds(ttlSeconds))
+                .build();
+
+        StockReservation savedReservation = stockReservationRepository.save(reservation);
+        reservationTimingWheel.schedule(savedReservation.getId(), toEpochMillis(savedReservation.getExpiresAt()));
+        return convertToDto(savedReservation);
+    }
+
+    public void confirmReservation(UUID id) {
+        StockReservation reservation = stockReservationRepository.findById(id)
+                .orElseThrow(() -> new StockReservationNotFoundException(id));
+
+        if (stockReservationRepository.deleteActiveById(id, LocalDateTime.now()) == 0) {
+            throw new StockReservationNotFoundException(id);
+        }
+        Long productId = reservation.getProduct().getId();
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        productRepository.releaseReservedStock(productId, reservation.getQuantity());
+        stockLedgerService.recordMovement(product, -reservation.getQuantity(),
+                StockMovementReason.SALE, "reservation " + id, null);
+        markOutOfStockIfSoldOut(product);
+    }
+
+    public void releaseReservation(UUID id) {
+        StockReservation reservation = stockReservationRepository.findById(id)
+                .orElseThrow(() -> new StockReservationNotFoundException(id));
+
+        if (stockReservationRepository.deleteByIdReturningCount(id) == 0) {
+            throw new StockReservationNotFoundException(id);
+        }
+        productRepository.releaseReservedStock(reservation.getProduct().getId(), reservation.getQuantity());
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.wheel.tick-ms:1000}")
+    public void expireDueReservations() {
+        List<UUID> dueIds = reservationTimingWheel.advance(System.currentTimeMillis());
+        if (dueIds.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int released = 0;
+        for (int from = 0; from < dueIds.size(); from += EXPIRY_BATCH_SIZE) {
+            List<UUID> batch = dueIds.subList(from, Math.min(from + EXPIRY_BATCH_SIZE, dueIds.size()));
+            released += releaseAll(stockReservationRepository.findExpiredByIdIn(batch, now));
+        }
+        if (released > 0) {
+            log.debug("Expired {} stock reservations", released);
+        }
+    }
+
+    /**
+     * Safety net for holds created on a node that went down before its wheel fired.
+     * Walks the expires_at index from the oldest entry and stops at the first live hold.
+     */
+    @Scheduled(fixedDelayString = "${reservation.sweep-interval-ms:300000}")
+    public void sweepOrphanedReservations() {
+        List<StockReservation> expired = stockReservationRepository.findExpired(
+                LocalDateTime.now(), PageRequest.of(0, EXPIRY_BATCH_SIZE));
+        int released = releaseAll(expired);
+        if (released > 0) {
+            log.info("Swept {} orphaned stock reservations", released);
+        }
+    }
+
+    // Schedules the holds that are still live on the local wheel
+    @Override
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        List<StockReservation> active = stockReservationRepository.findByExpiresAtAfter(LocalDateTime.now());
+        active.forEach(r -> reservationTimingWheel.schedule(r.getId(), toEpochMillis(r.getExpiresAt())));
+        log.info("Scheduled {} active stock reservations for expiry", active.size());
+    }
+
+    private int releaseAll(List<StockReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return 0;
+        }
+
+        stockReservationRepository.deleteAllInBatch(reservations);
+
+        Map<Long, Integer> quantityByProduct = reservations.stream()
+                .collect(Collectors.groupingBy(r -> r.getProduct().getId(),
+                        Collectors.summingInt(StockReservation::getQuantity)));
+        quantityByProduct.forEach(productRepository::releaseReservedStock);
+        return reservations.size();
+    }
+
+    // Selling the last units takes the product out of its category's active count right away, as a stock
+    // update would, rather than leaving the status flip to the compactor. The caller holds the row lock.
+    private void markOutOfStockIfSoldOut(Product product) {
+        if (product.getStatus() != ProductStatus.ACTIVE
+                || productRepository.findEffectiveStockQuantity(product.getId()) > 0) {
+            return;
+        }
+        product.setStatus(ProductStatus.OUT_OF_STOCK);
+        categoryProductCounter.recordChange(product.getCategory() != null ? product.getCategory().getId() : null, null);
+        cacheInvalidationBus.publish(CacheEntityType.PRODUCT, product.getId());
+    }
+
+    private int resolveTtlSeconds(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultTtlSeconds;
+        }
+        return Math.min(requested, maxTtlSeconds);
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private StockReservationDto convertToDto(StockReservation reservation) {
+        return StockReservationDto.builder()
+                .id(reservation.getId())
+                .productId(reservation.getProduct().getId())
+                .quantity(reservation.getQuantity())
+                .reference(reservation.getReference())
+                .expiresAt(reservation.getExpiresAt())
+                .createdAt(reservation.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,194 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devgrr.springbootinit.dto.BulkStockUpdateFailure;
+import net.devgrr.springbootinit.dto.BulkStockUpdateResult;
+import net.devgrr.springbootinit.dto.StockSnapshotRow;
+import net.devgrr.springbootinit.entity.User;
+import net.devgrr.springbootinit.exception.UserNotFoundException;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import net.devgrr.springbootinit.repository.UserRepository;
+import net.devgrr.springbootinit.util.CsvUtils;
+import net.devgrr.springbootinit.util.JsonArrayReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockSnapshotService {
+
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final CategoryProductCounter categoryProductCounter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${stock.snapshot.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${stock.snapshot.max-reported-failures:1000}")
+    private int maxReportedFailures;
+
+    /**
+     * Applies an absolute stock snapshot streamed as a JSON array of {@code {"id"|"sku", "quantity"}}
+     * objects or as CSV with an {@code id|sku,quantity} header. Rows are parsed and staged batch by
+     * batch, so memory stays flat regardless of the snapshot size.
+     */
+    public BulkStockUpdateResult applySnapshot(InputStream body, boolean csv, String note) {
+        long started = System.currentTimeMillis();
+        User currentUser = getCurrentUser();
+
+        productRepository.createStockSnapshotStage();
+        SnapshotBatcher batcher = new SnapshotBatcher();
+        try {
+            if (csv) {
+                readCsv(body, batcher);
+            } else {
+                readJson(body, batcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read stock snapshot", e);
+        }
+        batcher.flush();
+
+        batcher.failures.addAll(productRepository.resolveStockSnapshotStage());
+        int updated = productRepository.applyStockSnapshot(currentUser.getId(), note);
+        int statusChanges = productRepository.refreshStockSnapshotStatuses(currentUser.getId());
+        // Products moving between ACTIVE and OUT_OF_STOCK change their category's count
+        if (statusChanges > 0) {
+            categoryProductCounter.reconcileAfterCommit();
+        }
+        if (updated > 0 || statusChanges > 0) {
+            cacheInvalidationBus.publish(CacheEntityType.PRODUCT, null);
+        }
+        int failed = batcher.failures.size();
+
+        log.info("Applied stock snapshot: {} rows, {} updated, {} failed", batcher.received, updated, failed);
+        return BulkStockUpdateResult.builder()
+                .received(batcher.received)
+                .updated(updated)
+                .unchanged(batcher.received - failed - updated)
+                .failed(failed)
+                .failures(batcher.failures.size() > maxReportedFailures
+                        ? new ArrayList<>(batcher.failures.subList(0, maxReportedFailures))
+                        : batcher.failures)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    private void readJson(InputStream body, SnapshotBatcher batcher) throws IOException {
+        JsonArrayReader.forEachObject(objectMapper, body, "Stock snapshot",
+                (node, rowNumber) -> batcher.accept(rowNumber,
+                        node.hasNonNull("id") ? node.get("id").asText() : null,
+                        node.hasNonNull("sku") ? node.get("sku").asText() : null,
+                        node.hasNonNull("quantity") ? node.get("quantity").asText() : null),
+                rowNumber -> batcher.reject(rowNumber, null, "Expected a JSON object"));
+    }
+
+    private void readCsv(InputStream body, SnapshotBatcher batcher) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> columns = CsvUtils.readRecord(reader);
+        if (columns == null) {
+            return;
+        }
+        int keyIndex = -1;
+        int quantityIndex = -1;
+        boolean keyIsId = false;
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).toLowerCase();
+            if (column.equals("id") || column.equals("sku")) {
+                keyIndex = i;
+                keyIsId = column.equals("id");
+            } else if (column.equals("quantity")) {
+                quantityIndex = i;
+            }
+        }
+        if (keyIndex < 0 || quantityIndex < 0) {
+            throw new IllegalArgumentException("CSV header must contain 'id' or 'sku' and 'quantity' columns");
+        }
+
+        int rowNumber = 0;
+        List<String> values;
+        while ((values = CsvUtils.readRecord(reader)) != null) {
+            rowNumber++;
+            String key = keyIndex < values.size() ? values.get(keyIndex) : null;
+            String quantity = quantityIndex < values.size() ? values.get(quantityIndex) : null;
+            batcher.accept(rowNumber, keyIsId ? key : null, keyIsId ? null : key, quantity);
+        }
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("username", username));
+    }
+
+    private class SnapshotBatcher {
+        private final List<StockSnapshotRow> pending = new ArrayList<>();
+        private final List<BulkStockUpdateFailure> failures = new ArrayList<>();
+        private int received;
+
+        void reject(int rowNumber, String key, String message) {
+            received++;
+            failures.add(new BulkStockUpdateFailure(rowNumber, key, message));
+        }
+
+        void accept(int rowNumber, String id, String sku, String quantity) {
+            received++;
+            String key = id != null ? id : sku;
+            if ((id == null || id.isEmpty()) && (sku == null || sku.isEmpty())) {
+                failures.add(new BulkStockUpdateFailure(rowNumber, null, "Missing id or sku"));
+                return;
+            }
+
+            Long productId = null;
+            if (id != null && !id.isEmpty()) {
+                try {
+                    productId = Long.parseLong(id);
+                } catch (NumberFormatException e) {
+                    failures.add(new BulkStockUpdateFailure(rowNumber, key, "Invalid id"));
+                    return;
+                }
+            }
+
+            int parsedQuantity;
+            try {
+                parsedQuantity = Integer.parseInt(quantity);
+            } catch (NumberFormatException e) {
+                failures.add(new BulkStockUpdateFailure(rowNumber, key, "Invalid quantity"));
+                return;
+            }
+            if (parsedQuantity < 0) {
+                failures.add(new BulkStockUpdateFailure(rowNumber, key, "Quantity must not be negative"));
+                return;
+            }
+
+            pending.add(new StockSnapshotRow(rowNumber, productId, productId == null ? sku : null, parsedQuantity));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!pending.isEmpty()) {
+                productRepository.stageStockSnapshotRows(new ArrayList<>(pending));
+                pending.clear();
+            }
+        }
+    }
+}
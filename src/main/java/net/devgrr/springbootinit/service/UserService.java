@@ -25,6 +25,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
@@ -87,6 +88,7 @@ public class UserService {
                 .build();
 
         User savedUser = userRepository.save(user);
+        cacheInvalidationBus.publish(CacheEntityType.USER, savedUser.getId());
         return convertToDto(savedUser);
     }
 
@@ -113,6 +115,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        cacheInvalidationBus.publish(CacheEntityType.USER, id);
         return convertToDto(updatedUser);
     }
 
@@ -121,6 +124,7 @@ public class UserService {
             throw new UserNotFoundException(id);
         }
         userRepository.deleteById(id);
+        cacheInvalidationBus.publish(CacheEntityType.USER, id);
     }
 
     private UserDto convertToDto(User user) {
@@ -0,0 +1,109 @@
+package net.devgrr.springbootinit.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class CsvUtils {
+
+    private CsvUtils() {
+    }
+
+    /**
+     * Reads the next CSV record (RFC 4180 quoting, {@code ""} as an escaped quote) and returns its
+     * fields, or null at the end of the input. Quoted fields may span lines and are kept exactly as
+     * written, so they round-trip with {@link #formatLine}. Unquoted fields are trimmed. Records end at
+     * {@code \n} or {@code \r\n}, and blank lines are skipped.
+     */
+    public static List<String> readRecord(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldQuoted = false;
+        boolean afterQuote = false;
+        boolean blank = true;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    quoted = false;
+                    afterQuote = true;
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == '"' && afterQuote) {
+                // Second quote of an escaped pair: the field goes on quoted
+                field.append('"');
+                quoted = true;
+                afterQuote = false;
+                continue;
+            }
+            afterQuote = false;
+            if (c == '\r') {
+                continue;
+            }
+            if (c == '\n') {
+                if (blank) {
+                    fields.clear();
+                    field.setLength(0);
+                    continue;
+                }
+                fields.add(fieldQuoted ? field.toString() : field.toString().trim());
+                return fields;
+            }
+            if (c == '"') {
+                // Whitespace before the opening quote is not part of the value
+                if (!fieldQuoted && field.toString().isBlank()) {
+                    field.setLength(0);
+                }
+                quoted = true;
+                fieldQuoted = true;
+                blank = false;
+            } else if (c == ',') {
+                fields.add(fieldQuoted ? field.toString() : field.toString().trim());
+                field.setLength(0);
+                fieldQuoted = false;
+                blank = false;
+            } else if (!fieldQuoted || !Character.isWhitespace(c)) {
+                // Whitespace after the closing quote is not part of the value either
+                field.append((char) c);
+                blank = blank && Character.isWhitespace(c);
+            }
+        }
+        if (blank) {
+            return null;
+        }
+        fields.add(fieldQuoted ? field.toString() : field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Joins fields into a single CSV record, quoting fields that contain a separator, quote, line break
+     * or surrounding whitespace. Null fields are written empty.
+     */
+    public static String formatLine(Collection<String> fields) {
+        StringBuilder line = new StringBuilder();
+        boolean first = true;
+        for (String field : fields) {
+            if (!first) {
+                line.append(',');
+            }
+            first = false;
+            if (field == null) {
+                continue;
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0
+                    || field.indexOf('\r') >= 0 || !field.equals(field.trim())) {
+                line.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(field);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package net.devgrr.springbootinit.util;
+
+public final class HangulUtils {
+
+    private static final char SYLLABLE_FIRST = '가';
+    private static final char SYLLABLE_LAST = '힣';
+    private static final int MEDIAL_COUNT = 21;
+    private static final int FINAL_COUNT = 28;
+
+    private static final String[] INITIALS = {
+            "ㄱ", "ㄲ", "ㄴ", "ㄷ", "ㄸ", "ㄹ", "ㅁ", "ㅂ", "ㅃ", "ㅅ", "ㅆ", "ㅇ", "ㅈ", "ㅉ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"};
+
+    // Compound vowels and final consonants are split into the keys typed for them
+    private static final String[] MEDIALS = {
+            "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ", "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ",
+            "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"};
+
+    private static final String[] FINALS = {
+            "", "ㄱ", "ㄲ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ",
+            "ㅁ", "ㅂ", "ㅂㅅ", "ㅅ", "ㅆ", "ㅇ", "ㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"};
+
+    private static final String COMPOUND_JAMO = "ㄳㄵㄶㄺㄻㄼㄽㄾㄿㅀㅄㅘㅙㅚㅝㅞㅟㅢ";
+
+    private static final String[] COMPOUND_JAMO_KEYS = {
+            "ㄱㅅ", "ㄴㅈ", "ㄴㅎ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅂㅅ",
+            "ㅗㅏ", "ㅗㅐ", "ㅗㅣ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅡㅣ"};
+
+    private HangulUtils() {
+    }
+
+    /**
+     * Rewrites text as the sequence of keys typed for it: Hangul syllables and compound jamo are
+     * split into basic jamo, and everything else is lower-cased. Any prefix of the keys typed for a
+     * word, including a half-composed last syllable such as {@code 한구} or {@code 한ㄱ} for
+     * {@code 한국}, is then a plain substring of the word's keys. The reverse does not hold, as a
+     * substring may also end inside a following syllable ({@code 강} in {@code 가요}), so matches
+     * are confirmed with {@link #containsTyped}.
+     */
+    public static String toKeystrokes(String text) {
+        StringBuilder keys = new StringBuilder(text.length() * 3);
+        for (int i = 0; i < text.length(); i++) {
+            appendKeystrokes(keys, text.charAt(i));
+        }
+        return keys.toString();
+    }
+
+    /**
+     * Returns whether {@code text} contains {@code query} as typed so far: every character but the
+     * last must match exactly, ignoring case, while the last only has to be the start of the keys
+     * typed for the character in its place. {@code 한구} and {@code 한ㄱ} find {@code 한국}, but
+     * {@code 강} does not find {@code 가요} and {@code 국} does not find {@code 구경}.
+     */
+    public static boolean containsTyped(String text, String query) {
+        if (query.isEmpty()) {
+            return true;
+        }
+        int headLength = query.length() - 1;
+        String lastKeys = toKeystrokes(query.substring(headLength));
+        StringBuilder keys = new StringBuilder(4);
+        for (int start = 0; start + headLength < text.length(); start++) {
+            if (text.regionMatches(true, start, query, 0, headLength)) {
+                keys.setLength(0);
+                appendKeystrokes(keys, text.charAt(start + headLength));
+                if (keys.toString().startsWith(lastKeys)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void appendKeystrokes(StringBuilder keys, char c) {
+        if (c >= SYLLABLE_FIRST && c <= SYLLABLE_LAST) {
+            int offset = c - SYLLABLE_FIRST;
+            keys.append(INITIALS[offset / (MEDIAL_COUNT * FINAL_COUNT)])
+                    .append(MEDIALS[offset % (MEDIAL_COUNT * FINAL_COUNT) / FINAL_COUNT])
+                    .append(FINALS[offset % FINAL_COUNT]);
+            return;
+        }
+        int compound = COMPOUND_JAMO.indexOf(c);
+        if (compound >= 0) {
+            keys.append(COMPOUND_JAMO_KEYS[compound]);
+        } else {
+            keys.append(Character.toLowerCase(c));
+        }
+    }
+
+    /**
+     * Replaces each Hangul syllable with its initial consonant ({@code 공통코드} becomes
+     * {@code ㄱㅌㅋㄷ}) and lower-cases everything else.
+     */
+    public static String toChoseong(String text) {
+        StringBuilder initials = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= SYLLABLE_FIRST && c <= SYLLABLE_LAST) {
+                initials.append(INITIALS[(c - SYLLABLE_FIRST) / (MEDIAL_COUNT * FINAL_COUNT)]);
+            } else {
+                initials.append(Character.toLowerCase(c));
+            }
+        }
+        return initials.toString();
+    }
+}
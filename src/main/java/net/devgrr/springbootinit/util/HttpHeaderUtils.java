@@ -0,0 +1,49 @@
+package net.devgrr.springbootinit.util;
+
+import java.util.Locale;
+
+public final class HttpHeaderUtils {
+
+    private HttpHeaderUtils() {
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header (RFC 9110) allows the given content coding. A coding
+     * listed with {@code q=0} is refused, and {@code *} covers every coding not listed by name.
+     * Unparseable quality values count as refused.
+     */
+    public static boolean acceptsEncoding(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double named = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    quality = parseQuality(parameter.substring(2).trim());
+                }
+            }
+            if (name.equals(coding)) {
+                named = quality;
+            } else if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        double quality = named != null ? named : wildcard != null ? wildcard : 0;
+        return quality > 0;
+    }
+
+    private static double parseQuality(String value) {
+        try {
+            double quality = Double.parseDouble(value);
+            return quality >= 0 && quality <= 1 ? quality : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.devgrr.springbootinit.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+
+public final class JsonArrayReader {
+
+    private JsonArrayReader() {
+    }
+
+    /**
+     * Streams a top-level JSON array element by element, numbering elements from 1, so memory stays
+     * flat regardless of the array size. Objects are passed to {@code onObject}; any other element is
+     * skipped and passed to {@code onNonObject}, so a stray value is reported rather than ending the
+     * read early.
+     */
+    public static void forEachObject(ObjectMapper objectMapper, InputStream body, String description,
+                                     ObjIntConsumer<JsonNode> onObject, IntConsumer onNonObject) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException(description + " must be a JSON array");
+            }
+            int elementNumber = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                elementNumber++;
+                if (token == JsonToken.START_OBJECT) {
+                    onObject.accept(objectMapper.readTree(parser), elementNumber);
+                } else {
+                    parser.skipChildren();
+                    onNonObject.accept(elementNumber);
+                }
+            }
+        }
+    }
+}
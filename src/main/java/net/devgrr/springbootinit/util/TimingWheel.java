@@ -0,0 +1,88 @@
+package net.devgrr.springbootinit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel. Items are bucketed by deadline tick, so each advance only
+ * touches the buckets that elapsed instead of scanning every pending item.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Entry<T>>[] buckets;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new ConcurrentLinkedQueue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(toTick(deadlineMillis), currentTick + 1);
+        buckets[(int) (deadlineTick & mask)].add(new Entry<>(item, deadlineTick));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Returns every item whose deadline is at or before {@code nowMillis}. An item scheduled
+     * concurrently into a bucket that was just drained fires one rotation late, never early.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = toTick(nowMillis);
+        List<T> expired = new ArrayList<>();
+        long ticks = Math.min(targetTick - currentTick, buckets.length);
+
+        for (long i = 1; i <= ticks; i++) {
+            ConcurrentLinkedQueue<Entry<T>> bucket = buckets[(int) ((currentTick + 1) & mask)];
+            List<Entry<T>> drained = new ArrayList<>();
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null) {
+                drained.add(entry);
+            }
+            for (Entry<T> e : drained) {
+                if (e.deadlineTick() <= targetTick) {
+                    expired.add(e.item());
+                    pending.decrementAndGet();
+                } else {
+                    bucket.add(e);
+                }
+            }
+            currentTick++;
+        }
+
+        if (targetTick > currentTick) {
+            currentTick = targetTick;
+        }
+        return expired;
+    }
+
+    public int size() {
+        return pending.get();
+    }
+
+    private long toTick(long millis) {
+        return Math.max(0, (millis - startMillis) / tickMillis);
+    }
+
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+}
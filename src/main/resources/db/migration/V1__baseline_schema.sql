@@ -0,0 +1,133 @@
+-- 기준 스키마: 기존 ddl-auto(update) + schema-tuning.sql 이 만들던 구조와 동일하다.
+-- Flyway 도입 전 ddl-auto 로 만들어진 DB 는 baseline-on-migrate 가 버전 0 으로 기준선을 잡은 뒤 이 버전부터 적용한다.
+-- 그런 DB 에는 테이블이 이미 있으므로 모든 구문을 IF NOT EXISTS 로 쓰고, 이 버전의 구조와 다른 부분만 아래에서 맞춘다.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS categories_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS common_codes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id       bigint       NOT NULL PRIMARY KEY,
+    username varchar(255) NOT NULL UNIQUE,
+    email    varchar(255) NOT NULL UNIQUE,
+    password varchar(255) NOT NULL,
+    role     varchar(255) CHECK (role IN ('USER', 'ADMIN'))
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id            bigint       NOT NULL PRIMARY KEY,
+    name          varchar(100) NOT NULL,
+    description   varchar(500),
+    display_order integer,
+    is_active     boolean      NOT NULL,
+    parent_id     bigint REFERENCES categories (id),
+    created_at    timestamp(6) NOT NULL,
+    updated_at    timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS common_code_groups (
+    group_code  varchar(20)  NOT NULL PRIMARY KEY,
+    group_name  varchar(100) NOT NULL,
+    description varchar(500),
+    use_yn      varchar(1)   NOT NULL,
+    sort_order  integer,
+    created_at  timestamp(6) NOT NULL,
+    updated_at  timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS common_codes (
+    id          bigint       NOT NULL PRIMARY KEY,
+    group_code  varchar(20)  NOT NULL REFERENCES common_code_groups (group_code),
+    code        varchar(20)  NOT NULL,
+    code_name   varchar(100) NOT NULL,
+    code_value  varchar(200),
+    description varchar(500),
+    use_yn      varchar(1)   NOT NULL,
+    sort_order  integer,
+    created_at  timestamp(6) NOT NULL,
+    updated_at  timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id                 bigint         NOT NULL PRIMARY KEY,
+    name               varchar(200)   NOT NULL,
+    description        text,
+    sku                varchar(50) UNIQUE,
+    price              numeric(10, 2) NOT NULL,
+    cost_price         numeric(10, 2),
+    stock_quantity     integer        NOT NULL,
+    reserved_quantity  integer        NOT NULL DEFAULT 0,
+    min_stock_level    integer,
+    is_low_stock       boolean GENERATED ALWAYS AS (min_stock_level IS NOT NULL AND stock_quantity <= min_stock_level) STORED,
+    is_out_of_stock    boolean GENERATED ALWAYS AS (stock_quantity <= 0) STORED,
+    low_stock_notified boolean        NOT NULL DEFAULT false,
+    weight             numeric(8, 3),
+    dimensions         varchar(100),
+    image_url          varchar(500),
+    status             varchar(255)   NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE', 'OUT_OF_STOCK', 'DISCONTINUED')),
+    category_id        bigint         NOT NULL REFERENCES categories (id),
+    created_by         bigint REFERENCES users (id),
+    updated_by         bigint REFERENCES users (id),
+    created_at         timestamp(6)   NOT NULL,
+    updated_at         timestamp(6)
+);
+
+-- ddl-auto 로 만들어진 DB: id 는 IDENTITY 였고 재고 컬럼이 없다 (새 DB 에서는 아무것도 하지 않는다).
+-- id 는 위 pooled 시퀀스로 넘기고, 시퀀스 위치는 afterMigrate.sql 이 현재 최대 id 뒤로 맞춘다.
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE common_codes ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS reserved_quantity  integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS is_low_stock       boolean GENERATED ALWAYS AS (min_stock_level IS NOT NULL AND stock_quantity <= min_stock_level) STORED,
+    ADD COLUMN IF NOT EXISTS is_out_of_stock    boolean GENERATED ALWAYS AS (stock_quantity <= 0) STORED,
+    ADD COLUMN IF NOT EXISTS low_stock_notified boolean NOT NULL DEFAULT false;
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id         uuid         NOT NULL PRIMARY KEY,
+    product_id bigint       NOT NULL REFERENCES products (id),
+    quantity   integer      NOT NULL,
+    reference  varchar(100),
+    expires_at timestamp(6) NOT NULL,
+    created_at timestamp(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_expires_at ON stock_reservations (expires_at);
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_product_id ON stock_reservations (product_id);
+
+CREATE TABLE IF NOT EXISTS stock_movements (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id bigint       NOT NULL REFERENCES products (id),
+    delta      integer      NOT NULL,
+    reason     varchar(20)  NOT NULL CHECK (reason IN ('INITIAL', 'ADJUSTMENT', 'RESTOCK', 'SALE', 'RETURN', 'DAMAGE')),
+    note       varchar(255),
+    folded     boolean      NOT NULL,
+    created_by bigint REFERENCES users (id),
+    created_at timestamp(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_product_id_id ON stock_movements (product_id, id);
+
+-- stock_reservations: insert/delete 만 반복되는 테이블이므로 dead tuple 을 빠르게 회수한다.
+ALTER TABLE stock_reservations SET (
+    autovacuum_vacuum_scale_factor = 0.0,
+    autovacuum_vacuum_threshold = 5000,
+    autovacuum_vacuum_insert_scale_factor = 0.0,
+    autovacuum_vacuum_insert_threshold = 5000,
+    autovacuum_analyze_scale_factor = 0.05
+);
+
+-- stock_movements: 아직 stock_quantity 에 반영되지 않은 행만 담는 부분 인덱스 (조회 경로/압축기 공용)
+CREATE INDEX IF NOT EXISTS idx_stock_movements_unfolded
+    ON stock_movements (product_id) INCLUDE (delta) WHERE NOT folded;
+CREATE INDEX IF NOT EXISTS idx_stock_movements_unfolded_id
+    ON stock_movements (id) WHERE NOT folded;
+
+-- products: 생성 컬럼 is_low_stock / is_out_of_stock 용 부분 인덱스 (재고 부족 목록 페이지)
+CREATE INDEX IF NOT EXISTS idx_products_low_stock ON products (id) WHERE is_low_stock;
+CREATE INDEX IF NOT EXISTS idx_products_out_of_stock ON products (id) WHERE is_out_of_stock;
+-- 재고 부족 감시기: 아직 알리지 않은 진입 / 회복했지만 아직 해제하지 않은 행만 담는다
+CREATE INDEX IF NOT EXISTS idx_products_low_stock_pending
+    ON products (id) WHERE (is_low_stock OR is_out_of_stock) AND NOT low_stock_notified;
+CREATE INDEX IF NOT EXISTS idx_products_low_stock_recovered
+    ON products (id) WHERE low_stock_notified AND NOT is_low_stock AND NOT is_out_of_stock;
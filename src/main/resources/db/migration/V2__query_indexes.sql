@@ -0,0 +1,37 @@
+-- 리포지토리 쿼리별 인덱스. 각 인덱스 위에 사용하는 쿼리를 적는다.
+
+-- ProductRepository.findByStatusOrderByNameAsc, findByStatus(Pageable), countByStatus
+CREATE INDEX IF NOT EXISTS idx_products_status_name ON products (status, name);
+-- ProductRepository.findByCategoryIdAndStatusOrderByNameAsc, findByCategoryId(Pageable), findByCategoryIdIn
+CREATE INDEX IF NOT EXISTS idx_products_category_status_name ON products (category_id, status, name);
+-- ProductRepository.findByPriceRange
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price);
+-- 사용자 삭제/조회 시 FK 검사
+CREATE INDEX IF NOT EXISTS idx_products_created_by ON products (created_by);
+CREATE INDEX IF NOT EXISTS idx_products_updated_by ON products (updated_by);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_created_by ON stock_movements (created_by) WHERE created_by IS NOT NULL;
+
+-- ProductRepository.searchProducts: LIKE '%keyword%' 는 B-tree 로 처리할 수 없어 trigram GIN 을 쓴다
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (name public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_description_trgm ON products USING gin (description public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_sku_trgm ON products USING gin (sku public.gin_trgm_ops);
+
+-- CategoryRepository.findByParentIdAndIsActiveTrueOrderByDisplayOrderAsc (FK 검사도 겸한다)
+CREATE INDEX IF NOT EXISTS idx_categories_parent_display_order ON categories (parent_id, display_order) WHERE is_active;
+-- CategoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc, findActiveIds (id 만 읽는 index-only scan)
+CREATE INDEX IF NOT EXISTS idx_categories_active_display_order ON categories (display_order) INCLUDE (id) WHERE is_active;
+-- CategoryRepository.findByParentIsNullAndIsActiveTrueOrderByDisplayOrderAsc
+CREATE INDEX IF NOT EXISTS idx_categories_root_display_order ON categories (display_order) WHERE parent_id IS NULL AND is_active;
+-- CategoryRepository.existsByNameAndParentId
+CREATE INDEX IF NOT EXISTS idx_categories_name_parent ON categories (name, parent_id);
+
+-- CommonCodeRepository.findByCodeGroup_GroupCodeAndUseYnOrderBySortOrderAsc
+CREATE INDEX IF NOT EXISTS idx_common_codes_group_use_sort ON common_codes (group_code, use_yn, sort_order);
+-- CommonCodeRepository.findByCodeGroup_GroupCodeAndCode, existsByCodeGroup_GroupCodeAndCode
+CREATE INDEX IF NOT EXISTS idx_common_codes_group_code ON common_codes (group_code, code);
+-- CommonCodeGroupRepository.findByUseYnOrderBySortOrderAsc
+CREATE INDEX IF NOT EXISTS idx_common_code_groups_use_sort ON common_code_groups (use_yn, sort_order);
+
+-- UserRepository.findByRole
+CREATE INDEX IF NOT EXISTS idx_users_role ON users (role);
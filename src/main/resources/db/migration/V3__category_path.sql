@@ -0,0 +1,50 @@
+-- 카테고리 계층을 materialized path 로 저장한다.
+-- path 는 루트부터 부모까지의 조상 id 를 '/' 로 구분하고 '/' 로 끝낸다. 루트는 '/', 1 의 자식은 '/1/'.
+-- 자손 조회는 접두사 범위 검색 한 번, 조상 조회는 path 에 든 id 로 PK 조회 한 번이 된다.
+-- 범위 검색이 바이트 순서로 동작하도록 "C" 콜레이션을 쓴다.
+ALTER TABLE categories ADD COLUMN path varchar(1000) COLLATE "C";
+
+-- 루트에서 내려가는 행은 부모가 하나뿐이므로 순환에 들어갈 수 없다. 깊이 제한 없이 모든 자손에 도달한다.
+WITH RECURSIVE tree AS (
+    SELECT id, '/'::text AS path FROM categories WHERE parent_id IS NULL
+    UNION ALL
+    SELECT c.id, t.path || t.id || '/'
+    FROM categories c JOIN tree t ON c.parent_id = t.id
+)
+UPDATE categories c SET path = t.path FROM tree t WHERE c.id = t.id;
+
+-- 남은 행은 순환 참조에 있거나 그 아래에 있다. 순환마다 그 안의 가장 작은 id 를 루트로 분리해 끊고 그 아래를 다시 채운다.
+-- 순환 아래에 매달린 행은 부모를 그대로 두고, 순환이 끊긴 뒤 그 자손으로 채워진다.
+DO $$
+DECLARE
+    orphan bigint;
+BEGIN
+    LOOP
+        WITH RECURSIVE up AS (
+            SELECT id AS start, parent_id AS ancestor, ARRAY[id] AS seen FROM categories WHERE path IS NULL
+            UNION ALL
+            SELECT u.start, c.parent_id, u.seen || c.id
+            FROM up u JOIN categories c ON c.id = u.ancestor
+            WHERE c.id <> ALL (u.seen)
+        )
+        SELECT min(start) INTO orphan FROM up WHERE ancestor = start;
+        EXIT WHEN orphan IS NULL;
+        UPDATE categories SET parent_id = NULL WHERE id = orphan;
+        WITH RECURSIVE tree AS (
+            SELECT id, '/'::text AS path FROM categories WHERE id = orphan
+            UNION ALL
+            SELECT c.id, t.path || t.id || '/'
+            FROM categories c JOIN tree t ON c.parent_id = t.id
+            WHERE c.path IS NULL
+        )
+        UPDATE categories c SET path = t.path FROM tree t WHERE c.id = t.id;
+    END LOOP;
+    IF EXISTS (SELECT 1 FROM categories WHERE path IS NULL) THEN
+        RAISE EXCEPTION 'categories without a path remain after breaking parent_id cycles';
+    END IF;
+END $$;
+
+ALTER TABLE categories ALTER COLUMN path SET NOT NULL;
+
+-- CategoryRepository.findDescendantIds, moveDescendants
+CREATE INDEX IF NOT EXISTS idx_categories_path ON categories (path);
@@ -0,0 +1,9 @@
+-- 공통코드 레지스트리 버전.
+-- 공통코드 그룹/코드를 바꾸는 트랜잭션마다 같은 트랜잭션 안에서 1 씩 올린다.
+-- 각 노드는 이 한 행만 읽어 메모리 스냅샷이 최신인지 확인한다.
+CREATE TABLE common_code_version (
+    id      smallint NOT NULL PRIMARY KEY CHECK (id = 1),
+    version bigint   NOT NULL
+);
+
+INSERT INTO common_code_version (id, version) VALUES (1, 1);
@@ -0,0 +1,5 @@
+-- 공통코드는 그룹 안에서 코드가 유일하다.
+-- 서비스 검증만으로 보장하던 것을 유니크 인덱스로 강제하고, 일괄 등록의 ON CONFLICT 대상으로 쓴다.
+-- 기존 (group_code, code) 일반 인덱스는 같은 컬럼의 유니크 인덱스로 대체한다.
+DROP INDEX IF EXISTS idx_common_codes_group_code;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_common_codes_group_code ON common_codes (group_code, code);
@@ -0,0 +1,7 @@
+-- Flyway 콜백: 마이그레이션이 끝날 때마다(= 매 기동 시) 실행된다.
+-- pooled 시퀀스(INCREMENT BY 50)를 현재 최대 id 뒤로 맞춘다 (이미 앞서 있으면 유지).
+-- 시퀀스를 거치지 않고 id 를 넣은 행(수동 적재, 복원 등)이 있어도 다음 블록이 기존 id 와 겹치지 않는다.
+SELECT setval('products_seq', GREATEST(COALESCE((SELECT MAX(id) FROM products), 0) + 50, (SELECT last_value FROM products_seq)));
+SELECT setval('categories_seq', GREATEST(COALESCE((SELECT MAX(id) FROM categories), 0) + 50, (SELECT last_value FROM categories_seq)));
+SELECT setval('common_codes_seq', GREATEST(COALESCE((SELECT MAX(id) FROM common_codes), 0) + 50, (SELECT last_value FROM common_codes_seq)));
+SELECT setval('users_seq', GREATEST(COALESCE((SELECT MAX(id) FROM users), 0) + 50, (SELECT last_value FROM users_seq)));
@@ -0,0 +1,187 @@
+package net.devgrr.springbootinit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Starts the extracted application in each startup mode and prints the median time from process
+ * start to a ready {@code /actuator/health/readiness}, and the resident set size at that moment, so
+ * the numbers can be compared between builds. Build the input with {@code ./gradlew appCdsArchive -Paot} and set
+ * {@code STARTUP_BENCHMARK_DIR} to {@code build/appcds}. The application needs its database, as for
+ * the training run. The archive only loads on the JDK that wrote it, so run this with that JDK.
+ * <p>
+ * Set {@code STARTUP_BENCHMARK_NATIVE} to the {@code ./gradlew nativeCompile -Pnative} executable to add
+ * it as a mode, and {@code STARTUP_BENCHMARK_LOAD_SECONDS} to drive the last run of each mode with
+ * {@code STARTUP_BENCHMARK_CONCURRENCY} clients on {@code STARTUP_BENCHMARK_LOAD_PATH} and print the
+ * throughput, as a native image trades peak throughput for startup.
+ * <p>
+ * Every run also times the first {@code /v3/api-docs} response after ready and takes the RSS after it.
+ * The {@code jar-static} mode turns springdoc off, as the docker profile does, so the prebuilt
+ * document is served instead; compare it with {@code jar} for what runtime scanning costs.
+ */
+@EnabledIfEnvironmentVariable(named = "STARTUP_BENCHMARK_DIR", matches = ".+")
+class StartupBenchmarkTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    private final Path appDir = Path.of(System.getenv("STARTUP_BENCHMARK_DIR")).toAbsolutePath();
+    private final int runs = intEnv("STARTUP_BENCHMARK_RUNS", 5);
+    private final int port = intEnv("STARTUP_BENCHMARK_PORT", 18080);
+    private final int loadSeconds = intEnv("STARTUP_BENCHMARK_LOAD_SECONDS", 0);
+    private final int concurrency = intEnv("STARTUP_BENCHMARK_CONCURRENCY", 32);
+    private final String loadPath = System.getenv().getOrDefault("STARTUP_BENCHMARK_LOAD_PATH", "/api/products/page?size=20");
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @Test
+    void timeToReadyAndRss_perStartupMode() throws Exception {
+        assertThat(appDir.resolve("app.jar")).exists();
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<Mode> modes = new ArrayList<>(List.of(
+                new Mode("jar", List.of(java, "-jar", "app.jar")),
+                new Mode("jar-static", List.of(java, "-jar", "app.jar",
+                        "--springdoc.api-docs.enabled=false", "--springdoc.swagger-ui.enabled=false")),
+                new Mode("aot", List.of(java, "-Dspring.aot.enabled=true", "-jar", "app.jar"))));
+        if (Files.exists(appDir.resolve("app.jsa"))) {
+            modes.add(new Mode("aot+cds",
+                    List.of(java, "-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true", "-jar", "app.jar")));
+        }
+        String nativeExecutable = System.getenv("STARTUP_BENCHMARK_NATIVE");
+        if (nativeExecutable != null && !nativeExecutable.isEmpty()) {
+            modes.add(new Mode("native", List.of(Path.of(nativeExecutable).toAbsolutePath().toString())));
+        }
+
+        for (Mode mode : modes) {
+            List<Long> millis = new ArrayList<>();
+            List<Long> rssKb = new ArrayList<>();
+            List<Long> apiDocsMillis = new ArrayList<>();
+            List<Long> apiDocsRssKb = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                long[] result = start(mode, i == runs - 1 ? loadSeconds : 0);
+                millis.add(result[0]);
+                rssKb.add(result[1]);
+                apiDocsMillis.add(result[2]);
+                apiDocsRssKb.add(result[3]);
+            }
+            System.out.printf("%-10s ready in %,6d ms, RSS %,8d KB; first api-docs in %,5d ms, RSS %,8d KB (median of %d)%n",
+                    mode.name, median(millis), median(rssKb), median(apiDocsMillis), median(apiDocsRssKb), runs);
+        }
+    }
+
+    private long[] start(Mode mode, int loadSeconds) throws Exception {
+        List<String> command = new ArrayList<>(mode.command);
+        command.add("--server.port=" + port);
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(appDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(new File(appDir.toFile(), "benchmark-" + mode.name + ".log"))
+                .start();
+        try {
+            while (!healthy()) {
+                assertThat(process.isAlive()).as("%s exited during startup, see its log in %s", mode.name, appDir)
+                        .isTrue();
+                assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(STARTUP_TIMEOUT);
+                Thread.sleep(20);
+            }
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            long readyRssKb = rssKb(process.pid());
+            long apiDocsStarted = System.nanoTime();
+            HttpResponse<Void> apiDocs = client.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/v3/api-docs")).build(), HttpResponse.BodyHandlers.discarding());
+            assertThat(apiDocs.statusCode()).as("%s /v3/api-docs", mode.name).isEqualTo(200);
+            long apiDocsMillis = Duration.ofNanos(System.nanoTime() - apiDocsStarted).toMillis();
+            long apiDocsRssKb = rssKb(process.pid());
+            if (loadSeconds > 0) {
+                long requests = load(Duration.ofSeconds(loadSeconds));
+                System.out.printf("%-10s %,10.0f req/s on %s (%d clients, %d s), RSS after load %,8d KB%n",
+                        mode.name, (double) requests / loadSeconds, loadPath, concurrency, loadSeconds,
+                        rssKb(process.pid()));
+            }
+            return new long[]{elapsedMillis, readyRssKb, apiDocsMillis, apiDocsRssKb};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private boolean healthy() throws InterruptedException {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/actuator/health/readiness")).build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 && response.body().contains("\"UP\"");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Successful requests from a closed loop of clients; the first half of the window is warmup, as the
+    // JVM modes only reach peak after JIT compilation, and is not counted
+    private long load(Duration window) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + loadPath)).build();
+        long warmupEnd = System.nanoTime() + window.toNanos();
+        long end = warmupEnd + window.toNanos();
+        AtomicLong completed = new AtomicLong();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() < 300 && System.nanoTime() > warmupEnd) {
+                                completed.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            // Counted as a failed request
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        return completed.get();
+    }
+
+    // Linux only; -1 elsewhere
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1L);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private record Mode(String name, List<String> command) {
+    }
+}
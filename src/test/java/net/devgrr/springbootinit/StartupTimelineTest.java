@@ -0,0 +1,130 @@
+package net.devgrr.springbootinit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Starts the whole application against a throwaway schema on a local PostgreSQL, with and without
+ * background initialization, prints the slowest steps of its startup timeline and holds them to
+ * budgets, so a change that makes one bean or warmer expensive shows up here rather than in
+ * deployment times. Bean budgets apply to the time a bean spends on its own, not counting the beans
+ * it pulls in. The hot path warmup is switched on, so its cost is held to the warmer budget too.
+ * Runs only when {@code QUERY_PLAN_DB_URL} is set, like {@code QueryPlanTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+class StartupTimelineTest {
+
+    static final String SCHEMA = "startup_timeline_check";
+
+    private static final Duration REFRESH_BUDGET = Duration.ofSeconds(20);
+    private static final Duration BEAN_BUDGET = Duration.ofSeconds(3);
+    private static final Duration WARMER_BUDGET = Duration.ofSeconds(5);
+
+    @BeforeAll
+    static void dropSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("QUERY_PLAN_DB_URL"),
+                envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"), envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @ParameterizedTest(name = "background init {0}")
+    @ValueSource(booleans = {false, true})
+    void startupSteps_shouldStayWithinBudget(boolean backgroundInit) {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(SpringBootInitApplication.STARTUP_STEP_CAPACITY);
+        SpringApplication application = new SpringApplication(SpringBootInitApplication.class);
+        application.setApplicationStartup(startup);
+
+        List<TimelineEvent> events;
+        try (ConfigurableApplicationContext ignored = application.run(
+                "--startup.background-init.enabled=" + backgroundInit,
+                "--startup.warmup.enabled=true",
+                "--server.port=0",
+                "--spring.datasource.url=" + schemaUrl(),
+                "--spring.datasource.username=" + envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"),
+                "--spring.datasource.password=" + envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"),
+                "--spring.flyway.schemas=" + SCHEMA,
+                "--spring.flyway.default-schema=" + SCHEMA)) {
+            events = startup.getBufferedTimeline().getEvents();
+        }
+        Map<Long, Duration> ownTime = ownTime(events);
+
+        System.out.printf("Slowest startup steps, background init %s:%n", backgroundInit);
+        events.stream()
+                .sorted(Comparator.comparing((TimelineEvent event) -> ownTime.get(event.getStartupStep().getId())).reversed())
+                .limit(15)
+                .forEach(event -> System.out.printf("  %,6d ms own, %,6d ms total  %s %s%n",
+                        ownTime.get(event.getStartupStep().getId()).toMillis(), event.getDuration().toMillis(),
+                        event.getStartupStep().getName(), tags(event.getStartupStep())));
+
+        assertThat(events).filteredOn(event -> event.getStartupStep().getName().equals("spring.context.refresh"))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getDuration()).isLessThan(REFRESH_BUDGET));
+        assertThat(events).filteredOn(event -> event.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .allSatisfy(event -> assertThat(ownTime.get(event.getStartupStep().getId()))
+                        .as("own instantiation time of %s", tags(event.getStartupStep()))
+                        .isLessThan(BEAN_BUDGET));
+        assertThat(events).filteredOn(event -> event.getStartupStep().getName().equals("app.warmup"))
+                .extracting(event -> tags(event.getStartupStep()).get("warmer"))
+                .contains("ConnectionPoolWarmer", "CommonCodeRegistry", "StockReservationService",
+                        "CategoryHierarchyCache", "CategoryProductCounter", "HotPathWarmer");
+        assertThat(events).filteredOn(event -> event.getStartupStep().getName().equals("app.warmup"))
+                .allSatisfy(event -> assertThat(event.getDuration())
+                        .as("warmup of %s", tags(event.getStartupStep()))
+                        .isLessThan(WARMER_BUDGET));
+    }
+
+    // Background steps can be recorded under a main-thread parent, so own time is clamped at zero
+    private static Map<Long, Duration> ownTime(List<TimelineEvent> events) {
+        Map<Long, Duration> children = new HashMap<>();
+        for (TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                children.merge(parentId, event.getDuration(), Duration::plus);
+            }
+        }
+        Map<Long, Duration> ownTime = new HashMap<>();
+        for (TimelineEvent event : events) {
+            Duration own = event.getDuration().minus(children.getOrDefault(event.getStartupStep().getId(), Duration.ZERO));
+            ownTime.put(event.getStartupStep().getId(), own.isNegative() ? Duration.ZERO : own);
+        }
+        return ownTime;
+    }
+
+    private static Map<String, String> tags(StartupStep step) {
+        Map<String, String> tags = new HashMap<>();
+        StreamSupport.stream(step.getTags().spliterator(), false).forEach(tag -> tags.put(tag.getKey(), tag.getValue()));
+        return tags;
+    }
+
+    private static String schemaUrl() {
+        String url = System.getenv("QUERY_PLAN_DB_URL");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
@@ -0,0 +1,47 @@
+package net.devgrr.springbootinit.config;
+
+import net.devgrr.springbootinit.dto.ProductDto;
+import net.devgrr.springbootinit.exception.ErrorResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.data.domain.PageImpl;
+
+import static org.assertj.core.api.Assertions.*;
+
+class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_shouldExposeJjwtImplementationClasses() {
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtBuilder"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("io.jsonwebtoken.jackson.io.JacksonSerializer"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/io.jsonwebtoken.io.Serializer")).accepts(hints);
+    }
+
+    @Test
+    void registerHints_shouldRegisterJsonBindingForTypesOutsideControllerSignatures() {
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(ErrorResponse.class, "getMessage")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(ProductDto.class, "getName")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(PageImpl.class, "getContent")).accepts(hints);
+    }
+
+    @Test
+    void registerHints_shouldIncludeCacheConfiguration() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("ehcache.xml")).accepts(hints);
+    }
+}
@@ -0,0 +1,61 @@
+package net.devgrr.springbootinit.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class ReadOnlyCacheModeTransactionManagerTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EntityTransaction entityTransaction;
+
+    @Mock
+    private Session session;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+        when(entityManager.getTransaction()).thenReturn(entityTransaction);
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        ReadOnlyCacheModeTransactionManager transactionManager = new ReadOnlyCacheModeTransactionManager();
+        transactionManager.setEntityManagerFactory(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void readOnlyTransactions_shouldOnlyReadFromTheSecondLevelCache() {
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(status -> verify(session).setCacheMode(CacheMode.GET));
+    }
+
+    @Test
+    void readWriteTransactions_shouldKeepTheDefaultCacheMode() {
+        transactionTemplate.executeWithoutResult(status -> {
+        });
+
+        verify(session, never()).setCacheMode(any());
+    }
+}
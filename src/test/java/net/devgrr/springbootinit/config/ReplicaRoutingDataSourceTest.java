@@ -0,0 +1,193 @@
+package net.devgrr.springbootinit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private HikariDataSource replicaA;
+
+    @Mock
+    private HikariDataSource replicaB;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection connectionA;
+
+    @Mock
+    private Connection connectionB;
+
+    private static final String PRIMARY_LSN = "0/3000148";
+
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000);
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getConnection_shouldRotateOverHealthyReplicas() throws SQLException {
+        ReplicaRoutingDataSource router = router(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+        reportLag(replicaA, connectionA, 0);
+        reportLag(replicaB, connectionB, 0);
+        router.checkHealth();
+
+        assertThat(List.of(router.getConnection(), router.getConnection(), router.getConnection()))
+                .containsExactly(connectionA, connectionB, connectionA);
+        // Only the health check's read of the primary's WAL position
+        verify(primary).getConnection();
+    }
+
+    @Test
+    void getConnection_shouldSkipLaggingOrUnreachableReplicas_andFallBackToPrimary() throws SQLException {
+        ReplicaRoutingDataSource router = router(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+        reportLag(replicaA, connectionA, 60_000);
+        when(replicaB.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+
+        router.checkHealth();
+
+        assertThat(router.getHealthyReplicaCount()).isZero();
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void checkHealth_shouldTakeReplicaOutOfRotation_whenItsWalReceiverIsNotStreaming() throws SQLException {
+        ReplicaRoutingDataSource router = router(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+        reportState(replicaA, connectionA, true, 0);
+        reportLag(replicaB, connectionB, 0);
+
+        router.checkHealth();
+
+        assertThat(router.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(List.of(router.getConnection(), router.getConnection())).containsOnly(connectionB);
+    }
+
+    @Test
+    void checkHealth_shouldCompareReplicasWithThePrimarysWalPosition() throws SQLException {
+        ReplicaRoutingDataSource router = router(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+        PreparedStatement statementA = reportLag(replicaA, connectionA, 0);
+        PreparedStatement statementB = reportLag(replicaB, connectionB, 0);
+
+        router.checkHealth();
+
+        verify(statementA).setString(1, PRIMARY_LSN);
+        verify(statementB).setString(1, PRIMARY_LSN);
+    }
+
+    @Test
+    void getConnection_shouldTakeReplicaOutOfRotation_whenItFailsToConnect() throws SQLException {
+        ReplicaRoutingDataSource router = router(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+        reportLag(replicaA, connectionA, 0);
+        reportLag(replicaB, connectionB, 0);
+        router.checkHealth();
+        when(replicaA.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+        assertThat(router.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(router.getConnection()).isSameAs(connectionB);
+    }
+
+    @Test
+    void getConnection_shouldPreferLeastLoadedReplica() throws SQLException {
+        ReplicaRoutingDataSource router = router(ReplicaRoutingDataSource.Selection.LEAST_LOADED);
+        reportLag(replicaA, connectionA, 0);
+        reportLag(replicaB, connectionB, 0);
+        router.checkHealth();
+        HikariPoolMXBean busy = mock(HikariPoolMXBean.class);
+        when(busy.getActiveConnections()).thenReturn(8);
+        HikariPoolMXBean idle = mock(HikariPoolMXBean.class);
+        when(idle.getActiveConnections()).thenReturn(1);
+        when(replicaA.getHikariPoolMXBean()).thenReturn(busy);
+        when(replicaB.getHikariPoolMXBean()).thenReturn(idle);
+
+        assertThat(router.getConnection()).isSameAs(connectionB);
+    }
+
+    @Test
+    void getConnection_shouldUsePrimary_forUserWhoJustWrote() throws SQLException {
+        ReplicaRoutingDataSource router = router(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+        reportLag(replicaA, connectionA, 0);
+        reportLag(replicaB, connectionB, 0);
+        router.checkHealth();
+
+        authenticate("admin");
+        tracker.recordWrite();
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+
+        authenticate("someone-else");
+        assertThat(router.getConnection()).isSameAs(connectionA);
+    }
+
+    @Test
+    void readYourWritesWindow_shouldExpire() {
+        ReadYourWritesTracker expired = new ReadYourWritesTracker(0);
+        authenticate("admin");
+        expired.recordWrite();
+
+        assertThat(expired.isRecentWriter()).isFalse();
+        assertThat(tracker.isRecentWriter()).isFalse();
+    }
+
+    private ReplicaRoutingDataSource router(ReplicaRoutingDataSource.Selection selection) throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(primaryConnection.createStatement()).thenReturn(statement);
+        lenient().when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        lenient().when(resultSet.next()).thenReturn(true);
+        lenient().when(resultSet.getString(1)).thenReturn(PRIMARY_LSN);
+        return new ReplicaRoutingDataSource(primary, List.of(replicaA, replicaB), selection, 5000, tracker);
+    }
+
+    private PreparedStatement reportLag(HikariDataSource pool, Connection connection, long lagMillis) throws SQLException {
+        return reportState(pool, connection, false, lagMillis);
+    }
+
+    private PreparedStatement reportState(HikariDataSource pool, Connection connection, boolean disconnected,
+                                          long lagMillis) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean("disconnected")).thenReturn(disconnected);
+        lenient().when(resultSet.getLong("lag_millis")).thenReturn(lagMillis);
+        return statement;
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,109 @@
+package net.devgrr.springbootinit.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.Assumptions.*;
+
+/**
+ * Routes transactions between two separate PostgreSQL instances standing in for a primary and its
+ * replica, telling them apart by server address and port. Runs only when both {@code QUERY_PLAN_DB_URL}
+ * (the primary) and {@code REPLICA_DB_URL} are set.
+ */
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "REPLICA_DB_URL", matches = ".+")
+class ReplicaRoutingIntegrationTest {
+
+    private static final String SERVER_SQL = "SELECT host(inet_server_addr()) || ':' || inet_server_port()";
+
+    private HikariDataSource primaryPool;
+    private HikariDataSource replicaPool;
+    private ReadYourWritesTracker tracker;
+    private ReplicaRoutingDataSource router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private String primaryServer;
+    private String replicaServer;
+
+    @BeforeEach
+    void setUp() {
+        primaryPool = pool("primary", System.getenv("QUERY_PLAN_DB_URL"));
+        replicaPool = pool("replica-1", System.getenv("REPLICA_DB_URL"));
+        primaryServer = new JdbcTemplate(primaryPool).queryForObject(SERVER_SQL, String.class);
+        replicaServer = new JdbcTemplate(replicaPool).queryForObject(SERVER_SQL, String.class);
+        assumeThat(replicaServer).as("replica must be a different server").isNotEqualTo(primaryServer);
+
+        tracker = new ReadYourWritesTracker(60_000);
+        router = new ReplicaRoutingDataSource(primaryPool, List.of(replicaPool),
+                ReplicaRoutingDataSource.Selection.ROUND_ROBIN, 5000, tracker);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryPool);
+        dataSource.setReadOnlyDataSource(router);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        replicaPool.close();
+        primaryPool.close();
+    }
+
+    @Test
+    void readOnlyTransactions_shouldGoToReplica_onceHealthy() {
+        assertThat(serverIn(readOnly)).isEqualTo(primaryServer);
+
+        router.checkHealth();
+
+        assertThat(serverIn(readOnly)).isEqualTo(replicaServer);
+        assertThat(serverIn(readWrite)).isEqualTo(primaryServer);
+    }
+
+    @Test
+    void readOnlyTransactions_shouldStayOnPrimary_rightAfterOwnWrite() {
+        router.checkHealth();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+
+        // What ReadYourWritesInterceptor does for a mutating request
+        tracker.recordWrite();
+
+        assertThat(serverIn(readOnly)).isEqualTo(primaryServer);
+    }
+
+    private String serverIn(TransactionTemplate template) {
+        return template.execute(status -> jdbcTemplate.queryForObject(SERVER_SQL, String.class));
+    }
+
+    private static HikariDataSource pool(String name, String url) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"));
+        config.setPassword(envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+        config.setMaximumPoolSize(2);
+        return new HikariDataSource(config);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
@@ -0,0 +1,124 @@
+package net.devgrr.springbootinit.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares what each concurrent connection costs the servlet endpoints and the reactive ones, against
+ * a running application with {@code reactive-api.enabled}. Opens {@code CATALOG_LOAD_TEST_CONNECTIONS}
+ * connections (default 500) to each stack in turn, each fetching the category listing in a loop for
+ * {@code CATALOG_LOAD_TEST_SECONDS} (default 30), and samples heap use and live threads through the
+ * actuator metrics endpoint. Both stacks share one JVM, so each phase is measured against the idle
+ * baseline taken just before it. Platform threads also reserve stack outside the heap, which the
+ * thread count stands for. Set {@code CATALOG_LOAD_TEST_URL} (servlet, e.g. http://localhost:8080) and
+ * {@code CATALOG_LOAD_TEST_REACTIVE_URL} (e.g. http://localhost:8081) to run it.
+ */
+@EnabledIfEnvironmentVariable(named = "CATALOG_LOAD_TEST_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "CATALOG_LOAD_TEST_REACTIVE_URL", matches = ".+")
+class ProductReadLoadTest {
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofSeconds(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String servletUrl = System.getenv("CATALOG_LOAD_TEST_URL");
+    private final String reactiveUrl = System.getenv("CATALOG_LOAD_TEST_REACTIVE_URL");
+    private final int connections = intEnv("CATALOG_LOAD_TEST_CONNECTIONS", 500);
+    private final Duration duration = Duration.ofSeconds(intEnv("CATALOG_LOAD_TEST_SECONDS", 30));
+    private final String path = "/api/products/category/" + intEnv("CATALOG_LOAD_TEST_CATEGORY_ID", 1)
+            + "?includeDescendants=true";
+
+    @Test
+    void memoryPerConnection_servletVersusReactive() throws Exception {
+        Phase servlet = run("servlet", servletUrl);
+        Phase reactive = run("reactive", reactiveUrl);
+
+        for (Phase phase : List.of(servlet, reactive)) {
+            System.out.printf("%-8s %5d connections: %,8.0f req/s, %6d errors, heap +%,8.1f KB/connection, threads +%d%n",
+                    phase.name, connections, phase.requestsPerSecond, phase.errors,
+                    phase.heapDeltaBytes / 1024.0 / connections, phase.threadDelta);
+        }
+    }
+
+    private Phase run(String name, String baseUrl) throws Exception {
+        // Let the previous phase's connections close and its garbage age out of the young generation
+        Thread.sleep(5000);
+        double baselineHeap = metric("jvm.memory.used", "area:heap");
+        double baselineThreads = metric("jvm.threads.live", null);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        List<Double> heapSamples = new ArrayList<>();
+        List<Double> threadSamples = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            (response.statusCode() == 200 ? completed : errors).incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            // Skip the ramp-up, then sample while every connection is busy
+            Thread.sleep(duration.toMillis() / 4);
+            while (System.nanoTime() < deadline - SAMPLE_INTERVAL.toNanos()) {
+                heapSamples.add(metric("jvm.memory.used", "area:heap"));
+                threadSamples.add(metric("jvm.threads.live", null));
+                Thread.sleep(SAMPLE_INTERVAL.toMillis());
+            }
+        }
+
+        return new Phase(name,
+                completed.get() / (double) duration.toSeconds(),
+                errors.get(),
+                average(heapSamples) - baselineHeap,
+                Math.round(average(threadSamples) - baselineThreads));
+    }
+
+    // Always read from the servlet port, which is where actuator lives
+    private double metric(String name, String tag) throws Exception {
+        String uri = servletUrl + "/actuator/metrics/" + name + (tag != null ? "?tag=" + tag : "");
+        HttpResponse<String> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(URI.create(uri)).GET().build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+        return measurements.get(0).path("value").asDouble();
+    }
+
+    private static double average(List<Double> samples) {
+        return samples.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private record Phase(String name, double requestsPerSecond, long errors, double heapDeltaBytes, long threadDelta) {
+    }
+}
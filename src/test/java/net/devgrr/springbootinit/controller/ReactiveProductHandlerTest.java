@@ -0,0 +1,153 @@
+package net.devgrr.springbootinit.controller;
+
+import net.devgrr.springbootinit.dto.ProductDto;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.repository.ReactiveProductRepository;
+import net.devgrr.springbootinit.service.CategoryHierarchyCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class ReactiveProductHandlerTest {
+
+    @Mock
+    private ReactiveProductRepository productRepository;
+
+    @Mock
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        ReactiveProductHandler handler = new ReactiveProductHandler(productRepository, categoryHierarchyCache);
+        client = WebTestClient.bindToRouterFunction(handler.routes()).build();
+    }
+
+    @Test
+    void getProductById_shouldReturnProduct() {
+        when(productRepository.findById(1L)).thenReturn(Mono.just(product(1L, "Laptop")));
+
+        client.get().uri("/api/products/1").exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductDto.class)
+                .value(product -> assertThat(product.getName()).isEqualTo("Laptop"));
+    }
+
+    @Test
+    void getProductById_shouldReturnNotFound_whenMissing() {
+        when(productRepository.findById(99L)).thenReturn(Mono.empty());
+
+        client.get().uri("/api/products/99").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Product not found with id: 99")
+                .jsonPath("$.path").isEqualTo("/api/products/99");
+    }
+
+    @Test
+    void getProductById_shouldReturnBadRequest_forNonNumericId() {
+        client.get().uri("/api/products/abc").exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductBySku_shouldNotBeShadowedByIdRoute() {
+        when(productRepository.findBySku("LAP-001")).thenReturn(Mono.just(product(1L, "Laptop")));
+
+        client.get().uri("/api/products/sku/LAP-001").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    void getProductsByCategory_shouldStreamSubtree_asNdjson() {
+        when(categoryHierarchyCache.getSubtreeIds(1L)).thenReturn(Set.of(1L, 2L));
+        when(productRepository.findByCategoryIdsAndStatus(Set.of(1L, 2L), ProductStatus.ACTIVE))
+                .thenReturn(Flux.just(product(1L, "Laptop"), product(2L, "Mouse")));
+
+        List<ProductDto> products = client.get().uri("/api/products/category/1?includeDescendants=true")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(products).extracting(ProductDto::getName).containsExactly("Laptop", "Mouse");
+    }
+
+    @Test
+    void getProductsByCategory_shouldReturnNotFound_forUnknownCategoryWithDescendants() {
+        when(categoryHierarchyCache.getSubtreeIds(99L)).thenReturn(Set.of());
+
+        client.get().uri("/api/products/category/99?includeDescendants=true").exchange()
+                .expectStatus().isNotFound();
+
+        verify(productRepository, never()).findByCategoryIdsAndStatus(any(), any());
+    }
+
+    @Test
+    void getProductsByCategory_shouldQueryOnlyThatCategory_byDefault() {
+        when(productRepository.findByCategoryIdsAndStatus(List.of(3L), ProductStatus.ACTIVE))
+                .thenReturn(Flux.just(product(5L, "Cable")));
+
+        client.get().uri("/api/products/category/3").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductDto.class).hasSize(1);
+
+        verifyNoInteractions(categoryHierarchyCache);
+    }
+
+    @Test
+    void searchProducts_shouldPassFiltersAndPage() {
+        when(productRepository.search("lap", ProductStatus.ACTIVE, 1L, 40L, 20)).thenReturn(Flux.empty());
+
+        client.get().uri("/api/products/search?keyword=lap&status=ACTIVE&categoryId=1&page=2&size=20").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductDto.class).hasSize(0);
+    }
+
+    @Test
+    void searchProducts_shouldRejectMissingKeywordAndUnknownStatus() {
+        client.get().uri("/api/products/search").exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/products/search?keyword=lap&status=SOLD").exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(productRepository);
+    }
+
+    private static ProductDto product(Long id, String name) {
+        return ProductDto.builder()
+                .id(id)
+                .name(name)
+                .sku("SKU-" + id)
+                .price(new BigDecimal("10.00"))
+                .status(ProductStatus.ACTIVE)
+                .categoryId(1L)
+                .build();
+    }
+}
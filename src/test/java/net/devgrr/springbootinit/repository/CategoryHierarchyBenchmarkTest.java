@@ -0,0 +1,229 @@
+package net.devgrr.springbootinit.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compares recursive CTE walks over {@code parent_id} with the materialized {@code path} column on a
+ * 50k-node, 8-level category tree, checking both return the same rows and printing per-lookup
+ * timings. Runs only when {@code QUERY_PLAN_DB_URL} is set, against the same database as
+ * {@link QueryPlanTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+class CategoryHierarchyBenchmarkTest {
+
+    private static final String SCHEMA = "category_benchmark";
+
+    private static final int NODES = 50_000;
+    private static final int ITERATIONS = 200;
+
+    // Node i has children 4i..4i+3, so ids 1-3 are roots and 16384-50000 form the eighth level
+    private static final List<String> SEED = List.of(
+            "INSERT INTO categories (id, name, display_order, is_active, parent_id, path, created_at) " +
+            "SELECT g, 'Category ' || g, g % 4, true, NULLIF(g / 4, 0), '/', now() " +
+            "FROM generate_series(1, " + NODES + ") g",
+            "WITH RECURSIVE tree AS (" +
+            "    SELECT id, '/'::text AS path FROM categories WHERE parent_id IS NULL " +
+            "    UNION ALL " +
+            "    SELECT c.id, t.path || t.id || '/' FROM categories c JOIN tree t ON c.parent_id = t.id" +
+            ") UPDATE categories c SET path = t.path FROM tree t WHERE c.id = t.id",
+            "VACUUM ANALYZE categories");
+
+    private static final String DESCENDANTS_BY_CTE =
+            "WITH RECURSIVE subtree AS (" +
+            "    SELECT id FROM categories WHERE parent_id = ? " +
+            "    UNION ALL " +
+            "    SELECT c.id FROM categories c JOIN subtree s ON c.parent_id = s.id" +
+            ") SELECT id FROM subtree";
+
+    // CategoryRepository.findDescendantIds
+    private static final String DESCENDANTS_BY_PATH =
+            "SELECT id FROM categories WHERE path >= ? AND path < ?";
+
+    private static final String ANCESTORS_BY_CTE =
+            "WITH RECURSIVE up AS (" +
+            "    SELECT parent_id FROM categories WHERE id = ? " +
+            "    UNION ALL " +
+            "    SELECT c.parent_id FROM categories c JOIN up u ON c.id = u.parent_id" +
+            ") SELECT parent_id FROM up WHERE parent_id IS NOT NULL";
+
+    // Ancestor ids read straight off the materialized path
+    private static final String ANCESTORS_BY_PATH =
+            "SELECT id FROM categories WHERE id = ANY(string_to_array(trim(BOTH '/' FROM " +
+            "(SELECT path FROM categories WHERE id = ?)), '/')::bigint[])";
+
+    private static Flyway flyway;
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        String url = System.getenv("QUERY_PLAN_DB_URL");
+        String username = envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb");
+        String password = envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword");
+
+        flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        connection = DriverManager.getConnection(url, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA + ", public");
+            for (String sql : SEED) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+        if (flyway != null) {
+            flyway.clean();
+        }
+    }
+
+    @Test
+    void descendantLookups_shouldMatchRecursiveCte() throws SQLException {
+        // A second-level node (5460 descendants) and a sixth-level node (20)
+        for (long rootId : new long[] {5, 1234}) {
+            String prefix = pathOf(rootId) + rootId + "/";
+            String upperBound = prefix.substring(0, prefix.length() - 1) + "0";
+
+            assertThat(queryIds(DESCENDANTS_BY_PATH, prefix, upperBound))
+                    .isEqualTo(queryIds(DESCENDANTS_BY_CTE, rootId));
+
+            long cteNanos = time(DESCENDANTS_BY_CTE, rootId);
+            long pathNanos = time(DESCENDANTS_BY_PATH, prefix, upperBound);
+            report("descendants of " + rootId, cteNanos, pathNanos);
+        }
+    }
+
+    @Test
+    void ancestorLookups_shouldMatchRecursiveCte() throws SQLException {
+        long leafId = NODES - 1;
+
+        Set<Long> ancestors = queryIds(ANCESTORS_BY_PATH, leafId);
+        assertThat(ancestors).hasSize(7).isEqualTo(queryIds(ANCESTORS_BY_CTE, leafId));
+
+        report("ancestors of " + leafId, time(ANCESTORS_BY_CTE, leafId), time(ANCESTORS_BY_PATH, leafId));
+    }
+
+    @Test
+    void moveDescendants_shouldKeepPathsConsistent() throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            // Move node 6 (second level) under node 3 the way CategoryService.moveCategory does
+            String oldPrefix = pathOf(6) + "6/";
+            String newPrefix = pathOf(3) + "3/6/";
+            long started = System.nanoTime();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE categories SET parent_id = 3, path = ? WHERE id = 6")) {
+                statement.setString(1, pathOf(3) + "3/");
+                statement.executeUpdate();
+            }
+            int moved;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE categories SET path = ? || substr(path, length(?) + 1) WHERE path >= ? AND path < ?")) {
+                statement.setString(1, newPrefix);
+                statement.setString(2, oldPrefix);
+                statement.setString(3, oldPrefix);
+                statement.setString(4, oldPrefix.substring(0, oldPrefix.length() - 1) + "0");
+                moved = statement.executeUpdate();
+            }
+            System.out.printf("move subtree of 6: %d rows in %.2f ms%n", moved, (System.nanoTime() - started) / 1e6);
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(
+                         "WITH RECURSIVE tree AS (" +
+                         "    SELECT id, '/'::text AS path FROM categories WHERE parent_id IS NULL " +
+                         "    UNION ALL " +
+                         "    SELECT c.id, t.path || t.id || '/' FROM categories c JOIN tree t ON c.parent_id = t.id" +
+                         ") SELECT count(*) FROM categories c JOIN tree t ON t.id = c.id WHERE c.path <> t.path")) {
+                resultSet.next();
+                assertThat(resultSet.getLong(1)).isZero();
+            }
+            assertThat(moved).isGreaterThan(1000);
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static String pathOf(long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT path FROM categories WHERE id = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private static Set<Long> queryIds(String sql, Object... parameters) throws SQLException {
+        Set<Long> ids = new HashSet<>();
+        try (PreparedStatement statement = prepare(sql, parameters);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    // Average over ITERATIONS runs of one prepared statement, after a warm-up pass
+    private static long time(String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = prepare(sql, parameters)) {
+            long started = 0;
+            for (int i = -ITERATIONS / 10; i < ITERATIONS; i++) {
+                if (i == 0) {
+                    started = System.nanoTime();
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getLong(1);
+                    }
+                }
+            }
+            return (System.nanoTime() - started) / ITERATIONS;
+        }
+    }
+
+    private static PreparedStatement prepare(String sql, Object... parameters) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+        return statement;
+    }
+
+    private static void report(String lookup, long cteNanos, long pathNanos) {
+        System.out.printf("%s: recursive CTE %.3f ms, path %.3f ms%n", lookup, cteNanos / 1e6, pathNanos / 1e6);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
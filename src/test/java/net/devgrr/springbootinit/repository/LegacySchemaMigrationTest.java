@@ -0,0 +1,193 @@
+package net.devgrr.springbootinit.repository;
+
+import net.devgrr.springbootinit.entity.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Builds the schema {@code ddl-auto: update} created from the entities before Flyway was introduced
+ * (IDENTITY ids, no sequences, no stock tables or columns), fills it with a few rows and lets the
+ * application's Flyway settings migrate it on startup. Checks that the database is baselined below V1,
+ * every migration applies on top of the existing tables and the result is usable by the current
+ * entities. Runs only when {@code QUERY_PLAN_DB_URL} is set, like {@code QueryPlanTest}.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.schemas=" + LegacySchemaMigrationTest.SCHEMA,
+        "spring.flyway.default-schema=" + LegacySchemaMigrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+class LegacySchemaMigrationTest {
+
+    static final String SCHEMA = "legacy_schema_check";
+
+    // What Hibernate generated for the entities before Flyway, ids included
+    private static final List<String> LEGACY_SCHEMA = List.of(
+            "CREATE TABLE users (id bigint GENERATED BY DEFAULT AS IDENTITY, email varchar(255) NOT NULL UNIQUE, " +
+            "password varchar(255) NOT NULL, role varchar(255) CHECK (role IN ('USER','ADMIN')), " +
+            "username varchar(255) NOT NULL UNIQUE, PRIMARY KEY (id))",
+            "CREATE TABLE categories (display_order integer, is_active boolean NOT NULL, created_at timestamp(6) NOT NULL, " +
+            "id bigint GENERATED BY DEFAULT AS IDENTITY, parent_id bigint, updated_at timestamp(6), " +
+            "name varchar(100) NOT NULL, description varchar(500), PRIMARY KEY (id))",
+            "CREATE TABLE common_code_groups (sort_order integer, created_at timestamp(6) NOT NULL, updated_at timestamp(6), " +
+            "use_yn varchar(1) NOT NULL, group_code varchar(20) NOT NULL, group_name varchar(100) NOT NULL, " +
+            "description varchar(500), PRIMARY KEY (group_code))",
+            "CREATE TABLE common_codes (sort_order integer, created_at timestamp(6) NOT NULL, " +
+            "id bigint GENERATED BY DEFAULT AS IDENTITY, updated_at timestamp(6), use_yn varchar(1) NOT NULL, " +
+            "code varchar(20) NOT NULL, group_code varchar(20) NOT NULL, code_name varchar(100) NOT NULL, " +
+            "code_value varchar(200), description varchar(500), PRIMARY KEY (id))",
+            "CREATE TABLE products (cost_price numeric(10,2), min_stock_level integer, price numeric(10,2) NOT NULL, " +
+            "stock_quantity integer NOT NULL, weight numeric(8,3), category_id bigint NOT NULL, created_at timestamp(6) NOT NULL, " +
+            "created_by bigint, id bigint GENERATED BY DEFAULT AS IDENTITY, updated_at timestamp(6), updated_by bigint, " +
+            "sku varchar(50) UNIQUE, dimensions varchar(100), name varchar(200) NOT NULL, image_url varchar(500), " +
+            "status varchar(255) NOT NULL CHECK (status IN ('ACTIVE','INACTIVE','OUT_OF_STOCK','DISCONTINUED')), " +
+            "description text, PRIMARY KEY (id))",
+            "ALTER TABLE categories ADD CONSTRAINT fk_categories_parent FOREIGN KEY (parent_id) REFERENCES categories",
+            "ALTER TABLE common_codes ADD CONSTRAINT fk_common_codes_group FOREIGN KEY (group_code) REFERENCES common_code_groups",
+            "ALTER TABLE products ADD CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories",
+            "ALTER TABLE products ADD CONSTRAINT fk_products_created_by FOREIGN KEY (created_by) REFERENCES users",
+            "ALTER TABLE products ADD CONSTRAINT fk_products_updated_by FOREIGN KEY (updated_by) REFERENCES users");
+
+    private static final long DEEP_ROOT_ID = 1_000L;
+    private static final long DEEP_LEAF_ID = DEEP_ROOT_ID + 99;
+    private static final long CYCLE_ID = 2_000L;
+
+    private static final List<String> LEGACY_ROWS = List.of(
+            "INSERT INTO users (username, email, password, role) VALUES ('legacy', 'legacy@example.com', 'x', 'ADMIN')",
+            "INSERT INTO categories (name, is_active, created_at) VALUES ('Root', true, now())",
+            "INSERT INTO categories (name, is_active, parent_id, created_at) " +
+            "SELECT 'Child', true, id, now() FROM categories WHERE name = 'Root'",
+            "INSERT INTO common_code_groups (group_code, group_name, use_yn, created_at) VALUES ('LEGACY', 'Legacy', 'Y', now())",
+            "INSERT INTO common_codes (group_code, code, code_name, use_yn, created_at) VALUES ('LEGACY', 'A', 'A', 'Y', now())",
+            "INSERT INTO products (name, sku, price, stock_quantity, min_stock_level, status, category_id, created_at) " +
+            "SELECT 'Legacy product', 'LEGACY-1', 10.00, 0, 5, 'ACTIVE', id, now() FROM categories WHERE name = 'Child'",
+            // A chain deeper than any fixed recursion limit
+            "INSERT INTO categories (id, name, is_active, parent_id, created_at) " +
+            "SELECT g, 'Deep ' || g, true, CASE WHEN g > " + DEEP_ROOT_ID + " THEN g - 1 END, now() " +
+            "FROM generate_series(" + DEEP_ROOT_ID + ", " + DEEP_LEAF_ID + ") g",
+            // A two-category parent_id cycle with a category of a smaller id hanging below it
+            "INSERT INTO categories (id, name, is_active, created_at) " +
+            "SELECT g, 'Cycle ' || g, true, now() FROM generate_series(" + CYCLE_ID + ", " + (CYCLE_ID + 2) + ") g",
+            "UPDATE categories SET parent_id = CASE id WHEN " + (CYCLE_ID + 1) + " THEN " + (CYCLE_ID + 2) +
+            " ELSE " + (CYCLE_ID + 1) + " END WHERE id BETWEEN " + (CYCLE_ID + 1) + " AND " + (CYCLE_ID + 2),
+            "UPDATE categories SET parent_id = " + (CYCLE_ID + 2) + " WHERE id = " + CYCLE_ID);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", LegacySchemaMigrationTest::schemaUrl);
+        registry.add("spring.datasource.username", () -> envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"));
+        registry.add("spring.datasource.password", () -> envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+    }
+
+    // Runs before the context starts, so Flyway finds a populated schema without a history table
+    @BeforeAll
+    static void createLegacySchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("QUERY_PLAN_DB_URL"),
+                envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"), envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            for (String sql : LEGACY_SCHEMA) {
+                statement.execute(sql);
+            }
+            for (String sql : LEGACY_ROWS) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @Test
+    void existingSchema_shouldBeBaselinedBelowV1_andMigratedThroughEveryVersion() {
+        List<String> applied = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+        Integer latest = jdbcTemplate.queryForObject(
+                "SELECT max(CAST(version AS integer)) FROM flyway_schema_history WHERE version IS NOT NULL", Integer.class);
+
+        assertThat(applied).startsWith("0", "1");
+        assertThat(applied).hasSize(latest + 1);
+    }
+
+    @Test
+    void ids_shouldMoveFromIdentityToSequencesAheadOfExistingRows() {
+        List<String> identityColumns = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.columns WHERE table_schema = ? AND column_name = 'id' " +
+                "AND is_identity = 'YES' AND table_name IN ('users', 'categories', 'common_codes', 'products')",
+                String.class, SCHEMA);
+
+        assertThat(identityColumns).isEmpty();
+        for (String table : List.of("users", "categories", "common_codes", "products")) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM " + table, Long.class);
+            Long nextId = jdbcTemplate.queryForObject("SELECT nextval('" + table + "_seq')", Long.class);
+            assertThat(nextId).as(table).isGreaterThan(maxId);
+        }
+    }
+
+    @Test
+    void existingRows_shouldGainTheStockColumnsAndCategoryPaths() {
+        Long rootId = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = 'Root'", Long.class);
+        Long productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = 'LEGACY-1'", Long.class);
+
+        Product product = productRepository.findById(productId).orElseThrow();
+
+        assertThat(product.getReservedQuantity()).isZero();
+        assertThat(product.getIsOutOfStock()).isTrue();
+        assertThat(product.getIsLowStock()).isTrue();
+        assertThat(product.getLowStockNotified()).isFalse();
+        assertThat(product.getEffectiveStockQuantity()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT path FROM categories WHERE name = 'Child'", String.class))
+                .isEqualTo("/" + rootId + "/");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM stock_movements", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM stock_reservations", Long.class)).isZero();
+    }
+
+    @Test
+    void categoryPaths_shouldReachEveryDepth_andOnlyDetachCycleMembers() {
+        String deepLeafPath = jdbcTemplate.queryForObject(
+                "SELECT path FROM categories WHERE id = ?", String.class, DEEP_LEAF_ID);
+        List<Long> cycleParents = jdbcTemplate.queryForList(
+                "SELECT parent_id FROM categories WHERE id BETWEEN ? AND ? ORDER BY id", Long.class, CYCLE_ID, CYCLE_ID + 2);
+        List<String> cyclePaths = jdbcTemplate.queryForList(
+                "SELECT path FROM categories WHERE id BETWEEN ? AND ? ORDER BY id", String.class, CYCLE_ID, CYCLE_ID + 2);
+
+        assertThat(deepLeafPath).startsWith("/" + DEEP_ROOT_ID + "/").endsWith("/" + (DEEP_LEAF_ID - 1) + "/");
+        assertThat(deepLeafPath.split("/")).hasSize((int) (DEEP_LEAF_ID - DEEP_ROOT_ID) + 1);
+        assertThat(cycleParents).containsExactly(CYCLE_ID + 2, null, CYCLE_ID + 1);
+        assertThat(cyclePaths).containsExactly(
+                "/" + (CYCLE_ID + 1) + "/" + (CYCLE_ID + 2) + "/", "/", "/" + (CYCLE_ID + 1) + "/");
+    }
+
+    private static String schemaUrl() {
+        String url = System.getenv("QUERY_PLAN_DB_URL");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
@@ -0,0 +1,196 @@
+package net.devgrr.springbootinit.repository;
+
+import net.devgrr.springbootinit.dto.BulkStockUpdateFailure;
+import net.devgrr.springbootinit.dto.ProductCreateRequest;
+import net.devgrr.springbootinit.dto.ProductImportRow;
+import net.devgrr.springbootinit.dto.StockSnapshotRow;
+import net.devgrr.springbootinit.entity.Category;
+import net.devgrr.springbootinit.entity.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs the set-based bulk writes against a throwaway schema on a local PostgreSQL, since their
+ * behaviour lives in the SQL. Each test commits its own transactions, as the stage tables are
+ * dropped on commit. Runs only when {@code QUERY_PLAN_DB_URL} is set, like {@code QueryPlanTest}.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.schemas=" + ProductBulkRepositoryIntegrationTest.SCHEMA,
+        "spring.flyway.default-schema=" + ProductBulkRepositoryIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+class ProductBulkRepositoryIntegrationTest {
+
+    static final String SCHEMA = "product_bulk_check";
+
+    // Far above anything the sequence hands out during these tests
+    private static final long SEEDED_ID_BASE = 1_000_000L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", ProductBulkRepositoryIntegrationTest::schemaUrl);
+        registry.add("spring.datasource.username", () -> envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"));
+        registry.add("spring.datasource.password", () -> envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+    }
+
+    @BeforeAll
+    static void dropSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("QUERY_PLAN_DB_URL"),
+                envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"), envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @BeforeEach
+    void seedCategory() {
+        jdbcTemplate.update("INSERT INTO categories (id, name, is_active, path, created_at) " +
+                "VALUES (?, 'Bulk', true, '/', now()) ON CONFLICT DO NOTHING", SEEDED_ID_BASE);
+    }
+
+    @Test
+    void resolveStockSnapshotStage_shouldReportEveryDuplicateAgainstTheLastRow() {
+        long productId = SEEDED_ID_BASE + 1;
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, stock_quantity, status, category_id, created_at) " +
+                "VALUES (?, 'Duplicated', 'SKU-DUP', 1.00, 10, 'ACTIVE', ?, now())", productId, SEEDED_ID_BASE);
+
+        List<BulkStockUpdateFailure> failures = transactionTemplate.execute(status -> {
+            productRepository.createStockSnapshotStage();
+            productRepository.stageStockSnapshotRows(List.of(
+                    new StockSnapshotRow(1, productId, null, 5),
+                    new StockSnapshotRow(2, null, "SKU-DUP", 6),
+                    new StockSnapshotRow(3, productId, null, 7),
+                    new StockSnapshotRow(4, productId, null, 8)));
+            return productRepository.resolveStockSnapshotStage();
+        });
+
+        assertThat(failures).extracting(BulkStockUpdateFailure::getRowNumber, BulkStockUpdateFailure::getMessage)
+                .containsExactlyInAnyOrder(
+                        tuple(1, "Duplicate product, superseded by row 4"),
+                        tuple(2, "Duplicate product, superseded by row 4"),
+                        tuple(3, "Duplicate product, superseded by row 4"));
+    }
+
+    @Test
+    void applyStockSnapshot_shouldRejectQuantitiesBelowReserved_andFlipSoldOutProducts() {
+        long reservedId = SEEDED_ID_BASE + 2;
+        long soldOutId = SEEDED_ID_BASE + 3;
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, stock_quantity, reserved_quantity, status, category_id, created_at) " +
+                "VALUES (?, 'Reserved', 'SKU-RESERVED', 1.00, 10, 5, 'ACTIVE', ?, now())", reservedId, SEEDED_ID_BASE);
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, stock_quantity, status, category_id, created_at) " +
+                "VALUES (?, 'Sold out', 'SKU-SOLD-OUT', 1.00, 4, 'ACTIVE', ?, now())", soldOutId, SEEDED_ID_BASE);
+
+        List<BulkStockUpdateFailure> failures = new ArrayList<>();
+        int[] counts = transactionTemplate.execute(status -> {
+            productRepository.createStockSnapshotStage();
+            productRepository.stageStockSnapshotRows(List.of(
+                    new StockSnapshotRow(1, reservedId, null, 3),
+                    new StockSnapshotRow(2, soldOutId, null, 0)));
+            failures.addAll(productRepository.resolveStockSnapshotStage());
+            return new int[]{productRepository.applyStockSnapshot(null, "snapshot"),
+                    productRepository.refreshStockSnapshotStatuses(null)};
+        });
+
+        assertThat(failures).extracting(BulkStockUpdateFailure::getRowNumber, BulkStockUpdateFailure::getMessage)
+                .containsExactly(tuple(1, "Quantity 3 is below the 5 units reserved"));
+        assertThat(counts).containsExactly(1, 1);
+        assertThat(productRepository.findEffectiveStockQuantity(reservedId)).isEqualTo(10);
+        assertThat(productRepository.findEffectiveStockQuantity(soldOutId)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM products WHERE id = ?", String.class, soldOutId))
+                .isEqualTo("OUT_OF_STOCK");
+    }
+
+    // The only test that saves products through JPA, so the pooled optimizer starts with no block
+    @Test
+    void allocateProductIds_shouldNotCollideWithEntityIds_fromAFreshSequence() {
+        jdbcTemplate.execute("ALTER SEQUENCE products_seq RESTART");
+        Category category = categoryRepository.findById(SEEDED_ID_BASE).orElseThrow();
+        List<Long> ids = new ArrayList<>();
+
+        ids.addAll(importProducts("first", 1));
+        ids.addAll(saveProducts(category, "second", 3));
+        ids.addAll(importProducts("third", 60));
+        ids.addAll(saveProducts(category, "fourth", 60));
+
+        assertThat(ids).hasSize(124).doesNotHaveDuplicates().allMatch(id -> id > 0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE id < ?", Long.class, SEEDED_ID_BASE))
+                .isEqualTo(124);
+    }
+
+    private List<Long> importProducts(String prefix, int count) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = productRepository.allocateProductIds(count);
+            List<ProductImportRow> rows = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ProductCreateRequest product = new ProductCreateRequest();
+                product.setName(prefix + " " + i);
+                product.setSku(prefix + "-" + i);
+                product.setPrice(BigDecimal.ONE);
+                product.setCategoryId(SEEDED_ID_BASE);
+                rows.add(new ProductImportRow(i + 1, ids.get(i), product));
+            }
+            Set<Long> inserted = productRepository.insertImportedProducts(rows, null);
+            assertThat(inserted).containsExactlyInAnyOrderElementsOf(ids);
+            return ids;
+        });
+    }
+
+    private List<Long> saveProducts(Category category, String prefix, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(productRepository.save(Product.builder()
+                    .name(prefix + " " + i)
+                    .sku(prefix + "-" + i)
+                    .price(BigDecimal.ONE)
+                    .category(category)
+                    .build()).getId());
+        }
+        return ids;
+    }
+
+    private static String schemaUrl() {
+        String url = System.getenv("QUERY_PLAN_DB_URL");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
@@ -0,0 +1,363 @@
+package net.devgrr.springbootinit.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Migrates a throwaway schema on a local PostgreSQL, seeds it with a realistically skewed data set
+ * and checks that no repository query plans a sequential scan over a large table. Each case calls
+ * the repository method itself in a rolled-back transaction, records every statement it sends
+ * through the data source together with its bound parameters, and EXPLAINs exactly that SQL, so the
+ * check follows whatever Hibernate or the JDBC code generates. Runs only when {@code QUERY_PLAN_DB_URL}
+ * is set. Queries that intentionally return most of a table (full active lists, expiring all
+ * reservations) are not listed, since scanning is the right plan for them.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.schemas=" + QueryPlanTest.SCHEMA,
+        "spring.flyway.default-schema=" + QueryPlanTest.SCHEMA,
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+class QueryPlanTest {
+
+    static final String SCHEMA = "query_plan_check";
+
+    private static final Set<String> LARGE_TABLES = Set.of(
+            "products", "stock_movements", "stock_reservations", "categories", "common_codes");
+
+    private static final List<String> SEED = List.of(
+            "INSERT INTO users (id, username, email, password, role) VALUES (1, 'seed', 'seed@example.com', 'x', 'ADMIN')",
+            "INSERT INTO categories (id, name, display_order, is_active, path, created_at) " +
+            "SELECT g, 'Root ' || g, g, true, '/', now() FROM generate_series(1, 200) g",
+            "INSERT INTO categories (id, name, display_order, is_active, parent_id, path, created_at) " +
+            "SELECT g, 'Category ' || g, g % 100, g % 10 <> 0, 1 + g % 200, '/' || (1 + g % 200) || '/', now() " +
+            "FROM generate_series(201, 20000) g",
+            "INSERT INTO common_code_groups (group_code, group_name, use_yn, sort_order, created_at) " +
+            "SELECT 'G' || lpad(g::text, 4, '0'), 'Group ' || g, 'Y', g, now() FROM generate_series(1, 500) g",
+            "INSERT INTO common_codes (id, group_code, code, code_name, use_yn, sort_order, created_at) " +
+            "SELECT g, 'G' || lpad((1 + g % 500)::text, 4, '0'), 'C' || g, 'Code ' || g, " +
+            "       CASE WHEN g % 20 = 0 THEN 'N' ELSE 'Y' END, g % 100, now() FROM generate_series(1, 50000) g",
+            "INSERT INTO products (id, name, description, sku, price, stock_quantity, min_stock_level, " +
+            "    low_stock_notified, status, category_id, created_by, created_at) " +
+            "SELECT g, 'Product ' || g, 'Seeded product number ' || g || ' for plan checks', 'SKU-' || lpad(g::text, 7, '0'), " +
+            "       (g % 100000) / 100.0, CASE WHEN g % 100 = 0 THEN 0 ELSE 50 + g % 200 END, " +
+            "       CASE WHEN g % 50 = 0 THEN 300 ELSE 10 END, " +
+            "       (g % 50 = 0 OR g % 100 = 0) AND g % 1000 <> 0, " +
+            "       CASE WHEN g % 100 = 0 THEN 'OUT_OF_STOCK' WHEN g % 97 = 0 THEN 'DISCONTINUED' ELSE 'ACTIVE' END, " +
+            "       201 + g % 19800, 1, now() FROM generate_series(1, 200000) g",
+            "INSERT INTO stock_movements (product_id, delta, reason, folded, created_by, created_at) " +
+            "SELECT 1 + g % 200000, 1, 'RESTOCK', g % 20 <> 0, 1, now() FROM generate_series(1, 300000) g",
+            "INSERT INTO stock_reservations (id, product_id, quantity, expires_at, created_at) " +
+            "SELECT gen_random_uuid(), 1 + g % 200000, 1, now() + ((g % 1000) - 5) * interval '1 second', now() " +
+            "FROM generate_series(1, 20000) g",
+            "VACUUM ANALYZE users, categories, common_code_groups, common_codes, products, stock_movements, stock_reservations");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static boolean seeded;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CommonCodeRepository commonCodeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", QueryPlanTest::schemaUrl);
+        registry.add("spring.datasource.username", () -> envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"));
+        registry.add("spring.datasource.password", () -> envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+    }
+
+    @BeforeAll
+    static void dropSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("QUERY_PLAN_DB_URL"),
+                envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"), envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @AfterAll
+    static void cleanUp() throws SQLException {
+        dropSchema();
+    }
+
+    // Flyway has migrated the schema by the time the context is up, so the seed runs once afterwards
+    @BeforeEach
+    void seed() {
+        if (!seeded) {
+            SEED.forEach(jdbcTemplate::execute);
+            seeded = true;
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    // Arguments are picked to match the selectivity the application sees in production
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                call("ProductRepository.findByStatusOrderByNameAsc",
+                        test -> test.productRepository.findByStatusOrderByNameAsc(ProductStatus.DISCONTINUED)),
+                call("ProductRepository.findByCategoryIdAndStatusOrderByNameAsc",
+                        test -> test.productRepository.findByCategoryIdAndStatusOrderByNameAsc(4321L, ProductStatus.ACTIVE)),
+                call("ProductRepository.findByStatus(Pageable)",
+                        test -> test.productRepository.findByStatus(ProductStatus.DISCONTINUED, PageRequest.of(0, 20, Sort.by("name")))),
+                call("ProductRepository.findByCategoryId(Pageable)",
+                        test -> test.productRepository.findByCategoryId(4321L, PageRequest.of(0, 20, Sort.by("name")))),
+                call("ProductRepository.findBySku",
+                        test -> test.productRepository.findBySku("SKU-0012345")),
+                call("ProductRepository.searchProducts",
+                        test -> test.productRepository.searchProducts("uct 12345", null, null, PageRequest.of(0, 20))),
+                call("ProductRepository.findByIsLowStockTrueOrderByIdAsc",
+                        test -> test.productRepository.findByIsLowStockTrueOrderByIdAsc(PageRequest.of(0, 20))),
+                call("ProductRepository.findByIsOutOfStockTrueOrderByIdAsc",
+                        test -> test.productRepository.findByIsOutOfStockTrueOrderByIdAsc(PageRequest.of(0, 20))),
+                call("ProductRepository.findByPriceRange",
+                        test -> test.productRepository.findByPriceRange(new BigDecimal("100"), new BigDecimal("101"))),
+                call("ProductRepository.countByStatus",
+                        test -> test.productRepository.countByStatus(ProductStatus.DISCONTINUED)),
+                call("ProductRepository.findByCategoryIdInAndStatusOrderByNameAsc",
+                        test -> test.productRepository.findByCategoryIdInAndStatusOrderByNameAsc(List.of(4321L, 4322L), ProductStatus.ACTIVE)),
+                call("ProductRepository.countNotDiscontinuedInCategorySubtree",
+                        test -> test.productRepository.countNotDiscontinuedInCategorySubtree(17L, "/17/", "/170")),
+                call("ProductBulkRepository.claimLowStockCrossings",
+                        test -> test.productRepository.claimLowStockCrossings(500)),
+                call("StockMovementRepository.findByProductIdOrderByIdDesc",
+                        test -> test.stockMovementRepository.findByProductIdOrderByIdDesc(4321L, PageRequest.of(0, 20))),
+                call("StockMovementRepository.compactBatch",
+                        test -> test.stockMovementRepository.compactBatch(5000)),
+                call("StockReservationRepository.findExpired",
+                        test -> test.stockReservationRepository.findExpired(LocalDateTime.now(), PageRequest.of(0, 500))),
+                call("CategoryRepository.findByParentIdAndIsActiveTrueOrderByDisplayOrderAsc",
+                        test -> test.categoryRepository.findByParentIdAndIsActiveTrueOrderByDisplayOrderAsc(17L)),
+                call("CategoryRepository.findByParentIsNullAndIsActiveTrueOrderByDisplayOrderAsc",
+                        test -> test.categoryRepository.findByParentIsNullAndIsActiveTrueOrderByDisplayOrderAsc()),
+                call("CategoryRepository.findDescendantIds",
+                        test -> test.categoryRepository.findDescendantIds("/17/", "/170")),
+                call("CategoryRepository.countSubtreeToSetActive",
+                        test -> test.categoryRepository.countSubtreeToSetActive(17L, "/17/", "/170", false)),
+                call("CategoryRepository.existsByNameAndParentId",
+                        test -> test.categoryRepository.existsByNameAndParentId("Category 4321", 122L)),
+                call("CommonCodeRepository.findByCodeGroup_GroupCodeAndUseYnOrderBySortOrderAsc",
+                        test -> test.commonCodeRepository.findByCodeGroup_GroupCodeAndUseYnOrderBySortOrderAsc("G0017", "Y")),
+                call("CommonCodeRepository.findByCodeGroup_GroupCodeAndCode",
+                        test -> test.commonCodeRepository.findByCodeGroup_GroupCodeAndCode("G0018", "C517")),
+                call("CommonCodeRepository.deleteAllInGroup",
+                        test -> test.commonCodeRepository.deleteAllInGroup("G0018")),
+                call("CommonCodeRepository.reorderCommonCodes",
+                        test -> test.commonCodeRepository.reorderCommonCodes("G0018", List.of("C517", "C1017", "C18"))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryShouldNotScanLargeTables(String query, RepositoryCall call) throws Exception {
+        List<CapturedStatement> statements = StatementCapture.during(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    call.invoke(this);
+                    status.setRollbackOnly();
+                }));
+        assertThat(statements).as("Statements sent by %s", query).isNotEmpty();
+
+        for (CapturedStatement statement : statements) {
+            JsonNode plan = explain(statement);
+            List<String> scannedTables = new ArrayList<>();
+            collectSequentialScans(plan, scannedTables);
+            assertThat(scannedTables)
+                    .as("Sequential scan in plan of %s:%n%s%n%s", query, statement.sql(), plan.toPrettyString())
+                    .isEmpty();
+        }
+    }
+
+    // Replays the recorded parameter setters on the EXPLAIN, so the planner sees the same values
+    private JsonNode explain(CapturedStatement captured) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + captured.sql())) {
+            for (Binding binding : captured.bindings()) {
+                binding.setter().invoke(statement, binding.args());
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    private static void collectSequentialScans(JsonNode node, List<String> scannedTables) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())
+                && LARGE_TABLES.contains(node.path("Relation Name").asText())) {
+            scannedTables.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSequentialScans(child, scannedTables);
+        }
+    }
+
+    private static Arguments call(String query, RepositoryCall call) {
+        return Arguments.of(query, call);
+    }
+
+    private static String schemaUrl() {
+        String url = System.getenv("QUERY_PLAN_DB_URL");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void invoke(QueryPlanTest test);
+    }
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    record CapturedStatement(String sql, List<Binding> bindings) {
+    }
+
+    /**
+     * Wraps the data source so prepared statements record their SQL and parameter setters while a
+     * capture is running. Covers JPA and {@code JdbcTemplate} alike, since both borrow connections here.
+     */
+    @TestConfiguration
+    static class StatementCapture {
+
+        private static final List<CapturedStatement> captured = new CopyOnWriteArrayList<>();
+        private static volatile boolean capturing;
+
+        static List<CapturedStatement> during(Runnable action) {
+            captured.clear();
+            capturing = true;
+            try {
+                action.run();
+            } finally {
+                capturing = false;
+            }
+            return List.copyOf(captured);
+        }
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? capturing(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource capturing(DataSource target) {
+            return proxy(DataSource.class, (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                return result instanceof Connection connection ? capturing(connection) : result;
+            }, Closeable.class);
+        }
+
+        private static Connection capturing(Connection target) {
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                return method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement
+                        ? capturing(statement, (String) args[0])
+                        : result;
+            });
+        }
+
+        private static PreparedStatement capturing(PreparedStatement target, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return proxy(PreparedStatement.class, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bindings.add(new Binding(method, args.clone()));
+                } else if (name.equals("clearParameters")) {
+                    bindings.clear();
+                } else if (capturing && (name.startsWith("execute") || name.equals("addBatch"))) {
+                    captured.add(new CapturedStatement(sql, List.copyOf(bindings)));
+                }
+                return invoke(target, method, args);
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, InvocationHandler handler, Class<?>... extraTypes) {
+            Class<?>[] types = Stream.concat(Stream.of(type), Stream.of(extraTypes)).toArray(Class<?>[]::new);
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), types, handler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
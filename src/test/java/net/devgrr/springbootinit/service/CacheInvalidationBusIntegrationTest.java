@@ -0,0 +1,174 @@
+package net.devgrr.springbootinit.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs two bus instances in separate application contexts against one database, the way two
+ * application nodes would. Runs only when {@code QUERY_PLAN_DB_URL} is set, like
+ * {@code QueryPlanTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+class CacheInvalidationBusIntegrationTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        await(() -> listener(nodeA).flushes.get() > 0 && listener(nodeB).flushes.get() > 0);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void committedEvents_shouldReachOtherNodesOnly() {
+        inTransaction(nodeA, () -> nodeA.getBean(CacheInvalidationBus.class).publish(CacheEntityType.CATEGORY, 7L));
+
+        await(() -> listener(nodeB).events.contains("CATEGORY:7"));
+        assertThat(listener(nodeA).events).isEmpty();
+    }
+
+    @Test
+    void rolledBackEvents_shouldNeverBeDelivered() {
+        TransactionTemplate template = nodeA.getBean(TransactionTemplate.class);
+        template.executeWithoutResult(status -> {
+            nodeA.getBean(CacheInvalidationBus.class).publish(CacheEntityType.PRODUCT, 1L);
+            status.setRollbackOnly();
+        });
+        inTransaction(nodeA, () -> nodeA.getBean(CacheInvalidationBus.class).publish(CacheEntityType.PRODUCT, 2L));
+
+        // Notifications arrive in commit order, so once 2 is here 1 would have been too
+        await(() -> listener(nodeB).events.contains("PRODUCT:2"));
+        assertThat(listener(nodeB).events).doesNotContain("PRODUCT:1");
+    }
+
+    @Test
+    void lostListenerConnection_shouldReconnectAndFlush() {
+        int flushesBefore = listener(nodeB).flushes.get();
+
+        nodeB.getBean(JdbcTemplate.class).queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = 'cache-invalidation-listener'");
+
+        await(() -> listener(nodeB).flushes.get() > flushesBefore);
+        inTransaction(nodeA, () -> nodeA.getBean(CacheInvalidationBus.class).publish(CacheEntityType.USER, 3L));
+        await(() -> listener(nodeB).events.contains("USER:3"));
+    }
+
+    private static AnnotationConfigApplicationContext startNode() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "spring.datasource.url", System.getenv("QUERY_PLAN_DB_URL"),
+                "spring.datasource.username", envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"),
+                "spring.datasource.password", envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"),
+                "cache.invalidation.poll-timeout-ms", "200",
+                "cache.invalidation.reconnect-delay-ms", "200")));
+        context.register(NodeConfig.class, CacheInvalidationBus.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void inTransaction(AnnotationConfigApplicationContext node, Runnable action) {
+        node.getBean(TransactionTemplate.class).executeWithoutResult(status -> action.run());
+    }
+
+    private static RecordingListener listener(AnnotationConfigApplicationContext node) {
+        return node.getBean(RecordingListener.class);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + TIMEOUT_MS + " ms");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    @Configuration
+    static class NodeConfig {
+
+        @Bean
+        DataSource dataSource(Environment environment) {
+            return new DriverManagerDataSource(
+                    environment.getRequiredProperty("spring.datasource.url"),
+                    environment.getRequiredProperty("spring.datasource.username"),
+                    environment.getRequiredProperty("spring.datasource.password"));
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(DataSource dataSource) {
+            return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements CacheInvalidationListener {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public boolean handles(CacheEntityType type) {
+            return true;
+        }
+
+        @Override
+        public void onInvalidation(CacheEntityType type, String key) {
+            events.add(type + ":" + key);
+        }
+
+        @Override
+        public void onFlush() {
+            flushes.incrementAndGet();
+        }
+    }
+}
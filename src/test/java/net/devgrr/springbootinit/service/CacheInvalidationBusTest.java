@@ -0,0 +1,107 @@
+package net.devgrr.springbootinit.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class CacheInvalidationBusTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CacheInvalidationListener categoryListener;
+
+    @Mock
+    private CacheInvalidationListener productListener;
+
+    private CacheInvalidationBus publisher;
+    private CacheInvalidationBus receiver;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new CacheInvalidationBus(jdbcTemplate, List.of(categoryListener, productListener));
+        receiver = new CacheInvalidationBus(jdbcTemplate, List.of(categoryListener, productListener));
+        lenient().when(categoryListener.handles(CacheEntityType.CATEGORY)).thenReturn(true);
+        lenient().when(productListener.handles(CacheEntityType.PRODUCT)).thenReturn(true);
+    }
+
+    @Test
+    void dispatch_shouldRouteEventsFromOtherNodesByType() {
+        receiver.dispatch(publish(CacheEntityType.CATEGORY, 5L));
+
+        verify(categoryListener).onInvalidation(CacheEntityType.CATEGORY, "5");
+        verify(productListener, never()).onInvalidation(any(), any());
+    }
+
+    @Test
+    void dispatch_shouldPassNullKey_forTypeWideEvents() {
+        receiver.dispatch(publish(CacheEntityType.PRODUCT, null));
+
+        verify(productListener).onInvalidation(CacheEntityType.PRODUCT, null);
+    }
+
+    @Test
+    void dispatch_shouldKeepSeparatorsInsideKeys() {
+        receiver.dispatch(publish(CacheEntityType.CATEGORY, "GROUP:CODE"));
+
+        verify(categoryListener).onInvalidation(CacheEntityType.CATEGORY, "GROUP:CODE");
+    }
+
+    @Test
+    void dispatch_shouldIgnoreOwnEvents() {
+        publisher.dispatch(publish(CacheEntityType.CATEGORY, 5L));
+
+        verify(categoryListener, never()).onInvalidation(any(), any());
+    }
+
+    @Test
+    void dispatch_shouldIgnoreMalformedAndUnknownEvents() {
+        receiver.dispatch("garbage");
+        receiver.dispatch("other-node:WAREHOUSE:1");
+
+        verify(categoryListener, never()).onInvalidation(any(), any());
+        verify(productListener, never()).onInvalidation(any(), any());
+    }
+
+    @Test
+    void dispatch_shouldContinue_whenListenerFails() {
+        when(productListener.handles(CacheEntityType.CATEGORY)).thenReturn(true);
+        doThrow(new RuntimeException("boom")).when(categoryListener).onInvalidation(any(), any());
+
+        receiver.dispatch(publish(CacheEntityType.CATEGORY, 5L));
+
+        verify(productListener).onInvalidation(CacheEntityType.CATEGORY, "5");
+    }
+
+    @Test
+    void flush_shouldReachEveryListener() {
+        doThrow(new RuntimeException("boom")).when(categoryListener).onFlush();
+
+        receiver.flush();
+
+        verify(productListener).onFlush();
+    }
+
+    private String publish(CacheEntityType type, Object key) {
+        publisher.publish(type, key);
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, atLeastOnce()).queryForList(eq(CacheInvalidationBus.NOTIFY_SQL),
+                eq(CacheInvalidationBus.CHANNEL), payload.capture());
+        assertThat(payload.getValue()).isInstanceOf(String.class);
+        return (String) payload.getValue();
+    }
+}
@@ -0,0 +1,117 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.entity.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class CategoryHierarchyCacheTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(categoryHierarchyCache, "maxEntries", 10);
+    }
+
+    @Test
+    void getSubtreeIds_shouldLoadSnapshotOnce() {
+        stubCategories(Arrays.asList(category(1L, null, true), category(2L, 1L, true), category(3L, 2L, true)));
+
+        Set<Long> first = categoryHierarchyCache.getSubtreeIds(1L);
+        Set<Long> second = categoryHierarchyCache.getSubtreeIds(1L);
+
+        assertThat(first).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(second).isSameAs(first);
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class));
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                        && !definition.isReadOnly()));
+    }
+
+    @Test
+    void getSubtreeIds_shouldSkipInactiveBranches() {
+        stubCategories(Arrays.asList(category(1L, null, true), category(2L, 1L, false), category(3L, 2L, true)));
+
+        assertThat(categoryHierarchyCache.getSubtreeIds(1L)).containsExactly(1L);
+        assertThat(categoryHierarchyCache.getSubtreeIds(2L)).isEmpty();
+        assertThat(categoryHierarchyCache.getSubtreeIds(99L)).isEmpty();
+    }
+
+    @Test
+    void getSubtreeIds_shouldStopAtCycles() {
+        stubCategories(Arrays.asList(category(1L, 2L, true), category(2L, 1L, true)));
+
+        assertThat(categoryHierarchyCache.getSubtreeIds(1L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(categoryHierarchyCache.snapshot().get(1L).getBreadcrumb()).hasSize(2);
+    }
+
+    @Test
+    void invalidate_shouldSwapInRebuiltSnapshot() {
+        stubCategories(Arrays.asList(category(1L, null, true), category(2L, 1L, true)),
+                Arrays.asList(category(1L, null, true), category(2L, 1L, true), category(4L, 1L, true)));
+
+        CategorySnapshot before = categoryHierarchyCache.snapshot();
+        categoryHierarchyCache.invalidate();
+        CategorySnapshot after = categoryHierarchyCache.snapshot();
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(before.getSubtreeIds(1L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(after.getSubtreeIds(1L)).containsExactlyInAnyOrder(1L, 2L, 4L);
+    }
+
+    @Test
+    void invalidate_shouldDropSnapshot_whenRebuildFails() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class)))
+                .thenReturn(List.of(category(1L, null, true)))
+                .thenThrow(new RuntimeException("connection refused"))
+                .thenReturn(List.of(category(1L, null, true), category(5L, null, true)));
+
+        categoryHierarchyCache.snapshot();
+        categoryHierarchyCache.invalidate();
+
+        assertThat(categoryHierarchyCache.snapshot().getActiveRoots()).hasSize(2);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private void stubCategories(List<Category> first, List<Category>... next) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(first, next);
+    }
+
+    private Category category(Long id, Long parentId, boolean active) {
+        return Category.builder()
+                .id(id)
+                .name("Category " + id)
+                .displayOrder(id.intValue())
+                .isActive(active)
+                .parent(parentId != null ? Category.builder().id(parentId).build() : null)
+                .build();
+    }
+}
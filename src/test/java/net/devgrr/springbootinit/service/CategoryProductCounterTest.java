@@ -0,0 +1,103 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.entity.Category;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class CategoryProductCounterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    @InjectMocks
+    private CategoryProductCounter categoryProductCounter;
+
+    private CategorySnapshot snapshot;
+
+    // 1 -> 2 -> 3 and 1 -> 4 (inactive) -> 5
+    @BeforeEach
+    void setUp() {
+        snapshot = CategorySnapshot.of(Arrays.asList(
+                category(1L, null, true),
+                category(2L, 1L, true),
+                category(3L, 2L, true),
+                category(4L, 1L, false),
+                category(5L, 4L, true)), 10);
+        when(categoryHierarchyCache.snapshot()).thenReturn(snapshot);
+    }
+
+    @Test
+    void getTotalCount_shouldRollUpThroughActiveCategories() {
+        stubCounts(new Object[] {1L, 1L}, new Object[] {3L, 4L}, new Object[] {5L, 2L});
+
+        assertThat(categoryProductCounter.getDirectCount(3L)).isEqualTo(4);
+        assertThat(categoryProductCounter.getTotalCount(3L)).isEqualTo(4);
+        assertThat(categoryProductCounter.getTotalCount(2L)).isEqualTo(4);
+        assertThat(categoryProductCounter.getTotalCount(4L)).isEqualTo(2);
+        assertThat(categoryProductCounter.getTotalCount(1L)).isEqualTo(5);
+        verify(productRepository, times(1)).countByCategoryForStatus(ProductStatus.ACTIVE);
+    }
+
+    @Test
+    void recordChange_shouldMoveCountBetweenCategories() {
+        stubCounts(new Object[] {3L, 4L});
+        categoryProductCounter.getTotalCount(1L);
+
+        categoryProductCounter.recordChange(3L, 2L);
+        categoryProductCounter.recordChange(null, 3L);
+        categoryProductCounter.recordChange(2L, null);
+
+        assertThat(categoryProductCounter.getDirectCount(2L)).isZero();
+        assertThat(categoryProductCounter.getDirectCount(3L)).isEqualTo(4);
+        assertThat(categoryProductCounter.getTotalCount(1L)).isEqualTo(4);
+    }
+
+    @Test
+    void reconcile_shouldReplaceDriftedCounts() {
+        when(productRepository.countByCategoryForStatus(ProductStatus.ACTIVE))
+                .thenReturn(rows(new Object[] {3L, 4L}), rows(new Object[] {3L, 1L}, new Object[] {2L, 1L}));
+        categoryProductCounter.getTotalCount(1L);
+        categoryProductCounter.recordChange(null, 3L);
+
+        categoryProductCounter.reconcile();
+
+        assertThat(categoryProductCounter.getDirectCount(3L)).isEqualTo(1);
+        assertThat(categoryProductCounter.getTotalCount(1L)).isEqualTo(2);
+    }
+
+    private void stubCounts(Object[]... rows) {
+        when(productRepository.countByCategoryForStatus(ProductStatus.ACTIVE)).thenReturn(rows(rows));
+    }
+
+    private List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(Arrays.asList(rows));
+    }
+
+    private Category category(Long id, Long parentId, boolean active) {
+        return Category.builder()
+                .id(id)
+                .name("Category " + id)
+                .isActive(active)
+                .parent(parentId != null ? Category.builder().id(parentId).build() : null)
+                .build();
+    }
+}
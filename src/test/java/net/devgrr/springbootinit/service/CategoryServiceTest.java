@@ -2,21 +2,26 @@ package net.devgrr.springbootinit.service;
 
 import net.devgrr.springbootinit.dto.CategoryCreateRequest;
 import net.devgrr.springbootinit.dto.CategoryDto;
+import net.devgrr.springbootinit.dto.CategoryProductCountDto;
+import net.devgrr.springbootinit.dto.CategorySubtreeResult;
 import net.devgrr.springbootinit.entity.Category;
 import net.devgrr.springbootinit.exception.CategoryNotFoundException;
 import net.devgrr.springbootinit.repository.CategoryRepository;
+import net.devgrr.springbootinit.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -26,11 +31,24 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
 class CategoryServiceTest {
 
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    @Mock
+    private CategoryProductCounter categoryProductCounter;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -46,6 +64,7 @@ class CategoryServiceTest {
                 .description("Electronic products")
                 .displayOrder(1)
                 .isActive(true)
+                .path("/")
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
@@ -57,6 +76,7 @@ class CategoryServiceTest {
                 .displayOrder(1)
                 .isActive(true)
                 .parent(parentCategory)
+                .path("/1/")
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
@@ -71,85 +91,157 @@ class CategoryServiceTest {
 
     @Test
     void getAllCategories_shouldReturnAllActiveCategories() {
-        when(categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc())
-                .thenReturn(Arrays.asList(testCategory));
+        Category inactive = Category.builder()
+                .id(3L)
+                .name("Pagers")
+                .displayOrder(0)
+                .isActive(false)
+                .parent(parentCategory)
+                .build();
+        stubSnapshot(testCategory, inactive);
 
         List<CategoryDto> result = categoryService.getAllCategories();
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getName()).isEqualTo("Smartphones");
-        verify(categoryRepository).findByIsActiveTrueOrderByDisplayOrderAsc();
+        assertThat(result).extracting(CategoryDto::getName).containsExactly("Electronics", "Smartphones");
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void getAllCategoriesWithPageable_shouldReturnPagedCategories() {
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Category> categoryPage = new PageImpl<>(Arrays.asList(testCategory));
-        when(categoryRepository.findAll(pageable)).thenReturn(categoryPage);
+        stubSnapshot(testCategory);
+        Pageable pageable = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "name"));
 
         Page<CategoryDto> result = categoryService.getAllCategories(pageable);
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getName()).isEqualTo("Smartphones");
-        verify(categoryRepository).findAll(pageable);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        verifyNoInteractions(categoryRepository);
+    }
+
+    @Test
+    void getAllCategoriesWithPageable_shouldRejectUnknownSortProperty() {
+        stubSnapshot(testCategory);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("parent"));
+
+        assertThatThrownBy(() -> categoryService.getAllCategories(pageable))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
     void getRootCategories_shouldReturnOnlyRootCategories() {
-        when(categoryRepository.findByParentIsNullAndIsActiveTrueOrderByDisplayOrderAsc())
-                .thenReturn(Arrays.asList(parentCategory));
+        stubSnapshot(testCategory);
 
         List<CategoryDto> result = categoryService.getRootCategories();
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getName()).isEqualTo("Electronics");
         assertThat(result.get(0).getParentId()).isNull();
-        verify(categoryRepository).findByParentIsNullAndIsActiveTrueOrderByDisplayOrderAsc();
     }
 
     @Test
     void getSubCategories_shouldReturnSubCategoriesOfParent() {
-        when(categoryRepository.findByParentIdAndIsActiveTrueOrderByDisplayOrderAsc(1L))
-                .thenReturn(Arrays.asList(testCategory));
+        stubSnapshot(testCategory);
 
         List<CategoryDto> result = categoryService.getSubCategories(1L);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getName()).isEqualTo("Smartphones");
         assertThat(result.get(0).getParentId()).isEqualTo(1L);
-        verify(categoryRepository).findByParentIdAndIsActiveTrueOrderByDisplayOrderAsc(1L);
     }
 
     @Test
     void getCategoryById_shouldReturnCategory_whenCategoryExists() {
-        when(categoryRepository.findByIdAndIsActiveTrue(2L)).thenReturn(Optional.of(testCategory));
+        stubSnapshot(testCategory);
 
         CategoryDto result = categoryService.getCategoryById(2L);
 
         assertThat(result.getId()).isEqualTo(2L);
         assertThat(result.getName()).isEqualTo("Smartphones");
-        verify(categoryRepository).findByIdAndIsActiveTrue(2L);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void getCategoryById_shouldThrowException_whenCategoryNotFound() {
-        when(categoryRepository.findByIdAndIsActiveTrue(99L)).thenReturn(Optional.empty());
+        stubSnapshot(testCategory);
 
         assertThatThrownBy(() -> categoryService.getCategoryById(99L))
                 .isInstanceOf(CategoryNotFoundException.class);
-        verify(categoryRepository).findByIdAndIsActiveTrue(99L);
+    }
+
+    @Test
+    void getCategoryTree_shouldNestDescendantsUnderRoot() {
+        Category otherChild = Category.builder()
+                .id(3L)
+                .name("Laptops")
+                .displayOrder(2)
+                .isActive(true)
+                .parent(parentCategory)
+                .build();
+        Category grandChild = Category.builder()
+                .id(4L)
+                .name("Android")
+                .displayOrder(1)
+                .isActive(true)
+                .parent(testCategory)
+                .build();
+        stubSnapshot(otherChild, testCategory, grandChild);
+
+        CategoryDto result = categoryService.getCategoryTree(1L);
+
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getChildren()).extracting(CategoryDto::getId).containsExactly(2L, 3L);
+        assertThat(result.getChildren().get(0).getChildren()).extracting(CategoryDto::getId).containsExactly(4L);
+        assertThat(result.getChildren().get(1).getChildren()).isEmpty();
+    }
+
+    @Test
+    void getCategoryTree_shouldThrowException_whenCategoryNotFound() {
+        stubSnapshot(testCategory);
+
+        assertThatThrownBy(() -> categoryService.getCategoryTree(99L))
+                .isInstanceOf(CategoryNotFoundException.class);
+    }
+
+    @Test
+    void getBreadcrumb_shouldReturnPathFromRoot() {
+        Category grandChild = Category.builder()
+                .id(4L)
+                .name("Android")
+                .isActive(true)
+                .parent(testCategory)
+                .build();
+        stubSnapshot(testCategory, grandChild);
+
+        List<CategoryDto> result = categoryService.getBreadcrumb(4L);
+
+        assertThat(result).extracting(CategoryDto::getId).containsExactly(1L, 2L, 4L);
     }
 
     @Test
     void searchCategories_shouldReturnMatchingCategories() {
-        when(categoryRepository.searchByKeyword("Smart"))
-                .thenReturn(Arrays.asList(testCategory));
+        stubSnapshot(testCategory);
 
         List<CategoryDto> result = categoryService.searchCategories("Smart");
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getName()).isEqualTo("Smartphones");
-        verify(categoryRepository).searchByKeyword("Smart");
+    }
+
+    @Test
+    void getProductCounts_shouldReportDirectAndTotalCounts() {
+        stubSnapshot(testCategory);
+        when(categoryProductCounter.getDirectCount(1L)).thenReturn(2L);
+        when(categoryProductCounter.getTotalCount(1L)).thenReturn(7L);
+        when(categoryProductCounter.getDirectCount(2L)).thenReturn(5L);
+        when(categoryProductCounter.getTotalCount(2L)).thenReturn(5L);
+
+        List<CategoryProductCountDto> result = categoryService.getProductCounts();
+
+        assertThat(result).extracting(CategoryProductCountDto::getCategoryId).containsExactly(1L, 2L);
+        assertThat(result.get(0).getProductCount()).isEqualTo(2);
+        assertThat(result.get(0).getTotalProductCount()).isEqualTo(7);
+        assertThat(result.get(1).getTotalProductCount()).isEqualTo(5);
     }
 
     @Test
@@ -161,9 +253,10 @@ class CategoryServiceTest {
         CategoryDto result = categoryService.createCategory(testCreateRequest);
 
         assertThat(result).isNotNull();
+        verify(categoryRepository).lockHierarchy();
         verify(categoryRepository).findByIdAndIsActiveTrue(1L);
         verify(categoryRepository).existsByNameAndParentId("New Category", 1L);
-        verify(categoryRepository).save(any(Category.class));
+        verify(categoryRepository).save(argThat(category -> "/1/".equals(category.getPath())));
     }
 
     @Test
@@ -217,6 +310,52 @@ class CategoryServiceTest {
         verify(categoryRepository).save(any(Category.class));
     }
 
+    @Test
+    void updateCategory_shouldMoveSubtree_whenParentChanges() {
+        Category newParent = Category.builder()
+                .id(5L)
+                .name("Mobile")
+                .isActive(true)
+                .parent(parentCategory)
+                .path("/1/")
+                .build();
+        CategoryCreateRequest updateRequest = new CategoryCreateRequest();
+        updateRequest.setParentId(5L);
+
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(testCategory));
+        when(categoryRepository.findByIdAndIsActiveTrue(5L)).thenReturn(Optional.of(newParent));
+        when(categoryRepository.save(any(Category.class))).thenReturn(testCategory);
+
+        categoryService.updateCategory(2L, updateRequest);
+
+        assertThat(testCategory.getParent()).isSameAs(newParent);
+        assertThat(testCategory.getPath()).isEqualTo("/1/5/");
+        verify(categoryRepository).lockHierarchy();
+        verify(categoryRepository).moveDescendants("/1/2/", "/1/5/2/", "/1/20");
+    }
+
+    @Test
+    void updateCategory_shouldThrowException_whenMovedUnderOwnDescendant() {
+        Category grandChild = Category.builder()
+                .id(4L)
+                .name("Android")
+                .isActive(true)
+                .parent(testCategory)
+                .path("/1/2/")
+                .build();
+        CategoryCreateRequest updateRequest = new CategoryCreateRequest();
+        updateRequest.setParentId(4L);
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(parentCategory));
+        when(categoryRepository.findByIdAndIsActiveTrue(4L)).thenReturn(Optional.of(grandChild));
+
+        assertThatThrownBy(() -> categoryService.updateCategory(1L, updateRequest))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("cannot be moved");
+        verify(categoryRepository, never()).moveDescendants(any(), any(), any());
+        verify(categoryRepository, never()).save(any(Category.class));
+    }
+
     @Test
     void updateCategory_shouldThrowException_whenCategoryNotFound() {
         CategoryCreateRequest updateRequest = new CategoryCreateRequest();
@@ -245,14 +384,89 @@ class CategoryServiceTest {
     }
 
     @Test
-    void deleteCategory_shouldSetIsActiveToFalse() {
+    void deleteCategory_shouldDeactivateWholeSubtree() {
         when(categoryRepository.findById(2L)).thenReturn(Optional.of(testCategory));
-        when(categoryRepository.save(any(Category.class))).thenReturn(testCategory);
 
         categoryService.deleteCategory(2L);
 
-        verify(categoryRepository).findById(2L);
-        verify(categoryRepository).save(any(Category.class));
+        verify(categoryRepository).lockHierarchy();
+        verify(categoryRepository).setSubtreeActive(2L, "/1/2/", "/1/20", false);
+        verify(productRepository, never()).discontinueInCategorySubtree(any(), any(), any());
+        verify(categoryHierarchyCache).invalidate();
+    }
+
+    @Test
+    void deactivateSubtree_shouldDiscontinueProducts_whenRequested() {
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(testCategory));
+        when(productRepository.discontinueInCategorySubtree(2L, "/1/2/", "/1/20")).thenReturn(42);
+        when(categoryRepository.setSubtreeActive(2L, "/1/2/", "/1/20", false)).thenReturn(3);
+
+        CategorySubtreeResult result = categoryService.deactivateSubtree(2L, true, false);
+
+        assertThat(result.isDryRun()).isFalse();
+        assertThat(result.getCategoriesAffected()).isEqualTo(3);
+        assertThat(result.getProductsDiscontinued()).isEqualTo(42);
+        verify(categoryHierarchyCache).invalidate();
+        verify(categoryProductCounter).reconcileAfterCommit();
+        verify(cacheInvalidationBus).publish(CacheEntityType.CATEGORY, 2L);
+        verify(cacheInvalidationBus).publish(CacheEntityType.PRODUCT, null);
+    }
+
+    @Test
+    void deactivateSubtree_shouldOnlyCount_whenDryRun() {
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(testCategory));
+        when(categoryRepository.countSubtreeToSetActive(2L, "/1/2/", "/1/20", false)).thenReturn(3L);
+        when(productRepository.countNotDiscontinuedInCategorySubtree(2L, "/1/2/", "/1/20")).thenReturn(42L);
+
+        CategorySubtreeResult result = categoryService.deactivateSubtree(2L, true, true);
+
+        assertThat(result.isDryRun()).isTrue();
+        assertThat(result.getCategoriesAffected()).isEqualTo(3);
+        assertThat(result.getProductsDiscontinued()).isEqualTo(42);
+        verify(categoryRepository, never()).lockHierarchy();
+        verify(categoryRepository, never()).setSubtreeActive(any(), any(), any(), anyBoolean());
+        verify(productRepository, never()).discontinueInCategorySubtree(any(), any(), any());
+        verifyNoInteractions(categoryHierarchyCache, cacheInvalidationBus);
+    }
+
+    @Test
+    void reactivateSubtree_shouldThrowException_whenParentInactive() {
+        parentCategory.setIsActive(false);
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(testCategory));
+
+        assertThatThrownBy(() -> categoryService.reactivateSubtree(2L, false))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("parent category is inactive");
+        verify(categoryRepository, never()).setSubtreeActive(any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void moveSubtree_shouldMoveToRootLevel_whenNoParentGiven() {
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(testCategory));
+        when(categoryRepository.existsByNameAndParentIdAndIdNot("Smartphones", null, 2L)).thenReturn(false);
+        when(categoryRepository.moveDescendants("/1/2/", "/2/", "/1/20")).thenReturn(4);
+
+        CategorySubtreeResult result = categoryService.moveSubtree(2L, null, false);
+
+        assertThat(result.getCategoriesAffected()).isEqualTo(5);
+        assertThat(testCategory.getParent()).isNull();
+        assertThat(testCategory.getPath()).isEqualTo("/");
+        verify(categoryRepository).save(testCategory);
+        verify(categoryHierarchyCache).invalidate();
+    }
+
+    @Test
+    void moveSubtree_shouldOnlyCount_whenDryRun() {
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(testCategory));
+        when(categoryRepository.existsByNameAndParentIdAndIdNot("Smartphones", null, 2L)).thenReturn(false);
+        when(categoryRepository.findDescendantIds("/1/2/", "/1/20")).thenReturn(Arrays.asList(4L, 5L));
+
+        CategorySubtreeResult result = categoryService.moveSubtree(2L, null, true);
+
+        assertThat(result.getCategoriesAffected()).isEqualTo(3);
+        assertThat(testCategory.getPath()).isEqualTo("/1/");
+        verify(categoryRepository, never()).moveDescendants(any(), any(), any());
+        verify(categoryRepository, never()).save(any(Category.class));
     }
 
     @Test
@@ -267,11 +481,9 @@ class CategoryServiceTest {
 
     @Test
     void convertToDto_shouldMapAllFields() {
-        when(categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc())
-                .thenReturn(Arrays.asList(testCategory));
+        stubSnapshot(testCategory);
 
-        List<CategoryDto> categories = categoryService.getAllCategories();
-        CategoryDto dto = categories.get(0);
+        CategoryDto dto = categoryService.getCategoryById(2L);
 
         assertThat(dto.getId()).isEqualTo(testCategory.getId());
         assertThat(dto.getName()).isEqualTo(testCategory.getName());
@@ -281,4 +493,11 @@ class CategoryServiceTest {
         assertThat(dto.getParentId()).isEqualTo(testCategory.getParent().getId());
         assertThat(dto.getParentName()).isEqualTo(testCategory.getParent().getName());
     }
-}
\ No newline at end of file
+
+    // The parent category is always part of the snapshot
+    private void stubSnapshot(Category... categories) {
+        List<Category> all = new ArrayList<>(Arrays.asList(categories));
+        all.add(parentCategory);
+        when(categoryHierarchyCache.snapshot()).thenReturn(CategorySnapshot.of(all, 10));
+    }
+}
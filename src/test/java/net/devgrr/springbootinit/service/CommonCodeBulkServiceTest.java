@@ -0,0 +1,228 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.devgrr.springbootinit.dto.CommonCodeImportFailure;
+import net.devgrr.springbootinit.dto.CommonCodeImportResult;
+import net.devgrr.springbootinit.dto.CommonCodeImportRow;
+import net.devgrr.springbootinit.entity.CommonCode;
+import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import net.devgrr.springbootinit.repository.CommonCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class CommonCodeBulkServiceTest {
+
+    @Mock
+    private CommonCodeRepository commonCodeRepository;
+
+    @Mock
+    private CommonCodeRegistry commonCodeRegistry;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CommonCodeBulkService commonCodeBulkService;
+
+    @BeforeEach
+    void setUp() {
+        commonCodeBulkService = new CommonCodeBulkService(commonCodeRepository, commonCodeRegistry,
+                cacheInvalidationBus, secondLevelCacheInvalidator, objectMapper);
+        ReflectionTestUtils.setField(commonCodeBulkService, "batchSize", 2);
+        ReflectionTestUtils.setField(commonCodeBulkService, "maxReportedFailures", 10);
+    }
+
+    @Test
+    void importCodes_shouldStageCsvRowsInBatches_andMergeOnce() {
+        String csv = "group_code,code,code_name,sort_order\n" +
+                "STATUS,ACTIVE,Active,1\n" +
+                "STATUS,INACTIVE,\"Inactive, hidden\",2\n" +
+                "\n" +
+                "REGION,SEOUL,Seoul,\n";
+        List<List<CommonCodeImportRow>> staged = captureStagedBatches();
+        when(commonCodeRepository.resolveCommonCodeImportStage()).thenReturn(new ArrayList<>());
+        when(commonCodeRepository.mergeCommonCodeImportStage()).thenReturn(2);
+
+        CommonCodeImportResult result = commonCodeBulkService.importCodes(toStream(csv), true);
+
+        assertThat(staged).hasSize(2);
+        assertThat(staged.get(0)).extracting(CommonCodeImportRow::getId).containsExactly(101L, 102L);
+        assertThat(staged.get(0).get(1).getCode().getCodeName()).isEqualTo("Inactive, hidden");
+        assertThat(staged.get(0).get(1).getCode().getUseYn()).isEqualTo("Y");
+        assertThat(staged.get(1).get(0).getRowNumber()).isEqualTo(3);
+        assertThat(staged.get(1).get(0).getCode().getSortOrder()).isNull();
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getUnchanged()).isEqualTo(1);
+        verify(commonCodeRepository).createCommonCodeImportStage();
+        verify(commonCodeRepository, times(1)).mergeCommonCodeImportStage();
+        verify(secondLevelCacheInvalidator).evictAfterCommit(CacheEntityType.COMMON_CODE);
+        verify(commonCodeRegistry).invalidate();
+        verify(cacheInvalidationBus).publish(CacheEntityType.COMMON_CODE, null);
+    }
+
+    @Test
+    void importCodes_shouldReportInvalidRowsWithoutStagingThem() {
+        String json = "[{\"groupCode\": \"STATUS\", \"code\": \"ACTIVE\", \"codeName\": \"Active\"}," +
+                " {\"groupCode\": \"STATUS\", \"code\": \"BAD\"}," +
+                " {\"groupCode\": \"STATUS\", \"code\": \"FLAG\", \"codeName\": \"Flag\", \"useYn\": \"X\"}," +
+                " {\"groupCode\": \"STATUS\", \"code\": \"NUM\", \"codeName\": \"Num\", \"sortOrder\": \"first\"}]";
+        List<List<CommonCodeImportRow>> staged = captureStagedBatches();
+        when(commonCodeRepository.resolveCommonCodeImportStage()).thenReturn(new ArrayList<>(List.of(
+                new CommonCodeImportFailure(1, "STATUS:ACTIVE", "Group not found"))));
+        when(commonCodeRepository.mergeCommonCodeImportStage()).thenReturn(0);
+
+        CommonCodeImportResult result = commonCodeBulkService.importCodes(toStream(json), false);
+
+        assertThat(staged).hasSize(1);
+        assertThat(staged.get(0)).extracting(CommonCodeImportRow::getRowNumber).containsExactly(1);
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getFailures()).extracting(CommonCodeImportFailure::getKey)
+                .containsExactly("STATUS:BAD", "STATUS:FLAG", "STATUS:NUM", "STATUS:ACTIVE");
+        verifyNoInteractions(commonCodeRegistry, cacheInvalidationBus, secondLevelCacheInvalidator);
+    }
+
+    @Test
+    void importCodes_shouldReportNonObjectJsonElements_andKeepReading() {
+        String json = "[{\"groupCode\": \"STATUS\", \"code\": \"ACTIVE\", \"codeName\": \"Active\"}," +
+                " \"STATUS:OLD\", null," +
+                " {\"groupCode\": \"STATUS\", \"code\": \"OLD\", \"codeName\": \"Old\"}]";
+        List<List<CommonCodeImportRow>> staged = captureStagedBatches();
+        when(commonCodeRepository.resolveCommonCodeImportStage()).thenReturn(new ArrayList<>());
+        when(commonCodeRepository.mergeCommonCodeImportStage()).thenReturn(2);
+
+        CommonCodeImportResult result = commonCodeBulkService.importCodes(toStream(json), false);
+
+        assertThat(staged).flatExtracting(batch -> batch).extracting(CommonCodeImportRow::getRowNumber)
+                .containsExactly(1, 4);
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getFailures()).extracting(CommonCodeImportFailure::getRowNumber, CommonCodeImportFailure::getMessage)
+                .containsExactly(tuple(2, "Expected a JSON object"), tuple(3, "Expected a JSON object"));
+    }
+
+    @Test
+    void importCodes_shouldRejectCsvWithoutRequiredColumns() {
+        assertThatThrownBy(() -> commonCodeBulkService.importCodes(toStream("group_code,code\nSTATUS,A\n"), true))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(commonCodeRepository, never()).mergeCommonCodeImportStage();
+    }
+
+    @Test
+    void exportCodes_shouldWriteCsvInImportFormat() throws IOException {
+        when(commonCodeRegistry.snapshot()).thenReturn(snapshot());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        commonCodeBulkService.exportCodes(out, true, null);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "group_code,code,code_name,code_value,description,use_yn,sort_order\r\n" +
+                "REGION,SEOUL,Seoul,,,Y,1\r\n" +
+                "STATUS,ACTIVE,\"Active, \"\"live\"\"\",,,Y,\r\n" +
+                "STATUS,OLD,Old,,,N,2\r\n");
+    }
+
+    @Test
+    void exportedCsv_shouldImportWithMultiLineAndPaddedValuesIntact() throws IOException {
+        CommonCodeGroup status = group("STATUS");
+        CommonCode described = code(1L, status, "ACTIVE", "Active", "Y", 1);
+        described.setDescription("Shown on the order list\nand in receipts ");
+        when(commonCodeRegistry.snapshot()).thenReturn(CommonCodeSnapshot.of(1L, List.of(status), List.of(described)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        commonCodeBulkService.exportCodes(out, true, null);
+        List<List<CommonCodeImportRow>> staged = captureStagedBatches();
+        when(commonCodeRepository.resolveCommonCodeImportStage()).thenReturn(new ArrayList<>());
+
+        CommonCodeImportResult result = commonCodeBulkService.importCodes(new ByteArrayInputStream(out.toByteArray()), true);
+
+        assertThat(result.getReceived()).isEqualTo(1);
+        assertThat(result.getFailed()).isZero();
+        assertThat(staged.get(0).get(0).getCode().getDescription()).isEqualTo("Shown on the order list\nand in receipts ");
+    }
+
+    @Test
+    void exportCodes_shouldWriteJsonArrayForRequestedGroups() throws IOException {
+        when(commonCodeRegistry.snapshot()).thenReturn(snapshot());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        commonCodeBulkService.exportCodes(out, false, List.of(" STATUS", "MISSING"));
+
+        JsonNode body = objectMapper.readTree(out.toByteArray());
+        assertThat(body.findValuesAsText("code")).containsExactly("ACTIVE", "OLD");
+        assertThat(body.get(1).get("sortOrder").asInt()).isEqualTo(2);
+    }
+
+    private CommonCodeSnapshot snapshot() {
+        CommonCodeGroup status = group("STATUS");
+        CommonCodeGroup region = group("REGION");
+        return CommonCodeSnapshot.of(3L, List.of(status, region), List.of(
+                code(1L, status, "ACTIVE", "Active, \"live\"", "Y", null),
+                code(2L, status, "OLD", "Old", "N", 2),
+                code(3L, region, "SEOUL", "Seoul", "Y", 1)));
+    }
+
+    private List<List<CommonCodeImportRow>> captureStagedBatches() {
+        when(commonCodeRepository.allocateCommonCodeIds(anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 1; i <= count; i++) {
+                ids.add(100L + i);
+            }
+            return ids;
+        });
+        List<List<CommonCodeImportRow>> staged = new ArrayList<>();
+        doAnswer(invocation -> {
+            staged.add(invocation.getArgument(0));
+            return null;
+        }).when(commonCodeRepository).stageCommonCodeImportRows(anyList());
+        return staged;
+    }
+
+    private InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CommonCodeGroup group(String groupCode) {
+        return CommonCodeGroup.builder()
+                .groupCode(groupCode)
+                .groupName(groupCode)
+                .useYn("Y")
+                .build();
+    }
+
+    private static CommonCode code(Long id, CommonCodeGroup group, String code, String codeName, String useYn,
+                                   Integer sortOrder) {
+        return CommonCode.builder()
+                .id(id)
+                .codeGroup(group)
+                .code(code)
+                .codeName(codeName)
+                .useYn(useYn)
+                .sortOrder(sortOrder)
+                .build();
+    }
+}
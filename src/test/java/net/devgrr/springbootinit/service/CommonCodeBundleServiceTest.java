@@ -0,0 +1,117 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.devgrr.springbootinit.entity.CommonCode;
+import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class CommonCodeBundleServiceTest {
+
+    @Mock
+    private CommonCodeRegistry commonCodeRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private CommonCodeBundleService commonCodeBundleService;
+
+    private final CommonCodeGroup status = group("STATUS");
+    private final CommonCodeGroup region = group("REGION");
+
+    @BeforeEach
+    void setUp() {
+        commonCodeBundleService = new CommonCodeBundleService(commonCodeRegistry, objectMapper);
+        ReflectionTestUtils.setField(commonCodeBundleService, "maxGroups", 3);
+        ReflectionTestUtils.setField(commonCodeBundleService, "maxCachedBundles", 10);
+    }
+
+    @Test
+    void getBundle_shouldReturnActiveCodesOfEachRequestedGroup() throws IOException {
+        when(commonCodeRegistry.snapshot()).thenReturn(snapshot(4L,
+                code(1L, status, "ACTIVE", "Y", 2), code(2L, status, "PENDING", "Y", 1),
+                code(3L, status, "OLD", "N", 0), code(4L, region, "SEOUL", "Y", 1)));
+
+        CommonCodeBundle bundle = commonCodeBundleService.getBundle(List.of("STATUS", " REGION", "MISSING"));
+
+        JsonNode body = objectMapper.readTree(bundle.getJson());
+        assertThat(bundle.getVersion()).isEqualTo(4L);
+        assertThat(body.get("version").asLong()).isEqualTo(4L);
+        assertThat(body.get("groups").get("STATUS").findValuesAsText("code")).containsExactly("PENDING", "ACTIVE");
+        assertThat(body.get("groups").get("REGION").findValuesAsText("code")).containsExactly("SEOUL");
+        assertThat(body.get("groups").get("MISSING")).isEmpty();
+    }
+
+    @Test
+    void getBundle_shouldGzipTheSameBody() throws IOException {
+        when(commonCodeRegistry.snapshot()).thenReturn(snapshot(1L, code(1L, status, "ACTIVE", "Y", 1)));
+
+        CommonCodeBundle bundle = commonCodeBundleService.getBundle(List.of("STATUS"));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bundle.getGzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(bundle.getJson());
+        }
+    }
+
+    @Test
+    void getBundle_shouldReuseBundle_untilSnapshotChanges() {
+        CommonCodeSnapshot first = snapshot(1L, code(1L, status, "ACTIVE", "Y", 1));
+        CommonCodeSnapshot second = snapshot(2L, code(1L, status, "ACTIVE", "Y", 1));
+        when(commonCodeRegistry.snapshot()).thenReturn(first, first, second);
+
+        CommonCodeBundle before = commonCodeBundleService.getBundle(List.of("STATUS", "REGION"));
+        CommonCodeBundle again = commonCodeBundleService.getBundle(List.of("REGION", "STATUS", "STATUS"));
+        CommonCodeBundle after = commonCodeBundleService.getBundle(List.of("STATUS", "REGION"));
+
+        assertThat(again).isSameAs(before);
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void getBundle_shouldRejectEmptyAndOversizedRequests() {
+        assertThatThrownBy(() -> commonCodeBundleService.getBundle(List.of(" ")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> commonCodeBundleService.getBundle(List.of("A", "B", "C", "D")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(commonCodeRegistry);
+    }
+
+    private CommonCodeSnapshot snapshot(long version, CommonCode... codes) {
+        return CommonCodeSnapshot.of(version, List.of(status, region), List.of(codes));
+    }
+
+    private static CommonCodeGroup group(String groupCode) {
+        return CommonCodeGroup.builder()
+                .groupCode(groupCode)
+                .groupName(groupCode)
+                .useYn("Y")
+                .build();
+    }
+
+    private static CommonCode code(Long id, CommonCodeGroup group, String code, String useYn, int sortOrder) {
+        return CommonCode.builder()
+                .id(id)
+                .codeGroup(group)
+                .code(code)
+                .codeName(code)
+                .useYn(useYn)
+                .sortOrder(sortOrder)
+                .build();
+    }
+}
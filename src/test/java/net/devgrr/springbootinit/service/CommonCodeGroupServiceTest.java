@@ -2,20 +2,24 @@ package net.devgrr.springbootinit.service;
 
 import net.devgrr.springbootinit.dto.CommonCodeGroupCreateRequest;
 import net.devgrr.springbootinit.dto.CommonCodeGroupDto;
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
 import net.devgrr.springbootinit.entity.CommonCodeGroup;
 import net.devgrr.springbootinit.exception.CommonCodeAlreadyExistsException;
 import net.devgrr.springbootinit.exception.CommonCodeGroupNotFoundException;
 import net.devgrr.springbootinit.repository.CommonCodeGroupRepository;
+import net.devgrr.springbootinit.repository.CommonCodeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -27,11 +31,21 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
 class CommonCodeGroupServiceTest {
 
     @Mock
     private CommonCodeGroupRepository commonCodeGroupRepository;
 
+    @Mock
+    private CommonCodeRepository commonCodeRepository;
+
+    @Mock
+    private CommonCodeRegistry commonCodeRegistry;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @InjectMocks
     private CommonCodeGroupService commonCodeGroupService;
 
@@ -75,71 +89,85 @@ class CommonCodeGroupServiceTest {
                 .useYn("Y")
                 .sortOrder(2)
                 .build();
-
-        when(commonCodeGroupRepository.findAll()).thenReturn(Arrays.asList(testGroup, group2));
+        stubSnapshot(group2, testGroup);
 
         List<CommonCodeGroupDto> result = commonCodeGroupService.getAllGroups();
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getGroupCode()).isEqualTo("TEST_GRP");
         assertThat(result.get(1).getGroupCode()).isEqualTo("TEST_GRP2");
-        verify(commonCodeGroupRepository).findAll();
+        verifyNoInteractions(commonCodeGroupRepository);
     }
 
     @Test
     void getAllGroupsWithPageable_shouldReturnPagedGroups() {
+        stubSnapshot(testGroup);
         Pageable pageable = PageRequest.of(0, 10);
-        Page<CommonCodeGroup> groupPage = new PageImpl<>(Arrays.asList(testGroup));
-
-        when(commonCodeGroupRepository.findAll(pageable)).thenReturn(groupPage);
 
         Page<CommonCodeGroupDto> result = commonCodeGroupService.getAllGroups(pageable);
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getGroupCode()).isEqualTo("TEST_GRP");
-        verify(commonCodeGroupRepository).findAll(pageable);
+    }
+
+    @Test
+    void getAllGroupsWithPageable_shouldRejectUnknownSortProperty() {
+        stubSnapshot(testGroup);
+
+        assertThatThrownBy(() -> commonCodeGroupService.getAllGroups(PageRequest.of(0, 10, Sort.by("unknown"))))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
     void getActiveGroups_shouldReturnOnlyActiveGroups() {
-        when(commonCodeGroupRepository.findByUseYnOrderBySortOrderAsc("Y")).thenReturn(Arrays.asList(testGroup));
+        CommonCodeGroup unused = CommonCodeGroup.builder()
+                .groupCode("UNUSED_GRP")
+                .groupName("Unused Group")
+                .useYn("N")
+                .sortOrder(0)
+                .build();
+        CommonCodeGroup first = CommonCodeGroup.builder()
+                .groupCode("Z_GRP")
+                .groupName("First Group")
+                .useYn("Y")
+                .sortOrder(0)
+                .build();
+        stubSnapshot(testGroup, unused, first);
 
         List<CommonCodeGroupDto> result = commonCodeGroupService.getActiveGroups();
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getUseYn()).isEqualTo("Y");
-        verify(commonCodeGroupRepository).findByUseYnOrderBySortOrderAsc("Y");
+        assertThat(result).extracting(CommonCodeGroupDto::getGroupCode).containsExactly("Z_GRP", "TEST_GRP");
+        assertThat(result).allMatch(group -> "Y".equals(group.getUseYn()));
     }
 
     @Test
     void getGroupByGroupCode_shouldReturnGroup_whenGroupExists() {
-        when(commonCodeGroupRepository.findById("TEST_GRP")).thenReturn(Optional.of(testGroup));
+        stubSnapshot(testGroup);
 
         CommonCodeGroupDto result = commonCodeGroupService.getGroupByGroupCode("TEST_GRP");
 
         assertThat(result.getGroupCode()).isEqualTo("TEST_GRP");
         assertThat(result.getGroupName()).isEqualTo("Test Group");
-        verify(commonCodeGroupRepository).findById("TEST_GRP");
+        verifyNoInteractions(commonCodeGroupRepository);
     }
 
     @Test
     void getGroupByGroupCode_shouldThrowException_whenGroupNotFound() {
-        when(commonCodeGroupRepository.findById("NONEXISTENT")).thenReturn(Optional.empty());
+        stubSnapshot(testGroup);
 
         assertThatThrownBy(() -> commonCodeGroupService.getGroupByGroupCode("NONEXISTENT"))
                 .isInstanceOf(CommonCodeGroupNotFoundException.class);
-        verify(commonCodeGroupRepository).findById("NONEXISTENT");
     }
 
     @Test
     void searchGroups_shouldReturnMatchingGroups() {
-        when(commonCodeGroupRepository.searchByKeyword("test")).thenReturn(Arrays.asList(testGroup));
+        stubSnapshot(testGroup);
 
-        List<CommonCodeGroupDto> result = commonCodeGroupService.searchGroups("test");
+        List<CommonCodeGroupDto> result = commonCodeGroupService.searchGroups("Test", CommonCodeSearchMode.CONTAINS);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getGroupName()).isEqualTo("Test Group");
-        verify(commonCodeGroupRepository).searchByKeyword("test");
+        assertThat(commonCodeGroupService.searchGroups("missing", CommonCodeSearchMode.CONTAINS)).isEmpty();
     }
 
     @Test
@@ -152,6 +180,7 @@ class CommonCodeGroupServiceTest {
         assertThat(result).isNotNull();
         verify(commonCodeGroupRepository).existsByGroupCode("NEW_GRP");
         verify(commonCodeGroupRepository).save(any(CommonCodeGroup.class));
+        verify(commonCodeRegistry).invalidate();
     }
 
     @Test
@@ -190,6 +219,7 @@ class CommonCodeGroupServiceTest {
         assertThat(result).isNotNull();
         verify(commonCodeGroupRepository).findById("TEST_GRP");
         verify(commonCodeGroupRepository).save(any(CommonCodeGroup.class));
+        verify(commonCodeRegistry).invalidate();
     }
 
     @Test
@@ -206,22 +236,30 @@ class CommonCodeGroupServiceTest {
     }
 
     @Test
-    void deleteGroup_shouldDeleteGroup_whenGroupExists() {
-        when(commonCodeGroupRepository.existsById("TEST_GRP")).thenReturn(true);
+    void deleteGroup_shouldDeleteCodesAndGroup_withSetBasedStatements() {
+        when(commonCodeGroupRepository.deleteByGroupCodeReturningCount("TEST_GRP")).thenReturn(1);
 
         commonCodeGroupService.deleteGroup("TEST_GRP");
 
-        verify(commonCodeGroupRepository).existsById("TEST_GRP");
-        verify(commonCodeGroupRepository).deleteById("TEST_GRP");
+        InOrder inOrder = inOrder(commonCodeRepository, commonCodeGroupRepository);
+        inOrder.verify(commonCodeRepository).deleteAllInGroup("TEST_GRP");
+        inOrder.verify(commonCodeGroupRepository).deleteByGroupCodeReturningCount("TEST_GRP");
+        verify(commonCodeGroupRepository, never()).deleteById(anyString());
+        verify(commonCodeRegistry).invalidate();
+        verify(cacheInvalidationBus).publish(CacheEntityType.COMMON_CODE_GROUP, "TEST_GRP");
     }
 
     @Test
     void deleteGroup_shouldThrowException_whenGroupNotFound() {
-        when(commonCodeGroupRepository.existsById("NONEXISTENT")).thenReturn(false);
+        when(commonCodeGroupRepository.deleteByGroupCodeReturningCount("NONEXISTENT")).thenReturn(0);
 
         assertThatThrownBy(() -> commonCodeGroupService.deleteGroup("NONEXISTENT"))
                 .isInstanceOf(CommonCodeGroupNotFoundException.class);
-        verify(commonCodeGroupRepository).existsById("NONEXISTENT");
-        verify(commonCodeGroupRepository, never()).deleteById(anyString());
+        verify(commonCodeRegistry, never()).invalidate();
+        verifyNoInteractions(cacheInvalidationBus);
+    }
+
+    private void stubSnapshot(CommonCodeGroup... groups) {
+        when(commonCodeRegistry.snapshot()).thenReturn(CommonCodeSnapshot.of(1L, Arrays.asList(groups), List.of()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.entity.CommonCode;
+import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class CommonCodeRegistryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CommonCodeRegistry commonCodeRegistry;
+
+    private final CommonCodeGroup group = CommonCodeGroup.builder()
+            .groupCode("STATUS")
+            .groupName("Status")
+            .useYn("Y")
+            .build();
+
+    @Test
+    void snapshot_shouldLoadOnceInRepeatableReadTransactionOnThePrimary() {
+        stubVersions(3L);
+        stubRows(List.of(code(1L, "ACTIVE", 2), code(2L, "INACTIVE", 1)));
+
+        CommonCodeSnapshot first = commonCodeRegistry.snapshot();
+        CommonCodeSnapshot second = commonCodeRegistry.snapshot();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getVersion()).isEqualTo(3L);
+        assertThat(first.getActiveCodes("STATUS")).extracting(CommonCodeSnapshot.Code::getCode)
+                .containsExactly("INACTIVE", "ACTIVE");
+        assertThat(first.getCode("STATUS", "ACTIVE").getId()).isEqualTo(1L);
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ
+                        && !definition.isReadOnly()));
+    }
+
+    @Test
+    void invalidate_shouldBumpVersionAndSwapInReloadedSnapshot() {
+        stubVersions(3L, 4L);
+        stubRows(List.of(code(1L, "ACTIVE", 1)), List.of(code(1L, "ACTIVE", 1), code(2L, "PENDING", 2)));
+
+        CommonCodeSnapshot before = commonCodeRegistry.snapshot();
+        commonCodeRegistry.invalidate();
+        CommonCodeSnapshot after = commonCodeRegistry.snapshot();
+
+        verify(jdbcTemplate).update(startsWith("UPDATE common_code_version"));
+        assertThat(after).isNotSameAs(before);
+        assertThat(before.getActiveCodes("STATUS")).hasSize(1);
+        assertThat(after.getActiveCodes("STATUS")).hasSize(2);
+        assertThat(commonCodeRegistry.getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void checkForUpdates_shouldReload_onlyWhenDatabaseVersionIsNewer() {
+        stubVersions(3L, 3L, 5L, 5L);
+        stubRows(List.of(code(1L, "ACTIVE", 1)), List.of(code(2L, "PENDING", 1)));
+
+        CommonCodeSnapshot loaded = commonCodeRegistry.snapshot();
+        commonCodeRegistry.checkForUpdates();
+        assertThat(commonCodeRegistry.snapshot()).isSameAs(loaded);
+
+        commonCodeRegistry.checkForUpdates();
+        assertThat(commonCodeRegistry.getVersion()).isEqualTo(5L);
+        assertThat(commonCodeRegistry.snapshot().getCode(2L)).isNotNull();
+    }
+
+    @Test
+    void checkForUpdates_shouldDoNothing_beforeFirstLoad() {
+        commonCodeRegistry.checkForUpdates();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void warmUp_shouldLeaveRegistryEmpty_whenDatabaseIsUnavailable() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenThrow(new RuntimeException("connection refused"));
+
+        commonCodeRegistry.warmUp();
+
+        assertThatThrownBy(() -> commonCodeRegistry.snapshot()).hasMessage("connection refused");
+    }
+
+    private void stubVersions(Long first, Long... next) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(first, next);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private void stubRows(List<CommonCode> first, List<CommonCode>... next) {
+        when(jdbcTemplate.query(contains("FROM common_code_groups"), any(RowMapper.class))).thenReturn(List.of(group));
+        when(jdbcTemplate.query(contains("FROM common_codes"), any(RowMapper.class))).thenReturn(first, next);
+    }
+
+    private CommonCode code(Long id, String code, int sortOrder) {
+        return CommonCode.builder()
+                .id(id)
+                .codeGroup(group)
+                .code(code)
+                .codeName(code)
+                .useYn("Y")
+                .sortOrder(sortOrder)
+                .build();
+    }
+}
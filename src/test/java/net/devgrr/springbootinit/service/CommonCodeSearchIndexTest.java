@@ -0,0 +1,139 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
+import net.devgrr.springbootinit.entity.CommonCode;
+import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CommonCodeSearchIndexTest {
+
+    private final CommonCodeGroup region = group("REGION", "지역", 2);
+    private final CommonCodeGroup status = group("STATUS", "상태 코드", 1);
+
+    private final CommonCodeSnapshot snapshot = CommonCodeSnapshot.of(1L, List.of(region, status), List.of(
+            code(1L, region, "SEOUL", "서울특별시", "Capital", 3),
+            code(2L, region, "BUSAN", "부산광역시", null, 1),
+            code(3L, region, "DAEGU", "대구광역시", "광역시", 2),
+            code(4L, status, "ACTIVE", "활성", "Active account", 1),
+            code(5L, region, "GWANGJU", "광주광역시", null, null)));
+
+    @Test
+    void contains_shouldMatchWholeAndHalfTypedSyllables() {
+        assertThat(codes("광역시")).containsExactly("BUSAN", "DAEGU", "GWANGJU");
+        assertThat(codes("서울특")).containsExactly("SEOUL");
+        // 특별 while the last syllable is still being composed
+        assertThat(codes("특벼")).containsExactly("SEOUL");
+        assertThat(codes("특ㅂ")).containsExactly("SEOUL");
+        assertThat(codes("광여")).containsExactly("BUSAN", "DAEGU", "GWANGJU");
+    }
+
+    @Test
+    void contains_shouldOnlyTreatTheLastSyllableAsHalfTyped() {
+        CommonCodeSnapshot words = CommonCodeSnapshot.of(1L, List.of(status), List.of(
+                code(1L, status, "SONG", "가요", null, 1),
+                code(2L, status, "TOUR", "구경", null, 2),
+                code(3L, status, "RIVER", "강변", null, 3),
+                code(4L, status, "NATION", "국가", null, 4)));
+
+        // The keys of 강 and 국 also run into the next syllable of 가요 and 구경
+        assertThat(codes(words, "강")).containsExactly("RIVER");
+        assertThat(codes(words, "국")).containsExactly("NATION");
+        assertThat(codes(words, "가")).containsExactly("SONG", "RIVER", "NATION");
+        assertThat(codes(words, "구")).containsExactly("TOUR", "NATION");
+        assertThat(codes(words, "국ㄱ")).containsExactly("NATION");
+        assertThat(codes(words, "구겨")).containsExactly("TOUR");
+    }
+
+    @Test
+    void contains_shouldSplitCompoundVowels() {
+        // 광 is ㄱ+ㅘ, and ㅘ is typed as ㅗㅏ, so 고 is on the way to it
+        assertThat(codes("고")).containsExactly("BUSAN", "DAEGU", "GWANGJU");
+        assertThat(codes("괴")).isEmpty();
+    }
+
+    @Test
+    void contains_shouldIgnoreCaseAndSearchValuesAndDescriptions() {
+        assertThat(codes("capital")).containsExactly("SEOUL");
+        assertThat(codes("ACCOUNT")).containsExactly("ACTIVE");
+    }
+
+    @Test
+    void contains_shouldNotMatchAcrossFields() {
+        assertThat(codes("시capital")).isEmpty();
+    }
+
+    @Test
+    void choseong_shouldMatchInitialConsonants() {
+        assertThat(snapshot.searchCodes("ㄱㅇㅅ", CommonCodeSearchMode.CHOSEONG))
+                .extracting(CommonCodeSnapshot.Code::getCode)
+                .containsExactly("BUSAN", "DAEGU", "GWANGJU");
+        assertThat(snapshot.searchCodes("ㅅㅇ", CommonCodeSearchMode.CHOSEONG))
+                .extracting(CommonCodeSnapshot.Code::getCode)
+                .containsExactly("SEOUL");
+        assertThat(snapshot.searchGroups("ㅅㅌ", CommonCodeSearchMode.CHOSEONG))
+                .extracting(CommonCodeSnapshot.Group::getGroupCode)
+                .containsExactly("STATUS");
+    }
+
+    @Test
+    void search_shouldReturnCodesInGroupOrderThenSortOrder() {
+        assertThat(codes("")).containsExactly("ACTIVE", "BUSAN", "DAEGU", "SEOUL", "GWANGJU");
+    }
+
+    @Test
+    void searchWithinGroup_shouldOnlyReturnThatGroupsCodes() {
+        assertThat(snapshot.searchCodes("REGION", "a", CommonCodeSearchMode.CONTAINS))
+                .extracting(CommonCodeSnapshot.Code::getCode)
+                .containsExactly("SEOUL");
+        assertThat(snapshot.searchCodes("STATUS", "a", CommonCodeSearchMode.CONTAINS))
+                .extracting(CommonCodeSnapshot.Code::getCode)
+                .containsExactly("ACTIVE");
+        assertThat(snapshot.searchCodes("MISSING", "a", CommonCodeSearchMode.CONTAINS)).isEmpty();
+    }
+
+    @Test
+    void searchGroups_shouldReturnGroupsInSortOrder() {
+        assertThat(snapshot.searchGroups("", CommonCodeSearchMode.CONTAINS))
+                .extracting(CommonCodeSnapshot.Group::getGroupCode)
+                .containsExactly("STATUS", "REGION");
+        assertThat(snapshot.searchGroups("지", CommonCodeSearchMode.CONTAINS))
+                .extracting(CommonCodeSnapshot.Group::getGroupCode)
+                .containsExactly("REGION");
+    }
+
+    private List<String> codes(String keyword) {
+        return codes(snapshot, keyword);
+    }
+
+    private static List<String> codes(CommonCodeSnapshot snapshot, String keyword) {
+        return snapshot.searchCodes(keyword, CommonCodeSearchMode.CONTAINS).stream()
+                .map(CommonCodeSnapshot.Code::getCode)
+                .toList();
+    }
+
+    private static CommonCodeGroup group(String groupCode, String groupName, int sortOrder) {
+        return CommonCodeGroup.builder()
+                .groupCode(groupCode)
+                .groupName(groupName)
+                .useYn("Y")
+                .sortOrder(sortOrder)
+                .build();
+    }
+
+    private static CommonCode code(Long id, CommonCodeGroup group, String code, String codeName, String description,
+                                   Integer sortOrder) {
+        return CommonCode.builder()
+                .id(id)
+                .codeGroup(group)
+                .code(code)
+                .codeName(codeName)
+                .description(description)
+                .useYn("Y")
+                .sortOrder(sortOrder)
+                .build();
+    }
+}
@@ -2,6 +2,9 @@ package net.devgrr.springbootinit.service;
 
 import net.devgrr.springbootinit.dto.CommonCodeCreateRequest;
 import net.devgrr.springbootinit.dto.CommonCodeDto;
+import net.devgrr.springbootinit.dto.CommonCodeRegistryVersionDto;
+import net.devgrr.springbootinit.dto.CommonCodeReorderRequest;
+import net.devgrr.springbootinit.dto.CommonCodeSearchMode;
 import net.devgrr.springbootinit.dto.CommonCodeUpdateRequest;
 import net.devgrr.springbootinit.entity.CommonCode;
 import net.devgrr.springbootinit.entity.CommonCodeGroup;
@@ -12,14 +15,15 @@ import net.devgrr.springbootinit.repository.CommonCodeGroupRepository;
 import net.devgrr.springbootinit.repository.CommonCodeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -31,6 +35,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
 class CommonCodeServiceTest {
 
     @Mock
@@ -39,6 +44,15 @@ class CommonCodeServiceTest {
     @Mock
     private CommonCodeGroupRepository commonCodeGroupRepository;
 
+    @Mock
+    private CommonCodeRegistry commonCodeRegistry;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
     @InjectMocks
     private CommonCodeService commonCodeService;
 
@@ -106,106 +120,143 @@ class CommonCodeServiceTest {
                 .codeName("Test Code 2")
                 .useYn("Y")
                 .build();
-
-        when(commonCodeRepository.findAll()).thenReturn(Arrays.asList(testCode, code2));
+        stubSnapshot(code2, testCode);
 
         List<CommonCodeDto> result = commonCodeService.getAllCodes();
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getCode()).isEqualTo("TEST_CODE");
         assertThat(result.get(1).getCode()).isEqualTo("TEST_CODE2");
-        verify(commonCodeRepository).findAll();
+        verifyNoInteractions(commonCodeRepository);
     }
 
     @Test
     void getAllCodesWithPageable_shouldReturnPagedCodes() {
+        stubSnapshot(testCode);
         Pageable pageable = PageRequest.of(0, 10);
-        Page<CommonCode> codePage = new PageImpl<>(Arrays.asList(testCode));
-
-        when(commonCodeRepository.findAll(pageable)).thenReturn(codePage);
 
         Page<CommonCodeDto> result = commonCodeService.getAllCodes(pageable);
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getCode()).isEqualTo("TEST_CODE");
-        verify(commonCodeRepository).findAll(pageable);
     }
 
     @Test
-    void getCodesByGroupCode_shouldReturnCodesForGroup() {
-        when(commonCodeRepository.findByCodeGroup_GroupCodeAndUseYnOrderBySortOrderAsc("TEST_GRP", "Y"))
-                .thenReturn(Arrays.asList(testCode));
+    void getAllCodesWithPageable_shouldSortBySnapshotProperty() {
+        CommonCode code2 = CommonCode.builder()
+                .id(2L)
+                .codeGroup(testGroup)
+                .code("A_CODE")
+                .codeName("A Code")
+                .useYn("Y")
+                .build();
+        stubSnapshot(testCode, code2);
+
+        Page<CommonCodeDto> result = commonCodeService.getAllCodes(PageRequest.of(0, 1, Sort.by("code")));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(CommonCodeDto::getCode).containsExactly("A_CODE");
+    }
+
+    @Test
+    void getCodesByGroupCode_shouldReturnActiveCodesInSortOrder() {
+        CommonCode first = CommonCode.builder()
+                .id(2L)
+                .codeGroup(testGroup)
+                .code("FIRST")
+                .codeName("First")
+                .useYn("Y")
+                .sortOrder(0)
+                .build();
+        CommonCode unused = CommonCode.builder()
+                .id(3L)
+                .codeGroup(testGroup)
+                .code("UNUSED")
+                .codeName("Unused")
+                .useYn("N")
+                .sortOrder(0)
+                .build();
+        stubSnapshot(testCode, first, unused);
 
         List<CommonCodeDto> result = commonCodeService.getCodesByGroupCode("TEST_GRP");
 
-        assertThat(result).hasSize(1);
+        assertThat(result).extracting(CommonCodeDto::getCode).containsExactly("FIRST", "TEST_CODE");
         assertThat(result.get(0).getGroupCode()).isEqualTo("TEST_GRP");
-        verify(commonCodeRepository).findByCodeGroup_GroupCodeAndUseYnOrderBySortOrderAsc("TEST_GRP", "Y");
+        assertThat(commonCodeService.getCodesByGroupCode("NONEXISTENT")).isEmpty();
+        verifyNoInteractions(commonCodeRepository);
     }
 
     @Test
     void getCodeById_shouldReturnCode_whenCodeExists() {
-        when(commonCodeRepository.findById(1L)).thenReturn(Optional.of(testCode));
+        stubSnapshot(testCode);
 
         CommonCodeDto result = commonCodeService.getCodeById(1L);
 
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getCode()).isEqualTo("TEST_CODE");
-        verify(commonCodeRepository).findById(1L);
+        verifyNoInteractions(commonCodeRepository);
     }
 
     @Test
     void getCodeById_shouldThrowException_whenCodeNotFound() {
-        when(commonCodeRepository.findById(999L)).thenReturn(Optional.empty());
+        stubSnapshot(testCode);
 
         assertThatThrownBy(() -> commonCodeService.getCodeById(999L))
                 .isInstanceOf(CommonCodeNotFoundException.class);
-        verify(commonCodeRepository).findById(999L);
     }
 
     @Test
     void getCodeByGroupCodeAndCode_shouldReturnCode_whenCodeExists() {
-        when(commonCodeRepository.findByCodeGroup_GroupCodeAndCode("TEST_GRP", "TEST_CODE"))
-                .thenReturn(Optional.of(testCode));
+        stubSnapshot(testCode);
 
         CommonCodeDto result = commonCodeService.getCodeByGroupCodeAndCode("TEST_GRP", "TEST_CODE");
 
         assertThat(result.getGroupCode()).isEqualTo("TEST_GRP");
         assertThat(result.getCode()).isEqualTo("TEST_CODE");
-        verify(commonCodeRepository).findByCodeGroup_GroupCodeAndCode("TEST_GRP", "TEST_CODE");
+        verifyNoInteractions(commonCodeRepository);
     }
 
     @Test
     void getCodeByGroupCodeAndCode_shouldThrowException_whenCodeNotFound() {
-        when(commonCodeRepository.findByCodeGroup_GroupCodeAndCode("TEST_GRP", "NONEXISTENT"))
-                .thenReturn(Optional.empty());
+        stubSnapshot(testCode);
 
         assertThatThrownBy(() -> commonCodeService.getCodeByGroupCodeAndCode("TEST_GRP", "NONEXISTENT"))
                 .isInstanceOf(CommonCodeNotFoundException.class);
-        verify(commonCodeRepository).findByCodeGroup_GroupCodeAndCode("TEST_GRP", "NONEXISTENT");
+        assertThatThrownBy(() -> commonCodeService.getCodeByGroupCodeAndCode("OTHER_GRP", "TEST_CODE"))
+                .isInstanceOf(CommonCodeNotFoundException.class);
     }
 
     @Test
     void searchCodes_shouldReturnMatchingCodes() {
-        when(commonCodeRepository.searchByKeyword("test")).thenReturn(Arrays.asList(testCode));
+        stubSnapshot(testCode);
 
-        List<CommonCodeDto> result = commonCodeService.searchCodes("test");
+        List<CommonCodeDto> result = commonCodeService.searchCodes("Test", CommonCodeSearchMode.CONTAINS);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getCodeName()).isEqualTo("Test Code");
-        verify(commonCodeRepository).searchByKeyword("test");
+        assertThat(commonCodeService.searchCodes("missing", CommonCodeSearchMode.CONTAINS)).isEmpty();
     }
 
     @Test
     void searchCodesByGroupCode_shouldReturnMatchingCodesForGroup() {
-        when(commonCodeRepository.searchByGroupCodeAndKeyword("TEST_GRP", "test"))
-                .thenReturn(Arrays.asList(testCode));
+        stubSnapshot(testCode);
 
-        List<CommonCodeDto> result = commonCodeService.searchCodesByGroupCode("TEST_GRP", "test");
+        List<CommonCodeDto> result = commonCodeService.searchCodesByGroupCode("TEST_GRP", "Description", CommonCodeSearchMode.CONTAINS);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getGroupCode()).isEqualTo("TEST_GRP");
-        verify(commonCodeRepository).searchByGroupCodeAndKeyword("TEST_GRP", "test");
+        assertThat(commonCodeService.searchCodesByGroupCode("OTHER_GRP", "Description", CommonCodeSearchMode.CONTAINS)).isEmpty();
+    }
+
+    @Test
+    void getRegistryVersion_shouldReportSnapshotVersion() {
+        stubSnapshot(testCode);
+
+        CommonCodeRegistryVersionDto result = commonCodeService.getRegistryVersion();
+
+        assertThat(result.getVersion()).isEqualTo(7L);
+        assertThat(result.getGroupCount()).isEqualTo(1);
+        assertThat(result.getCodeCount()).isEqualTo(1);
     }
 
     @Test
@@ -220,6 +271,7 @@ class CommonCodeServiceTest {
         verify(commonCodeGroupRepository).findById("TEST_GRP");
         verify(commonCodeRepository).existsByCodeGroup_GroupCodeAndCode("TEST_GRP", "NEW_CODE");
         verify(commonCodeRepository).save(any(CommonCode.class));
+        verify(commonCodeRegistry).invalidate();
     }
 
     @Test
@@ -267,6 +319,7 @@ class CommonCodeServiceTest {
         assertThat(result).isNotNull();
         verify(commonCodeRepository).findById(1L);
         verify(commonCodeRepository).save(any(CommonCode.class));
+        verify(commonCodeRegistry).invalidate();
     }
 
     @Test
@@ -287,6 +340,8 @@ class CommonCodeServiceTest {
 
         verify(commonCodeRepository).existsById(1L);
         verify(commonCodeRepository).deleteById(1L);
+        verify(commonCodeRegistry).invalidate();
+        verify(cacheInvalidationBus).publish(CacheEntityType.COMMON_CODE, 1L);
     }
 
     @Test
@@ -297,5 +352,55 @@ class CommonCodeServiceTest {
                 .isInstanceOf(CommonCodeNotFoundException.class);
         verify(commonCodeRepository).existsById(999L);
         verify(commonCodeRepository, never()).deleteById(anyLong());
+        verify(commonCodeRegistry, never()).invalidate();
+    }
+
+    @Test
+    void reorderCodes_shouldUpdateAllListedCodes_inOneStatement() {
+        List<String> codes = List.of("C", "A", "B");
+        when(commonCodeGroupRepository.existsByGroupCode("TEST_GRP")).thenReturn(true);
+        when(commonCodeRepository.reorderCommonCodes("TEST_GRP", codes)).thenReturn(3);
+
+        commonCodeService.reorderCodes("TEST_GRP", reorderRequest(codes));
+
+        verify(commonCodeRepository).reorderCommonCodes("TEST_GRP", codes);
+        verify(secondLevelCacheInvalidator).evictAfterCommit(CacheEntityType.COMMON_CODE);
+        verify(commonCodeRegistry).invalidate();
+        verify(cacheInvalidationBus).publish(CacheEntityType.COMMON_CODE_GROUP, "TEST_GRP");
+    }
+
+    @Test
+    void reorderCodes_shouldFail_whenSomeCodesAreNotInGroup() {
+        List<String> codes = List.of("A", "MISSING");
+        when(commonCodeGroupRepository.existsByGroupCode("TEST_GRP")).thenReturn(true);
+        when(commonCodeRepository.reorderCommonCodes("TEST_GRP", codes)).thenReturn(1);
+
+        assertThatThrownBy(() -> commonCodeService.reorderCodes("TEST_GRP", reorderRequest(codes)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(commonCodeRegistry, never()).invalidate();
+        verifyNoInteractions(secondLevelCacheInvalidator);
+    }
+
+    @Test
+    void reorderCodes_shouldRejectEmptyOrDuplicateLists_andUnknownGroups() {
+        assertThatThrownBy(() -> commonCodeService.reorderCodes("TEST_GRP", reorderRequest(List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> commonCodeService.reorderCodes("TEST_GRP", reorderRequest(List.of("A", "A"))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        when(commonCodeGroupRepository.existsByGroupCode("NONEXISTENT")).thenReturn(false);
+        assertThatThrownBy(() -> commonCodeService.reorderCodes("NONEXISTENT", reorderRequest(List.of("A"))))
+                .isInstanceOf(CommonCodeGroupNotFoundException.class);
+        verify(commonCodeRepository, never()).reorderCommonCodes(anyString(), anyList());
+    }
+
+    private CommonCodeReorderRequest reorderRequest(List<String> codes) {
+        CommonCodeReorderRequest request = new CommonCodeReorderRequest();
+        request.setCodes(codes);
+        return request;
+    }
+
+    private void stubSnapshot(CommonCode... codes) {
+        when(commonCodeRegistry.snapshot()).thenReturn(CommonCodeSnapshot.of(7L, List.of(testGroup), Arrays.asList(codes)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import net.devgrr.springbootinit.entity.Category;
+import net.devgrr.springbootinit.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Sets the @Value fields reflectively, which the native image has no hints for
+@DisabledInNativeImage
+class HotPathWarmerTest {
+
+    private final List<String> requestedPaths = new CopyOnWriteArrayList<>();
+    private final MockEnvironment environment = new MockEnvironment();
+    private final CategoryHierarchyCache categoryHierarchyCache = mock(CategoryHierarchyCache.class);
+    private HttpServer server;
+    private HotPathWarmer warmer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestedPaths.add(exchange.getRequestURI().toString());
+            int status = exchange.getRequestURI().getPath().equals("/broken") ? 500 : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "myVerySecretKeyForJWTTokenGeneration123456789");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        when(categoryHierarchyCache.snapshot()).thenReturn(CategorySnapshot.of(List.of(), 10));
+        warmer = new HotPathWarmer(jwtUtil, new ObjectMapper().findAndRegisterModules(), environment, categoryHierarchyCache);
+        ReflectionTestUtils.setField(warmer, "enabled", true);
+        ReflectionTestUtils.setField(warmer, "iterations", 3);
+        ReflectionTestUtils.setField(warmer, "paths", List.of("/api/products/page?size=20", "/api/categories"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void warmUp_shouldRequestEveryPathOncePerIteration() {
+        environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+
+        warmer.warmUp();
+
+        assertThat(requestedPaths).hasSize(6)
+                .containsOnly("/api/products/page?size=20", "/api/categories");
+    }
+
+    @Test
+    void warmUp_shouldRequestTheSubtreeOfTheFirstActiveRootCategory() {
+        environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+        Category inactive = Category.builder().id(3L).name("Archive").displayOrder(1).isActive(false).build();
+        Category root = Category.builder().id(7L).name("Books").displayOrder(2).build();
+        Category child = Category.builder().id(8L).name("Novels").parent(root).build();
+        when(categoryHierarchyCache.snapshot()).thenReturn(CategorySnapshot.of(List.of(inactive, root, child), 10));
+
+        warmer.warmUp();
+
+        assertThat(requestedPaths).hasSize(9)
+                .containsOnly("/api/products/page?size=20", "/api/categories",
+                        "/api/products/category/7?includeDescendants=true");
+    }
+
+    @Test
+    void warmUp_shouldNotFail_whenRequestsFailOrNoServerIsRunning() {
+        ReflectionTestUtils.setField(warmer, "paths", List.of("/broken"));
+
+        assertThatCode(() -> warmer.warmUp()).doesNotThrowAnyException();
+        assertThat(requestedPaths).isEmpty();
+
+        environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+
+        assertThatCode(() -> warmer.warmUp()).doesNotThrowAnyException();
+        assertThat(requestedPaths).hasSize(3);
+    }
+
+    @Test
+    void warmUp_shouldDoNothing_whenDisabled() {
+        environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+        ReflectionTestUtils.setField(warmer, "enabled", false);
+
+        warmer.warmUp();
+
+        assertThat(requestedPaths).isEmpty();
+    }
+}
@@ -0,0 +1,91 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.dto.LowStockAlert;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class LowStockWatcherTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LowStockWatcher lowStockWatcher;
+
+    private LowStockAlert firstAlert;
+    private LowStockAlert secondAlert;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(lowStockWatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(lowStockWatcher, "maxBatchesPerRun", 3);
+
+        firstAlert = LowStockAlert.builder()
+                .productId(1L)
+                .sku("SKU-1")
+                .stockQuantity(2)
+                .minStockLevel(5)
+                .outOfStock(false)
+                .build();
+        secondAlert = LowStockAlert.builder()
+                .productId(2L)
+                .sku("SKU-2")
+                .stockQuantity(0)
+                .outOfStock(true)
+                .build();
+    }
+
+    @Test
+    void detectCrossings_shouldPublishEachClaimedCrossing() {
+        when(productRepository.claimLowStockCrossings(2))
+                .thenReturn(Arrays.asList(firstAlert, secondAlert), new ArrayList<>());
+
+        lowStockWatcher.detectCrossings();
+
+        verify(productRepository).rearmRecoveredLowStock();
+        verify(eventPublisher).publishEvent(firstAlert);
+        verify(eventPublisher).publishEvent(secondAlert);
+        verify(productRepository, times(2)).claimLowStockCrossings(2);
+    }
+
+    @Test
+    void detectCrossings_shouldPublishNothing_whenNoNewCrossings() {
+        when(productRepository.claimLowStockCrossings(2)).thenReturn(new ArrayList<>());
+
+        lowStockWatcher.detectCrossings();
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(productRepository, times(1)).claimLowStockCrossings(2);
+    }
+
+    @Test
+    void detectCrossings_shouldStopAtMaxBatchesPerRun() {
+        List<LowStockAlert> fullBatch = Arrays.asList(firstAlert, secondAlert);
+        when(productRepository.claimLowStockCrossings(2)).thenReturn(fullBatch);
+
+        lowStockWatcher.detectCrossings();
+
+        verify(productRepository, times(3)).claimLowStockCrossings(2);
+        verify(eventPublisher, times(6)).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,192 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.devgrr.springbootinit.dto.ProductImportFailure;
+import net.devgrr.springbootinit.dto.ProductImportJobDto;
+import net.devgrr.springbootinit.dto.ProductImportRow;
+import net.devgrr.springbootinit.dto.ProductImportStatus;
+import net.devgrr.springbootinit.entity.User;
+import net.devgrr.springbootinit.exception.ProductImportJobNotFoundException;
+import net.devgrr.springbootinit.repository.CategoryRepository;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import net.devgrr.springbootinit.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    private ProductImportService productImportService;
+
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(productRepository, categoryRepository, userRepository,
+                new ObjectMapper(), new TransactionTemplate(transactionManager), new SyncTaskExecutor());
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(productImportService, "maxReportedFailures", 10);
+        ReflectionTestUtils.setField(productImportService, "retentionMinutes", 60L);
+
+        nextId = 100;
+    }
+
+    @Test
+    void submitImport_shouldWriteCsvRowsInBatchesWithAllocatedIds() {
+        String csv = "name,sku,price,stock_quantity,category_id\n" +
+                "Keyboard,SKU-1,10.00,5,1\n" +
+                "\"Mouse, wireless\",SKU-2,5.50,0,1\n" +
+                "Cable,SKU-3,1.00,,2\n";
+        stubCurrentUser();
+        when(categoryRepository.findActiveIds()).thenReturn(Set.of(1L, 2L));
+        stubIdAllocation();
+        List<List<ProductImportRow>> batches = captureInsertedBatches();
+
+        ProductImportJobDto job = productImportService.submitImport(toStream(csv), true);
+
+        ProductImportJobDto result = productImportService.getJob(job.getId());
+        assertThat(result.getStatus()).isEqualTo(ProductImportStatus.COMPLETED);
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).extracting(ProductImportRow::getId).containsExactly(100L, 101L);
+        assertThat(batches.get(0).get(1).getProduct().getName()).isEqualTo("Mouse, wireless");
+        assertThat(batches.get(1).get(0).getProduct().getStockQuantity()).isNull();
+        verify(productRepository, times(2)).insertImportedProducts(anyList(), eq(7L));
+    }
+
+    @Test
+    void submitImport_shouldReportInvalidAndDuplicateRows() {
+        String ndjson = "{\"name\":\"A\",\"sku\":\"SKU-1\",\"price\":1,\"categoryId\":1}\n" +
+                "{\"name\":\"B\",\"sku\":\"SKU-2\",\"price\":1,\"categoryId\":9}\n" +
+                "not json\n" +
+                "{\"name\":\"\",\"price\":1,\"categoryId\":1}\n" +
+                "{\"name\":\"C\",\"sku\":\"SKU-1\",\"price\":2,\"categoryId\":1}\n";
+        stubCurrentUser();
+        when(categoryRepository.findActiveIds()).thenReturn(Set.of(1L));
+        stubIdAllocation();
+        captureInsertedBatches();
+
+        ProductImportJobDto job = productImportService.submitImport(toStream(ndjson), false);
+
+        ProductImportJobDto result = productImportService.getJob(job.getId());
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getFailures()).extracting(ProductImportFailure::getRowNumber)
+                .containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+        assertThat(result.getFailures()).filteredOn(failure -> failure.getRowNumber() == 5)
+                .extracting(ProductImportFailure::getMessage)
+                .containsExactly("Product already exists with SKU");
+    }
+
+    @Test
+    void submitImport_shouldFailJob_whenCsvHeaderIncomplete() {
+        stubCurrentUser();
+        when(categoryRepository.findActiveIds()).thenReturn(Set.of(1L));
+
+        ProductImportJobDto job = productImportService.submitImport(toStream("name,sku\nA,SKU-1\n"), true);
+
+        ProductImportJobDto result = productImportService.getJob(job.getId());
+        assertThat(result.getStatus()).isEqualTo(ProductImportStatus.FAILED);
+        assertThat(result.getError()).contains("category_id");
+        verify(productRepository, never()).insertImportedProducts(anyList(), any());
+    }
+
+    @Test
+    void getJob_shouldThrowException_whenJobNotFound() {
+        assertThatThrownBy(() -> productImportService.getJob(UUID.randomUUID()))
+                .isInstanceOf(ProductImportJobNotFoundException.class);
+    }
+
+    private void stubCurrentUser() {
+        User testUser = User.builder()
+                .id(7L)
+                .username("admin")
+                .build();
+
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("admin");
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(testUser));
+    }
+
+    private void stubIdAllocation() {
+        when(productRepository.allocateProductIds(anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            List<Long> ids = LongStream.range(nextId, nextId + count).boxed().collect(Collectors.toList());
+            nextId += count;
+            return ids;
+        });
+    }
+
+    // Simulates the sku unique constraint: the first row per sku is written, later ones are skipped
+    private List<List<ProductImportRow>> captureInsertedBatches() {
+        List<List<ProductImportRow>> batches = new ArrayList<>();
+        Set<String> seenSkus = new HashSet<>();
+        when(productRepository.insertImportedProducts(anyList(), any())).thenAnswer(invocation -> {
+            List<ProductImportRow> rows = new ArrayList<>(invocation.getArgument(0));
+            batches.add(rows);
+            Set<Long> inserted = new HashSet<>();
+            for (ProductImportRow row : rows) {
+                String sku = row.getProduct().getSku();
+                if (sku == null || seenSkus.add(sku)) {
+                    inserted.add(row.getId());
+                }
+            }
+            return inserted;
+        });
+        return batches;
+    }
+
+    private InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
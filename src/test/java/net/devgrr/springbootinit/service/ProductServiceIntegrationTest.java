@@ -0,0 +1,160 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.dto.ProductCreateRequest;
+import net.devgrr.springbootinit.dto.ProductDto;
+import net.devgrr.springbootinit.dto.StockMovementDto;
+import net.devgrr.springbootinit.dto.StockUpdateRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs {@link ProductService} with its real collaborators against a throwaway schema on a local
+ * PostgreSQL. Uses no mocks or reflection, so {@code nativeTest} runs it inside the image too, where it
+ * covers the entity loading, DTO conversion and ledger queries the Mockito tests stub out. Each call
+ * commits on its own, so lazy associations are loaded the way a request loads them. Runs only when
+ * {@code QUERY_PLAN_DB_URL} is set, like {@code QueryPlanTest}.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.schemas=" + ProductServiceIntegrationTest.SCHEMA,
+        "spring.flyway.default-schema=" + ProductServiceIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductService.class, StockLedgerService.class, CategoryHierarchyCache.class, CategoryProductCounter.class,
+        CacheInvalidationBus.class})
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+class ProductServiceIntegrationTest {
+
+    static final String SCHEMA = "product_service_check";
+
+    // Far above anything the sequences hand out during these tests
+    private static final long SEEDED_ID_BASE = 1_000_000L;
+    private static final long ROOT_ID = SEEDED_ID_BASE;
+    private static final long CHILD_ID = SEEDED_ID_BASE + 1;
+    private static final String USERNAME = "serviceuser";
+
+    private static final AtomicLong SKUS = new AtomicLong();
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    @Autowired
+    private CategoryProductCounter categoryProductCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", ProductServiceIntegrationTest::schemaUrl);
+        registry.add("spring.datasource.username", () -> envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"));
+        registry.add("spring.datasource.password", () -> envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+    }
+
+    @BeforeAll
+    static void dropSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("QUERY_PLAN_DB_URL"),
+                envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"), envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role) " +
+                "VALUES (?, ?, 'service@example.com', 'unused', 'USER') ON CONFLICT DO NOTHING", SEEDED_ID_BASE, USERNAME);
+        jdbcTemplate.update("INSERT INTO categories (id, name, is_active, path, created_at) " +
+                "VALUES (?, 'Root', true, '/', now()) ON CONFLICT DO NOTHING", ROOT_ID);
+        jdbcTemplate.update("INSERT INTO categories (id, name, is_active, parent_id, path, created_at) " +
+                "VALUES (?, 'Child', true, ?, ?, now()) ON CONFLICT DO NOTHING", CHILD_ID, ROOT_ID, "/" + ROOT_ID + "/");
+        categoryHierarchyCache.invalidate();
+        categoryProductCounter.reconcile();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(USERNAME, null, List.of()));
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createProduct_shouldBeReadableThroughItsCategoryTree_andCounted() {
+        long rootCountBefore = categoryProductCounter.getTotalCount(ROOT_ID);
+
+        ProductDto created = productService.createProduct(createRequest(3));
+        ProductDto loaded = productService.getProductById(created.getId());
+
+        assertThat(loaded.getCategoryName()).isEqualTo("Child");
+        assertThat(loaded.getCreatedByUsername()).isEqualTo(USERNAME);
+        assertThat(loaded.getStockQuantity()).isEqualTo(3);
+        assertThat(productService.getProductsByCategory(ROOT_ID, true))
+                .extracting(ProductDto::getId).contains(created.getId());
+        assertThat(categoryProductCounter.getTotalCount(ROOT_ID)).isEqualTo(rootCountBefore + 1);
+    }
+
+    @Test
+    void updateStock_shouldRecordTheDifferenceInTheLedger() {
+        ProductDto created = productService.createProduct(createRequest(3));
+        StockUpdateRequest request = new StockUpdateRequest();
+        request.setQuantity(10);
+        request.setReason("recount");
+
+        ProductDto updated = productService.updateStock(created.getId(), request);
+
+        assertThat(updated.getStockQuantity()).isEqualTo(10);
+        assertThat(productService.getProductById(created.getId()).getStockQuantity()).isEqualTo(10);
+        assertThat(productService.getStockMovements(created.getId(), PageRequest.of(0, 10)).getContent())
+                .extracting(StockMovementDto::getDelta, StockMovementDto::getCreatedByUsername)
+                .containsExactlyInAnyOrder(tuple(3, USERNAME), tuple(7, USERNAME));
+    }
+
+    private static ProductCreateRequest createRequest(int stockQuantity) {
+        ProductCreateRequest request = new ProductCreateRequest();
+        request.setName("Service " + SKUS.incrementAndGet());
+        request.setSku("SERVICE-" + SKUS.get());
+        request.setPrice(new BigDecimal("10.00"));
+        request.setStockQuantity(stockQuantity);
+        request.setCategoryId(CHILD_ID);
+        return request;
+    }
+
+    private static String schemaUrl() {
+        String url = System.getenv("QUERY_PLAN_DB_URL");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
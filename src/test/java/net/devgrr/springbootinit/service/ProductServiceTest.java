@@ -3,10 +3,12 @@ package net.devgrr.springbootinit.service;
 import net.devgrr.springbootinit.dto.ProductCreateRequest;
 import net.devgrr.springbootinit.dto.ProductDto;
 import net.devgrr.springbootinit.dto.ProductUpdateRequest;
+import net.devgrr.springbootinit.dto.StockMovementRequest;
 import net.devgrr.springbootinit.dto.StockUpdateRequest;
 import net.devgrr.springbootinit.entity.Category;
 import net.devgrr.springbootinit.entity.Product;
 import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.entity.StockMovementReason;
 import net.devgrr.springbootinit.entity.User;
 import net.devgrr.springbootinit.exception.CategoryNotFoundException;
 import net.devgrr.springbootinit.exception.ProductAlreadyExistsException;
@@ -16,6 +18,7 @@ import net.devgrr.springbootinit.repository.ProductRepository;
 import net.devgrr.springbootinit.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -33,12 +36,14 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
 class ProductServiceTest {
 
     @Mock
@@ -50,6 +55,18 @@ class ProductServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private StockLedgerService stockLedgerService;
+
+    @Mock
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    @Mock
+    private CategoryProductCounter categoryProductCounter;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -200,6 +217,8 @@ class ProductServiceTest {
         verify(productRepository).existsBySku("NEW-001");
         verify(categoryRepository).findByIdAndIsActiveTrue(1L);
         verify(productRepository).save(any(Product.class));
+        verify(stockLedgerService).recordInitialStock(testProduct, 100, testUser);
+        verify(categoryProductCounter).recordChange(null, 1L);
     }
 
     @Test
@@ -228,7 +247,7 @@ class ProductServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         ProductDto result = productService.updateProduct(1L, testUpdateRequest);
@@ -240,7 +259,7 @@ class ProductServiceTest {
 
     @Test
     void updateProduct_shouldThrowException_whenProductNotFound() {
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> productService.updateProduct(1L, testUpdateRequest))
                 .isInstanceOf(ProductNotFoundException.class);
@@ -257,16 +276,145 @@ class ProductServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(100);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         ProductDto result = productService.updateStock(1L, stockRequest);
 
         assertThat(result).isNotNull();
-        verify(productRepository).findById(1L);
+        assertThat(result.getStockQuantity()).isEqualTo(50);
+        verify(productRepository).findByIdForUpdate(1L);
+        verify(stockLedgerService).recordMovement(testProduct, -50, StockMovementReason.ADJUSTMENT, "Stock adjustment", testUser);
         verify(productRepository).save(any(Product.class));
     }
 
+    @Test
+    void updateStock_shouldComputeDeltaFromQuantityReadUnderRowLock() {
+        StockUpdateRequest stockRequest = new StockUpdateRequest();
+        stockRequest.setQuantity(50);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        // A sale committed while the lock was being acquired, after the entity's snapshot was taken
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(80);
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+
+        ProductDto result = productService.updateStock(1L, stockRequest);
+
+        assertThat(result.getStockQuantity()).isEqualTo(50);
+        verify(stockLedgerService).recordMovement(testProduct, -30, StockMovementReason.ADJUSTMENT, null, testUser);
+        verify(productRepository, never()).findById(1L);
+    }
+
+    @Test
+    void updateStock_shouldNotRecordMovement_whenQuantityUnchanged() {
+        StockUpdateRequest stockRequest = new StockUpdateRequest();
+        stockRequest.setQuantity(100);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(100);
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+
+        productService.updateStock(1L, stockRequest);
+
+        verifyNoInteractions(stockLedgerService);
+    }
+
+    @Test
+    void updateStock_shouldThrowException_whenQuantityIsBelowReservedQuantity() {
+        StockUpdateRequest stockRequest = new StockUpdateRequest();
+        stockRequest.setQuantity(5);
+        testProduct.setReservedQuantity(10);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+
+        assertThatThrownBy(() -> productService.updateStock(1L, stockRequest))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("10 units reserved");
+        verifyNoInteractions(stockLedgerService);
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void recordStockMovement_shouldAppendDeltaUnderRowLock() {
+        StockMovementRequest movementRequest = new StockMovementRequest();
+        movementRequest.setDelta(-3);
+        movementRequest.setReason(StockMovementReason.SALE);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(100);
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+
+        ProductDto result = productService.recordStockMovement(1L, movementRequest);
+
+        assertThat(result.getStockQuantity()).isEqualTo(97);
+        assertThat(result.getStatus()).isEqualTo(ProductStatus.ACTIVE);
+        verify(stockLedgerService).recordMovement(testProduct, -3, StockMovementReason.SALE, null, testUser);
+        verify(productRepository, never()).findById(1L);
+        verify(categoryProductCounter).recordChange(1L, 1L);
+        verify(cacheInvalidationBus).publish(CacheEntityType.PRODUCT, 1L);
+    }
+
+    @Test
+    void recordStockMovement_shouldMarkOutOfStockAndUncount_whenStockRunsOut() {
+        StockMovementRequest movementRequest = new StockMovementRequest();
+        movementRequest.setDelta(-3);
+        movementRequest.setReason(StockMovementReason.SALE);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        // Earlier sales are still unfolded in the ledger
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(3);
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+
+        ProductDto result = productService.recordStockMovement(1L, movementRequest);
+
+        assertThat(result.getStockQuantity()).isZero();
+        assertThat(result.getStatus()).isEqualTo(ProductStatus.OUT_OF_STOCK);
+        verify(categoryProductCounter).recordChange(1L, null);
+        verify(cacheInvalidationBus).publish(CacheEntityType.PRODUCT, 1L);
+    }
+
+    @Test
+    void recordStockMovement_shouldThrowException_whenResultIsBelowReservedQuantity() {
+        StockMovementRequest movementRequest = new StockMovementRequest();
+        movementRequest.setDelta(-5);
+        testProduct.setReservedQuantity(10);
+
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(12);
+
+        assertThatThrownBy(() -> productService.recordStockMovement(1L, movementRequest))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("10 units reserved");
+        verifyNoInteractions(stockLedgerService, categoryProductCounter, cacheInvalidationBus);
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void recordStockMovement_shouldThrowException_whenDeltaIsZero() {
+        StockMovementRequest movementRequest = new StockMovementRequest();
+        movementRequest.setDelta(0);
+
+        assertThatThrownBy(() -> productService.recordStockMovement(1L, movementRequest))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(stockLedgerService);
+    }
+
     @Test
     void deleteProduct_shouldSetStatusToDiscontinued() {
         when(securityContext.getAuthentication()).thenReturn(authentication);
@@ -279,6 +427,8 @@ class ProductServiceTest {
 
         verify(productRepository).findById(1L);
         verify(productRepository).save(any(Product.class));
+        verify(categoryProductCounter).recordChange(1L, null);
+        verify(cacheInvalidationBus).publish(CacheEntityType.PRODUCT, 1L);
     }
 
     @Test
@@ -292,23 +442,29 @@ class ProductServiceTest {
     }
 
     @Test
-    void getLowStockProducts_shouldReturnLowStockProducts() {
-        when(productRepository.findLowStockProducts()).thenReturn(Arrays.asList(testProduct));
+    void getLowStockProducts_shouldReturnFlaggedProductsPage() {
+        Pageable pageable = PageRequest.of(0, 20);
+        testProduct.setIsLowStock(true);
+        when(productRepository.findByIsLowStockTrueOrderByIdAsc(pageable)).thenReturn(new PageImpl<>(Arrays.asList(testProduct)));
 
-        List<ProductDto> result = productService.getLowStockProducts();
+        Page<ProductDto> result = productService.getLowStockProducts(pageable);
 
-        assertThat(result).hasSize(1);
-        verify(productRepository).findLowStockProducts();
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getIsLowStock()).isTrue();
+        verify(productRepository).findByIsLowStockTrueOrderByIdAsc(pageable);
     }
 
     @Test
-    void getOutOfStockProducts_shouldReturnOutOfStockProducts() {
-        when(productRepository.findOutOfStockProducts()).thenReturn(Arrays.asList(testProduct));
+    void getOutOfStockProducts_shouldReturnFlaggedProductsPage() {
+        Pageable pageable = PageRequest.of(0, 20);
+        testProduct.setIsOutOfStock(true);
+        when(productRepository.findByIsOutOfStockTrueOrderByIdAsc(pageable)).thenReturn(new PageImpl<>(Arrays.asList(testProduct)));
 
-        List<ProductDto> result = productService.getOutOfStockProducts();
+        Page<ProductDto> result = productService.getOutOfStockProducts(pageable);
 
-        assertThat(result).hasSize(1);
-        verify(productRepository).findOutOfStockProducts();
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getIsOutOfStock()).isTrue();
+        verify(productRepository).findByIsOutOfStockTrueOrderByIdAsc(pageable);
     }
 
     @Test
@@ -323,6 +479,28 @@ class ProductServiceTest {
         verify(productRepository).findByCategoryIdAndStatusOrderByNameAsc(1L, ProductStatus.ACTIVE);
     }
 
+    @Test
+    void getProductsByCategory_shouldQuerySubtreeInOneStatement_whenIncludingDescendants() {
+        when(categoryHierarchyCache.getSubtreeIds(1L)).thenReturn(Set.of(1L, 5L, 6L));
+        when(productRepository.findByCategoryIdInAndStatusOrderByNameAsc(anyCollection(), eq(ProductStatus.ACTIVE)))
+                .thenReturn(Arrays.asList(testProduct));
+
+        List<ProductDto> result = productService.getProductsByCategory(1L, true);
+
+        assertThat(result).hasSize(1);
+        verify(productRepository).findByCategoryIdInAndStatusOrderByNameAsc(
+                argThat(ids -> ids.size() == 3 && ids.containsAll(Set.of(1L, 5L, 6L))), eq(ProductStatus.ACTIVE));
+        verify(productRepository, never()).findByCategoryIdAndStatusOrderByNameAsc(anyLong(), any());
+    }
+
+    @Test
+    void getProductsByCategory_shouldThrowException_whenSubtreeRootNotFound() {
+        when(categoryHierarchyCache.getSubtreeIds(99L)).thenReturn(Set.of());
+
+        assertThatThrownBy(() -> productService.getProductsByCategory(99L, true))
+                .isInstanceOf(CategoryNotFoundException.class);
+    }
+
     @Test
     void searchProducts_shouldReturnMatchingProducts() {
         Pageable pageable = PageRequest.of(0, 10);
@@ -363,7 +541,7 @@ class ProductServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
         when(categoryRepository.findByIdAndIsActiveTrue(2L)).thenReturn(Optional.of(newCategory));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
@@ -379,7 +557,7 @@ class ProductServiceTest {
         ProductUpdateRequest updateRequest = new ProductUpdateRequest();
         updateRequest.setSku("EXISTING-SKU");
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
         when(productRepository.existsBySkuAndIdNot("EXISTING-SKU", 1L)).thenReturn(true);
 
         assertThatThrownBy(() -> productService.updateProduct(1L, updateRequest))
@@ -406,7 +584,8 @@ class ProductServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(outOfStockProduct));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(outOfStockProduct));
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(0);
         when(productRepository.save(any(Product.class))).thenReturn(outOfStockProduct);
 
         ProductDto result = productService.updateStock(1L, stockRequest);
@@ -433,7 +612,8 @@ class ProductServiceTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(outOfStockProduct));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(outOfStockProduct));
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(0);
         when(productRepository.save(any(Product.class))).thenReturn(outOfStockProduct);
 
         ProductDto result = productService.updateStock(1L, stockRequest);
@@ -447,7 +627,7 @@ class ProductServiceTest {
         StockUpdateRequest stockRequest = new StockUpdateRequest();
         stockRequest.setQuantity(50);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> productService.updateStock(1L, stockRequest))
                 .isInstanceOf(ProductNotFoundException.class);
@@ -0,0 +1,252 @@
+package net.devgrr.springbootinit.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.devgrr.springbootinit.entity.Category;
+import net.devgrr.springbootinit.entity.CommonCode;
+import net.devgrr.springbootinit.entity.CommonCodeGroup;
+import net.devgrr.springbootinit.entity.Product;
+import net.devgrr.springbootinit.repository.CategoryRepository;
+import net.devgrr.springbootinit.repository.CommonCodeGroupRepository;
+import net.devgrr.springbootinit.repository.CommonCodeRepository;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Checks the second-level cache against a throwaway schema on a local PostgreSQL: repeated lookups
+ * are served from the cache, and every kind of write leaves it fresh. Nothing runs in a test-managed
+ * transaction, so each repository call gets its own session and only the shared cache can answer
+ * it. Runs only when {@code QUERY_PLAN_DB_URL} is set, like {@code QueryPlanTest}.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.schemas=" + SecondLevelCacheIntegrationTest.SCHEMA,
+        "spring.flyway.default-schema=" + SecondLevelCacheIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(SecondLevelCacheInvalidator.class)
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+class SecondLevelCacheIntegrationTest {
+
+    static final String SCHEMA = "second_level_cache_check";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CommonCodeGroupRepository commonCodeGroupRepository;
+
+    @Autowired
+    private CommonCodeRepository commonCodeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", SecondLevelCacheIntegrationTest::schemaUrl);
+        registry.add("spring.datasource.username", () -> envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"));
+        registry.add("spring.datasource.password", () -> envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+    }
+
+    @BeforeAll
+    static void dropSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("QUERY_PLAN_DB_URL"),
+                envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"), envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @BeforeEach
+    void resetCache() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findById_shouldBeServedFromCache_afterFirstLoad() {
+        Long id = categoryRepository.save(category("Books", null)).getId();
+        secondLevelCacheInvalidator.evict(CacheEntityType.CATEGORY);
+        statistics.clear();
+
+        categoryRepository.findById(id).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+        Category cached = categoryRepository.findById(id).orElseThrow();
+
+        assertThat(cached.getName()).isEqualTo("Books");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics("category").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByIdAndIsActiveTrue_shouldBeServedFromQueryCache() {
+        Long id = categoryRepository.save(category("Music", null)).getId();
+
+        categoryRepository.findByIdAndIsActiveTrue(id).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+        categoryRepository.findByIdAndIsActiveTrue(id).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void entityWrites_shouldReplaceCachedEntity_andInvalidateCachedQueries() {
+        Long id = categoryRepository.save(category("Games", null)).getId();
+        categoryRepository.findByIdAndIsActiveTrue(id).orElseThrow();
+
+        Category category = categoryRepository.findById(id).orElseThrow();
+        category.setName("Board Games");
+        categoryRepository.save(category);
+
+        assertThat(categoryRepository.findById(id).orElseThrow().getName()).isEqualTo("Board Games");
+        assertThat(categoryRepository.findByIdAndIsActiveTrue(id).orElseThrow().getName()).isEqualTo("Board Games");
+    }
+
+    @Test
+    void nativeBulkUpdates_shouldEvictCachedEntitiesAndQueries() {
+        Category root = categoryRepository.save(category("Toys", null));
+        Category child = categoryRepository.save(category("Puzzles", root));
+        categoryRepository.findById(child.getId()).orElseThrow();
+        categoryRepository.findByIdAndIsActiveTrue(child.getId()).orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> categoryRepository.setSubtreeActive(root.getId(),
+                root.getDescendantPathPrefix(), Category.pathUpperBound(root.getDescendantPathPrefix()), false));
+
+        assertThat(categoryRepository.findById(child.getId()).orElseThrow().getIsActive()).isFalse();
+        assertThat(categoryRepository.findByIdAndIsActiveTrue(child.getId())).isEmpty();
+    }
+
+    @Test
+    void nativeProductWrites_shouldLeaveCategoryCachesPopulated() {
+        Category category = categoryRepository.save(category("Garden", null));
+        Long productId = productRepository.save(Product.builder()
+                .name("Rake")
+                .price(BigDecimal.TEN)
+                .stockQuantity(5)
+                .category(category)
+                .build()).getId();
+        categoryRepository.findById(category.getId()).orElseThrow();
+        categoryRepository.findByIdAndIsActiveTrue(category.getId()).orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.reserveStock(productId, 2);
+            productRepository.releaseReservedStock(productId, 1);
+        });
+
+        assertThat(entityManagerFactory.getCache().contains(Category.class, category.getId())).isTrue();
+        long hits = statistics.getQueryCacheHitCount();
+        categoryRepository.findByIdAndIsActiveTrue(category.getId()).orElseThrow();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void children_shouldBeCached_andEvictedWhenAChildIsAdded() {
+        Category root = categoryRepository.save(category("Sports", null));
+        categoryRepository.save(category("Running", root));
+
+        assertThat(childNames(root.getId())).containsExactly("Running");
+        assertThat(childNames(root.getId())).containsExactly("Running");
+        assertThat(statistics.getDomainDataRegionStatistics("category.children").getHitCount()).isEqualTo(1);
+
+        categoryRepository.save(category("Cycling", root));
+
+        assertThat(childNames(root.getId())).containsExactlyInAnyOrder("Running", "Cycling");
+    }
+
+    @Test
+    void jdbcWrites_shouldStayInvisible_untilInvalidated() {
+        CommonCodeGroup group = commonCodeGroupRepository.save(CommonCodeGroup.builder()
+                .groupCode("L2_GRP")
+                .groupName("Cache group")
+                .build());
+        Long id = commonCodeRepository.save(CommonCode.builder()
+                .codeGroup(group)
+                .code("A")
+                .codeName("Before")
+                .sortOrder(5)
+                .build()).getId();
+        commonCodeRepository.findById(id).orElseThrow();
+
+        jdbcTemplate.update("UPDATE common_codes SET code_name = 'After' WHERE id = ?", id);
+        assertThat(commonCodeRepository.findById(id).orElseThrow().getCodeName()).isEqualTo("Before");
+
+        // What another node's event does
+        secondLevelCacheInvalidator.onInvalidation(CacheEntityType.COMMON_CODE, String.valueOf(id));
+        assertThat(commonCodeRepository.findById(id).orElseThrow().getCodeName()).isEqualTo("After");
+
+        // What the local JDBC write paths do
+        transactionTemplate.executeWithoutResult(status -> {
+            commonCodeRepository.reorderCommonCodes("L2_GRP", List.of("A"));
+            secondLevelCacheInvalidator.evictAfterCommit(CacheEntityType.COMMON_CODE);
+        });
+        assertThat(commonCodeRepository.findById(id).orElseThrow().getSortOrder()).isEqualTo(1);
+        assertThat(commonCodeRepository.findByCodeGroup_GroupCodeAndCode("L2_GRP", "A").orElseThrow().getSortOrder())
+                .isEqualTo(1);
+    }
+
+    private List<String> childNames(Long id) {
+        return transactionTemplate.execute(status -> categoryRepository.findById(id).orElseThrow()
+                .getChildren().stream()
+                .map(Category::getName)
+                .toList());
+    }
+
+    private static Category category(String name, Category parent) {
+        return Category.builder()
+                .name(name)
+                .parent(parent)
+                .path(parent != null ? parent.getDescendantPathPrefix() : "/")
+                .build();
+    }
+
+    private static String schemaUrl() {
+        String url = System.getenv("QUERY_PLAN_DB_URL");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
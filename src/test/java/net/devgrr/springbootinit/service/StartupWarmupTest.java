@@ -0,0 +1,137 @@
+package net.devgrr.springbootinit.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StartupWarmupTest {
+
+    private final BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(16);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void warmUp_shouldRunWarmersInOrder_andRecordAStepForEach_withoutBootstrapExecutor() {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        StartupWarmup warmup = new StartupWarmup(
+                List.of(new CodesWarmer(() -> calls.add("codes")), new ReservationsWarmer(() -> calls.add("reservations"))),
+                applicationStartup, meterRegistry, bootstrapExecutor(null));
+
+        warmup.warmUp();
+
+        assertThat(calls).containsExactly("codes", "reservations");
+        List<StartupStep> steps = applicationStartup.getBufferedTimeline().getEvents().stream()
+                .map(StartupTimeline.TimelineEvent::getStartupStep)
+                .toList();
+        assertThat(steps).extracting(StartupStep::getName).containsOnly(StartupWarmup.STEP_NAME);
+        assertThat(steps).extracting(step -> step.getTags().iterator().next().getValue())
+                .containsExactly("CodesWarmer", "ReservationsWarmer");
+        assertThat(meterRegistry.find(StartupWarmup.METRIC_NAME).timeGauge())
+                .isNotNull()
+                .satisfies(gauge -> assertThat(gauge.value(TimeUnit.MILLISECONDS)).isNotNegative());
+    }
+
+    @Test
+    void warmUp_shouldRunWarmersConcurrently_onBootstrapExecutor() {
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        // Each warmer waits for the other, so running them one after another would time out
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable awaitOther = () -> {
+            bothStarted.countDown();
+            try {
+                assertThat(bothStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        };
+        StartupWarmup warmup = new StartupWarmup(List.of(new CodesWarmer(awaitOther), new ReservationsWarmer(awaitOther)),
+                applicationStartup, meterRegistry, bootstrapExecutor(executor));
+
+        warmup.warmUp();
+
+        assertThat(bothStarted.getCount()).isZero();
+        assertThat(applicationStartup.getBufferedTimeline().getEvents()).hasSize(2);
+    }
+
+    @Test
+    void warmUp_shouldFinishWarmersThatRunFirst_beforeStartingTheParallelOnes() {
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        List<String> calls = new CopyOnWriteArrayList<>();
+        StartupWarmer pool = new StartupWarmer() {
+            @Override
+            public void warmUp() {
+                calls.add("pool");
+            }
+
+            @Override
+            public boolean runsFirst() {
+                return true;
+            }
+        };
+        StartupWarmup warmup = new StartupWarmup(
+                List.of(new CodesWarmer(() -> calls.add("codes")), pool, new ReservationsWarmer(() -> calls.add("reservations"))),
+                applicationStartup, meterRegistry, bootstrapExecutor(executor));
+
+        warmup.warmUp();
+
+        assertThat(calls).hasSize(3).first().isEqualTo("pool");
+    }
+
+    @Test
+    void warmUp_shouldFailStartup_whenAWarmerFails() {
+        executor.initialize();
+        StartupWarmer failing = new CodesWarmer(() -> {
+            throw new IllegalStateException("database unavailable");
+        });
+
+        assertThatThrownBy(() -> new StartupWarmup(List.of(failing), applicationStartup, meterRegistry, bootstrapExecutor(null)).warmUp())
+                .isInstanceOf(IllegalStateException.class).hasMessage("database unavailable");
+        assertThatThrownBy(() -> new StartupWarmup(List.of(failing), applicationStartup, meterRegistry, bootstrapExecutor(executor)).warmUp())
+                .isInstanceOf(IllegalStateException.class).hasMessage("database unavailable");
+        assertThat(meterRegistry.find(StartupWarmup.METRIC_NAME).timeGauge()).isNull();
+    }
+
+    private static ObjectProvider<AsyncTaskExecutor> bootstrapExecutor(AsyncTaskExecutor executor) {
+        StaticListableBeanFactory beanFactory = executor != null
+                ? new StaticListableBeanFactory(Map.of("bootstrapExecutor", executor))
+                : new StaticListableBeanFactory();
+        return beanFactory.getBeanProvider(AsyncTaskExecutor.class);
+    }
+
+    private record CodesWarmer(Runnable action) implements StartupWarmer {
+        @Override
+        public void warmUp() {
+            action.run();
+        }
+    }
+
+    private record ReservationsWarmer(Runnable action) implements StartupWarmer {
+        @Override
+        public void warmUp() {
+            action.run();
+        }
+    }
+}
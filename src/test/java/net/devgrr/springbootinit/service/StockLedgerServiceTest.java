@@ -0,0 +1,123 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.dto.StockMovementDto;
+import net.devgrr.springbootinit.entity.Product;
+import net.devgrr.springbootinit.entity.StockMovement;
+import net.devgrr.springbootinit.entity.StockMovementReason;
+import net.devgrr.springbootinit.entity.User;
+import net.devgrr.springbootinit.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class StockLedgerServiceTest {
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @InjectMocks
+    private StockLedgerService stockLedgerService;
+
+    private Product testProduct;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stockLedgerService, "compactionBatchSize", 100);
+        ReflectionTestUtils.setField(stockLedgerService, "maxBatchesPerRun", 5);
+
+        testProduct = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .stockQuantity(10)
+                .build();
+
+        testUser = User.builder()
+                .id(1L)
+                .username("testuser")
+                .build();
+    }
+
+    @Test
+    void recordMovement_shouldAppendUnfoldedDelta() {
+        when(stockMovementRepository.save(any(StockMovement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StockMovement result = stockLedgerService.recordMovement(testProduct, -4, StockMovementReason.SALE, "order-1", testUser);
+
+        assertThat(result.getDelta()).isEqualTo(-4);
+        assertThat(result.getReason()).isEqualTo(StockMovementReason.SALE);
+        assertThat(result.getFolded()).isFalse();
+        assertThat(result.getCreatedBy()).isEqualTo(testUser);
+    }
+
+    @Test
+    void recordInitialStock_shouldStoreAlreadyFoldedEntry() {
+        ArgumentCaptor<StockMovement> captor = ArgumentCaptor.forClass(StockMovement.class);
+        when(stockMovementRepository.save(captor.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        stockLedgerService.recordInitialStock(testProduct, 10, testUser);
+
+        assertThat(captor.getValue().getReason()).isEqualTo(StockMovementReason.INITIAL);
+        assertThat(captor.getValue().getDelta()).isEqualTo(10);
+        assertThat(captor.getValue().getFolded()).isTrue();
+    }
+
+    @Test
+    void getMovements_shouldReturnPagedHistory() {
+        Pageable pageable = PageRequest.of(0, 10);
+        StockMovement movement = StockMovement.builder()
+                .id(5L)
+                .product(testProduct)
+                .delta(3)
+                .reason(StockMovementReason.RESTOCK)
+                .folded(false)
+                .createdBy(testUser)
+                .createdAt(LocalDateTime.now())
+                .build();
+        Page<StockMovement> page = new PageImpl<>(Arrays.asList(movement));
+        when(stockMovementRepository.findByProductIdOrderByIdDesc(1L, pageable)).thenReturn(page);
+
+        Page<StockMovementDto> result = stockLedgerService.getMovements(1L, pageable);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getProductId()).isEqualTo(1L);
+        assertThat(result.getContent().get(0).getCreatedByUsername()).isEqualTo("testuser");
+    }
+
+    @Test
+    void compact_shouldKeepFoldingWhileBatchesAreFull() {
+        when(stockMovementRepository.compactBatch(100)).thenReturn(100L, 100L, 7L);
+
+        stockLedgerService.compact();
+
+        verify(stockMovementRepository, times(3)).compactBatch(100);
+    }
+
+    @Test
+    void compact_shouldStopAtMaxBatchesPerRun() {
+        when(stockMovementRepository.compactBatch(100)).thenReturn(100L);
+
+        stockLedgerService.compact();
+
+        verify(stockMovementRepository, times(5)).compactBatch(100);
+    }
+}
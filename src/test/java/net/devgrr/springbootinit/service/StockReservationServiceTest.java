@@ -0,0 +1,251 @@
+package net.devgrr.springbootinit.service;
+
+import net.devgrr.springbootinit.dto.StockReservationDto;
+import net.devgrr.springbootinit.dto.StockReservationRequest;
+import net.devgrr.springbootinit.entity.Category;
+import net.devgrr.springbootinit.entity.Product;
+import net.devgrr.springbootinit.entity.ProductStatus;
+import net.devgrr.springbootinit.entity.StockMovementReason;
+import net.devgrr.springbootinit.entity.StockReservation;
+import net.devgrr.springbootinit.exception.InsufficientStockException;
+import net.devgrr.springbootinit.exception.ProductNotFoundException;
+import net.devgrr.springbootinit.exception.StockReservationNotFoundException;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import net.devgrr.springbootinit.repository.StockReservationRepository;
+import net.devgrr.springbootinit.util.TimingWheel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockLedgerService stockLedgerService;
+
+    @Mock
+    private CategoryProductCounter categoryProductCounter;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private TimingWheel<UUID> timingWheel;
+
+    private StockReservationService stockReservationService;
+
+    private Product testProduct;
+    private StockReservation testReservation;
+    private StockReservationRequest testRequest;
+
+    @BeforeEach
+    void setUp() {
+        timingWheel = new TimingWheel<>(1000, 64, System.currentTimeMillis());
+        stockReservationService = new StockReservationService(stockReservationRepository, productRepository, stockLedgerService, timingWheel,
+                categoryProductCounter, cacheInvalidationBus);
+        ReflectionTestUtils.setField(stockReservationService, "defaultTtlSeconds", 900);
+        ReflectionTestUtils.setField(stockReservationService, "maxTtlSeconds", 3600);
+
+        testProduct = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .stockQuantity(10)
+                .reservedQuantity(8)
+                .build();
+
+        testReservation = StockReservation.builder()
+                .id(UUID.randomUUID())
+                .product(testProduct)
+                .quantity(2)
+                .reference("order-1")
+                .expiresAt(LocalDateTime.now().plusMinutes(15))
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        testRequest = new StockReservationRequest();
+        testRequest.setProductId(1L);
+        testRequest.setQuantity(2);
+        testRequest.setReference("order-1");
+    }
+
+    @Test
+    void createReservation_shouldHoldStockAndScheduleExpiry() {
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.reserveStock(1L, 2)).thenReturn(1);
+        when(stockReservationRepository.save(any(StockReservation.class))).thenReturn(testReservation);
+
+        StockReservationDto result = stockReservationService.createReservation(testRequest);
+
+        assertThat(result.getId()).isEqualTo(testReservation.getId());
+        assertThat(result.getProductId()).isEqualTo(1L);
+        assertThat(result.getQuantity()).isEqualTo(2);
+        assertThat(timingWheel.size()).isEqualTo(1);
+        verify(productRepository).reserveStock(1L, 2);
+    }
+
+    @Test
+    void createReservation_shouldCapTtlAtMaximum() {
+        testRequest.setTtlSeconds(100_000);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.reserveStock(1L, 2)).thenReturn(1);
+        when(stockReservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> {
+            StockReservation reservation = invocation.getArgument(0);
+            reservation.setId(UUID.randomUUID());
+            return reservation;
+        });
+
+        StockReservationDto result = stockReservationService.createReservation(testRequest);
+
+        assertThat(result.getExpiresAt()).isBefore(LocalDateTime.now().plusSeconds(3601));
+    }
+
+    @Test
+    void createReservation_shouldThrowException_whenStockInsufficient() {
+        testRequest.setQuantity(5);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.reserveStock(1L, 5)).thenReturn(0);
+
+        assertThatThrownBy(() -> stockReservationService.createReservation(testRequest))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("available: 2");
+        verify(stockReservationRepository, never()).save(any(StockReservation.class));
+    }
+
+    @Test
+    void createReservation_shouldThrowException_whenProductNotFound() {
+        testRequest.setProductId(99L);
+        when(productRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> stockReservationService.createReservation(testRequest))
+                .isInstanceOf(ProductNotFoundException.class);
+        verify(productRepository, never()).reserveStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void createReservation_shouldThrowException_whenQuantityNotPositive() {
+        testRequest.setQuantity(0);
+
+        assertThatThrownBy(() -> stockReservationService.createReservation(testRequest))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(productRepository, never()).reserveStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void confirmReservation_shouldConsumeReservedStockThroughLedger() {
+        UUID id = testReservation.getId();
+        when(stockReservationRepository.findById(id)).thenReturn(Optional.of(testReservation));
+        when(stockReservationRepository.deleteActiveById(eq(id), any(LocalDateTime.class))).thenReturn(1);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(8);
+
+        stockReservationService.confirmReservation(id);
+
+        verify(productRepository).releaseReservedStock(1L, 2);
+        verify(stockLedgerService).recordMovement(eq(testProduct), eq(-2), eq(StockMovementReason.SALE), anyString(), isNull());
+        assertThat(testProduct.getStatus()).isEqualTo(ProductStatus.ACTIVE);
+        verifyNoInteractions(categoryProductCounter, cacheInvalidationBus);
+    }
+
+    @Test
+    void confirmReservation_shouldMarkProductOutOfStockAndUncountIt_whenLastUnitsAreSold() {
+        UUID id = testReservation.getId();
+        testProduct.setCategory(Category.builder().id(5L).build());
+        when(stockReservationRepository.findById(id)).thenReturn(Optional.of(testReservation));
+        when(stockReservationRepository.deleteActiveById(eq(id), any(LocalDateTime.class))).thenReturn(1);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findEffectiveStockQuantity(1L)).thenReturn(0);
+
+        stockReservationService.confirmReservation(id);
+
+        assertThat(testProduct.getStatus()).isEqualTo(ProductStatus.OUT_OF_STOCK);
+        verify(categoryProductCounter).recordChange(5L, null);
+        verify(cacheInvalidationBus).publish(CacheEntityType.PRODUCT, 1L);
+    }
+
+    @Test
+    void confirmReservation_shouldThrowException_whenAlreadyExpired() {
+        UUID id = testReservation.getId();
+        when(stockReservationRepository.findById(id)).thenReturn(Optional.of(testReservation));
+        when(stockReservationRepository.deleteActiveById(eq(id), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThatThrownBy(() -> stockReservationService.confirmReservation(id))
+                .isInstanceOf(StockReservationNotFoundException.class);
+        verify(productRepository, never()).releaseReservedStock(anyLong(), anyInt());
+        verifyNoInteractions(stockLedgerService);
+    }
+
+    @Test
+    void releaseReservation_shouldReturnReservedStock() {
+        UUID id = testReservation.getId();
+        when(stockReservationRepository.findById(id)).thenReturn(Optional.of(testReservation));
+        when(stockReservationRepository.deleteByIdReturningCount(id)).thenReturn(1);
+
+        stockReservationService.releaseReservation(id);
+
+        verify(productRepository).releaseReservedStock(1L, 2);
+    }
+
+    @Test
+    void releaseReservation_shouldThrowException_whenReservationNotFound() {
+        UUID id = UUID.randomUUID();
+        when(stockReservationRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> stockReservationService.releaseReservation(id))
+                .isInstanceOf(StockReservationNotFoundException.class);
+    }
+
+    @Test
+    void expireDueReservations_shouldReleaseHoldsGroupedByProduct() {
+        long start = System.currentTimeMillis() - 10_000;
+        timingWheel = new TimingWheel<>(1000, 64, start);
+        stockReservationService = new StockReservationService(stockReservationRepository, productRepository, stockLedgerService, timingWheel,
+                categoryProductCounter, cacheInvalidationBus);
+
+        StockReservation other = StockReservation.builder()
+                .id(UUID.randomUUID())
+                .product(testProduct)
+                .quantity(3)
+                .expiresAt(LocalDateTime.now().minusSeconds(5))
+                .build();
+        timingWheel.schedule(testReservation.getId(), start + 2_000);
+        timingWheel.schedule(other.getId(), start + 3_000);
+        when(stockReservationRepository.findExpiredByIdIn(anyList(), any(LocalDateTime.class)))
+                .thenReturn(Arrays.asList(testReservation, other));
+
+        stockReservationService.expireDueReservations();
+
+        verify(stockReservationRepository).deleteAllInBatch(List.of(testReservation, other));
+        verify(productRepository).releaseReservedStock(1L, 5);
+        assertThat(timingWheel.size()).isZero();
+    }
+
+    @Test
+    void expireDueReservations_shouldSkipDatabase_whenNothingDue() {
+        timingWheel.schedule(testReservation.getId(), System.currentTimeMillis() + 60_000);
+
+        stockReservationService.expireDueReservations();
+
+        verifyNoInteractions(stockReservationRepository);
+        assertThat(timingWheel.size()).isEqualTo(1);
+    }
+}
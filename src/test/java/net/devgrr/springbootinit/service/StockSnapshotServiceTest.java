@@ -0,0 +1,193 @@
+package net.devgrr.springbootinit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.devgrr.springbootinit.dto.BulkStockUpdateFailure;
+import net.devgrr.springbootinit.dto.BulkStockUpdateResult;
+import net.devgrr.springbootinit.dto.StockSnapshotRow;
+import net.devgrr.springbootinit.entity.User;
+import net.devgrr.springbootinit.repository.ProductRepository;
+import net.devgrr.springbootinit.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class StockSnapshotServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryProductCounter categoryProductCounter;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    private StockSnapshotService stockSnapshotService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        stockSnapshotService = new StockSnapshotService(productRepository, userRepository, new ObjectMapper(),
+                categoryProductCounter, cacheInvalidationBus);
+        ReflectionTestUtils.setField(stockSnapshotService, "batchSize", 2);
+        ReflectionTestUtils.setField(stockSnapshotService, "maxReportedFailures", 10);
+
+        testUser = User.builder()
+                .id(7L)
+                .username("admin")
+                .build();
+
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("admin");
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(testUser));
+    }
+
+    @Test
+    void applySnapshot_shouldStageJsonRowsInBatches() {
+        String json = "[{\"id\": 1, \"quantity\": 5}, {\"sku\": \"SKU-2\", \"quantity\": 0}, {\"id\": 3, \"quantity\": 9}]";
+        List<List<StockSnapshotRow>> staged = captureStagedBatches();
+        when(productRepository.resolveStockSnapshotStage()).thenReturn(new ArrayList<>());
+        when(productRepository.applyStockSnapshot(7L, "nightly")).thenReturn(2);
+
+        BulkStockUpdateResult result = stockSnapshotService.applySnapshot(toStream(json), false, "nightly");
+
+        assertThat(staged).hasSize(2);
+        assertThat(staged.get(0)).extracting(StockSnapshotRow::getRowNumber).containsExactly(1, 2);
+        assertThat(staged.get(0).get(1).getSku()).isEqualTo("SKU-2");
+        assertThat(staged.get(0).get(1).getProductId()).isNull();
+        assertThat(staged.get(1)).extracting(StockSnapshotRow::getProductId).containsExactly(3L);
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(result.getUnchanged()).isEqualTo(1);
+        assertThat(result.getFailed()).isZero();
+        verify(productRepository).createStockSnapshotStage();
+        verify(cacheInvalidationBus).publish(CacheEntityType.PRODUCT, null);
+        verifyNoInteractions(categoryProductCounter);
+    }
+
+    @Test
+    void applySnapshot_shouldReconcileCategoryCounts_whenStatusesChange() {
+        String csv = "id,quantity\n1,0\n";
+        captureStagedBatches();
+        when(productRepository.resolveStockSnapshotStage()).thenReturn(new ArrayList<>());
+        when(productRepository.applyStockSnapshot(7L, null)).thenReturn(1);
+        when(productRepository.refreshStockSnapshotStatuses(7L)).thenReturn(1);
+
+        stockSnapshotService.applySnapshot(toStream(csv), true, null);
+
+        verify(categoryProductCounter).reconcileAfterCommit();
+        verify(cacheInvalidationBus).publish(CacheEntityType.PRODUCT, null);
+    }
+
+    @Test
+    void applySnapshot_shouldNotPublish_whenNothingChanged() {
+        String csv = "id,quantity\n1,10\n";
+        captureStagedBatches();
+        when(productRepository.resolveStockSnapshotStage()).thenReturn(new ArrayList<>());
+        when(productRepository.applyStockSnapshot(7L, null)).thenReturn(0);
+
+        BulkStockUpdateResult result = stockSnapshotService.applySnapshot(toStream(csv), true, null);
+
+        assertThat(result.getUnchanged()).isEqualTo(1);
+        verifyNoInteractions(categoryProductCounter, cacheInvalidationBus);
+    }
+
+    @Test
+    void applySnapshot_shouldReportInvalidRowsWithoutStagingThem() {
+        String csv = "sku,quantity\nSKU-1,10\nSKU-2,-1\n,4\nSKU-4,abc\n";
+        List<List<StockSnapshotRow>> staged = captureStagedBatches();
+        when(productRepository.resolveStockSnapshotStage()).thenReturn(new ArrayList<>());
+        when(productRepository.applyStockSnapshot(7L, null)).thenReturn(1);
+
+        BulkStockUpdateResult result = stockSnapshotService.applySnapshot(toStream(csv), true, null);
+
+        assertThat(staged).hasSize(1);
+        assertThat(staged.get(0)).extracting(StockSnapshotRow::getSku).containsExactly("SKU-1");
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getFailures()).extracting(BulkStockUpdateFailure::getRowNumber).containsExactly(2, 3, 4);
+    }
+
+    @Test
+    void applySnapshot_shouldReportNonObjectJsonElements_andKeepReading() {
+        String json = "[{\"id\": 1, \"quantity\": 5}, 42, [1, 2], {\"id\": 3, \"quantity\": 9}]";
+        List<List<StockSnapshotRow>> staged = captureStagedBatches();
+        when(productRepository.resolveStockSnapshotStage()).thenReturn(new ArrayList<>());
+        when(productRepository.applyStockSnapshot(7L, null)).thenReturn(2);
+
+        BulkStockUpdateResult result = stockSnapshotService.applySnapshot(toStream(json), false, null);
+
+        assertThat(staged).flatExtracting(batch -> batch).extracting(StockSnapshotRow::getRowNumber)
+                .containsExactly(1, 4);
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getFailures()).extracting(BulkStockUpdateFailure::getRowNumber, BulkStockUpdateFailure::getMessage)
+                .containsExactly(tuple(2, "Expected a JSON object"), tuple(3, "Expected a JSON object"));
+    }
+
+    @Test
+    void applySnapshot_shouldIncludeFailuresResolvedInDatabase() {
+        String csv = "id,quantity\n1,10\n999,4\n";
+        captureStagedBatches();
+        when(productRepository.resolveStockSnapshotStage()).thenReturn(new ArrayList<>(Arrays.asList(
+                new BulkStockUpdateFailure(2, "999", "Product not found"))));
+        when(productRepository.applyStockSnapshot(7L, null)).thenReturn(1);
+
+        BulkStockUpdateResult result = stockSnapshotService.applySnapshot(toStream(csv), true, null);
+
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getUnchanged()).isZero();
+        assertThat(result.getFailures().get(0).getMessage()).isEqualTo("Product not found");
+    }
+
+    @Test
+    void applySnapshot_shouldRejectCsvWithoutRequiredColumns() {
+        assertThatThrownBy(() -> stockSnapshotService.applySnapshot(toStream("name,count\nA,1\n"), true, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(productRepository, never()).applyStockSnapshot(any(), any());
+    }
+
+    private List<List<StockSnapshotRow>> captureStagedBatches() {
+        List<List<StockSnapshotRow>> staged = new ArrayList<>();
+        doAnswer(invocation -> {
+            staged.add(invocation.getArgument(0));
+            return null;
+        }).when(productRepository).stageStockSnapshotRows(anyList());
+        return staged;
+    }
+
+    private InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -10,6 +10,7 @@ import net.devgrr.springbootinit.exception.UserNotFoundException;
 import net.devgrr.springbootinit.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -29,6 +30,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
 class UserServiceTest {
 
     @Mock
@@ -37,6 +39,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @InjectMocks
     private UserService userService;
 
@@ -292,6 +297,7 @@ class UserServiceTest {
 
         verify(userRepository).existsById(1L);
         verify(userRepository).deleteById(1L);
+        verify(cacheInvalidationBus).publish(CacheEntityType.USER, 1L);
     }
 
     @Test
@@ -302,5 +308,6 @@ class UserServiceTest {
                 .isInstanceOf(UserNotFoundException.class);
         verify(userRepository).existsById(1L);
         verify(userRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(cacheInvalidationBus);
     }
 }
\ No newline at end of file
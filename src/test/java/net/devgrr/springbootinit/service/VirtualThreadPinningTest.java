@@ -0,0 +1,307 @@
+package net.devgrr.springbootinit.service;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import net.devgrr.springbootinit.dto.LoginRequest;
+import net.devgrr.springbootinit.dto.ProductCreateRequest;
+import net.devgrr.springbootinit.filter.JwtAuthenticationFilter;
+import net.devgrr.springbootinit.repository.UserRepository;
+import net.devgrr.springbootinit.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Drives {@link ProductService}, {@link AuthService} and {@link JwtAuthenticationFilter} from many
+ * virtual threads while JFR records {@code jdk.VirtualThreadPinned}, and fails on any pinned park,
+ * printing where it happened. Everything below the services is real, against a throwaway schema on a
+ * local PostgreSQL: the Hikari pool, the JDBC driver, Hibernate and its second-level cache, and the
+ * category cache and product counter with their locks, since a virtual thread only pins when it
+ * blocks while holding a monitor. Runs only when {@code QUERY_PLAN_DB_URL} is set, like
+ * {@code QueryPlanTest}.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.schemas=" + VirtualThreadPinningTest.SCHEMA,
+        "spring.flyway.default-schema=" + VirtualThreadPinningTest.SCHEMA,
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductService.class, StockLedgerService.class, CategoryHierarchyCache.class, CategoryProductCounter.class,
+        CacheInvalidationBus.class, AuthService.class, UserDetailsServiceImpl.class, JwtUtil.class})
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DB_URL", matches = ".+")
+@DisabledInNativeImage
+class VirtualThreadPinningTest {
+
+    static final String SCHEMA = "virtual_thread_check";
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REQUESTS = 400;
+
+    // Far above anything the sequences hand out during these tests
+    private static final long SEEDED_ID_BASE = 1_000_000L;
+    private static final long CATEGORY_ID = SEEDED_ID_BASE;
+    private static final long PRODUCT_ID = SEEDED_ID_BASE + 1;
+    private static final String USERNAME = "loaduser";
+    private static final String PASSWORD = "secret";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    @Autowired
+    private CategoryProductCounter categoryProductCounter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private String token;
+
+    /**
+     * The application's authentication setup without the web security configuration. A cheap BCrypt
+     * cost keeps the logins from dominating the run.
+     */
+    @TestConfiguration
+    static class AuthenticationSetup {
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+            DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+            provider.setUserDetailsService(userDetailsService);
+            return new ProviderManager(provider);
+        }
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", VirtualThreadPinningTest::schemaUrl);
+        registry.add("spring.datasource.username", () -> envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"));
+        registry.add("spring.datasource.password", () -> envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+    }
+
+    @BeforeAll
+    static void dropSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("QUERY_PLAN_DB_URL"),
+                envOrDefault("QUERY_PLAN_DB_USERNAME", "mydb"), envOrDefault("QUERY_PLAN_DB_PASSWORD", "mypassword"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role) " +
+                "VALUES (?, ?, 'load@example.com', ?, 'USER') ON CONFLICT DO NOTHING",
+                SEEDED_ID_BASE, USERNAME, passwordEncoder.encode(PASSWORD));
+        jdbcTemplate.update("INSERT INTO categories (id, name, is_active, path, created_at) " +
+                "VALUES (?, 'Root', true, '/', now()) ON CONFLICT DO NOTHING", CATEGORY_ID);
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, stock_quantity, min_stock_level, status, " +
+                "category_id, created_by, updated_by, created_at) " +
+                "VALUES (?, 'Load Product', 'LOAD-SEED', 10.00, 5, 1, 'ACTIVE', ?, ?, ?, now()) ON CONFLICT DO NOTHING",
+                PRODUCT_ID, CATEGORY_ID, SEEDED_ID_BASE, SEEDED_ID_BASE);
+        categoryHierarchyCache.invalidate();
+        categoryProductCounter.reconcile();
+
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        token = jwtUtil.generateToken(userRepository.findByUsername(USERNAME).orElseThrow());
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void requestPaths_shouldNotPinCarrierThreads() throws Exception {
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent(PINNED_EVENT, pinned::add);
+            recording.startAsync();
+
+            runOnVirtualThreads(REQUESTS, Integer.MAX_VALUE, this::request);
+
+            recording.stop();
+        }
+
+        pinned.forEach(event -> System.out.println("Pinned for " + event.getDuration().toMillis() + " ms at\n"
+                + describe(event)));
+        assertThat(pinned).as("pinned virtual thread parks").isEmpty();
+    }
+
+    /**
+     * Prints requests per second for the same request mix on a 200-thread platform pool, as Tomcat
+     * runs today, and on virtual threads at two concurrency limits, all sharing the default pool of
+     * ten connections. Each request also waits 10 ms off the database. Set
+     * {@code VIRTUAL_THREAD_BENCHMARK} to run it; no results from it are recorded in the repository.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "VIRTUAL_THREAD_BENCHMARK", matches = ".+")
+    void benchmark_platformVersusVirtualThreads() throws Exception {
+        Callable<Void> request = () -> {
+            request();
+            Thread.sleep(10);
+            return null;
+        };
+        int requests = 10_000;
+
+        runOnVirtualThreads(500, 200, request);
+        try (ExecutorService platform = Executors.newFixedThreadPool(200)) {
+            System.out.printf("platform, 200 workers: %.0f req/s%n", throughput(platform, requests, request));
+        }
+        System.out.printf("virtual, limit 200: %.0f req/s%n", runOnVirtualThreads(requests, 200, request));
+        System.out.printf("virtual, limit 1000: %.0f req/s%n", runOnVirtualThreads(requests, 1000, request));
+    }
+
+    private Void request() throws Exception {
+        long n = Thread.currentThread().threadId();
+
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest("GET", "/api/products/" + PRODUCT_ID);
+        httpRequest.addHeader("Authorization", "Bearer " + token);
+        jwtAuthenticationFilter.doFilter(httpRequest, new MockHttpServletResponse(), new MockFilterChain());
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+
+        productService.getProductById(PRODUCT_ID);
+        productService.getProductsByCategory(CATEGORY_ID, true);
+        productService.createProduct(createRequest(n));
+        categoryProductCounter.getTotalCount(CATEGORY_ID);
+
+        LoginRequest login = new LoginRequest();
+        login.setUsername(USERNAME);
+        login.setPassword(PASSWORD);
+        authService.login(login);
+
+        // Writers invalidating the shared caches while others read them
+        if (n % 20 == 0) {
+            categoryHierarchyCache.invalidate();
+            categoryProductCounter.reconcile();
+        }
+        SecurityContextHolder.clearContext();
+        return null;
+    }
+
+    private double runOnVirtualThreads(int requests, int limit, Callable<Void> request) throws Exception {
+        Semaphore permits = new Semaphore(limit);
+        Callable<Void> limited = () -> {
+            permits.acquire();
+            try {
+                return request.call();
+            } finally {
+                permits.release();
+            }
+        };
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return throughput(executor, requests, limited);
+        }
+    }
+
+    private static double throughput(ExecutorService executor, int requests, Callable<Void> request) throws Exception {
+        long started = System.nanoTime();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(request));
+        }
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        return requests / ((System.nanoTime() - started) / 1e9);
+    }
+
+    private static final AtomicLong SKUS = new AtomicLong();
+
+    private static ProductCreateRequest createRequest(long n) {
+        ProductCreateRequest request = new ProductCreateRequest();
+        request.setName("Load " + n);
+        request.setSku("LOAD-" + SKUS.incrementAndGet());
+        request.setPrice(new BigDecimal("10.00"));
+        request.setStockQuantity(0);
+        request.setCategoryId(CATEGORY_ID);
+        return request;
+    }
+
+    private static String schemaUrl() {
+        String url = System.getenv("QUERY_PLAN_DB_URL");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    private static String describe(RecordedEvent event) {
+        StringBuilder trace = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                trace.append("    ").append(frame.getMethod().getType().getName()).append('.')
+                        .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber()).append('\n');
+            }
+        }
+        return trace.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package net.devgrr.springbootinit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CsvUtilsTest {
+
+    @Test
+    void readRecord_shouldKeepLineBreaksAndWhitespaceInsideQuotes() throws IOException {
+        StringReader reader = new StringReader("A, \"line one\nline two \" ,\" padded \"\r\n  B  ,\"say \"\"hi\"\"\"\r\n");
+
+        assertThat(CsvUtils.readRecord(reader)).containsExactly("A", "line one\nline two ", " padded ");
+        assertThat(CsvUtils.readRecord(reader)).containsExactly("B", "say \"hi\"");
+        assertThat(CsvUtils.readRecord(reader)).isNull();
+    }
+
+    @Test
+    void readRecord_shouldSkipBlankLines_andKeepEmptyFields() throws IOException {
+        StringReader reader = new StringReader("\n   \nA,,\"\"\n\nB");
+
+        assertThat(CsvUtils.readRecord(reader)).containsExactly("A", "", "");
+        assertThat(CsvUtils.readRecord(reader)).containsExactly("B");
+        assertThat(CsvUtils.readRecord(reader)).isNull();
+    }
+
+    @Test
+    void formatLine_shouldRoundTripThroughReadRecord() throws IOException {
+        List<String> fields = Arrays.asList("plain", " leading", "trailing ", "multi\r\nline", "comma, \"quote\"", "");
+
+        String line = CsvUtils.formatLine(fields) + "\r\n";
+
+        assertThat(CsvUtils.readRecord(new StringReader(line))).containsExactlyElementsOf(fields);
+    }
+}
@@ -0,0 +1,31 @@
+package net.devgrr.springbootinit.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HttpHeaderUtilsTest {
+
+    @ParameterizedTest(name = "[{0}] -> {1}")
+    @CsvSource(delimiter = '|', nullValues = "NULL", value = {
+            "NULL                     | false",
+            "''                       | false",
+            "gzip                     | true",
+            "gzip, deflate, br        | true",
+            "GZIP;Q=0.5               | true",
+            "deflate, gzip;q=0        | false",
+            "gzip;q=0.000             | false",
+            "br;q=1.0, gzip ; q=0.8   | true",
+            "deflate                  | false",
+            "*                        | true",
+            "*;q=0                    | false",
+            "*, gzip;q=0              | false",
+            "*;q=0, gzip              | true",
+            "gzip;q=abc               | false",
+            "gzip;level=9             | true"
+    })
+    void acceptsEncoding_shouldHonourQualityValues(String header, boolean expected) {
+        assertThat(HttpHeaderUtils.acceptsEncoding(header, "gzip")).isEqualTo(expected);
+    }
+}